@@ -77,6 +77,9 @@ public final class ByteArrayTag extends Tag<byte[]> {
 
     @Override
     public boolean equals(Object other) {
+        if (other == this) {
+            return true;
+        }
         if (!(other instanceof ByteArrayTag)) {
             return false;
         }
@@ -85,6 +88,11 @@ public final class ByteArrayTag extends Tag<byte[]> {
         return Arrays.equals(value, tag.value) && getName().equals(tag.getName());
     }
 
+    @Override
+    public int hashCode() {
+        return 31 * getName().hashCode() + Arrays.hashCode(value);
+    }
+
     private byte[] cloneArray(byte[] byteArray) {
         if (byteArray == null) {
             return null;
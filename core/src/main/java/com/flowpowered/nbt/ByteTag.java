@@ -27,6 +27,20 @@ package com.flowpowered.nbt;
  * The {@code TAG_Byte} tag.
  */
 public final class ByteTag extends Tag<Byte> {
+    /**
+     * The shared tags, for every byte value.
+     */
+    private static final TagCache<ByteTag> CACHE = new TagCache<ByteTag>(new ByteTag[256], new ByteTag[1024]) {
+        @Override
+        protected ByteTag create(String name, int index) {
+            return new ByteTag(name, (byte) (index + Byte.MIN_VALUE));
+        }
+
+        @Override
+        protected int index(ByteTag tag) {
+            return tag.value - Byte.MIN_VALUE;
+        }
+    };
     /**
      * The value.
      */
@@ -53,11 +67,52 @@ public final class ByteTag extends Tag<Byte> {
         this.value = value;
     }
 
+    /**
+     * Gets an unnamed tag with the given value, reusing a shared instance.
+     *
+     * @param value The value.
+     * @return The tag.
+     */
+    public static ByteTag valueOf(byte value) {
+        return CACHE.get("", value - Byte.MIN_VALUE);
+    }
+
+    /**
+     * Gets a tag with the given name and value, reusing a shared instance when possible.<br> Boolean true is stored as 1 and boolean false is stored as 0.
+     *
+     * @param name The name.
+     * @param value The value.
+     * @return The tag.
+     */
+    public static ByteTag valueOf(String name, boolean value) {
+        return valueOf(name, (byte) (value ? 1 : 0));
+    }
+
+    /**
+     * Gets a tag with the given name and value, reusing a shared instance when possible. Tags are immutable, so the same instance can safely be used in many places.
+     *
+     * @param name The name.
+     * @param value The value.
+     * @return The tag.
+     */
+    public static ByteTag valueOf(String name, byte value) {
+        return CACHE.get(name, value - Byte.MIN_VALUE);
+    }
+
     @Override
     public Byte getValue() {
         return value;
     }
 
+    /**
+     * Gets the value without boxing it.
+     *
+     * @return The value.
+     */
+    public byte getByteValue() {
+        return value;
+    }
+
     public boolean getBooleanValue() {
         return value != 0;
     }
@@ -23,20 +23,20 @@
  */
 package com.flowpowered.nbt;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.TreeMap;
 
 public class CompoundMap implements Map<String, Tag<?>>, Iterable<Tag<?>> {
     private final Map<String, Tag<?>> map;
     private final boolean sort;
     private final boolean reverse;
+    private final boolean concurrent;
 
     /**
      * Creates an empty CompoundMap backed by a HashMap.
@@ -80,7 +80,7 @@ public class CompoundMap implements Map<String, Tag<?>>, Iterable<Tag<?>> {
      * @param initial the initial values for the CompoundMap
      */
     public CompoundMap(CompoundMap initial) {
-        this(initial.values(), initial.sort, initial.reverse);
+        this(initial.values(), initial.sort, initial.reverse, initial.concurrent);
     }
 
     /**
@@ -101,28 +101,67 @@ public class CompoundMap implements Map<String, Tag<?>>, Iterable<Tag<?>> {
      * @param reverse elements are ordered in reverse alphabetical ordering, when sort is true
      */
     public CompoundMap(Iterable<Tag<?>> initial, boolean sort, boolean reverse) {
+        this(initial, sort, reverse, false);
+    }
+
+    /**
+     * Creates a CompoundMap which is initialised using the given values<br> <br> A concurrent CompoundMap can be read and modified by several threads at once without external locking: reads never
+     * lock, writers do not block each other and iteration is weakly consistent. It does not permit null values. {@link #snapshot()} gives a consistent copy of its contents, which is what {@link
+     * com.flowpowered.nbt.stream.NBTOutputStream} writes.
+     *
+     * @param initial the initial values
+     * @param sort elements are ordered in alphabetical ordering
+     * @param reverse elements are ordered in reverse alphabetical ordering, when sort is true
+     * @param concurrent whether the map can safely be used by several threads at once
+     */
+    public CompoundMap(Iterable<Tag<?>> initial, boolean sort, boolean reverse, boolean concurrent) {
         if (reverse) {
             this.sort = true;
         } else {
             this.sort = sort;
         }
         this.reverse = reverse;
-        if (!sort) {
+        this.concurrent = concurrent;
+        if (concurrent) {
+            this.map = new ConcurrentTagMap(this.sort, reverse);
+        } else if (!sort) {
             this.map = new LinkedHashMap<String, Tag<?>>();
         } else {
-            if (reverse) {
-                this.map = new TreeMap<String, Tag<?>>(Collections.reverseOrder());
-            } else {
-                this.map = new TreeMap<String, Tag<?>>();
-            }
+            this.map = new SortedTagMap(reverse);
         }
         if (initial != null) {
-            for (Tag t : initial) {
-                put(t);
+            if (map instanceof SortedTagMap) {
+                // Sort everything once instead of inserting one tag at a time
+                ((SortedTagMap) map).load(initial);
+            } else {
+                for (Tag t : initial) {
+                    put(t);
+                }
             }
         }
     }
 
+    /**
+     * Gets whether this map can safely be used by several threads at once.
+     *
+     * @return whether the map is concurrent
+     */
+    public boolean isConcurrent() {
+        return concurrent;
+    }
+
+    /**
+     * Copies the tags in this map, in iteration order. For concurrent maps, the copy reflects the state of the map at a single point in time, even while other threads keep modifying it.
+     *
+     * @return a copy of the tags
+     */
+    public List<Tag<?>> snapshot() {
+        if (map instanceof ConcurrentTagMap) {
+            return ((ConcurrentTagMap) map).snapshot();
+        }
+        return new ArrayList<Tag<?>>(map.values());
+    }
+
     /**
      * Puts a tag in this map, getting the string from the tag
      *
@@ -200,6 +239,9 @@ public class CompoundMap implements Map<String, Tag<?>>, Iterable<Tag<?>> {
 
     @Override
     public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        }
         if (o instanceof CompoundMap) {
             CompoundMap other = (CompoundMap) o;
             Iterator<Tag<?>> iThis = iterator();
@@ -219,4 +261,19 @@ public class CompoundMap implements Map<String, Tag<?>>, Iterable<Tag<?>> {
             return false;
         }
     }
+
+    /**
+     * Gets a hash of the tags in this map. Like {@link #equals(Object)}, the hash depends on the iteration order of the tags. It is computed from the tags every time, so a map must not be
+     * modified while it is used as a key in a hash based collection.
+     *
+     * @return The hash code.
+     */
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (Tag<?> tag : this) {
+            hash = 31 * hash + tag.hashCode();
+        }
+        return hash;
+    }
 }
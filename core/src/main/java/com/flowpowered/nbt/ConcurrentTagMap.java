@@ -0,0 +1,472 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The map backing concurrent {@link CompoundMap CompoundMaps}. Entries are found through a {@link ConcurrentHashMap} and ordered through a {@link ConcurrentSkipListMap}, either by insertion or by
+ * name. Reads never lock, writers update values with compare-and-set and do not block each other, and iteration is weakly consistent.<br> <br> {@link #snapshot()} briefly excludes writers to copy
+ * a consistent view of the values, which is what gets serialized. Null values are not permitted.
+ */
+class ConcurrentTagMap extends AbstractMap<String, Tag<?>> implements ConcurrentMap<String, Tag<?>> {
+    /**
+     * Marks the value of a node that has been removed from the map.
+     */
+    private static final Tag<?> REMOVED = new EndTag();
+    private static final Comparator<Object> BY_SEQUENCE = new Comparator<Object>() {
+        @Override
+        public int compare(Object o1, Object o2) {
+            long a = (Long) o1;
+            long b = (Long) o2;
+            return a < b ? -1 : (a == b ? 0 : 1);
+        }
+    };
+    @SuppressWarnings ("rawtypes")
+    private static final AtomicReferenceFieldUpdater<Node, Tag> VALUE_UPDATER = AtomicReferenceFieldUpdater.newUpdater(Node.class, Tag.class, "value");
+    private final ConcurrentHashMap<String, Node> index = new ConcurrentHashMap<String, Node>();
+    private final ConcurrentSkipListMap<Object, Node> order;
+    private final AtomicLong sequence = new AtomicLong();
+    private final boolean sorted;
+    /**
+     * Shared by writers, held exclusively while a snapshot is taken.
+     */
+    private final ReadWriteLock snapshotLock = new ReentrantReadWriteLock();
+    private final EntrySet entrySet = new EntrySet();
+
+    /**
+     * Creates an empty map.
+     *
+     * @param sort whether entries are ordered by name instead of by insertion
+     * @param reverse whether names are ordered in reverse, when sort is true
+     */
+    @SuppressWarnings ("unchecked")
+    ConcurrentTagMap(boolean sort, boolean reverse) {
+        this.sorted = sort;
+        if (!sort) {
+            this.order = new ConcurrentSkipListMap<Object, Node>(BY_SEQUENCE);
+        } else if (reverse) {
+            this.order = new ConcurrentSkipListMap<Object, Node>((Comparator) Collections.reverseOrder());
+        } else {
+            this.order = new ConcurrentSkipListMap<Object, Node>();
+        }
+    }
+
+    /**
+     * Copies the current values, in order, while no writer is modifying the map.
+     *
+     * @return The values.
+     */
+    List<Tag<?>> snapshot() {
+        Lock lock = snapshotLock.writeLock();
+        lock.lock();
+        try {
+            List<Tag<?>> values = new ArrayList<Tag<?>>(index.size());
+            for (Node node : order.values()) {
+                Tag<?> value = node.value;
+                if (value != REMOVED) {
+                    values.add(value);
+                }
+            }
+            return values;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Tag<?> get(Object key) {
+        Node node = index.get(key);
+        if (node == null) {
+            return null;
+        }
+        Tag<?> value = node.value;
+        return value == REMOVED ? null : value;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public int size() {
+        return index.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return index.isEmpty();
+    }
+
+    @Override
+    public Tag<?> put(String key, Tag<?> value) {
+        return put(key, value, false);
+    }
+
+    @Override
+    public Tag<?> putIfAbsent(String key, Tag<?> value) {
+        return put(key, value, true);
+    }
+
+    @Override
+    public Tag<?> remove(Object key) {
+        Lock lock = snapshotLock.readLock();
+        lock.lock();
+        try {
+            Node node = index.get(key);
+            while (node != null) {
+                Tag<?> value = node.value;
+                if (value == REMOVED) {
+                    // Help the remove that marked the node, then look for a newer one
+                    unlink(node);
+                    node = index.get(key);
+                } else if (node.casValue(value, REMOVED)) {
+                    unlink(node);
+                    return value;
+                }
+                // Otherwise a concurrent write changed the value, read it again
+            }
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        if (value == null) {
+            return false;
+        }
+        Lock lock = snapshotLock.readLock();
+        lock.lock();
+        try {
+            Node node = index.get(key);
+            while (node != null) {
+                Tag<?> current = node.value;
+                if (current == REMOVED || !current.equals(value)) {
+                    return false;
+                }
+                if (node.casValue(current, REMOVED)) {
+                    unlink(node);
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Tag<?> replace(String key, Tag<?> value) {
+        checkValue(value);
+        Lock lock = snapshotLock.readLock();
+        lock.lock();
+        try {
+            Node node = index.get(key);
+            if (node == null) {
+                return null;
+            }
+            return node.replace(value);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean replace(String key, Tag<?> oldValue, Tag<?> newValue) {
+        checkValue(newValue);
+        Lock lock = snapshotLock.readLock();
+        lock.lock();
+        try {
+            Node node = index.get(key);
+            while (node != null) {
+                Tag<?> current = node.value;
+                if (current == REMOVED || !current.equals(oldValue)) {
+                    return false;
+                }
+                if (node.casValue(current, newValue)) {
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        for (Node node : order.values()) {
+            removeNode(node);
+        }
+    }
+
+    @Override
+    public Set<Map.Entry<String, Tag<?>>> entrySet() {
+        return entrySet;
+    }
+
+    private Tag<?> put(String key, Tag<?> value, boolean onlyIfAbsent) {
+        checkValue(value);
+        Lock lock = snapshotLock.readLock();
+        lock.lock();
+        try {
+            while (true) {
+                Node node = index.get(key);
+                if (node == null) {
+                    node = new Node(key, sequence.incrementAndGet(), value);
+                    if (index.putIfAbsent(key, node) == null) {
+                        link(node);
+                        return null;
+                    }
+                } else if (onlyIfAbsent) {
+                    Tag<?> current = node.value;
+                    if (current != REMOVED) {
+                        return current;
+                    }
+                    unlink(node);
+                } else {
+                    Tag<?> previous = node.replace(value);
+                    if (previous != null) {
+                        return previous;
+                    }
+                    unlink(node);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes a node, whatever its current value is.
+     *
+     * @param node The node.
+     */
+    private void removeNode(Node node) {
+        Lock lock = snapshotLock.readLock();
+        lock.lock();
+        try {
+            while (true) {
+                Tag<?> value = node.value;
+                if (value == REMOVED) {
+                    return;
+                }
+                if (node.casValue(value, REMOVED)) {
+                    unlink(node);
+                    return;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds a node that was just put in the index to the order. A remove can run in between, and a node removed from the index can be replaced by a new one for the same name, so a stale node must
+     * neither stay in the order nor overwrite the live one.
+     *
+     * @param node The node.
+     */
+    private void link(Node node) {
+        Object orderKey = sorted ? node.key : node.sequence;
+        while (true) {
+            Node existing = order.putIfAbsent(orderKey, node);
+            if (existing == null) {
+                break;
+            }
+            if (existing.value != REMOVED) {
+                // Only the node in the index can be live, so this one was removed and replaced meanwhile
+                return;
+            }
+            order.remove(orderKey, existing);
+        }
+        // A remove that ran before the node was ordered could not unlink it from the order
+        if (node.value == REMOVED) {
+            order.remove(orderKey, node);
+        }
+    }
+
+    /**
+     * Removes a node whose value has been marked as removed from both indexes.
+     *
+     * @param node The node.
+     */
+    private void unlink(Node node) {
+        index.remove(node.key, node);
+        order.remove(sorted ? node.key : node.sequence, node);
+    }
+
+    private static void checkValue(Tag<?> value) {
+        if (value == null) {
+            throw new NullPointerException("Concurrent CompoundMaps do not permit null values");
+        }
+    }
+
+    /**
+     * A single mapping. Nodes are compared by identity, so that they can be removed from the indexes conditionally.
+     */
+    private static final class Node {
+        private final String key;
+        private final long sequence;
+        /**
+         * Not private, so that {@link #VALUE_UPDATER} can access it.
+         */
+        volatile Tag<?> value;
+
+        private Node(String key, long sequence, Tag<?> value) {
+            this.key = key;
+            this.sequence = sequence;
+            this.value = value;
+        }
+
+        private boolean casValue(Tag<?> expected, Tag<?> update) {
+            return VALUE_UPDATER.compareAndSet(this, expected, update);
+        }
+
+        /**
+         * Replaces the value of this node unless it has been removed.
+         *
+         * @param update The new value.
+         * @return The previous value, or null if the node has been removed.
+         */
+        private Tag<?> replace(Tag<?> update) {
+            while (true) {
+                Tag<?> current = value;
+                if (current == REMOVED) {
+                    return null;
+                }
+                if (casValue(current, update)) {
+                    return current;
+                }
+            }
+        }
+    }
+
+    /**
+     * An entry returned by the iterator, holding the value seen when it was returned. Setting the value writes through to the map.
+     */
+    private final class WriteThroughEntry extends AbstractMap.SimpleEntry<String, Tag<?>> {
+        private static final long serialVersionUID = 1L;
+        private final transient Node node;
+
+        private WriteThroughEntry(Node node, Tag<?> value) {
+            super(node.key, value);
+            this.node = node;
+        }
+
+        @Override
+        public Tag<?> setValue(Tag<?> update) {
+            checkValue(update);
+            Lock lock = snapshotLock.readLock();
+            lock.lock();
+            try {
+                if (node.replace(update) == null) {
+                    throw new IllegalStateException("Entry was removed from the map");
+                }
+            } finally {
+                lock.unlock();
+            }
+            return super.setValue(update);
+        }
+    }
+
+    private final class EntrySet extends AbstractSet<Map.Entry<String, Tag<?>>> {
+        @Override
+        public Iterator<Map.Entry<String, Tag<?>>> iterator() {
+            return new EntryIterator();
+        }
+
+        @Override
+        public int size() {
+            return ConcurrentTagMap.this.size();
+        }
+
+        @Override
+        public void clear() {
+            ConcurrentTagMap.this.clear();
+        }
+    }
+
+    /**
+     * Weakly consistent iterator over the live nodes, in order.
+     */
+    private final class EntryIterator implements Iterator<Map.Entry<String, Tag<?>>> {
+        private final Iterator<Node> nodes = order.values().iterator();
+        private Node next;
+        private Tag<?> nextValue;
+        private Node last;
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && nodes.hasNext()) {
+                Node node = nodes.next();
+                Tag<?> value = node.value;
+                if (value != REMOVED) {
+                    next = node;
+                    nextValue = value;
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public Map.Entry<String, Tag<?>> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            last = next;
+            next = null;
+            return new WriteThroughEntry(last, nextValue);
+        }
+
+        @Override
+        public void remove() {
+            if (last == null) {
+                throw new IllegalStateException();
+            }
+            removeNode(last);
+            last = null;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt;
+
+/**
+ * The {@code TAG_Float} tag.
+ */
+public final class FloatTag extends Tag<Float> {
+    /**
+     * The shared tags, for every value between {@link TagCache#LOW} and {@link TagCache#HIGH}.
+     */
+    private static final TagCache<FloatTag> CACHE = new TagCache<FloatTag>(new FloatTag[TagCache.HIGH - TagCache.LOW + 1], new FloatTag[1024]) {
+        @Override
+        protected FloatTag create(String name, int index) {
+            return new FloatTag(name, (float) (index + TagCache.LOW));
+        }
+
+        @Override
+        protected int index(FloatTag tag) {
+            return (int) tag.value - TagCache.LOW;
+        }
+    };
+    /**
+     * The value.
+     */
+    private final float value;
+
+    /**
+     * Creates the tag.
+     *
+     * @param name The name.
+     * @param value The value.
+     */
+    public FloatTag(String name, float value) {
+        super(TagType.TAG_FLOAT, name);
+        this.value = value;
+    }
+
+    /**
+     * Gets an unnamed tag with the given value, reusing a shared instance when possible.
+     *
+     * @param value The value.
+     * @return The tag.
+     */
+    public static FloatTag valueOf(float value) {
+        return valueOf("", value);
+    }
+
+    /**
+     * Gets a tag with the given name and value, reusing a shared instance when possible. Only values which are whole numbers between -128 and 1023 are shared.
+     *
+     * @param name The name.
+     * @param value The value.
+     * @return The tag.
+     */
+    public static FloatTag valueOf(String name, float value) {
+        int index = (int) value - TagCache.LOW;
+        if (index < 0 || index > TagCache.HIGH - TagCache.LOW || Float.floatToRawIntBits(value) != Float.floatToRawIntBits((float) (index + TagCache.LOW))) {
+            return new FloatTag(name, value);
+        }
+        return CACHE.get(name, index);
+    }
+
+    @Override
+    public Float getValue() {
+        return value;
+    }
+
+    /**
+     * Gets the value without boxing it.
+     *
+     * @return The value.
+     */
+    public float getFloatValue() {
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        String name = getName();
+        String append = "";
+        if (name != null && !name.equals("")) {
+            append = "(\"" + this.getName() + "\")";
+        }
+        return "TAG_Float" + append + ": " + value;
+    }
+
+    public FloatTag clone() {
+        return new FloatTag(getName(), value);
+    }
+}
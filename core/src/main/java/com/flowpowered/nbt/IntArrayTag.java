@@ -74,6 +74,9 @@ public class IntArrayTag extends Tag<int[]> {
 
     @Override
     public boolean equals(Object other) {
+        if (other == this) {
+            return true;
+        }
         if (!(other instanceof IntArrayTag)) {
             return false;
         }
@@ -82,6 +85,11 @@ public class IntArrayTag extends Tag<int[]> {
         return Arrays.equals(value, tag.value) && getName().equals(tag.getName());
     }
 
+    @Override
+    public int hashCode() {
+        return 31 * getName().hashCode() + Arrays.hashCode(value);
+    }
+
     private int[] cloneArray(int[] intArray) {
         if (intArray == null) {
             return null;
@@ -0,0 +1,111 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt;
+
+/**
+ * The {@code TAG_Int} tag.
+ */
+public final class IntTag extends Tag<Integer> {
+    /**
+     * The shared tags, for every value between {@link TagCache#LOW} and {@link TagCache#HIGH}.
+     */
+    private static final TagCache<IntTag> CACHE = new TagCache<IntTag>(new IntTag[TagCache.HIGH - TagCache.LOW + 1], new IntTag[1024]) {
+        @Override
+        protected IntTag create(String name, int index) {
+            return new IntTag(name, index + TagCache.LOW);
+        }
+
+        @Override
+        protected int index(IntTag tag) {
+            return tag.value - TagCache.LOW;
+        }
+    };
+    /**
+     * The value.
+     */
+    private final int value;
+
+    /**
+     * Creates the tag.
+     *
+     * @param name The name.
+     * @param value The value.
+     */
+    public IntTag(String name, int value) {
+        super(TagType.TAG_INT, name);
+        this.value = value;
+    }
+
+    /**
+     * Gets an unnamed tag with the given value, reusing a shared instance when possible.
+     *
+     * @param value The value.
+     * @return The tag.
+     */
+    public static IntTag valueOf(int value) {
+        return valueOf("", value);
+    }
+
+    /**
+     * Gets a tag with the given name and value, reusing a shared instance when possible. Only values between -128 and 1023 are shared.
+     *
+     * @param name The name.
+     * @param value The value.
+     * @return The tag.
+     */
+    public static IntTag valueOf(String name, int value) {
+        if (value < TagCache.LOW || value > TagCache.HIGH) {
+            return new IntTag(name, value);
+        }
+        return CACHE.get(name, value - TagCache.LOW);
+    }
+
+    @Override
+    public Integer getValue() {
+        return value;
+    }
+
+    /**
+     * Gets the value without boxing it.
+     *
+     * @return The value.
+     */
+    public int getIntValue() {
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        String name = getName();
+        String append = "";
+        if (name != null && !name.equals("")) {
+            append = "(\"" + this.getName() + "\")";
+        }
+        return "TAG_Int" + append + ": " + value;
+    }
+
+    public IntTag clone() {
+        return new IntTag(getName(), value);
+    }
+}
@@ -84,6 +84,23 @@ public class ListTag<T extends Tag<?>> extends Tag<List<T>> {
         return bldr.toString();
     }
 
+    @Override
+    public boolean equals(Object other) {
+        if (other == this) {
+            return true;
+        }
+        if (!(other instanceof ListTag)) {
+            return false;
+        }
+        ListTag<?> tag = (ListTag<?>) other;
+        return type.equals(tag.type) && super.equals(other);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + type.getName().hashCode();
+    }
+
     @SuppressWarnings ("unchecked")
     public ListTag<T> clone() {
         List<T> newList = new ArrayList<T>();
@@ -23,14 +23,16 @@
  */
 package com.flowpowered.nbt;
 
+import java.util.Arrays;
+
 /**
- * The {@code TAG_Double} tag.
+ * The {@code TAG_Long_Array} tag.
  */
-public final class DoubleTag extends Tag<Double> {
+public class LongArrayTag extends Tag<long[]> {
     /**
      * The value.
      */
-    private final double value;
+    private final long[] value;
 
     /**
      * Creates the tag.
@@ -38,27 +40,54 @@ public final class DoubleTag extends Tag<Double> {
      * @param name The name.
      * @param value The value.
      */
-    public DoubleTag(String name, double value) {
-        super(TagType.TAG_DOUBLE, name);
+    public LongArrayTag(String name, long[] value) {
+        super(TagType.TAG_LONG_ARRAY, name);
         this.value = value;
     }
 
     @Override
-    public Double getValue() {
+    public long[] getValue() {
         return value;
     }
 
     @Override
     public String toString() {
+        StringBuilder hex = new StringBuilder();
+        for (long l : value) {
+            String hexDigits = Long.toHexString(l).toUpperCase();
+            if (hexDigits.length() == 1) {
+                hex.append("0");
+            }
+            hex.append(hexDigits).append(" ");
+        }
+
         String name = getName();
         String append = "";
         if (name != null && !name.equals("")) {
             append = "(\"" + this.getName() + "\")";
         }
-        return "TAG_Double" + append + ": " + value;
+        return "TAG_Long_Array" + append + ": " + hex.toString();
+    }
+
+    public LongArrayTag clone() {
+        return new LongArrayTag(getName(), value == null ? null : value.clone());
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (other == this) {
+            return true;
+        }
+        if (!(other instanceof LongArrayTag)) {
+            return false;
+        }
+
+        LongArrayTag tag = (LongArrayTag) other;
+        return Arrays.equals(value, tag.value) && getName().equals(tag.getName());
     }
 
-    public DoubleTag clone() {
-        return new DoubleTag(getName(), value);
+    @Override
+    public int hashCode() {
+        return 31 * getName().hashCode() + Arrays.hashCode(value);
     }
 }
@@ -74,6 +74,9 @@ public class ShortArrayTag extends Tag<short[]> {
 
     @Override
     public boolean equals(Object other) {
+        if (other == this) {
+            return true;
+        }
         if (!(other instanceof ShortArrayTag)) {
             return false;
         }
@@ -82,6 +85,11 @@ public class ShortArrayTag extends Tag<short[]> {
         return Arrays.equals(value, tag.value) && getName().equals(tag.getName());
     }
 
+    @Override
+    public int hashCode() {
+        return 31 * getName().hashCode() + Arrays.hashCode(value);
+    }
+
     private short[] cloneArray(short[] shortArray) {
         if (shortArray == null) {
             return null;
@@ -0,0 +1,322 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * The map backing sorted {@link CompoundMap CompoundMaps}. Names and tags are kept in two parallel arrays ordered by name, and looked up with a binary search. Compared to a {@link java.util.TreeMap}
+ * this needs no node per entry and iterates over contiguous memory.<br> <br> Inserting in the middle shifts the following entries, so {@link #load(Iterable)} should be used to fill the map with many
+ * tags at once: it sorts them a single time. Puts in ascending order only append.
+ */
+class SortedTagMap extends AbstractMap<String, Tag<?>> {
+    private static final int DEFAULT_CAPACITY = 8;
+    private final Comparator<String> comparator;
+    private String[] keys;
+    private Tag<?>[] values;
+    private int size;
+    private int modCount;
+    private Set<Map.Entry<String, Tag<?>>> entrySet;
+    private Collection<Tag<?>> valueCollection;
+
+    /**
+     * Creates an empty map.
+     *
+     * @param reverse whether names are ordered in reverse alphabetical ordering
+     */
+    SortedTagMap(boolean reverse) {
+        this.comparator = reverse ? Collections.<String>reverseOrder() : null;
+        this.keys = new String[DEFAULT_CAPACITY];
+        this.values = new Tag<?>[DEFAULT_CAPACITY];
+    }
+
+    /**
+     * Adds many tags at once, sorting them a single time. When several tags have the same name, the last one is kept, as if they had been put one after the other.
+     *
+     * @param tags The tags to add.
+     */
+    void load(Iterable<? extends Tag<?>> tags) {
+        List<Tag<?>> sorted = new ArrayList<Tag<?>>();
+        for (int i = 0; i < size; i++) {
+            sorted.add(values[i]);
+        }
+        for (Tag<?> tag : tags) {
+            sorted.add(tag);
+        }
+        // Stable, so the last of several tags with the same name stays last
+        Collections.sort(sorted, new Comparator<Tag<?>>() {
+            @Override
+            public int compare(Tag<?> o1, Tag<?> o2) {
+                return compareKeys(o1.getName(), o2.getName());
+            }
+        });
+
+        int count = sorted.size();
+        String[] newKeys = new String[Math.max(DEFAULT_CAPACITY, count)];
+        Tag<?>[] newValues = new Tag<?>[newKeys.length];
+        int newSize = 0;
+        for (int i = 0; i < count; i++) {
+            Tag<?> tag = sorted.get(i);
+            if (newSize > 0 && newKeys[newSize - 1].equals(tag.getName())) {
+                newValues[newSize - 1] = tag;
+            } else {
+                newKeys[newSize] = tag.getName();
+                newValues[newSize] = tag;
+                newSize++;
+            }
+        }
+        keys = newKeys;
+        values = newValues;
+        size = newSize;
+        modCount++;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof String && search((String) key) >= 0;
+    }
+
+    @Override
+    public Tag<?> get(Object key) {
+        if (!(key instanceof String)) {
+            return null;
+        }
+        int index = search((String) key);
+        return index >= 0 ? values[index] : null;
+    }
+
+    @Override
+    public Tag<?> put(String key, Tag<?> value) {
+        int index;
+        if (size == 0 || compareKeys(keys[size - 1], key) < 0) {
+            index = -(size + 1);
+        } else {
+            index = search(key);
+        }
+        if (index >= 0) {
+            Tag<?> previous = values[index];
+            values[index] = value;
+            return previous;
+        }
+        insert(-(index + 1), key, value);
+        return null;
+    }
+
+    @Override
+    public Tag<?> remove(Object key) {
+        if (!(key instanceof String)) {
+            return null;
+        }
+        int index = search((String) key);
+        if (index < 0) {
+            return null;
+        }
+        Tag<?> previous = values[index];
+        removeAt(index);
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(keys, 0, size, null);
+        Arrays.fill(values, 0, size, null);
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public Set<Map.Entry<String, Tag<?>>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<Map.Entry<String, Tag<?>>>() {
+                @Override
+                public Iterator<Map.Entry<String, Tag<?>>> iterator() {
+                    return new ArrayIterator<Map.Entry<String, Tag<?>>>() {
+                        @Override
+                        protected Map.Entry<String, Tag<?>> get(final int index) {
+                            return new AbstractMap.SimpleEntry<String, Tag<?>>(keys[index], values[index]) {
+                                private static final long serialVersionUID = 1L;
+
+                                @Override
+                                public Tag<?> setValue(Tag<?> value) {
+                                    values[index] = value;
+                                    return super.setValue(value);
+                                }
+                            };
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+
+                @Override
+                public void clear() {
+                    SortedTagMap.this.clear();
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    @Override
+    public Collection<Tag<?>> values() {
+        if (valueCollection == null) {
+            valueCollection = new AbstractCollection<Tag<?>>() {
+                @Override
+                public Iterator<Tag<?>> iterator() {
+                    return new ArrayIterator<Tag<?>>() {
+                        @Override
+                        protected Tag<?> get(int index) {
+                            return values[index];
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+
+                @Override
+                public void clear() {
+                    SortedTagMap.this.clear();
+                }
+            };
+        }
+        return valueCollection;
+    }
+
+    private int compareKeys(String a, String b) {
+        return comparator == null ? a.compareTo(b) : comparator.compare(a, b);
+    }
+
+    /**
+     * Finds a name with a binary search.
+     *
+     * @param key The name.
+     * @return The index of the name, or {@code -(insertion point + 1)} if it is not in the map.
+     */
+    private int search(String key) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compareKeys(keys[mid], key);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private void insert(int index, String key, Tag<?> value) {
+        if (size == keys.length) {
+            int capacity = keys.length + (keys.length >> 1) + 1;
+            keys = Arrays.copyOf(keys, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(values, index, values, index + 1, size - index);
+        keys[index] = key;
+        values[index] = value;
+        size++;
+        modCount++;
+    }
+
+    private void removeAt(int index) {
+        int moved = size - index - 1;
+        System.arraycopy(keys, index + 1, keys, index, moved);
+        System.arraycopy(values, index + 1, values, index, moved);
+        size--;
+        keys[size] = null;
+        values[size] = null;
+        modCount++;
+    }
+
+    /**
+     * Iterates over the indexes of the arrays, in order.
+     */
+    private abstract class ArrayIterator<E> implements Iterator<E> {
+        private int next;
+        private int last = -1;
+        private int expectedModCount = modCount;
+
+        protected abstract E get(int index);
+
+        @Override
+        public boolean hasNext() {
+            return next < size;
+        }
+
+        @Override
+        public E next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (next >= size) {
+                throw new NoSuchElementException();
+            }
+            last = next++;
+            return get(last);
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0) {
+                throw new IllegalStateException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            removeAt(last);
+            next = last;
+            last = -1;
+            expectedModCount = modCount;
+        }
+    }
+}
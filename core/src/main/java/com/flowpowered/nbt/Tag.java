@@ -99,6 +99,9 @@ public abstract class Tag<T> implements Comparable<Tag<?>> {
 
     @Override
     public boolean equals(Object other) {
+        if (other == this) {
+            return true;
+        }
         if (!(other instanceof Tag)) {
             return false;
         }
@@ -106,6 +109,18 @@ public abstract class Tag<T> implements Comparable<Tag<?>> {
         return getValue().equals(tag.getValue()) && getName().equals(tag.getName());
     }
 
+    /**
+     * Gets a hash of the name and value of this tag, consistent with {@link #equals(Object)}. Like the hash of a {@link java.util.List}, the hash of a compound or list tag is computed from its
+     * whole subtree every time, and changes when the subtree is modified.
+     *
+     * @return The hash code.
+     */
+    @Override
+    public int hashCode() {
+        Object value = getValue();
+        return 31 * getName().hashCode() + (value == null ? 0 : value.hashCode());
+    }
+
     @Override
     public int compareTo(Tag other) {
         if (equals(other)) {
@@ -0,0 +1,98 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt;
+
+/**
+ * The shared instances handed out by the {@code valueOf} methods of the numeric tags: one unnamed tag for every cached value, and a direct-mapped cache of recently requested named tags, indexed
+ * by a hash of the name and value. Cached values are identified by their index in the cached range.
+ *
+ * @param <T> The type of the tags.
+ */
+abstract class TagCache<T extends Tag<?>> {
+    /**
+     * The lowest value kept in the caches of the numeric tags wider than a byte.
+     */
+    static final int LOW = -128;
+    /**
+     * The highest value kept in the caches of the numeric tags wider than a byte.
+     */
+    static final int HIGH = 1023;
+    private final T[] unnamed;
+    private final T[] named;
+
+    /**
+     * Creates the cache, filling the unnamed tags.
+     *
+     * @param unnamed The array for the unnamed tags, with one element for every cached value.
+     * @param named The array for the named tags, its length must be a power of two.
+     */
+    TagCache(T[] unnamed, T[] named) {
+        this.unnamed = unnamed;
+        this.named = named;
+        for (int i = 0; i < unnamed.length; i++) {
+            unnamed[i] = create("", i);
+        }
+    }
+
+    /**
+     * Creates a tag holding a cached value.
+     *
+     * @param name The name.
+     * @param index The index of the value in the cached range.
+     * @return The tag.
+     */
+    protected abstract T create(String name, int index);
+
+    /**
+     * Gets the index of the value of a tag in the cached range.
+     *
+     * @param tag A tag created by {@link #create(String, int)}.
+     * @return The index.
+     */
+    protected abstract int index(T tag);
+
+    /**
+     * Gets a tag holding a cached value, reusing a shared instance when possible. Tags with a null name are not shared.
+     *
+     * @param name The name.
+     * @param index The index of the value in the cached range.
+     * @return The tag.
+     */
+    T get(String name, int index) {
+        if (name == null) {
+            return create(null, index);
+        }
+        if (name.isEmpty()) {
+            return unnamed[index];
+        }
+        int hash = name.hashCode() * 31 + index;
+        int slot = (hash ^ (hash >>> 16)) & (named.length - 1);
+        T cached = named[slot];
+        if (cached == null || !(index(cached) == index && cached.getName().equals(name))) {
+            cached = create(name, index);
+            named[slot] = cached;
+        }
+        return cached;
+    }
+}
@@ -21,44 +21,34 @@
  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
  * THE SOFTWARE.
  */
-package com.flowpowered.nbt;
+package com.flowpowered.nbt.holder;
+
+import com.flowpowered.nbt.Tag;
 
 /**
- * The {@code TAG_Float} tag.
+ * Represents a field containing a basic tag type
  */
-public final class FloatTag extends Tag<Float> {
-    /**
-     * The value.
-     */
-    private final float value;
+public class BasicTagField<T> implements Field<T> {
+    private final Class<? extends Tag<T>> valueType;
+    private final TagFactory<T> factory;
 
     /**
-     * Creates the tag.
+     * Create a field for the given tag type
      *
-     * @param name The name.
-     * @param value The value.
+     * @param valueType The type of tag
+     * @throws IllegalArgumentException if tags of the type cannot be created from their value, see {@link TagFactories#get(Class)}
      */
-    public FloatTag(String name, float value) {
-        super(TagType.TAG_FLOAT, name);
-        this.value = value;
-    }
-
-    @Override
-    public Float getValue() {
-        return value;
+    public BasicTagField(Class<? extends Tag<T>> valueType) throws IllegalArgumentException {
+        this.valueType = valueType;
+        this.factory = TagFactories.get(valueType);
     }
 
-    @Override
-    public String toString() {
-        String name = getName();
-        String append = "";
-        if (name != null && !name.equals("")) {
-            append = "(\"" + this.getName() + "\")";
-        }
-        return "TAG_Float" + append + ": " + value;
+    public T getValue(Tag<?> tag) throws IllegalArgumentException {
+        Tag<T> value = FieldUtils.checkTagCast(tag, valueType);
+        return value.getValue();
     }
 
-    public FloatTag clone() {
-        return new FloatTag(getName(), value);
+    public Tag<T> getValue(String name, T value) {
+        return factory.create(name, value);
     }
 }
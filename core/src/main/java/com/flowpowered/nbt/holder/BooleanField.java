@@ -37,6 +37,6 @@ public class BooleanField implements Field<Boolean> {
     }
 
     public Tag<?> getValue(String name, Boolean value) {
-        return new ByteTag(name, value);
+        return ByteTag.valueOf(name, value);
     }
 }
@@ -0,0 +1,209 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.holder;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import com.flowpowered.nbt.NBTConstants;
+import com.flowpowered.nbt.Tag;
+import com.flowpowered.nbt.TagType;
+import com.flowpowered.nbt.stream.EndianSwitchableInputStream;
+import com.flowpowered.nbt.stream.EndianSwitchableOutputStream;
+import com.flowpowered.nbt.stream.TagCodec;
+
+/**
+ * A {@link Field} that can also read and write its values directly from and to NBT streams, without creating {@link Tag} objects. Codecs are immutable and meant to be built once and shared, the
+ * standard ones and the combinators are in {@link Codecs}.
+ * <p>
+ * Use {@link com.flowpowered.nbt.stream.NBTOutputStream#writeTag(String, Object, TagCodec)} and {@link com.flowpowered.nbt.stream.NBTInputStream#readTag(TagCodec)} to encode or decode a root
+ * value.
+ *
+ * @param <T> The type of the values
+ */
+public abstract class Codec<T> implements Field<T>, TagCodec<T> {
+    /**
+     * Check whether a missing tag is allowed, in which case the value is null. Only true for {@link Codecs#optional(Codec) optional codecs}.
+     *
+     * @return Whether the value is optional
+     */
+    public boolean isOptional() {
+        return false;
+    }
+
+    /**
+     * Write the type and name of a tag
+     *
+     * @param out The output to write to
+     * @param type The type of the tag
+     * @param name The name of the tag
+     * @throws IOException if an I/O error occurs
+     */
+    protected static void writeHeader(DataOutput out, TagType type, String name) throws IOException {
+        out.writeByte(type.getId());
+        writeString(out, name);
+    }
+
+    /**
+     * Write a string with its length, like the name or payload of a tag
+     *
+     * @param out The output to write to
+     * @param value The string
+     * @throws IOException if an I/O error occurs
+     */
+    protected static void writeString(DataOutput out, String value) throws IOException {
+        byte[] bytes = value.getBytes(NBTConstants.CHARSET.name());
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Read a string with its length, like the name or payload of a tag
+     *
+     * @param in The input to read from
+     * @return The string
+     * @throws IOException if an I/O error occurs
+     */
+    protected static String readString(DataInput in) throws IOException {
+        byte[] bytes = new byte[in.readUnsignedShort()];
+        in.readFully(bytes);
+        return new String(bytes, NBTConstants.CHARSET.name());
+    }
+
+    /**
+     * Write the elements of an array, in bulk when the output is an NBT stream
+     *
+     * @param out The output to write to
+     * @param values The elements
+     * @throws IOException if an I/O error occurs
+     */
+    protected static void writeArray(DataOutput out, short[] values) throws IOException {
+        if (out instanceof EndianSwitchableOutputStream) {
+            ((EndianSwitchableOutputStream) out).writeShorts(values, 0, values.length);
+            return;
+        }
+        for (short value : values) {
+            out.writeShort(value);
+        }
+    }
+
+    /**
+     * Write the elements of an array, in bulk when the output is an NBT stream
+     *
+     * @param out The output to write to
+     * @param values The elements
+     * @throws IOException if an I/O error occurs
+     */
+    protected static void writeArray(DataOutput out, int[] values) throws IOException {
+        if (out instanceof EndianSwitchableOutputStream) {
+            ((EndianSwitchableOutputStream) out).writeInts(values, 0, values.length);
+            return;
+        }
+        for (int value : values) {
+            out.writeInt(value);
+        }
+    }
+
+    /**
+     * Write the elements of an array, in bulk when the output is an NBT stream
+     *
+     * @param out The output to write to
+     * @param values The elements
+     * @throws IOException if an I/O error occurs
+     */
+    protected static void writeArray(DataOutput out, long[] values) throws IOException {
+        if (out instanceof EndianSwitchableOutputStream) {
+            ((EndianSwitchableOutputStream) out).writeLongs(values, 0, values.length);
+            return;
+        }
+        for (long value : values) {
+            out.writeLong(value);
+        }
+    }
+
+    /**
+     * Read the elements of an array, in bulk when the input is an NBT stream
+     *
+     * @param in The input to read from
+     * @param values The array to fill
+     * @throws IOException if an I/O error occurs
+     */
+    protected static void readArray(DataInput in, short[] values) throws IOException {
+        if (in instanceof EndianSwitchableInputStream) {
+            ((EndianSwitchableInputStream) in).readShorts(values, 0, values.length);
+            return;
+        }
+        for (int i = 0; i < values.length; i++) {
+            values[i] = in.readShort();
+        }
+    }
+
+    /**
+     * Read the elements of an array, in bulk when the input is an NBT stream
+     *
+     * @param in The input to read from
+     * @param values The array to fill
+     * @throws IOException if an I/O error occurs
+     */
+    protected static void readArray(DataInput in, int[] values) throws IOException {
+        if (in instanceof EndianSwitchableInputStream) {
+            ((EndianSwitchableInputStream) in).readInts(values, 0, values.length);
+            return;
+        }
+        for (int i = 0; i < values.length; i++) {
+            values[i] = in.readInt();
+        }
+    }
+
+    /**
+     * Read the elements of an array, in bulk when the input is an NBT stream
+     *
+     * @param in The input to read from
+     * @param values The array to fill
+     * @throws IOException if an I/O error occurs
+     */
+    protected static void readArray(DataInput in, long[] values) throws IOException {
+        if (in instanceof EndianSwitchableInputStream) {
+            ((EndianSwitchableInputStream) in).readLongs(values, 0, values.length);
+            return;
+        }
+        for (int i = 0; i < values.length; i++) {
+            values[i] = in.readLong();
+        }
+    }
+
+    /**
+     * Check that the type of a tag read from a stream matches the one expected
+     *
+     * @param found The type read
+     * @param expected The expected type
+     * @throws IOException if an I/O error occurs, or the type is different
+     */
+    protected static void checkType(TagType found, TagType expected) throws IOException {
+        if (found != expected) {
+            throw new IOException("Expected a " + expected.getTypeName() + ", found " + found.getTypeName());
+        }
+    }
+}
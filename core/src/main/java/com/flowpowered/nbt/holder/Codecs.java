@@ -0,0 +1,508 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.holder;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import com.flowpowered.nbt.ByteArrayTag;
+import com.flowpowered.nbt.ByteTag;
+import com.flowpowered.nbt.DoubleTag;
+import com.flowpowered.nbt.FloatTag;
+import com.flowpowered.nbt.IntArrayTag;
+import com.flowpowered.nbt.IntTag;
+import com.flowpowered.nbt.LongArrayTag;
+import com.flowpowered.nbt.LongTag;
+import com.flowpowered.nbt.ShortArrayTag;
+import com.flowpowered.nbt.ShortTag;
+import com.flowpowered.nbt.StringTag;
+import com.flowpowered.nbt.Tag;
+import com.flowpowered.nbt.TagType;
+
+/**
+ * The standard {@link Codec Codecs} and the combinators building new codecs from existing ones. Build composed codecs once, for example as constants, and share them: they are immutable and safe to
+ * use from any thread.
+ */
+public final class Codecs {
+    /**
+     * {@code byte} values
+     */
+    public static final Codec<Byte> BYTE = new Codec<Byte>() {
+        @Override
+        public TagType getType() {
+            return TagType.TAG_BYTE;
+        }
+
+        @Override
+        public Byte getValue(Tag<?> tag) {
+            return FieldUtils.checkTagCast(tag, ByteTag.class).getValue();
+        }
+
+        @Override
+        public Tag<?> getValue(String name, Byte value) {
+            return ByteTag.valueOf(name, value);
+        }
+
+        @Override
+        public void write(DataOutput out, Byte value) throws IOException {
+            out.writeByte(value);
+        }
+
+        @Override
+        public Byte read(DataInput in) throws IOException {
+            return in.readByte();
+        }
+    };
+    /**
+     * {@code short} values
+     */
+    public static final Codec<Short> SHORT = new Codec<Short>() {
+        @Override
+        public TagType getType() {
+            return TagType.TAG_SHORT;
+        }
+
+        @Override
+        public Short getValue(Tag<?> tag) {
+            return FieldUtils.checkTagCast(tag, ShortTag.class).getValue();
+        }
+
+        @Override
+        public Tag<?> getValue(String name, Short value) {
+            return ShortTag.valueOf(name, value);
+        }
+
+        @Override
+        public void write(DataOutput out, Short value) throws IOException {
+            out.writeShort(value);
+        }
+
+        @Override
+        public Short read(DataInput in) throws IOException {
+            return in.readShort();
+        }
+    };
+    /**
+     * {@code int} values
+     */
+    public static final Codec<Integer> INT = new Codec<Integer>() {
+        @Override
+        public TagType getType() {
+            return TagType.TAG_INT;
+        }
+
+        @Override
+        public Integer getValue(Tag<?> tag) {
+            return FieldUtils.checkTagCast(tag, IntTag.class).getValue();
+        }
+
+        @Override
+        public Tag<?> getValue(String name, Integer value) {
+            return IntTag.valueOf(name, value);
+        }
+
+        @Override
+        public void write(DataOutput out, Integer value) throws IOException {
+            out.writeInt(value);
+        }
+
+        @Override
+        public Integer read(DataInput in) throws IOException {
+            return in.readInt();
+        }
+    };
+    /**
+     * {@code long} values
+     */
+    public static final Codec<Long> LONG = new Codec<Long>() {
+        @Override
+        public TagType getType() {
+            return TagType.TAG_LONG;
+        }
+
+        @Override
+        public Long getValue(Tag<?> tag) {
+            return FieldUtils.checkTagCast(tag, LongTag.class).getValue();
+        }
+
+        @Override
+        public Tag<?> getValue(String name, Long value) {
+            return LongTag.valueOf(name, value);
+        }
+
+        @Override
+        public void write(DataOutput out, Long value) throws IOException {
+            out.writeLong(value);
+        }
+
+        @Override
+        public Long read(DataInput in) throws IOException {
+            return in.readLong();
+        }
+    };
+    /**
+     * {@code float} values
+     */
+    public static final Codec<Float> FLOAT = new Codec<Float>() {
+        @Override
+        public TagType getType() {
+            return TagType.TAG_FLOAT;
+        }
+
+        @Override
+        public Float getValue(Tag<?> tag) {
+            return FieldUtils.checkTagCast(tag, FloatTag.class).getValue();
+        }
+
+        @Override
+        public Tag<?> getValue(String name, Float value) {
+            return FloatTag.valueOf(name, value);
+        }
+
+        @Override
+        public void write(DataOutput out, Float value) throws IOException {
+            out.writeFloat(value);
+        }
+
+        @Override
+        public Float read(DataInput in) throws IOException {
+            return in.readFloat();
+        }
+    };
+    /**
+     * {@code double} values
+     */
+    public static final Codec<Double> DOUBLE = new Codec<Double>() {
+        @Override
+        public TagType getType() {
+            return TagType.TAG_DOUBLE;
+        }
+
+        @Override
+        public Double getValue(Tag<?> tag) {
+            return FieldUtils.checkTagCast(tag, DoubleTag.class).getValue();
+        }
+
+        @Override
+        public Tag<?> getValue(String name, Double value) {
+            return DoubleTag.valueOf(name, value);
+        }
+
+        @Override
+        public void write(DataOutput out, Double value) throws IOException {
+            out.writeDouble(value);
+        }
+
+        @Override
+        public Double read(DataInput in) throws IOException {
+            return in.readDouble();
+        }
+    };
+    /**
+     * Booleans, stored as byte tags holding 0 or 1
+     */
+    public static final Codec<Boolean> BOOLEAN = new Codec<Boolean>() {
+        @Override
+        public TagType getType() {
+            return TagType.TAG_BYTE;
+        }
+
+        @Override
+        public Boolean getValue(Tag<?> tag) {
+            return FieldUtils.checkTagCast(tag, ByteTag.class).getBooleanValue();
+        }
+
+        @Override
+        public Tag<?> getValue(String name, Boolean value) {
+            return ByteTag.valueOf(name, value);
+        }
+
+        @Override
+        public void write(DataOutput out, Boolean value) throws IOException {
+            out.writeByte(value ? 1 : 0);
+        }
+
+        @Override
+        public Boolean read(DataInput in) throws IOException {
+            return in.readByte() != 0;
+        }
+    };
+    /**
+     * Strings
+     */
+    public static final Codec<String> STRING = new Codec<String>() {
+        @Override
+        public TagType getType() {
+            return TagType.TAG_STRING;
+        }
+
+        @Override
+        public String getValue(Tag<?> tag) {
+            return FieldUtils.checkTagCast(tag, StringTag.class).getValue();
+        }
+
+        @Override
+        public Tag<?> getValue(String name, String value) {
+            return new StringTag(name, value);
+        }
+
+        @Override
+        public void write(DataOutput out, String value) throws IOException {
+            writeString(out, value);
+        }
+
+        @Override
+        public String read(DataInput in) throws IOException {
+            return readString(in);
+        }
+    };
+    /**
+     * {@code byte[]} values
+     */
+    public static final Codec<byte[]> BYTE_ARRAY = new Codec<byte[]>() {
+        @Override
+        public TagType getType() {
+            return TagType.TAG_BYTE_ARRAY;
+        }
+
+        @Override
+        public byte[] getValue(Tag<?> tag) {
+            return FieldUtils.checkTagCast(tag, ByteArrayTag.class).getValue();
+        }
+
+        @Override
+        public Tag<?> getValue(String name, byte[] value) {
+            return new ByteArrayTag(name, value);
+        }
+
+        @Override
+        public void write(DataOutput out, byte[] value) throws IOException {
+            out.writeInt(value.length);
+            out.write(value);
+        }
+
+        @Override
+        public byte[] read(DataInput in) throws IOException {
+            byte[] value = new byte[in.readInt()];
+            in.readFully(value);
+            return value;
+        }
+    };
+    /**
+     * {@code short[]} values
+     */
+    public static final Codec<short[]> SHORT_ARRAY = new Codec<short[]>() {
+        @Override
+        public TagType getType() {
+            return TagType.TAG_SHORT_ARRAY;
+        }
+
+        @Override
+        public short[] getValue(Tag<?> tag) {
+            return FieldUtils.checkTagCast(tag, ShortArrayTag.class).getValue();
+        }
+
+        @Override
+        public Tag<?> getValue(String name, short[] value) {
+            return new ShortArrayTag(name, value);
+        }
+
+        @Override
+        public void write(DataOutput out, short[] value) throws IOException {
+            out.writeInt(value.length);
+            writeArray(out, value);
+        }
+
+        @Override
+        public short[] read(DataInput in) throws IOException {
+            short[] value = new short[in.readInt()];
+            readArray(in, value);
+            return value;
+        }
+    };
+    /**
+     * {@code int[]} values
+     */
+    public static final Codec<int[]> INT_ARRAY = new Codec<int[]>() {
+        @Override
+        public TagType getType() {
+            return TagType.TAG_INT_ARRAY;
+        }
+
+        @Override
+        public int[] getValue(Tag<?> tag) {
+            return FieldUtils.checkTagCast(tag, IntArrayTag.class).getValue();
+        }
+
+        @Override
+        public Tag<?> getValue(String name, int[] value) {
+            return new IntArrayTag(name, value);
+        }
+
+        @Override
+        public void write(DataOutput out, int[] value) throws IOException {
+            out.writeInt(value.length);
+            writeArray(out, value);
+        }
+
+        @Override
+        public int[] read(DataInput in) throws IOException {
+            int[] value = new int[in.readInt()];
+            readArray(in, value);
+            return value;
+        }
+    };
+    /**
+     * {@code long[]} values
+     */
+    public static final Codec<long[]> LONG_ARRAY = new Codec<long[]>() {
+        @Override
+        public TagType getType() {
+            return TagType.TAG_LONG_ARRAY;
+        }
+
+        @Override
+        public long[] getValue(Tag<?> tag) {
+            return FieldUtils.checkTagCast(tag, LongArrayTag.class).getValue();
+        }
+
+        @Override
+        public Tag<?> getValue(String name, long[] value) {
+            return new LongArrayTag(name, value);
+        }
+
+        @Override
+        public void write(DataOutput out, long[] value) throws IOException {
+            out.writeInt(value.length);
+            writeArray(out, value);
+        }
+
+        @Override
+        public long[] read(DataInput in) throws IOException {
+            long[] value = new long[in.readInt()];
+            readArray(in, value);
+            return value;
+        }
+    };
+    /**
+     * UUIDs, stored as an int array of four elements
+     */
+    public static final Codec<UUID> UUID = UUIDCodec.INSTANCE;
+    private static final Converter<String, String> IDENTITY = new Converter<String, String>() {
+        @Override
+        public String to(String value) {
+            return value;
+        }
+
+        @Override
+        public String from(String value) {
+            return value;
+        }
+    };
+    private static final ClassValue<EnumCodec<?>> ENUMS = new ClassValue<EnumCodec<?>>() {
+        @Override
+        @SuppressWarnings ({"unchecked", "rawtypes"})
+        protected EnumCodec<?> computeValue(Class<?> type) {
+            return new EnumCodec(type);
+        }
+    };
+
+    private Codecs() {
+    }
+
+    /**
+     * Get a codec for lists of values, stored as a list tag
+     *
+     * @param codec The codec for the elements
+     * @param <T> The type of the elements
+     * @return The list codec
+     */
+    public static <T> Codec<List<T>> list(Codec<T> codec) {
+        return new ListCodec<T>(codec);
+    }
+
+    /**
+     * Get a codec for maps with string keys, stored as a compound tag with one child per entry
+     *
+     * @param values The codec for the values
+     * @param <V> The type of the values
+     * @return The map codec
+     */
+    public static <V> Codec<Map<String, V>> map(Codec<V> values) {
+        return new MapCodec<String, V>(IDENTITY, values);
+    }
+
+    /**
+     * Get a codec for maps, stored as a compound tag with one child per entry named by its converted key
+     *
+     * @param keys The converter between the names of the children and the keys
+     * @param values The codec for the values
+     * @param <K> The type of the keys
+     * @param <V> The type of the values
+     * @return The map codec
+     */
+    public static <K, V> Codec<Map<K, V>> map(Converter<String, K> keys, Codec<V> values) {
+        return new MapCodec<K, V>(keys, values);
+    }
+
+    /**
+     * Get a codec for values converted to the type of an existing codec
+     *
+     * @param codec The codec for the stored values
+     * @param converter The converter between the stored and the exposed values
+     * @param <A> The type of the stored values
+     * @param <B> The type of the exposed values
+     * @return The mapped codec
+     */
+    public static <A, B> Codec<B> xmap(Codec<A> codec, Converter<A, B> converter) {
+        return new MappedCodec<A, B>(codec, converter);
+    }
+
+    /**
+     * Get a codec for values that may be null. A null value is not stored in the enclosing compound, and a missing tag is read as null.
+     *
+     * @param codec The codec for the present values
+     * @param <T> The type of the values
+     * @return The optional codec
+     */
+    public static <T> Codec<T> optional(Codec<T> codec) {
+        return codec.isOptional() ? codec : new OptionalCodec<T>(codec);
+    }
+
+    /**
+     * Get the codec for the constants of an enum, stored by ordinal as an int tag. The codec is created once per enum.
+     *
+     * @param type The enum class
+     * @param <E> The enum type
+     * @return The enum codec
+     */
+    @SuppressWarnings ("unchecked")
+    public static <E extends Enum<E>> Codec<E> enumByOrdinal(Class<E> type) {
+        return (Codec<E>) ENUMS.get(type);
+    }
+}
@@ -21,44 +21,28 @@
  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
  * THE SOFTWARE.
  */
-package com.flowpowered.nbt;
+package com.flowpowered.nbt.holder;
 
 /**
- * The {@code TAG_Int} tag.
+ * Converts values between two types in both directions, see {@link Codecs#xmap(Codec, Converter)}
+ *
+ * @param <A> The source type
+ * @param <B> The target type
  */
-public final class IntTag extends Tag<Integer> {
+public interface Converter<A, B> {
     /**
-     * The value.
+     * Convert a value to the target type
+     *
+     * @param value The value of the source type
+     * @return The value of the target type
      */
-    private final int value;
+    public B to(A value);
 
     /**
-     * Creates the tag.
+     * Convert a value back to the source type
      *
-     * @param name The name.
-     * @param value The value.
+     * @param value The value of the target type
+     * @return The value of the source type
      */
-    public IntTag(String name, int value) {
-        super(TagType.TAG_INT, name);
-        this.value = value;
-    }
-
-    @Override
-    public Integer getValue() {
-        return value;
-    }
-
-    @Override
-    public String toString() {
-        String name = getName();
-        String append = "";
-        if (name != null && !name.equals("")) {
-            append = "(\"" + this.getName() + "\")";
-        }
-        return "TAG_Int" + append + ": " + value;
-    }
-
-    public IntTag clone() {
-        return new IntTag(getName(), value);
-    }
+    public A from(B value);
 }
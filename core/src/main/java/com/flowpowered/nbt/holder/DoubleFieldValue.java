@@ -0,0 +1,80 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.holder;
+
+import com.flowpowered.nbt.DoubleTag;
+import com.flowpowered.nbt.Tag;
+
+/**
+ * The value of a {@code double} field, stored unboxed. Use {@link #getDouble()} and {@link #setDouble(double)} to avoid boxing, the generic accessors box the value.
+ */
+public class DoubleFieldValue extends PrimitiveFieldValue<Double> {
+    private static final Field<Double> FIELD = new BasicTagField<Double>(DoubleTag.class);
+
+    public DoubleFieldValue(String key) {
+        this(key, 0);
+    }
+
+    public DoubleFieldValue(String key, double defaultValue) {
+        super(key, FIELD, defaultValue, Double.doubleToRawLongBits(defaultValue));
+    }
+
+    @Override
+    protected void read(Tag<?> subTag) {
+        setDouble(FieldUtils.checkTagCast(subTag, DoubleTag.class).getDoubleValue());
+    }
+
+    @Override
+    protected Tag<?> toTag() {
+        return DoubleTag.valueOf(getKey(), getDouble());
+    }
+
+    @Override
+    protected long toBits(Double value) {
+        return Double.doubleToRawLongBits(value);
+    }
+
+    @Override
+    public Double get() {
+        return getDouble();
+    }
+
+    /**
+     * Get the value without boxing it
+     *
+     * @return The value
+     */
+    public double getDouble() {
+        return Double.longBitsToDouble(getBits());
+    }
+
+    /**
+     * Set the value without boxing it, and mark it as changed
+     *
+     * @param value The value
+     */
+    public void setDouble(double value) {
+        setBits(Double.doubleToRawLongBits(value));
+    }
+}
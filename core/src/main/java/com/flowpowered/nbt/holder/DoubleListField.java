@@ -23,47 +23,34 @@
  */
 package com.flowpowered.nbt.holder;
 
-import org.junit.Before;
-import org.junit.Test;
+import java.util.ArrayList;
+import java.util.List;
 
-import com.flowpowered.nbt.CompoundMap;
-import com.flowpowered.nbt.CompoundTag;
-import com.flowpowered.nbt.StringTag;
-
-import static org.junit.Assert.assertEquals;
+import com.flowpowered.nbt.DoubleTag;
+import com.flowpowered.nbt.ListTag;
+import com.flowpowered.nbt.Tag;
 
 /**
- * Test for {@link FieldHolder}
+ * Represents a field containing a list of {@code double} tags, held as a {@code double[]} instead of a list of boxed values
  */
-public class FieldHolderTest {
-    private ExampleHolder subject;
-
-    @Before
-    public void setUp() {
-        subject = new ExampleHolder();
-        CompoundMap map = new CompoundMap();
-        map.put(new StringTag("name", "helloworld"));
-        CompoundTag mapTag = new CompoundTag("", map);
-        subject.load(mapTag);
-    }
-
-    private static class ExampleHolder extends FieldHolder {
-        public final FieldValue<String> name = FieldValue.from("name", new BasicTagField<String>(StringTag.class)),
-                unassignedDefault = FieldValue.from("unassigned", new BasicTagField<String>(StringTag.class), "value-here");
-
-        public ExampleHolder() {
-            addFields(name, unassignedDefault);
+public class DoubleListField implements Field<double[]> {
+    public static final DoubleListField INSTANCE = new DoubleListField();
+
+    public double[] getValue(Tag<?> tag) throws IllegalArgumentException {
+        List<?> elements = FieldUtils.checkTagCast(tag, ListTag.class).getValue();
+        double[] result = new double[elements.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = FieldUtils.checkTagCast((Tag<?>) elements.get(i), DoubleTag.class).getDoubleValue();
         }
+        return result;
     }
 
-    @Test
-    public void testBasicLoad() {
-        assertEquals("helloworld", subject.name.get());
-        assertEquals("value-here", subject.unassignedDefault.get());
-    }
-
-    @Test
-    public void testDefaultValue() {
-        assertEquals("value-here", subject.unassignedDefault.get());
+    public Tag<?> getValue(String name, double[] value) {
+        // A growable list like the other list builders use, rather than a fixed-size array view
+        List<DoubleTag> tags = new ArrayList<DoubleTag>(value.length);
+        for (double element : value) {
+            tags.add(DoubleTag.valueOf(element));
+        }
+        return new ListTag<DoubleTag>(name, DoubleTag.class, tags);
     }
 }
@@ -0,0 +1,75 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.holder;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import com.flowpowered.nbt.IntTag;
+import com.flowpowered.nbt.Tag;
+import com.flowpowered.nbt.TagType;
+
+/**
+ * A codec for enum constants stored by ordinal as an int tag, see {@link Codecs#enumByOrdinal(Class)}
+ */
+public class EnumCodec<E extends Enum<E>> extends Codec<E> {
+    private final Class<E> type;
+    private final E[] constants;
+
+    public EnumCodec(Class<E> type) {
+        this.type = type;
+        this.constants = type.getEnumConstants();
+    }
+
+    @Override
+    public TagType getType() {
+        return TagType.TAG_INT;
+    }
+
+    public E getValue(Tag<?> tag) throws IllegalArgumentException {
+        return get(FieldUtils.checkTagCast(tag, IntTag.class).getIntValue());
+    }
+
+    public Tag<?> getValue(String name, E value) {
+        return IntTag.valueOf(name, value.ordinal());
+    }
+
+    @Override
+    public void write(DataOutput out, E value) throws IOException {
+        out.writeInt(value.ordinal());
+    }
+
+    @Override
+    public E read(DataInput in) throws IOException {
+        return get(in.readInt());
+    }
+
+    private E get(int ordinal) throws IllegalArgumentException {
+        if (ordinal < 0 || ordinal >= constants.length) {
+            throw new IllegalArgumentException("Invalid ordinal " + ordinal + " for " + type.getName());
+        }
+        return constants[ordinal];
+    }
+}
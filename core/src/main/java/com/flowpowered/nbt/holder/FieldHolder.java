@@ -0,0 +1,210 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.holder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.flowpowered.nbt.CompoundMap;
+import com.flowpowered.nbt.CompoundTag;
+import com.flowpowered.nbt.Tag;
+import com.flowpowered.nbt.stream.ChildHandler;
+import com.flowpowered.nbt.stream.NBTInputStream;
+import com.flowpowered.nbt.stream.NBTOutputStream;
+
+/**
+ * Holder class for {@link FieldValue FieldValues}
+ */
+public abstract class FieldHolder {
+    private final List<FieldValue<?>> fields = new ArrayList<FieldValue<?>>();
+    /**
+     * The map built by the last {@link #saveIfDirty()}, updated in place with the dirty fields on the next one, or null before the first.
+     */
+    private CompoundMap saved;
+    /**
+     * The fields by key, built on the first filtered load, or null.
+     */
+    private Map<String, FieldValue<?>> fieldsByKey;
+
+    protected FieldHolder(FieldValue<?>... fields) {
+        addFields(fields);
+    }
+
+    protected void addFields(FieldValue<?>... fields) {
+        Collections.addAll(this.fields, fields);
+        fieldsByKey = null;
+    }
+
+    private Map<String, FieldValue<?>> getFieldsByKey() {
+        Map<String, FieldValue<?>> map = fieldsByKey;
+        if (map == null) {
+            map = new HashMap<String, FieldValue<?>>();
+            for (FieldValue<?> field : fields) {
+                map.put(field.getKey(), field);
+            }
+            fieldsByKey = map;
+        }
+        return map;
+    }
+
+    /**
+     * Save all the fields to a new map
+     *
+     * @return The map with the fields
+     */
+    public CompoundMap save() {
+        CompoundMap map = new CompoundMap();
+        for (FieldValue<?> field : fields) {
+            field.save(map);
+        }
+        return map;
+    }
+
+    /**
+     * Save the fields to a new map, if any changed since the last call. Only the fields that changed are converted to tags again, the tags of all others are reused from the last call. Fields
+     * holding a mutable value, like a list or an array, are converted again to be compared with their last saved tag, as changes made in place can't be tracked. Unlike {@link #save()}, this
+     * keeps the saved map, so the map returned is a copy that can be modified freely.
+     *
+     * @return The map with the fields, or null if nothing changed
+     */
+    public CompoundMap saveIfDirty() {
+        CompoundMap map = saved;
+        boolean first = map == null;
+        if (first) {
+            map = new CompoundMap();
+            saved = map;
+        }
+        boolean changed = first;
+        for (FieldValue<?> field : fields) {
+            if (first || field.isDirty()) {
+                String key = field.getKey();
+                map.remove(key);
+                field.save(map);
+                field.markSaved(map.get(key));
+                changed = true;
+            }
+        }
+        return changed ? new CompoundMap(map) : null;
+    }
+
+    /**
+     * Check whether any field changed since the last {@link #saveIfDirty()}
+     *
+     * @return Whether a save is needed
+     */
+    public boolean isDirty() {
+        if (saved == null) {
+            return true;
+        }
+        for (FieldValue<?> field : fields) {
+            if (field.isDirty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void load(CompoundTag tag) {
+        for (FieldValue<?> field : fields) {
+            field.load(tag);
+        }
+    }
+
+    public void save(File file, boolean compressed) throws IOException {
+        save(new FileOutputStream(file), compressed);
+    }
+
+    /**
+     * Save the fields to a file, if any changed since the last save. The file is left untouched otherwise.
+     *
+     * @param file The file to write to
+     * @param compressed Whether to compress the file
+     * @return Whether the file was written
+     * @throws IOException if an I/O error occurs
+     */
+    public boolean saveIfDirty(File file, boolean compressed) throws IOException {
+        CompoundMap map = saveIfDirty();
+        if (map == null) {
+            return false;
+        }
+        NBTOutputStream os = new NBTOutputStream(new FileOutputStream(file), compressed);
+        try {
+            os.writeTag(new CompoundTag("", map));
+        } finally {
+            os.close();
+        }
+        return true;
+    }
+
+    public void save(OutputStream stream, boolean compressed) throws IOException {
+        NBTOutputStream os = new NBTOutputStream(stream, compressed);
+        os.writeTag(new CompoundTag("", save()));
+    }
+
+    public void load(File file, boolean compressed) throws IOException {
+        load(new FileInputStream(file), compressed);
+    }
+
+    public void load(InputStream stream, boolean compressed) throws IOException {
+        NBTInputStream is = new NBTInputStream(stream, compressed);
+        Tag<?> tag = is.readTag();
+        if (!(tag instanceof CompoundTag)) {
+            throw new IllegalArgumentException("Expected CompoundTag, got " + tag.getClass());
+        }
+
+        CompoundTag compound = (CompoundTag) tag;
+        load(compound);
+    }
+
+    /**
+     * Load only the registered fields from a stream holding a compound tag. Each tag is handed to its field as soon as it is decoded, all other tags are skipped without being decoded. Unlike {@link
+     * #load(InputStream, boolean)}, this doesn't go through {@link #load(CompoundTag)}, so overrides of it reading extra keys are not used.
+     *
+     * @param stream The stream to read from
+     * @param compressed Whether the stream is compressed
+     * @throws IOException if an I/O error occurs, or the stream does not hold a compound tag
+     */
+    public void loadFields(InputStream stream, boolean compressed) throws IOException {
+        NBTInputStream is = new NBTInputStream(stream, compressed);
+        // Absent fields get their defaults
+        for (FieldValue<?> field : fields) {
+            field.loadTag(null);
+        }
+        is.readCompound(getFieldsByKey(), new ChildHandler<FieldValue<?>>() {
+            @Override
+            public void handle(FieldValue<?> field, Tag<?> child) {
+                field.loadTag(child);
+            }
+        });
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.holder;
+
+import java.util.Collection;
+import java.util.Map;
+
+import com.flowpowered.nbt.CompoundMap;
+import com.flowpowered.nbt.CompoundTag;
+import com.flowpowered.nbt.Tag;
+
+/**
+ * Represents the value of a field
+ */
+public class FieldValue<T> {
+    private T value;
+    private final Field<T> field;
+    private final String key;
+    private final T defaultValue;
+    /**
+     * Whether the value was set since it was last saved by {@link FieldHolder#saveIfDirty()}.
+     */
+    private boolean dirty = true;
+    /**
+     * The tag put by the last {@link FieldHolder#saveIfDirty()}, compared with the current value for values that can change in place, or null if there was none.
+     */
+    private Tag<?> savedTag;
+
+    public FieldValue(String key, Field<T> field) {
+        this(key, field, null);
+    }
+
+    public FieldValue(String key, Field<T> field, T defaultValue) {
+        this.field = field;
+        this.key = key;
+        this.defaultValue = defaultValue;
+    }
+
+    /**
+     * Get this field from a CompoundTag
+     *
+     * @param tag The tag to get this field from
+     * @return The value
+     */
+    public T load(CompoundTag tag) {
+        return loadTag(tag.getValue().get(key));
+    }
+
+    /**
+     * Get this field from its own tag
+     *
+     * @param subTag The tag holding this field, or null if it is absent
+     * @return The value
+     */
+    protected T loadTag(Tag<?> subTag) {
+        if (subTag == null) {
+            set(defaultValue);
+        } else {
+            read(subTag);
+            dirty = true;
+        }
+        return get();
+    }
+
+    /**
+     * Store the value held by the tag of this field. Subclasses storing the value differently override this together with {@link #toTag()}, {@link #get()} and {@link #set(Object)}.
+     *
+     * @param subTag The tag holding this field
+     * @throws IllegalArgumentException if the tag is not of the type of this field
+     */
+    protected void read(Tag<?> subTag) throws IllegalArgumentException {
+        value = field.getValue(subTag);
+    }
+
+    /**
+     * Create the tag holding the value of this field
+     *
+     * @return The tag, or null if there is no value to save
+     */
+    protected Tag<?> toTag() {
+        T value = this.value;
+        if (value == null) {
+            if ((value = defaultValue) == null) {
+                return null;
+            }
+        }
+        return field.getValue(key, value);
+    }
+
+    public void save(CompoundMap tag) {
+        Tag<?> t = toTag();
+        if (t != null) {
+            tag.put(t);
+        }
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Get the value used when the tag of this field is absent
+     *
+     * @return The default value
+     */
+    public T getDefaultValue() {
+        return defaultValue;
+    }
+
+    public T get() {
+        return value;
+    }
+
+    public void set(T value) {
+        this.value = value;
+        dirty = true;
+    }
+
+    /**
+     * Check whether this value changed since it was last saved by {@link FieldHolder#saveIfDirty()}. Setting the value or calling {@link #markDirty()} makes it dirty. Values that can also be
+     * changed in place, like holders, collections, maps and arrays, are converted to a tag and compared with the tag last saved instead, so they are only dirty when their contents differ.
+     *
+     * @return Whether the value is dirty
+     */
+    public boolean isDirty() {
+        if (dirty) {
+            return true;
+        }
+        T value = get();
+        if (value instanceof FieldHolder || value instanceof Collection || value instanceof Map || value != null && value.getClass().isArray()) {
+            Tag<?> tag = toTag();
+            return tag == null ? savedTag != null : !tag.equals(savedTag);
+        }
+        return false;
+    }
+
+    /**
+     * Check whether this value was set or marked as changed since it was last saved, without looking at the value.
+     *
+     * @return Whether the value is marked as dirty
+     */
+    final boolean isMarkedDirty() {
+        return dirty;
+    }
+
+    /**
+     * Mark this value as changed, so that the next {@link FieldHolder#saveIfDirty()} saves it.
+     */
+    public void markDirty() {
+        dirty = true;
+    }
+
+    /**
+     * Mark this value as saved.
+     *
+     * @param tag The tag that was saved, or null if there was none
+     */
+    void markSaved(Tag<?> tag) {
+        savedTag = tag;
+        dirty = false;
+    }
+
+    // So generic info doesn't have to be duplicated
+    public static <T> FieldValue<T> from(String name, Field<T> field, T defaultValue) {
+        return new FieldValue<T>(name, field, defaultValue);
+    }
+
+    public static <T> FieldValue<T> from(String name, Field<T> field) {
+        return new FieldValue<T>(name, field);
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.holder;
+
+import com.flowpowered.nbt.FloatTag;
+import com.flowpowered.nbt.Tag;
+
+/**
+ * The value of a {@code float} field, stored unboxed. Use {@link #getFloat()} and {@link #setFloat(float)} to avoid boxing, the generic accessors box the value.
+ */
+public class FloatFieldValue extends PrimitiveFieldValue<Float> {
+    private static final Field<Float> FIELD = new BasicTagField<Float>(FloatTag.class);
+
+    public FloatFieldValue(String key) {
+        this(key, 0);
+    }
+
+    public FloatFieldValue(String key, float defaultValue) {
+        super(key, FIELD, defaultValue, Float.floatToRawIntBits(defaultValue));
+    }
+
+    @Override
+    protected void read(Tag<?> subTag) {
+        setFloat(FieldUtils.checkTagCast(subTag, FloatTag.class).getFloatValue());
+    }
+
+    @Override
+    protected Tag<?> toTag() {
+        return FloatTag.valueOf(getKey(), getFloat());
+    }
+
+    @Override
+    protected long toBits(Float value) {
+        return Float.floatToRawIntBits(value);
+    }
+
+    @Override
+    public Float get() {
+        return getFloat();
+    }
+
+    /**
+     * Get the value without boxing it
+     *
+     * @return The value
+     */
+    public float getFloat() {
+        return Float.intBitsToFloat((int) getBits());
+    }
+
+    /**
+     * Set the value without boxing it, and mark it as changed
+     *
+     * @param value The value
+     */
+    public void setFloat(float value) {
+        setBits(Float.floatToRawIntBits(value));
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.holder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.flowpowered.nbt.FloatTag;
+import com.flowpowered.nbt.ListTag;
+import com.flowpowered.nbt.Tag;
+
+/**
+ * Represents a field containing a list of {@code float} tags, held as a {@code float[]} instead of a list of boxed values
+ */
+public class FloatListField implements Field<float[]> {
+    public static final FloatListField INSTANCE = new FloatListField();
+
+    public float[] getValue(Tag<?> tag) throws IllegalArgumentException {
+        List<?> elements = FieldUtils.checkTagCast(tag, ListTag.class).getValue();
+        float[] result = new float[elements.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = FieldUtils.checkTagCast((Tag<?>) elements.get(i), FloatTag.class).getFloatValue();
+        }
+        return result;
+    }
+
+    public Tag<?> getValue(String name, float[] value) {
+        // A growable list like the other list builders use, rather than a fixed-size array view
+        List<FloatTag> tags = new ArrayList<FloatTag>(value.length);
+        for (float element : value) {
+            tags.add(FloatTag.valueOf(element));
+        }
+        return new ListTag<FloatTag>(name, FloatTag.class, tags);
+    }
+}
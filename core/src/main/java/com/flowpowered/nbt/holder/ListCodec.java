@@ -0,0 +1,99 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.holder;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.flowpowered.nbt.ListTag;
+import com.flowpowered.nbt.Tag;
+import com.flowpowered.nbt.TagType;
+
+/**
+ * A codec for lists of values stored as a list tag, see {@link Codecs#list(Codec)}. The lists must not hold null elements, even with an {@link Codecs#optional(Codec) optional} element codec.
+ */
+public class ListCodec<T> extends Codec<List<T>> {
+    private final Codec<T> codec;
+
+    public ListCodec(Codec<T> codec) {
+        this.codec = codec;
+    }
+
+    @Override
+    public TagType getType() {
+        return TagType.TAG_LIST;
+    }
+
+    public List<T> getValue(Tag<?> tag) throws IllegalArgumentException {
+        List<?> elements = FieldUtils.checkTagCast(tag, ListTag.class).getValue();
+        List<T> result = new ArrayList<T>(elements.size());
+        for (Object element : elements) {
+            result.add(codec.getValue((Tag<?>) element));
+        }
+        return result;
+    }
+
+    @SuppressWarnings ({"unchecked", "rawtypes"})
+    public Tag<?> getValue(String name, List<T> value) {
+        List<Tag<?>> tags = new ArrayList<Tag<?>>(value.size());
+        for (T element : value) {
+            checkElement(element);
+            tags.add(codec.getValue("", element));
+        }
+        return new ListTag(name, codec.getType().getTagClass(), tags);
+    }
+
+    @Override
+    public void write(DataOutput out, List<T> value) throws IOException {
+        out.writeByte(codec.getType().getId());
+        out.writeInt(value.size());
+        for (T element : value) {
+            checkElement(element);
+            codec.write(out, element);
+        }
+    }
+
+    private static void checkElement(Object element) {
+        if (element == null) {
+            throw new IllegalArgumentException("List tags can not hold null elements");
+        }
+    }
+
+    @Override
+    public List<T> read(DataInput in) throws IOException {
+        TagType type = TagType.getById(in.readByte());
+        int length = in.readInt();
+        if (length > 0) {
+            checkType(type, codec.getType());
+        }
+        List<T> result = new ArrayList<T>(length);
+        for (int i = 0; i < length; i++) {
+            result.add(codec.read(in));
+        }
+        return result;
+    }
+}
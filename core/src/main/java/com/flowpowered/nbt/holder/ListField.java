@@ -41,8 +41,9 @@ public class ListField<T> implements Field<List<T>> {
 
     public List<T> getValue(Tag<?> tag) throws IllegalArgumentException {
         ListTag<?> listTag = FieldUtils.checkTagCast(tag, ListTag.class);
-        List<T> result = new ArrayList<T>();
-        for (Tag<?> element : listTag.getValue()) {
+        List<? extends Tag<?>> elements = listTag.getValue();
+        List<T> result = new ArrayList<T>(elements.size());
+        for (Tag<?> element : elements) {
             result.add(backingField.getValue(element));
         }
         return result;
@@ -50,7 +51,7 @@ public class ListField<T> implements Field<List<T>> {
 
     @SuppressWarnings ("unchecked")
     public Tag<?> getValue(String name, List<T> value) {
-        List<Tag<?>> tags = new ArrayList<Tag<?>>();
+        List<Tag<?>> tags = new ArrayList<Tag<?>>(value.size());
         Class tagClazz = Tag.class; // Generics suck (I had to move this comment 3 times while finding the right place to nuke generics too)
         for (T element : value) {
             Tag<?> tag = backingField.getValue("", element);
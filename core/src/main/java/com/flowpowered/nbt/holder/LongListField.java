@@ -0,0 +1,56 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.holder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.flowpowered.nbt.ListTag;
+import com.flowpowered.nbt.LongTag;
+import com.flowpowered.nbt.Tag;
+
+/**
+ * Represents a field containing a list of {@code long} tags, held as a {@code long[]} instead of a list of boxed values
+ */
+public class LongListField implements Field<long[]> {
+    public static final LongListField INSTANCE = new LongListField();
+
+    public long[] getValue(Tag<?> tag) throws IllegalArgumentException {
+        List<?> elements = FieldUtils.checkTagCast(tag, ListTag.class).getValue();
+        long[] result = new long[elements.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = FieldUtils.checkTagCast((Tag<?>) elements.get(i), LongTag.class).getLongValue();
+        }
+        return result;
+    }
+
+    public Tag<?> getValue(String name, long[] value) {
+        // A growable list like the other list builders use, rather than a fixed-size array view
+        List<LongTag> tags = new ArrayList<LongTag>(value.length);
+        for (long element : value) {
+            tags.add(LongTag.valueOf(element));
+        }
+        return new ListTag<LongTag>(name, LongTag.class, tags);
+    }
+}
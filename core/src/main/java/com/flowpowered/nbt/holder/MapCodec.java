@@ -0,0 +1,97 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.holder;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.flowpowered.nbt.CompoundMap;
+import com.flowpowered.nbt.CompoundTag;
+import com.flowpowered.nbt.Tag;
+import com.flowpowered.nbt.TagType;
+
+/**
+ * A codec for maps stored as a compound tag, with one child per entry named by its key, see {@link Codecs#map(Codec)}. Entries with a null value are not stored.
+ */
+public class MapCodec<K, V> extends Codec<Map<K, V>> {
+    private final Converter<String, K> keys;
+    private final Codec<V> values;
+
+    public MapCodec(Converter<String, K> keys, Codec<V> values) {
+        this.keys = keys;
+        this.values = values;
+    }
+
+    @Override
+    public TagType getType() {
+        return TagType.TAG_COMPOUND;
+    }
+
+    public Map<K, V> getValue(Tag<?> tag) throws IllegalArgumentException {
+        CompoundMap map = FieldUtils.checkTagCast(tag, CompoundTag.class).getValue();
+        Map<K, V> result = new LinkedHashMap<K, V>(map.size() * 4 / 3 + 1);
+        for (Tag<?> entry : map.values()) {
+            result.put(keys.to(entry.getName()), values.getValue(entry));
+        }
+        return result;
+    }
+
+    public Tag<?> getValue(String name, Map<K, V> value) {
+        CompoundMap map = new CompoundMap();
+        for (Map.Entry<K, V> entry : value.entrySet()) {
+            if (entry.getValue() != null) {
+                map.put(values.getValue(keys.from(entry.getKey()), entry.getValue()));
+            }
+        }
+        return new CompoundTag(name, map);
+    }
+
+    @Override
+    public void write(DataOutput out, Map<K, V> value) throws IOException {
+        for (Map.Entry<K, V> entry : value.entrySet()) {
+            if (entry.getValue() != null) {
+                writeHeader(out, values.getType(), keys.from(entry.getKey()));
+                values.write(out, entry.getValue());
+            }
+        }
+        out.writeByte(TagType.TAG_END.getId());
+    }
+
+    @Override
+    public Map<K, V> read(DataInput in) throws IOException {
+        Map<K, V> result = new LinkedHashMap<K, V>();
+        while (true) {
+            TagType type = TagType.getById(in.readUnsignedByte());
+            if (type == TagType.TAG_END) {
+                return result;
+            }
+            String key = readString(in);
+            checkType(type, values.getType());
+            result.put(keys.to(key), values.read(in));
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.holder;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import com.flowpowered.nbt.Tag;
+import com.flowpowered.nbt.TagType;
+
+/**
+ * A codec storing values converted to the type of another codec, see {@link Codecs#xmap(Codec, Converter)}
+ */
+public class MappedCodec<A, B> extends Codec<B> {
+    private final Codec<A> codec;
+    private final Converter<A, B> converter;
+
+    public MappedCodec(Codec<A> codec, Converter<A, B> converter) {
+        this.codec = codec;
+        this.converter = converter;
+    }
+
+    @Override
+    public TagType getType() {
+        return codec.getType();
+    }
+
+    public B getValue(Tag<?> tag) throws IllegalArgumentException {
+        return converter.to(codec.getValue(tag));
+    }
+
+    public Tag<?> getValue(String name, B value) {
+        return codec.getValue(name, converter.from(value));
+    }
+
+    @Override
+    public void write(DataOutput out, B value) throws IOException {
+        codec.write(out, converter.from(value));
+    }
+
+    @Override
+    public B read(DataInput in) throws IOException {
+        return converter.to(codec.read(in));
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.holder;
+
+import com.flowpowered.nbt.CompoundMap;
+
+/**
+ * Saves and loads the {@link NBTField mapped fields} of a class. Implementations are generated by the annotation processor in the {@code flow-nbt-processor} artifact and can be looked up with
+ * {@link NBTCodecs#get(Class)}.
+ *
+ * @param <T> The type of the objects
+ */
+public interface NBTCodec<T> {
+    /**
+     * Save the fields of an object to a new map
+     *
+     * @param object The object to save
+     * @return The map with the fields
+     */
+    public CompoundMap save(T object);
+
+    /**
+     * Save the fields of an object to an existing map. Fields with a null value are not saved.
+     *
+     * @param object The object to save
+     * @param map The map to put the fields in
+     */
+    public void save(T object, CompoundMap map);
+
+    /**
+     * Load the fields of an object from a map. Fields without a tag in the map are left unchanged.
+     *
+     * @param object The object to load the fields into
+     * @param map The map to read the fields from
+     * @throws IllegalArgumentException if a tag in the map is not of the type of its field
+     */
+    public void load(T object, CompoundMap map) throws IllegalArgumentException;
+}
@@ -0,0 +1,75 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.holder;
+
+/**
+ * Looks up the {@link NBTCodec NBTCodecs} generated by the annotation processor in the {@code flow-nbt-processor} artifact. The codec for a class {@code Foo} is named {@code FooNBTCodec} and is in the same package, for a
+ * nested class {@code Outer.Foo} it is named {@code Outer_FooNBTCodec}.
+ */
+public final class NBTCodecs {
+    /**
+     * The suffix appended to the class name to get the name of the generated codec.
+     */
+    public static final String SUFFIX = "NBTCodec";
+    private static final ClassValue<NBTCodec<?>> CODECS = new ClassValue<NBTCodec<?>>() {
+        @Override
+        protected NBTCodec<?> computeValue(Class<?> type) {
+            String name = getCodecName(type.getName());
+            try {
+                Class<?> codecClass = Class.forName(name, true, type.getClassLoader());
+                return (NBTCodec<?>) codecClass.getDeclaredConstructor().newInstance();
+            } catch (ClassNotFoundException e) {
+                throw new IllegalArgumentException("No generated codec " + name + " for " + type.getName() + ", is it missing @NBTField annotations?", e);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalArgumentException("Could not create codec " + name, e);
+            }
+        }
+    };
+
+    private NBTCodecs() {
+    }
+
+    /**
+     * Gets the generated codec for a class. The codec is created once per class and shared.
+     *
+     * @param type The class with {@link NBTField mapped fields}
+     * @param <T> The type of the objects
+     * @return The codec
+     * @throws IllegalArgumentException if no codec was generated for the class
+     */
+    @SuppressWarnings ("unchecked")
+    public static <T> NBTCodec<T> get(Class<T> type) throws IllegalArgumentException {
+        return (NBTCodec<T>) CODECS.get(type);
+    }
+
+    /**
+     * Gets the binary name of the codec generated for a class
+     *
+     * @param className The binary name of the class
+     * @return The binary name of the codec
+     */
+    public static String getCodecName(String className) {
+        return className.replace('$', '_') + SUFFIX;
+    }
+}
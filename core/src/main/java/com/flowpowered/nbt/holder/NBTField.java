@@ -0,0 +1,48 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.holder;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Maps a field to a key in the {@link com.flowpowered.nbt.CompoundMap} of its class. The annotation processor in the {@code flow-nbt-processor} artifact generates an {@link NBTCodec} for every class with mapped fields.
+ * <p>
+ * Mapped fields must be non-private, non-static and non-final, and of one of the types {@code byte}, {@code short}, {@code int}, {@code long}, {@code float}, {@code double}, {@code boolean},
+ * {@code String}, {@code byte[]}, {@code short[]}, {@code int[]}, {@code long[]} or {@link com.flowpowered.nbt.CompoundMap}.
+ */
+@Documented
+@Retention (RetentionPolicy.CLASS)
+@Target (ElementType.FIELD)
+public @interface NBTField {
+    /**
+     * The key of the tag holding the field
+     *
+     * @return The key
+     */
+    String value();
+}
@@ -0,0 +1,73 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.holder;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import com.flowpowered.nbt.Tag;
+import com.flowpowered.nbt.TagType;
+
+/**
+ * A codec for values that may be null, in which case their tag is left out of the enclosing compound, see {@link Codecs#optional(Codec)}
+ */
+public class OptionalCodec<T> extends Codec<T> {
+    private final Codec<T> codec;
+
+    public OptionalCodec(Codec<T> codec) {
+        this.codec = codec;
+    }
+
+    @Override
+    public TagType getType() {
+        return codec.getType();
+    }
+
+    @Override
+    public boolean isOptional() {
+        return true;
+    }
+
+    public T getValue(Tag<?> tag) throws IllegalArgumentException {
+        return tag == null ? null : codec.getValue(tag);
+    }
+
+    public Tag<?> getValue(String name, T value) {
+        return value == null ? null : codec.getValue(name, value);
+    }
+
+    @Override
+    public void write(DataOutput out, T value) throws IOException {
+        if (value == null) {
+            throw new IllegalArgumentException("Absent optional values can only be written in compounds");
+        }
+        codec.write(out, value);
+    }
+
+    @Override
+    public T read(DataInput in) throws IOException {
+        return codec.read(in);
+    }
+}
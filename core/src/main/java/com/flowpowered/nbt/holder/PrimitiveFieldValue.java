@@ -0,0 +1,93 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.holder;
+
+/**
+ * The value of a primitive field, stored unboxed in the bits of a {@code long}. Subclasses convert between the bits and the value, and add accessors that avoid boxing it.
+ */
+public abstract class PrimitiveFieldValue<T> extends FieldValue<T> {
+    private final long defaultBits;
+    private long bits;
+
+    /**
+     * Creates the value, holding its default.
+     *
+     * @param key The key of the field
+     * @param field The field, used by the generic accessors
+     * @param defaultValue The default value
+     * @param defaultBits The bits of the default value
+     */
+    protected PrimitiveFieldValue(String key, Field<T> field, T defaultValue, long defaultBits) {
+        super(key, field, defaultValue);
+        this.defaultBits = defaultBits;
+        this.bits = defaultBits;
+    }
+
+    /**
+     * Convert a value to the bits it is stored as
+     *
+     * @param value The value
+     * @return The bits
+     */
+    protected abstract long toBits(T value);
+
+    /**
+     * Get the bits of the value
+     *
+     * @return The bits
+     */
+    protected final long getBits() {
+        return bits;
+    }
+
+    /**
+     * Set the bits of the value, and mark it as changed
+     *
+     * @param bits The bits
+     */
+    protected final void setBits(long bits) {
+        this.bits = bits;
+        markDirty();
+    }
+
+    /**
+     * Set the value, or reset it to the default value if null
+     *
+     * @param value The value
+     */
+    @Override
+    public void set(T value) {
+        setBits(value == null ? defaultBits : toBits(value));
+    }
+
+    /**
+     * Check whether this value was set since it was last saved. Primitive values can't change in place, so this doesn't look at the value, which would box it.
+     *
+     * @return Whether the value is dirty
+     */
+    @Override
+    public boolean isDirty() {
+        return isMarkedDirty();
+    }
+}
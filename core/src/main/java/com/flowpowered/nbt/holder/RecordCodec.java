@@ -0,0 +1,209 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.holder;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.flowpowered.nbt.CompoundMap;
+import com.flowpowered.nbt.CompoundTag;
+import com.flowpowered.nbt.Tag;
+import com.flowpowered.nbt.TagType;
+import com.flowpowered.nbt.stream.NBTInputStream;
+
+/**
+ * A codec for objects stored as a compound tag with one child per {@link Component}. Subclasses create the objects from the values of the components, so immutable classes are supported:
+ * <pre>
+ * public static final Component&lt;Point, Integer&gt; X = new Component&lt;Point, Integer&gt;("X", Codecs.INT) {
+ *     public Integer get(Point point) {
+ *         return point.x;
+ *     }
+ * };
+ * ...
+ * public static final Codec&lt;Point&gt; POINT = new RecordCodec&lt;Point&gt;(X, Y) {
+ *     protected Point create(Object[] values) {
+ *         return new Point(X.from(values), Y.from(values));
+ *     }
+ * };
+ * </pre>
+ * Children without a component are ignored when reading, and are skipped without being decoded when reading from a stream.
+ */
+public abstract class RecordCodec<T> extends Codec<T> {
+    private final Component<T, ?>[] components;
+    private final Map<String, Component<T, ?>> byKey;
+
+    @SafeVarargs
+    protected RecordCodec(Component<T, ?>... components) {
+        this.components = components.clone();
+        this.byKey = new HashMap<String, Component<T, ?>>(components.length * 2);
+        for (int i = 0; i < components.length; i++) {
+            Component<T, ?> component = components[i];
+            if (component.index >= 0) {
+                throw new IllegalArgumentException("Component " + component.key + " already belongs to a record");
+            }
+            if (byKey.put(component.key, component) != null) {
+                throw new IllegalArgumentException("Duplicate component " + component.key);
+            }
+            component.index = i;
+        }
+    }
+
+    /**
+     * Create an object from the values of its components
+     *
+     * @param values The values, in component order, use {@link Component#from(Object[])} to get them
+     * @return The object
+     */
+    protected abstract T create(Object[] values);
+
+    @Override
+    public TagType getType() {
+        return TagType.TAG_COMPOUND;
+    }
+
+    public T getValue(Tag<?> tag) throws IllegalArgumentException {
+        CompoundMap map = FieldUtils.checkTagCast(tag, CompoundTag.class).getValue();
+        Object[] values = new Object[components.length];
+        for (int i = 0; i < components.length; i++) {
+            Component<T, ?> component = components[i];
+            Tag<?> child = map.get(component.key);
+            if (child == null && !component.codec.isOptional()) {
+                throw new IllegalArgumentException("Missing " + component.key);
+            }
+            values[i] = component.codec.getValue(child);
+        }
+        return create(values);
+    }
+
+    public Tag<?> getValue(String name, T value) {
+        CompoundMap map = new CompoundMap();
+        for (Component<T, ?> component : components) {
+            Tag<?> child = component.getTag(value);
+            if (child != null) {
+                map.put(child);
+            }
+        }
+        return new CompoundTag(name, map);
+    }
+
+    @Override
+    public void write(DataOutput out, T value) throws IOException {
+        for (Component<T, ?> component : components) {
+            component.write(out, value);
+        }
+        out.writeByte(TagType.TAG_END.getId());
+    }
+
+    @Override
+    public T read(DataInput in) throws IOException {
+        Object[] values = new Object[components.length];
+        boolean[] found = new boolean[components.length];
+        while (true) {
+            TagType type = TagType.getById(in.readUnsignedByte());
+            if (type == TagType.TAG_END) {
+                break;
+            }
+            Component<T, ?> component = byKey.get(readString(in));
+            if (component == null) {
+                NBTInputStream.skipPayload(in, type);
+            } else {
+                checkType(type, component.codec.getType());
+                values[component.index] = component.codec.read(in);
+                found[component.index] = true;
+            }
+        }
+        for (int i = 0; i < components.length; i++) {
+            if (!found[i] && !components[i].codec.isOptional()) {
+                throw new IOException("Missing " + components[i].key);
+            }
+        }
+        return create(values);
+    }
+
+    /**
+     * A value of a record, stored as a child of its compound
+     *
+     * @param <T> The type of the records
+     * @param <V> The type of the value
+     */
+    public abstract static class Component<T, V> {
+        private final String key;
+        private final Codec<V> codec;
+        private int index = -1;
+
+        public Component(String key, Codec<V> codec) {
+            this.key = key;
+            this.codec = codec;
+        }
+
+        /**
+         * Get the value of this component from a record
+         *
+         * @param record The record
+         * @return The value
+         */
+        public abstract V get(T record);
+
+        /**
+         * Get the value of this component from the values passed to {@link RecordCodec#create(Object[])}
+         *
+         * @param values The values
+         * @return The value
+         */
+        @SuppressWarnings ("unchecked")
+        public V from(Object[] values) {
+            return (V) values[index];
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        private Tag<?> getTag(T record) {
+            V value = get(record);
+            if (value == null) {
+                if (!codec.isOptional()) {
+                    throw new IllegalArgumentException("Missing " + key);
+                }
+                return null;
+            }
+            return codec.getValue(key, value);
+        }
+
+        private void write(DataOutput out, T record) throws IOException {
+            V value = get(record);
+            if (value == null) {
+                if (!codec.isOptional()) {
+                    throw new IllegalArgumentException("Missing " + key);
+                }
+                return;
+            }
+            writeHeader(out, codec.getType(), key);
+            codec.write(out, value);
+        }
+    }
+}
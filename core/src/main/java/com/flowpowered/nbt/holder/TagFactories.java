@@ -0,0 +1,162 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.holder;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import com.flowpowered.nbt.ByteArrayTag;
+import com.flowpowered.nbt.ByteTag;
+import com.flowpowered.nbt.CompoundMap;
+import com.flowpowered.nbt.CompoundTag;
+import com.flowpowered.nbt.DoubleTag;
+import com.flowpowered.nbt.FloatTag;
+import com.flowpowered.nbt.IntArrayTag;
+import com.flowpowered.nbt.IntTag;
+import com.flowpowered.nbt.LongArrayTag;
+import com.flowpowered.nbt.LongTag;
+import com.flowpowered.nbt.ShortArrayTag;
+import com.flowpowered.nbt.ShortTag;
+import com.flowpowered.nbt.StringTag;
+import com.flowpowered.nbt.Tag;
+import com.flowpowered.nbt.TagType;
+
+/**
+ * Registry of the {@link TagFactory TagFactories} for every tag type that can be created from its value alone. The registry is filled once and never modified afterwards, so it is safe to use
+ * from any thread.
+ */
+public final class TagFactories {
+    private static final Map<TagType, TagFactory<?>> FACTORIES = new EnumMap<TagType, TagFactory<?>>(TagType.class);
+
+    static {
+        register(TagType.TAG_BYTE, new TagFactory<Byte>() {
+            @Override
+            public Tag<Byte> create(String name, Byte value) {
+                return ByteTag.valueOf(name, value);
+            }
+        });
+        register(TagType.TAG_SHORT, new TagFactory<Short>() {
+            @Override
+            public Tag<Short> create(String name, Short value) {
+                return ShortTag.valueOf(name, value);
+            }
+        });
+        register(TagType.TAG_INT, new TagFactory<Integer>() {
+            @Override
+            public Tag<Integer> create(String name, Integer value) {
+                return IntTag.valueOf(name, value);
+            }
+        });
+        register(TagType.TAG_LONG, new TagFactory<Long>() {
+            @Override
+            public Tag<Long> create(String name, Long value) {
+                return LongTag.valueOf(name, value);
+            }
+        });
+        register(TagType.TAG_FLOAT, new TagFactory<Float>() {
+            @Override
+            public Tag<Float> create(String name, Float value) {
+                return FloatTag.valueOf(name, value);
+            }
+        });
+        register(TagType.TAG_DOUBLE, new TagFactory<Double>() {
+            @Override
+            public Tag<Double> create(String name, Double value) {
+                return DoubleTag.valueOf(name, value);
+            }
+        });
+        register(TagType.TAG_BYTE_ARRAY, new TagFactory<byte[]>() {
+            @Override
+            public Tag<byte[]> create(String name, byte[] value) {
+                return new ByteArrayTag(name, value);
+            }
+        });
+        register(TagType.TAG_STRING, new TagFactory<String>() {
+            @Override
+            public Tag<String> create(String name, String value) {
+                return new StringTag(name, value);
+            }
+        });
+        register(TagType.TAG_COMPOUND, new TagFactory<CompoundMap>() {
+            @Override
+            public Tag<CompoundMap> create(String name, CompoundMap value) {
+                return new CompoundTag(name, value);
+            }
+        });
+        register(TagType.TAG_INT_ARRAY, new TagFactory<int[]>() {
+            @Override
+            public Tag<int[]> create(String name, int[] value) {
+                return new IntArrayTag(name, value);
+            }
+        });
+        register(TagType.TAG_LONG_ARRAY, new TagFactory<long[]>() {
+            @Override
+            public Tag<long[]> create(String name, long[] value) {
+                return new LongArrayTag(name, value);
+            }
+        });
+        register(TagType.TAG_SHORT_ARRAY, new TagFactory<short[]>() {
+            @Override
+            public Tag<short[]> create(String name, short[] value) {
+                return new ShortArrayTag(name, value);
+            }
+        });
+    }
+
+    private TagFactories() {
+    }
+
+    private static void register(TagType type, TagFactory<?> factory) {
+        FACTORIES.put(type, factory);
+    }
+
+    /**
+     * Gets the factory for a tag type
+     *
+     * @param type The tag type
+     * @param <T> The value type of the tags
+     * @return The factory
+     * @throws IllegalArgumentException if tags of the type cannot be created from a value alone, like lists
+     */
+    @SuppressWarnings ("unchecked")
+    public static <T> TagFactory<T> get(TagType type) throws IllegalArgumentException {
+        TagFactory<T> factory = (TagFactory<T>) FACTORIES.get(type);
+        if (factory == null) {
+            throw new IllegalArgumentException("No factory for " + type.getTypeName());
+        }
+        return factory;
+    }
+
+    /**
+     * Gets the factory for a tag class
+     *
+     * @param tagClass The tag class
+     * @param <T> The value type of the tags
+     * @return The factory
+     * @throws IllegalArgumentException if the class is not a known tag type, or tags of its type cannot be created from a value alone
+     */
+    public static <T> TagFactory<T> get(Class<? extends Tag<T>> tagClass) throws IllegalArgumentException {
+        return get(TagType.getByTagClass(tagClass));
+    }
+}
@@ -21,44 +21,20 @@
  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
  * THE SOFTWARE.
  */
-package com.flowpowered.nbt;
+package com.flowpowered.nbt.holder;
+
+import com.flowpowered.nbt.Tag;
 
 /**
- * The {@code TAG_Long} tag.
+ * Creates tags of one type from their name and value
  */
-public final class LongTag extends Tag<Long> {
-    /**
-     * The value.
-     */
-    private final long value;
-
+public interface TagFactory<T> {
     /**
-     * Creates the tag.
+     * Create a tag
      *
-     * @param name The name.
-     * @param value The value.
+     * @param name The name of the tag
+     * @param value The value of the tag
+     * @return The new tag
      */
-    public LongTag(String name, long value) {
-        super(TagType.TAG_LONG, name);
-        this.value = value;
-    }
-
-    @Override
-    public Long getValue() {
-        return value;
-    }
-
-    @Override
-    public String toString() {
-        String name = getName();
-        String append = "";
-        if (name != null && !name.equals("")) {
-            append = "(\"" + this.getName() + "\")";
-        }
-        return "TAG_Long" + append + ": " + value;
-    }
-
-    public LongTag clone() {
-        return new LongTag(getName(), value);
-    }
+    public Tag<T> create(String name, T value);
 }
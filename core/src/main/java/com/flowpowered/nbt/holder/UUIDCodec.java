@@ -0,0 +1,81 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.holder;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.UUID;
+
+import com.flowpowered.nbt.IntArrayTag;
+import com.flowpowered.nbt.Tag;
+import com.flowpowered.nbt.TagType;
+
+/**
+ * A codec for UUIDs stored as an int array of four elements, most significant first
+ */
+public class UUIDCodec extends Codec<UUID> {
+    public static final UUIDCodec INSTANCE = new UUIDCodec();
+
+    @Override
+    public TagType getType() {
+        return TagType.TAG_INT_ARRAY;
+    }
+
+    public UUID getValue(Tag<?> tag) throws IllegalArgumentException {
+        int[] ints = FieldUtils.checkTagCast(tag, IntArrayTag.class).getValue();
+        if (ints.length != 4) {
+            throw new IllegalArgumentException("Expected 4 ints for a UUID, found " + ints.length);
+        }
+        return new UUID((long) ints[0] << 32 | ints[1] & 0xFFFFFFFFL, (long) ints[2] << 32 | ints[3] & 0xFFFFFFFFL);
+    }
+
+    public Tag<?> getValue(String name, UUID value) {
+        long most = value.getMostSignificantBits();
+        long least = value.getLeastSignificantBits();
+        return new IntArrayTag(name, new int[] {(int) (most >>> 32), (int) most, (int) (least >>> 32), (int) least});
+    }
+
+    @Override
+    public void write(DataOutput out, UUID value) throws IOException {
+        long most = value.getMostSignificantBits();
+        long least = value.getLeastSignificantBits();
+        out.writeInt(4);
+        out.writeInt((int) (most >>> 32));
+        out.writeInt((int) most);
+        out.writeInt((int) (least >>> 32));
+        out.writeInt((int) least);
+    }
+
+    @Override
+    public UUID read(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length != 4) {
+            throw new IOException("Expected 4 ints for a UUID, found " + length);
+        }
+        long most = (long) in.readInt() << 32 | in.readInt() & 0xFFFFFFFFL;
+        long least = (long) in.readInt() << 32 | in.readInt() & 0xFFFFFFFFL;
+        return new UUID(most, least);
+    }
+}
@@ -0,0 +1,277 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.path;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.flowpowered.nbt.ByteTag;
+import com.flowpowered.nbt.DoubleTag;
+import com.flowpowered.nbt.FloatTag;
+import com.flowpowered.nbt.IntTag;
+import com.flowpowered.nbt.LongTag;
+import com.flowpowered.nbt.ShortTag;
+import com.flowpowered.nbt.StringTag;
+import com.flowpowered.nbt.Tag;
+
+/**
+ * A column extracted by a {@link ColumnExtractor}: the first tag selected by a path in each extracted tag, converted to a primitive array or a {@link DictionaryColumn}. Numeric columns accept any
+ * numeric tag and convert it, rows where the path selects nothing or a tag of another type get the missing value of the column.
+ */
+public abstract class Column {
+    private final String name;
+    private final TagPath path;
+
+    private Column(String name, TagPath path) {
+        this.name = name;
+        this.path = path;
+    }
+
+    /**
+     * Creates a column of doubles.
+     *
+     * @param name The name of the column.
+     * @param path The path of the values.
+     * @param missing The value of rows without a numeric value, for example {@link Double#NaN}.
+     * @return The column.
+     */
+    public static Column doubles(String name, TagPath path, final double missing) {
+        return new Column(name, path) {
+            @Override
+            Object allocate(int rows) {
+                return new double[rows];
+            }
+
+            @Override
+            void set(Object data, int row, Tag<?> value, Object state) {
+                ((double[]) data)[row] = isNumeric(value) ? toDouble(value) : missing;
+            }
+        };
+    }
+
+    /**
+     * Creates a column of ints. Floating point values are truncated.
+     *
+     * @param name The name of the column.
+     * @param path The path of the values.
+     * @param missing The value of rows without a numeric value.
+     * @return The column.
+     */
+    public static Column ints(String name, TagPath path, final int missing) {
+        return new Column(name, path) {
+            @Override
+            Object allocate(int rows) {
+                return new int[rows];
+            }
+
+            @Override
+            void set(Object data, int row, Tag<?> value, Object state) {
+                ((int[]) data)[row] = isNumeric(value) ? (int) toLong(value) : missing;
+            }
+        };
+    }
+
+    /**
+     * Creates a column of longs. Floating point values are truncated.
+     *
+     * @param name The name of the column.
+     * @param path The path of the values.
+     * @param missing The value of rows without a numeric value.
+     * @return The column.
+     */
+    public static Column longs(String name, TagPath path, final long missing) {
+        return new Column(name, path) {
+            @Override
+            Object allocate(int rows) {
+                return new long[rows];
+            }
+
+            @Override
+            void set(Object data, int row, Tag<?> value, Object state) {
+                ((long[]) data)[row] = isNumeric(value) ? toLong(value) : missing;
+            }
+        };
+    }
+
+    /**
+     * Creates a dictionary-encoded column of strings. Rows without a string value get the code -1.
+     *
+     * @param name The name of the column.
+     * @param path The path of the values.
+     * @return The column.
+     */
+    public static Column strings(String name, TagPath path) {
+        return new StringColumn(name, path);
+    }
+
+    /**
+     * Gets the name of this column.
+     *
+     * @return The name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the path of the values of this column.
+     *
+     * @return The path.
+     */
+    public TagPath getPath() {
+        return path;
+    }
+
+    /**
+     * Allocates the storage of the column.
+     *
+     * @param rows The number of rows.
+     * @return The storage.
+     */
+    abstract Object allocate(int rows);
+
+    /**
+     * Creates the state used while extracting one chunk of rows. Chunks are extracted by a single thread each.
+     *
+     * @return The state, or null if none is needed.
+     */
+    Object createChunkState() {
+        return null;
+    }
+
+    /**
+     * Stores the value of a row.
+     *
+     * @param data The storage.
+     * @param row The row.
+     * @param value The tag selected by the path, or null.
+     * @param state The state of the chunk the row is in.
+     */
+    abstract void set(Object data, int row, Tag<?> value, Object state);
+
+    /**
+     * Completes the column once every chunk has been extracted.
+     *
+     * @param data The storage.
+     * @param states The states of the chunks, in order.
+     * @param chunkSize The number of rows in each chunk but the last.
+     * @return The column as exposed by the {@link ColumnTable}.
+     */
+    Object finish(Object data, Object[] states, int chunkSize) {
+        return data;
+    }
+
+    private static boolean isNumeric(Tag<?> tag) {
+        return tag instanceof IntTag || tag instanceof DoubleTag || tag instanceof LongTag || tag instanceof FloatTag || tag instanceof ShortTag || tag instanceof ByteTag;
+    }
+
+    private static double toDouble(Tag<?> tag) {
+        if (tag instanceof DoubleTag) {
+            return ((DoubleTag) tag).getDoubleValue();
+        } else if (tag instanceof FloatTag) {
+            return ((FloatTag) tag).getFloatValue();
+        }
+        return toLong(tag);
+    }
+
+    private static long toLong(Tag<?> tag) {
+        if (tag instanceof IntTag) {
+            return ((IntTag) tag).getIntValue();
+        } else if (tag instanceof LongTag) {
+            return ((LongTag) tag).getLongValue();
+        } else if (tag instanceof ShortTag) {
+            return ((ShortTag) tag).getShortValue();
+        } else if (tag instanceof ByteTag) {
+            return ((ByteTag) tag).getByteValue();
+        } else if (tag instanceof DoubleTag) {
+            return (long) ((DoubleTag) tag).getDoubleValue();
+        }
+        return (long) ((FloatTag) tag).getFloatValue();
+    }
+
+    private static final class StringColumn extends Column {
+        private StringColumn(String name, TagPath path) {
+            super(name, path);
+        }
+
+        @Override
+        Object allocate(int rows) {
+            return new int[rows];
+        }
+
+        @Override
+        Object createChunkState() {
+            return new Dictionary();
+        }
+
+        @Override
+        void set(Object data, int row, Tag<?> value, Object state) {
+            ((int[]) data)[row] = value instanceof StringTag ? ((Dictionary) state).code(((StringTag) value).getValue()) : -1;
+        }
+
+        @Override
+        Object finish(Object data, Object[] states, int chunkSize) {
+            int[] codes = (int[]) data;
+            Dictionary global = new Dictionary();
+            for (int chunk = 0; chunk < states.length; chunk++) {
+                List<String> local = ((Dictionary) states[chunk]).strings;
+                int[] mapping = new int[local.size()];
+                boolean identity = true;
+                for (int i = 0; i < mapping.length; i++) {
+                    mapping[i] = global.code(local.get(i));
+                    identity &= mapping[i] == i;
+                }
+                if (!identity) {
+                    int end = Math.min(codes.length, (chunk + 1) * chunkSize);
+                    for (int row = chunk * chunkSize; row < end; row++) {
+                        if (codes[row] >= 0) {
+                            codes[row] = mapping[codes[row]];
+                        }
+                    }
+                }
+            }
+            return new DictionaryColumn(codes, global.strings.toArray(new String[global.strings.size()]));
+        }
+    }
+
+    /**
+     * Assigns codes to strings in order of first appearance.
+     */
+    private static final class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<String, Integer>();
+        private final List<String> strings = new ArrayList<String>();
+
+        private int code(String string) {
+            Integer code = codes.get(string);
+            if (code == null) {
+                code = strings.size();
+                codes.put(string, code);
+                strings.add(string);
+            }
+            return code;
+        }
+    }
+}
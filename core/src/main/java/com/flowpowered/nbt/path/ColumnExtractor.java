@@ -0,0 +1,245 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.path;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import com.flowpowered.nbt.Tag;
+import com.flowpowered.nbt.stream.NBTInputStream;
+
+/**
+ * Extracts the same {@link Column Columns} from many tags at once, filling primitive arrays and dictionary-encoded string columns in a single pass over the tags. Extraction can run in parallel on a
+ * {@link ForkJoinPool}: rows are split into fixed chunks, so the result does not depend on the number of threads.
+ * <pre>
+ * ColumnExtractor extractor = new ColumnExtractor(
+ *         Column.doubles("x", TagPath.compile("Pos[0]"), Double.NaN),
+ *         Column.ints("health", TagPath.compile("Health"), 0),
+ *         Column.strings("id", TagPath.compile("id")));
+ * ColumnTable table = extractor.extract(entities, new ForkJoinPool());
+ * </pre>
+ * Extractors are immutable and can be shared between threads.
+ */
+public final class ColumnExtractor {
+    /**
+     * The number of rows in each chunk, the unit of parallel work.
+     */
+    private static final int CHUNK_SIZE = 4096;
+    private final Column[] columns;
+    private final PathFilter filter;
+
+    /**
+     * Creates an extractor.
+     *
+     * @param columns The columns to extract, with distinct names.
+     * @throws IllegalArgumentException if two columns have the same name.
+     */
+    public ColumnExtractor(Column... columns) throws IllegalArgumentException {
+        this.columns = columns.clone();
+        TagPath[] paths = new TagPath[columns.length];
+        Map<String, Column> names = new HashMap<String, Column>();
+        for (int i = 0; i < columns.length; i++) {
+            if (names.put(columns[i].getName(), columns[i]) != null) {
+                throw new IllegalArgumentException("Duplicate column " + columns[i].getName());
+            }
+            paths[i] = columns[i].getPath();
+        }
+        this.filter = PathFilter.of(paths);
+    }
+
+    /**
+     * Extracts the columns from tags, in the calling thread.
+     *
+     * @param tags The tags, one per row.
+     * @return The columns.
+     */
+    public ColumnTable extract(Iterable<? extends Tag<?>> tags) {
+        return extract(tags, null);
+    }
+
+    /**
+     * Extracts the columns from tags.
+     *
+     * @param tags The tags, one per row.
+     * @param pool The pool to extract in parallel with, or null to extract in the calling thread.
+     * @return The columns.
+     */
+    public ColumnTable extract(Iterable<? extends Tag<?>> tags, ForkJoinPool pool) {
+        final List<? extends Tag<?>> list = toList(tags);
+        try {
+            return extract(new Rows() {
+                @Override
+                public int size() {
+                    return list.size();
+                }
+
+                @Override
+                public Tag<?> get(int row) {
+                    return list.get(row);
+                }
+            }, pool);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Decodes encoded tags and extracts the columns from them. Only the parts of each tag the column paths need are decoded.
+     *
+     * @param blobs The encoded tags, one per row.
+     * @param compressed Whether the tags are compressed.
+     * @param pool The pool to extract in parallel with, or null to extract in the calling thread.
+     * @return The columns.
+     * @throws IOException if a tag could not be decoded.
+     */
+    public ColumnTable extractEncoded(Iterable<byte[]> blobs, final boolean compressed, ForkJoinPool pool) throws IOException {
+        final List<byte[]> list = toList(blobs);
+        return extract(new Rows() {
+            @Override
+            public int size() {
+                return list.size();
+            }
+
+            @Override
+            public Tag<?> get(int row) throws IOException {
+                NBTInputStream is = new NBTInputStream(new ByteArrayInputStream(list.get(row)), compressed);
+                try {
+                    return is.readTag(filter);
+                } finally {
+                    is.close();
+                }
+            }
+        }, pool);
+    }
+
+    private ColumnTable extract(Rows rows, ForkJoinPool pool) throws IOException {
+        int size = rows.size();
+        int chunks = Math.max(1, (size + CHUNK_SIZE - 1) / CHUNK_SIZE);
+        Object[] data = new Object[columns.length];
+        Object[][] states = new Object[columns.length][chunks];
+        for (int i = 0; i < columns.length; i++) {
+            data[i] = columns[i].allocate(size);
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                states[i][chunk] = columns[i].createChunkState();
+            }
+        }
+
+        ExtractTask task = new ExtractTask(rows, data, states, 0, chunks);
+        if (pool == null) {
+            task.compute();
+        } else {
+            pool.invoke(task);
+        }
+        if (task.failure != null) {
+            throw task.failure;
+        }
+
+        Map<String, Object> result = new HashMap<String, Object>();
+        for (int i = 0; i < columns.length; i++) {
+            result.put(columns[i].getName(), columns[i].finish(data[i], states[i], CHUNK_SIZE));
+        }
+        return new ColumnTable(size, result);
+    }
+
+    @SuppressWarnings ("unchecked")
+    private static <T> List<T> toList(Iterable<? extends T> iterable) {
+        if (iterable instanceof List) {
+            return (List<T>) iterable;
+        }
+        List<T> list = iterable instanceof Collection ? new ArrayList<T>(((Collection<?>) iterable).size()) : new ArrayList<T>();
+        for (T element : iterable) {
+            list.add(element);
+        }
+        return list;
+    }
+
+    /**
+     * The source of the tags of each row.
+     */
+    private interface Rows {
+        public int size();
+
+        public Tag<?> get(int row) throws IOException;
+    }
+
+    /**
+     * Extracts a range of chunks, splitting it in halves until a single chunk is left.
+     */
+    private final class ExtractTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final Rows rows;
+        private final Object[] data;
+        private final Object[][] states;
+        private final int fromChunk;
+        private final int toChunk;
+        /**
+         * The first decoding failure in this range, if any.
+         */
+        private IOException failure;
+
+        private ExtractTask(Rows rows, Object[] data, Object[][] states, int fromChunk, int toChunk) {
+            this.rows = rows;
+            this.data = data;
+            this.states = states;
+            this.fromChunk = fromChunk;
+            this.toChunk = toChunk;
+        }
+
+        @Override
+        protected void compute() {
+            if (toChunk - fromChunk > 1 && inForkJoinPool()) {
+                int middle = (fromChunk + toChunk) >>> 1;
+                ExtractTask left = new ExtractTask(rows, data, states, fromChunk, middle);
+                ExtractTask right = new ExtractTask(rows, data, states, middle, toChunk);
+                invokeAll(left, right);
+                failure = left.failure != null ? left.failure : right.failure;
+                return;
+            }
+            try {
+                for (int chunk = fromChunk; chunk < toChunk; chunk++) {
+                    extractChunk(chunk);
+                }
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+
+        private void extractChunk(int chunk) throws IOException {
+            int end = Math.min(rows.size(), (chunk + 1) * CHUNK_SIZE);
+            for (int row = chunk * CHUNK_SIZE; row < end; row++) {
+                Tag<?> tag = rows.get(row);
+                for (int i = 0; i < columns.length; i++) {
+                    columns[i].set(data[i], row, columns[i].getPath().selectFirst(tag), states[i][chunk]);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.path;
+
+import java.util.Map;
+
+/**
+ * The columns extracted by a {@link ColumnExtractor}, one value per extracted tag in each column. The arrays are returned without being copied.
+ */
+public final class ColumnTable {
+    private final int rows;
+    private final Map<String, Object> columns;
+
+    ColumnTable(int rows, Map<String, Object> columns) {
+        this.rows = rows;
+        this.columns = columns;
+    }
+
+    /**
+     * Gets the number of rows, which is the number of extracted tags.
+     *
+     * @return The number of rows.
+     */
+    public int getRowCount() {
+        return rows;
+    }
+
+    /**
+     * Gets a column created with {@link Column#doubles(String, TagPath, double)}.
+     *
+     * @param name The name of the column.
+     * @return The values.
+     * @throws IllegalArgumentException if there is no double column with that name.
+     */
+    public double[] getDoubles(String name) throws IllegalArgumentException {
+        return get(name, double[].class);
+    }
+
+    /**
+     * Gets a column created with {@link Column#ints(String, TagPath, int)}.
+     *
+     * @param name The name of the column.
+     * @return The values.
+     * @throws IllegalArgumentException if there is no int column with that name.
+     */
+    public int[] getInts(String name) throws IllegalArgumentException {
+        return get(name, int[].class);
+    }
+
+    /**
+     * Gets a column created with {@link Column#longs(String, TagPath, long)}.
+     *
+     * @param name The name of the column.
+     * @return The values.
+     * @throws IllegalArgumentException if there is no long column with that name.
+     */
+    public long[] getLongs(String name) throws IllegalArgumentException {
+        return get(name, long[].class);
+    }
+
+    /**
+     * Gets a column created with {@link Column#strings(String, TagPath)}.
+     *
+     * @param name The name of the column.
+     * @return The values.
+     * @throws IllegalArgumentException if there is no string column with that name.
+     */
+    public DictionaryColumn getStrings(String name) throws IllegalArgumentException {
+        return get(name, DictionaryColumn.class);
+    }
+
+    private <T> T get(String name, Class<T> type) throws IllegalArgumentException {
+        Object column = columns.get(name);
+        if (!type.isInstance(column)) {
+            throw new IllegalArgumentException("No " + type.getSimpleName() + " column named " + name);
+        }
+        return type.cast(column);
+    }
+}
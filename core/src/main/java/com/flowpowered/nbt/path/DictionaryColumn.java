@@ -0,0 +1,76 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.path;
+
+/**
+ * A dictionary-encoded column of strings extracted by a {@link ColumnExtractor}. Each row holds a code indexing the dictionary, or -1 if the row has no value. Codes are assigned in order of first
+ * appearance.
+ */
+public final class DictionaryColumn {
+    private final int[] codes;
+    private final String[] dictionary;
+
+    DictionaryColumn(int[] codes, String[] dictionary) {
+        this.codes = codes;
+        this.dictionary = dictionary;
+    }
+
+    /**
+     * Gets the code of each row, -1 for rows without a value. The array is not copied.
+     *
+     * @return The codes.
+     */
+    public int[] getCodes() {
+        return codes;
+    }
+
+    /**
+     * Gets the distinct strings of the column, indexed by code. The array is not copied.
+     *
+     * @return The dictionary.
+     */
+    public String[] getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Gets the string of a row.
+     *
+     * @param row The row.
+     * @return The string, or null if the row has no value.
+     */
+    public String get(int row) {
+        int code = codes[row];
+        return code < 0 ? null : dictionary[code];
+    }
+
+    /**
+     * Gets the number of rows.
+     *
+     * @return The number of rows.
+     */
+    public int size() {
+        return codes.length;
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.path;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.flowpowered.nbt.stream.TagFilter;
+
+/**
+ * The {@link TagFilter} selecting the parts of a tree a {@link TagPath} needs: the tags its steps walk through, the tags its filter steps test, and the whole subtrees of the tags it selects.
+ */
+final class PathFilter implements TagFilter {
+    private final Map<String, PathFilter> children = new HashMap<String, PathFilter>();
+    /**
+     * The filter for every child of a compound, set by wildcard and filter steps.
+     */
+    private PathFilter anyChild;
+    private PathFilter elements;
+    /**
+     * Whether everything below the tag is needed.
+     */
+    private boolean all;
+
+    /**
+     * Creates the filter selecting the parts of a tree needed by any of the given paths.
+     *
+     * @param paths The paths.
+     * @return The filter.
+     */
+    static PathFilter of(TagPath... paths) {
+        PathFilter root = new PathFilter();
+        for (TagPath path : paths) {
+            root.add(path.steps, 0);
+        }
+        root.finish();
+        return root;
+    }
+
+    @Override
+    public TagFilter getChildFilter(String name) {
+        if (all) {
+            return ALL;
+        }
+        PathFilter child = children.get(name);
+        return child != null ? child : anyChild;
+    }
+
+    @Override
+    public TagFilter getElementFilter() {
+        return all ? ALL : elements;
+    }
+
+    /**
+     * Adds the parts of a tree needed by the remaining steps of a path.
+     *
+     * @param steps The steps.
+     * @param index The index of the next step.
+     */
+    void add(TagPath.Step[] steps, int index) {
+        if (index == steps.length) {
+            all = true;
+            return;
+        }
+        TagPath.Step step = steps[index];
+        if (step instanceof TagPath.ChildStep) {
+            String name = ((TagPath.ChildStep) step).name;
+            PathFilter child = children.get(name);
+            if (child == null) {
+                child = new PathFilter();
+                children.put(name, child);
+            }
+            child.add(steps, index + 1);
+        } else if (step instanceof TagPath.IndexStep) {
+            elements().add(steps, index + 1);
+        } else {
+            // Wildcards and filters apply to both list elements and compound children
+            PathFilter[] targets = {elements(), anyChild()};
+            for (PathFilter target : targets) {
+                if (step instanceof TagPath.FilterStep) {
+                    TagPath relative = ((TagPath.FilterStep) step).relative;
+                    target.add(relative.steps, 0);
+                }
+                target.add(steps, index + 1);
+            }
+        }
+    }
+
+    /**
+     * Merges the filter for any child into the filters of the named children, so that each child only needs one lookup.
+     */
+    void finish() {
+        if (anyChild != null) {
+            anyChild.finish();
+            for (Map.Entry<String, PathFilter> entry : children.entrySet()) {
+                PathFilter merged = new PathFilter();
+                merged.merge(anyChild);
+                merged.merge(entry.getValue());
+                entry.setValue(merged);
+            }
+        }
+        for (PathFilter child : children.values()) {
+            child.finish();
+        }
+        if (elements != null) {
+            elements.finish();
+        }
+    }
+
+    private void merge(PathFilter other) {
+        all |= other.all;
+        for (Map.Entry<String, PathFilter> entry : other.children.entrySet()) {
+            PathFilter child = children.get(entry.getKey());
+            if (child == null) {
+                child = new PathFilter();
+                children.put(entry.getKey(), child);
+            }
+            child.merge(entry.getValue());
+        }
+        if (other.anyChild != null) {
+            anyChild().merge(other.anyChild);
+        }
+        if (other.elements != null) {
+            elements().merge(other.elements);
+        }
+    }
+
+    private PathFilter elements() {
+        if (elements == null) {
+            elements = new PathFilter();
+        }
+        return elements;
+    }
+
+    private PathFilter anyChild() {
+        if (anyChild == null) {
+            anyChild = new PathFilter();
+        }
+        return anyChild;
+    }
+}
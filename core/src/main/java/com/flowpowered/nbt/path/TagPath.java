@@ -0,0 +1,609 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.path;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.flowpowered.nbt.ByteTag;
+import com.flowpowered.nbt.CompoundTag;
+import com.flowpowered.nbt.DoubleTag;
+import com.flowpowered.nbt.FloatTag;
+import com.flowpowered.nbt.IntTag;
+import com.flowpowered.nbt.ListTag;
+import com.flowpowered.nbt.LongTag;
+import com.flowpowered.nbt.ShortTag;
+import com.flowpowered.nbt.StringTag;
+import com.flowpowered.nbt.Tag;
+import com.flowpowered.nbt.stream.NBTInputStream;
+import com.flowpowered.nbt.stream.TagFilter;
+
+/**
+ * A compiled path expression selecting tags in a tree. Paths are compiled once with {@link #compile(String)} and can then be evaluated any number of times, from any thread, without parsing.
+ * <p>
+ * A path is a sequence of steps, each applied to the tags selected by the previous one, starting from the root tag:
+ * <ul>
+ * <li>{@code name} or {@code .name} selects the child of a compound with that name, {@code ['name']} does the same for names with special characters.</li>
+ * <li>{@code [3]} selects an element of a list, negative indices count from the end.</li>
+ * <li>{@code [*]} or {@code .*} selects all the elements of a list, or all the children of a compound.</li>
+ * <li>{@code [?(@.Slot == 3)]} selects the elements of a list, or the children of a compound, for which the relative path after {@code @} selects a tag matching the comparison. Numbers, quoted
+ * strings, {@code true} and {@code false} can be compared with {@code ==}, {@code !=}, {@code <}, {@code <=}, {@code >} and {@code >=}. Without a comparison, as in {@code [?(@.CustomName)]}, the
+ * path only has to select a tag.</li>
+ * </ul>
+ * For example {@code Level.Sections[*].Y} or {@code Inventory[?(@.Slot == 3)].id}.
+ * <p>
+ * Paths can also be evaluated on an {@link NBTInputStream}, in which case only the parts of the tree the path needs are decoded, see {@link #select(NBTInputStream)}.
+ */
+public final class TagPath {
+    private final String expression;
+    /**
+     * The compiled steps, applied in order.
+     */
+    final Step[] steps;
+    private volatile TagFilter filter;
+
+    private TagPath(String expression, Step[] steps) {
+        this.expression = expression;
+        this.steps = steps;
+    }
+
+    /**
+     * Compiles a path expression.
+     *
+     * @param expression The expression.
+     * @return The compiled path.
+     * @throws IllegalArgumentException if the expression is not valid.
+     */
+    public static TagPath compile(String expression) throws IllegalArgumentException {
+        Parser parser = new Parser(expression);
+        TagPath path = parser.parsePath(true);
+        if (!parser.atEnd()) {
+            throw parser.error("Unexpected character");
+        }
+        return path;
+    }
+
+    /**
+     * Selects all the tags matching this path.
+     *
+     * @param root The tag to start from.
+     * @return The matching tags, in tree order.
+     */
+    public List<Tag<?>> select(Tag<?> root) {
+        List<Tag<?>> result = new ArrayList<Tag<?>>();
+        collect(root, 0, result);
+        return result;
+    }
+
+    /**
+     * Selects the first tag matching this path, stopping the search as soon as it is found. Unlike {@link #select(Tag)} this does not allocate, so it can be called once per row and column
+     * when extracting data from many tags.
+     *
+     * @param root The tag to start from.
+     * @return The first matching tag, or null if there is none.
+     */
+    public Tag<?> selectFirst(Tag<?> root) {
+        return first(root, 0);
+    }
+
+    /**
+     * Selects the first tag matching this path, if it is of the given class.
+     *
+     * @param root The tag to start from.
+     * @param type The tag class.
+     * @param <T> The tag type.
+     * @return The first matching tag, or null if there is none or it is not of the given class.
+     */
+    public <T extends Tag<?>> T selectFirst(Tag<?> root, Class<T> type) {
+        Tag<?> tag = selectFirst(root);
+        return type.isInstance(tag) ? type.cast(tag) : null;
+    }
+
+    /**
+     * Reads a tag from a stream and selects all the tags matching this path. Only the parts of the tree needed to evaluate the path are decoded, the payloads of all others are skipped.
+     *
+     * @param in The stream.
+     * @return The matching tags, in tree order.
+     * @throws IOException if an I/O error occurs.
+     */
+    public List<Tag<?>> select(NBTInputStream in) throws IOException {
+        return select(in.readTag(getFilter()));
+    }
+
+    /**
+     * Gets the filter selecting the parts of a tree this path needs, for use with {@link NBTInputStream#readTag(TagFilter)}.
+     *
+     * @return The filter.
+     */
+    public TagFilter getFilter() {
+        TagFilter filter = this.filter;
+        if (filter == null) {
+            this.filter = filter = PathFilter.of(this);
+        }
+        return filter;
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+
+    /**
+     * Passes a tag through the remaining steps, collecting it at the end.
+     *
+     * @param tag The tag.
+     * @param index The index of the next step.
+     * @param result The list of matching tags.
+     */
+    private void collect(Tag<?> tag, int index, List<Tag<?>> result) {
+        if (index == steps.length) {
+            result.add(tag);
+        } else {
+            steps[index].apply(tag, this, index + 1, result);
+        }
+    }
+
+    /**
+     * Passes a tag through the remaining steps, stopping at the first match.
+     *
+     * @param tag The tag.
+     * @param index The index of the next step.
+     * @return The first matching tag, or null if there is none.
+     */
+    private Tag<?> first(Tag<?> tag, int index) {
+        return index == steps.length ? tag : steps[index].first(tag, this, index + 1);
+    }
+
+    /**
+     * A step of a path.
+     */
+    abstract static class Step {
+        /**
+         * Applies this step to a tag, passing the selected tags to the next step of the path.
+         */
+        abstract void apply(Tag<?> tag, TagPath path, int next, List<Tag<?>> result);
+
+        /**
+         * Applies this step to a tag, passing the selected tags to the next step of the path until one of them leads to a match.
+         *
+         * @return The first matching tag, or null if there is none.
+         */
+        abstract Tag<?> first(Tag<?> tag, TagPath path, int next);
+
+        /**
+         * Passes all the elements of a list, or all the children of a compound, that match this step to the next step of the path.
+         */
+        final void applyToContents(Tag<?> tag, TagPath path, int next, List<Tag<?>> result) {
+            if (tag instanceof ListTag) {
+                List<? extends Tag<?>> elements = ((ListTag<?>) tag).getValue();
+                for (int i = 0; i < elements.size(); i++) {
+                    Tag<?> element = elements.get(i);
+                    if (matches(element)) {
+                        path.collect(element, next, result);
+                    }
+                }
+            } else if (tag instanceof CompoundTag) {
+                for (Tag<?> element : ((CompoundTag) tag).getValue().values()) {
+                    if (matches(element)) {
+                        path.collect(element, next, result);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Passes the elements of a list, or the children of a compound, that match this step to the next step of the path until one of them leads to a match. Lists are walked by index so
+         * that no iterator is created.
+         *
+         * @return The first matching tag, or null if there is none.
+         */
+        final Tag<?> firstInContents(Tag<?> tag, TagPath path, int next) {
+            if (tag instanceof ListTag) {
+                List<? extends Tag<?>> elements = ((ListTag<?>) tag).getValue();
+                for (int i = 0; i < elements.size(); i++) {
+                    Tag<?> element = elements.get(i);
+                    if (matches(element)) {
+                        Tag<?> found = path.first(element, next);
+                        if (found != null) {
+                            return found;
+                        }
+                    }
+                }
+            } else if (tag instanceof CompoundTag) {
+                for (Tag<?> element : ((CompoundTag) tag).getValue().values()) {
+                    if (matches(element)) {
+                        Tag<?> found = path.first(element, next);
+                        if (found != null) {
+                            return found;
+                        }
+                    }
+                }
+            }
+            return null;
+        }
+
+        boolean matches(Tag<?> element) {
+            return true;
+        }
+    }
+
+    static final class ChildStep extends Step {
+        final String name;
+
+        ChildStep(String name) {
+            this.name = name;
+        }
+
+        @Override
+        void apply(Tag<?> tag, TagPath path, int next, List<Tag<?>> result) {
+            Tag<?> child = child(tag);
+            if (child != null) {
+                path.collect(child, next, result);
+            }
+        }
+
+        @Override
+        Tag<?> first(Tag<?> tag, TagPath path, int next) {
+            Tag<?> child = child(tag);
+            return child == null ? null : path.first(child, next);
+        }
+
+        private Tag<?> child(Tag<?> tag) {
+            return tag instanceof CompoundTag ? ((CompoundTag) tag).getValue().get(name) : null;
+        }
+    }
+
+    static final class IndexStep extends Step {
+        private final int index;
+
+        IndexStep(int index) {
+            this.index = index;
+        }
+
+        @Override
+        void apply(Tag<?> tag, TagPath path, int next, List<Tag<?>> result) {
+            Tag<?> element = element(tag);
+            if (element != null) {
+                path.collect(element, next, result);
+            }
+        }
+
+        @Override
+        Tag<?> first(Tag<?> tag, TagPath path, int next) {
+            Tag<?> element = element(tag);
+            return element == null ? null : path.first(element, next);
+        }
+
+        private Tag<?> element(Tag<?> tag) {
+            if (tag instanceof ListTag) {
+                List<? extends Tag<?>> elements = ((ListTag<?>) tag).getValue();
+                int i = index < 0 ? elements.size() + index : index;
+                return i >= 0 && i < elements.size() ? elements.get(i) : null;
+            }
+            return null;
+        }
+    }
+
+    static final class WildcardStep extends Step {
+        @Override
+        void apply(Tag<?> tag, TagPath path, int next, List<Tag<?>> result) {
+            applyToContents(tag, path, next, result);
+        }
+
+        @Override
+        Tag<?> first(Tag<?> tag, TagPath path, int next) {
+            return firstInContents(tag, path, next);
+        }
+    }
+
+    static final class FilterStep extends Step {
+        final TagPath relative;
+        private final Comparison comparison;
+
+        FilterStep(TagPath relative, Comparison comparison) {
+            this.relative = relative;
+            this.comparison = comparison;
+        }
+
+        @Override
+        void apply(Tag<?> tag, TagPath path, int next, List<Tag<?>> result) {
+            applyToContents(tag, path, next, result);
+        }
+
+        @Override
+        Tag<?> first(Tag<?> tag, TagPath path, int next) {
+            return firstInContents(tag, path, next);
+        }
+
+        @Override
+        boolean matches(Tag<?> element) {
+            Tag<?> value = relative.selectFirst(element);
+            return value != null && (comparison == null || comparison.matches(value));
+        }
+    }
+
+    /**
+     * A comparison of a tag against a literal, in a filter step.
+     */
+    static final class Comparison {
+        private final String operator;
+        private final String string;
+        private final boolean integral;
+        private final long longValue;
+        private final double doubleValue;
+
+        Comparison(String operator, String string) {
+            this.operator = operator;
+            this.string = string;
+            this.integral = false;
+            this.longValue = 0;
+            this.doubleValue = 0;
+        }
+
+        Comparison(String operator, long value) {
+            this.operator = operator;
+            this.string = null;
+            this.integral = true;
+            this.longValue = value;
+            this.doubleValue = value;
+        }
+
+        Comparison(String operator, double value) {
+            this.operator = operator;
+            this.string = null;
+            this.integral = false;
+            this.longValue = 0;
+            this.doubleValue = value;
+        }
+
+        boolean matches(Tag<?> tag) {
+            int result;
+            if (string != null) {
+                if (!(tag instanceof StringTag)) {
+                    return operator.equals("!=");
+                }
+                result = ((StringTag) tag).getValue().compareTo(string);
+            } else if (tag instanceof ByteTag) {
+                result = compare(((ByteTag) tag).getByteValue());
+            } else if (tag instanceof ShortTag) {
+                result = compare(((ShortTag) tag).getShortValue());
+            } else if (tag instanceof IntTag) {
+                result = compare(((IntTag) tag).getIntValue());
+            } else if (tag instanceof LongTag) {
+                result = compare(((LongTag) tag).getLongValue());
+            } else if (tag instanceof FloatTag) {
+                result = Double.compare(((FloatTag) tag).getFloatValue(), doubleValue);
+            } else if (tag instanceof DoubleTag) {
+                result = Double.compare(((DoubleTag) tag).getDoubleValue(), doubleValue);
+            } else {
+                return operator.equals("!=");
+            }
+            switch (operator) {
+                case "==":
+                    return result == 0;
+                case "!=":
+                    return result != 0;
+                case "<":
+                    return result < 0;
+                case "<=":
+                    return result <= 0;
+                case ">":
+                    return result > 0;
+                default:
+                    return result >= 0;
+            }
+        }
+
+        private int compare(long value) {
+            return integral ? (value < longValue ? -1 : value == longValue ? 0 : 1) : Double.compare(value, doubleValue);
+        }
+    }
+
+    /**
+     * Parses path expressions.
+     */
+    private static final class Parser {
+        private final String expression;
+        private int position;
+
+        private Parser(String expression) {
+            this.expression = expression;
+        }
+
+        private boolean atEnd() {
+            return position >= expression.length();
+        }
+
+        private char peek() {
+            return atEnd() ? '\0' : expression.charAt(position);
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at position " + position + " in path: " + expression);
+        }
+
+        private void skipWhitespace() {
+            while (!atEnd() && Character.isWhitespace(peek())) {
+                position++;
+            }
+        }
+
+        private void expect(char c) {
+            if (peek() != c) {
+                throw error("Expected '" + c + "'");
+            }
+            position++;
+        }
+
+        /**
+         * Parses steps until the end of the expression, or a character that can't start a step.
+         *
+         * @param absolute Whether this is the whole path, which may start with a name without a dot.
+         */
+        private TagPath parsePath(boolean absolute) {
+            int start = position;
+            List<Step> steps = new ArrayList<Step>();
+            if (absolute && peek() == '$') {
+                position++;
+            } else if (absolute && isNameChar(peek())) {
+                steps.add(new ChildStep(parseName()));
+            }
+            while (true) {
+                char c = peek();
+                if (c == '.') {
+                    position++;
+                    if (peek() == '*') {
+                        position++;
+                        steps.add(new WildcardStep());
+                    } else {
+                        steps.add(new ChildStep(parseName()));
+                    }
+                } else if (c == '[') {
+                    steps.add(parseBracket());
+                } else {
+                    break;
+                }
+            }
+            return new TagPath(expression.substring(start, position), steps.toArray(new Step[steps.size()]));
+        }
+
+        private Step parseBracket() {
+            expect('[');
+            skipWhitespace();
+            Step step;
+            char c = peek();
+            if (c == '*') {
+                position++;
+                step = new WildcardStep();
+            } else if (c == '\'' || c == '"') {
+                step = new ChildStep(parseString());
+            } else if (c == '?') {
+                position++;
+                expect('(');
+                skipWhitespace();
+                expect('@');
+                TagPath relative = parsePath(false);
+                skipWhitespace();
+                Comparison comparison = null;
+                if (peek() != ')') {
+                    String operator = parseOperator();
+                    skipWhitespace();
+                    comparison = parseLiteral(operator);
+                    skipWhitespace();
+                }
+                expect(')');
+                step = new FilterStep(relative, comparison);
+            } else {
+                int start = position;
+                if (c == '-') {
+                    position++;
+                }
+                while (Character.isDigit(peek())) {
+                    position++;
+                }
+                if (start == position || expression.charAt(position - 1) == '-') {
+                    throw error("Expected an index, '*', a quoted name or a filter");
+                }
+                step = new IndexStep(Integer.parseInt(expression.substring(start, position)));
+            }
+            skipWhitespace();
+            expect(']');
+            return step;
+        }
+
+        private String parseName() {
+            int start = position;
+            while (isNameChar(peek())) {
+                position++;
+            }
+            if (start == position) {
+                throw error("Expected a name");
+            }
+            return expression.substring(start, position);
+        }
+
+        private static boolean isNameChar(char c) {
+            return c != '\0' && ".[]()'\"@=!<>".indexOf(c) < 0 && !Character.isWhitespace(c);
+        }
+
+        private String parseString() {
+            char quote = peek();
+            position++;
+            StringBuilder builder = new StringBuilder();
+            while (peek() != quote) {
+                if (atEnd()) {
+                    throw error("Unterminated string");
+                }
+                char c = expression.charAt(position++);
+                if (c == '\\') {
+                    if (atEnd()) {
+                        throw error("Unterminated string");
+                    }
+                    c = expression.charAt(position++);
+                }
+                builder.append(c);
+            }
+            position++;
+            return builder.toString();
+        }
+
+        private String parseOperator() {
+            for (String operator : new String[] {"==", "!=", "<=", ">=", "<", ">"}) {
+                if (expression.startsWith(operator, position)) {
+                    position += operator.length();
+                    return operator;
+                }
+            }
+            throw error("Expected a comparison operator");
+        }
+
+        private Comparison parseLiteral(String operator) {
+            char c = peek();
+            if (c == '\'' || c == '"') {
+                return new Comparison(operator, parseString());
+            } else if (expression.startsWith("true", position)) {
+                position += 4;
+                return new Comparison(operator, 1);
+            } else if (expression.startsWith("false", position)) {
+                position += 5;
+                return new Comparison(operator, 0);
+            }
+            int start = position;
+            while (!atEnd() && "+-.0123456789eE".indexOf(peek()) >= 0) {
+                position++;
+            }
+            String number = expression.substring(start, position);
+            try {
+                if (number.indexOf('.') < 0 && number.indexOf('e') < 0 && number.indexOf('E') < 0) {
+                    return new Comparison(operator, Long.parseLong(number));
+                }
+                return new Comparison(operator, Double.parseDouble(number));
+            } catch (NumberFormatException e) {
+                position = start;
+                throw error("Expected a number, a quoted string, true or false");
+            }
+        }
+    }
+}
@@ -0,0 +1,285 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.regionfile;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.BitSet;
+import java.util.zip.GZIPInputStream;
+
+import com.flowpowered.nbt.Tag;
+import com.flowpowered.nbt.stream.NBTInputStream;
+
+/**
+ * Random access to the chunks of an Anvil region file, the format used by Minecraft for its {@code .mca} files. A region holds 32 by 32 chunks. The file starts with a table of 1024 locations, each
+ * the sector the chunk starts at in its upper 3 bytes and the number of sectors it uses in its lowest byte, followed by a table of 1024 timestamps. Sectors are 4 KiB long. Each chunk starts with its
+ * length and compression type, followed by the compressed data; if the data is too large for the region, it is stored in a separate {@code c.<x>.<z>.mcc} file in the same directory, and the
+ * compression type has its highest bit set.
+ * <p>
+ * The file is memory-mapped once and its tables read when opened. Reads don't modify any shared state, so a region file can be read from several threads at once.
+ */
+public class AnvilRegionFile implements Closeable {
+    /**
+     * The size of a sector in bytes.
+     */
+    public static final int SECTOR_SIZE = 4096;
+    /**
+     * The number of chunks along each side of a region.
+     */
+    public static final int REGION_SIZE = 32;
+    /**
+     * The chunk data is compressed with gzip.
+     */
+    public static final byte GZIP = 1;
+    /**
+     * The chunk data is compressed with zlib, what Minecraft writes.
+     */
+    public static final byte ZLIB = 2;
+    /**
+     * The chunk data is not compressed.
+     */
+    public static final byte UNCOMPRESSED = 3;
+    /**
+     * The flag set on the compression type when the data is in an external file.
+     */
+    static final int EXTERNAL = 0x80;
+    /**
+     * The number of chunks in a region.
+     */
+    static final int CHUNKS = REGION_SIZE * REGION_SIZE;
+    /**
+     * The size of the location and timestamp tables, in sectors.
+     */
+    static final int HEADER_SECTORS = 2;
+    /**
+     * The size of the length and compression type preceding each chunk.
+     */
+    static final int CHUNK_HEADER_SIZE = 5;
+    private final File file;
+    private final int[] locations = new int[CHUNKS];
+    private final int[] timestamps = new int[CHUNKS];
+    /**
+     * The chunks whose location lies outside of the file, usually because it was truncated.
+     */
+    private final BitSet corrupt = new BitSet(CHUNKS);
+    private volatile ByteBuffer buffer;
+
+    /**
+     * Opens and memory-maps a region file. An empty file is read as a region without chunks. Chunks lying outside of the file only fail when they are read.
+     *
+     * @param file The file.
+     * @throws IOException if the file could not be mapped, or is too short for its tables.
+     */
+    public AnvilRegionFile(File file) throws IOException {
+        this.file = file;
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } finally {
+            raf.close();
+        }
+        if (buffer.capacity() == 0) {
+            return;
+        }
+        if (buffer.capacity() < HEADER_SECTORS * SECTOR_SIZE) {
+            throw new IOException("Region file too short for its header");
+        }
+        IntBuffer tables = buffer.duplicate().asIntBuffer();
+        tables.get(locations);
+        tables.get(timestamps);
+        for (int i = 0; i < CHUNKS; i++) {
+            int location = locations[i];
+            if (location == 0) {
+                continue;
+            }
+            long offset = (long) getSector(location) * SECTOR_SIZE;
+            int length = offset + 4 <= buffer.capacity() ? buffer.getInt((int) offset) : 0;
+            if (!liesWithin(location, length, buffer.capacity())) {
+                corrupt.set(i);
+            }
+        }
+    }
+
+    /**
+     * Gets the index of a chunk in the tables of its region.
+     *
+     * @param x The x coordinate of the chunk, within the region or in the world.
+     * @param z The z coordinate of the chunk, within the region or in the world.
+     * @return The index.
+     */
+    static int getIndex(int x, int z) {
+        return (x & REGION_SIZE - 1) + (z & REGION_SIZE - 1) * REGION_SIZE;
+    }
+
+    static int getSector(int location) {
+        return location >>> 8;
+    }
+
+    static int getSectorCount(int location) {
+        return location & 0xFF;
+    }
+
+    /**
+     * Checks whether a chunk lies within its region file: it must start after the tables, and its data must end before the end of the file. Only the bytes actually used count, so the last sector
+     * of a chunk may be cut short by the end of the file.
+     *
+     * @param location The location of the chunk.
+     * @param length The length stored at the start of the chunk, or 0 if that lies past the end of the file.
+     * @param size The size of the file.
+     * @return Whether the chunk lies within the file.
+     */
+    static boolean liesWithin(int location, int length, long size) {
+        return getSector(location) >= HEADER_SECTORS && (long) getSector(location) * SECTOR_SIZE + 4 + length <= size;
+    }
+
+    /**
+     * Gets the file holding the data of a chunk that is too large for its region.
+     *
+     * @param region The region file.
+     * @param x The x coordinate of the chunk in the world.
+     * @param z The z coordinate of the chunk in the world.
+     * @return The external file.
+     */
+    static File getExternalFile(File region, int x, int z) {
+        return new File(region.getAbsoluteFile().getParentFile(), "c." + x + "." + z + ".mcc");
+    }
+
+    /**
+     * Gets the file this region was opened from.
+     *
+     * @return The file.
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Checks whether a chunk is present.
+     *
+     * @param x The x coordinate of the chunk, within the region or in the world.
+     * @param z The z coordinate of the chunk, within the region or in the world.
+     * @return Whether it is present.
+     */
+    public boolean exists(int x, int z) {
+        return locations[getIndex(x, z)] != 0;
+    }
+
+    /**
+     * Gets the time a chunk was last written at.
+     *
+     * @param x The x coordinate of the chunk, within the region or in the world.
+     * @param z The z coordinate of the chunk, within the region or in the world.
+     * @return The time in seconds since the epoch, or 0 if the chunk is absent.
+     */
+    public int getTimestamp(int x, int z) {
+        return timestamps[getIndex(x, z)];
+    }
+
+    /**
+     * Opens a stream of the uncompressed data of a chunk, an encoded tag. Chunks stored in an external file are looked up using the coordinates as given, so they must be the coordinates of the chunk
+     * in the world for those.
+     *
+     * @param x The x coordinate of the chunk in the world.
+     * @param z The z coordinate of the chunk in the world.
+     * @return The stream, or null if the chunk is absent.
+     * @throws IOException if the region is closed, or the chunk could not be read.
+     */
+    public InputStream open(int x, int z) throws IOException {
+        int index = getIndex(x, z);
+        int location = locations[index];
+        if (location == 0) {
+            return null;
+        }
+        if (corrupt.get(index)) {
+            throw new IOException("Chunk " + x + ", " + z + " lies outside of the region file");
+        }
+        ByteBuffer buffer = this.buffer;
+        if (buffer == null) {
+            throw new IOException("Region file closed");
+        }
+        ByteBuffer chunk = buffer.duplicate();
+        int offset = getSector(location) * SECTOR_SIZE;
+        int length = chunk.getInt(offset);
+        if (length < 1 || length > getSectorCount(location) * SECTOR_SIZE - 4) {
+            throw new IOException("Invalid length " + length + " of chunk " + x + ", " + z);
+        }
+        int type = chunk.get(offset + 4) & 0xFF;
+        InputStream data;
+        if ((type & EXTERNAL) != 0) {
+            data = new ByteArrayInputStream(Files.readAllBytes(getExternalFile(file, x, z).toPath()));
+            type &= ~EXTERNAL;
+        } else {
+            chunk.limit(offset + 4 + length).position(offset + CHUNK_HEADER_SIZE);
+            data = new ByteBufferInputStream(chunk.slice());
+        }
+        switch (type) {
+            case GZIP:
+                return new GZIPInputStream(data);
+            case ZLIB:
+                return InflaterPool.inflate(data);
+            case UNCOMPRESSED:
+                return data;
+            default:
+                throw new IOException("Unknown compression type " + type + " of chunk " + x + ", " + z);
+        }
+    }
+
+    /**
+     * Decompresses and decodes a chunk. Chunks stored in an external file are looked up using the coordinates as given, so they must be the coordinates of the chunk in the world for those.
+     *
+     * @param x The x coordinate of the chunk in the world.
+     * @param z The z coordinate of the chunk in the world.
+     * @return The tag, or null if the chunk is absent.
+     * @throws IOException if the region is closed, or the chunk could not be decoded.
+     */
+    public Tag<?> read(int x, int z) throws IOException {
+        InputStream in = open(x, z);
+        if (in == null) {
+            return null;
+        }
+        NBTInputStream is = new NBTInputStream(in, false);
+        try {
+            return is.readTag();
+        } finally {
+            is.close();
+        }
+    }
+
+    /**
+     * Closes this region. The mapping is released once it is garbage collected, as there is no portable way to unmap it earlier.
+     */
+    @Override
+    public void close() {
+        buffer = null;
+    }
+}
@@ -0,0 +1,310 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.regionfile;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.zip.Deflater;
+
+import com.flowpowered.nbt.Tag;
+
+import static com.flowpowered.nbt.regionfile.AnvilRegionFile.CHUNKS;
+import static com.flowpowered.nbt.regionfile.AnvilRegionFile.CHUNK_HEADER_SIZE;
+import static com.flowpowered.nbt.regionfile.AnvilRegionFile.EXTERNAL;
+import static com.flowpowered.nbt.regionfile.AnvilRegionFile.HEADER_SECTORS;
+import static com.flowpowered.nbt.regionfile.AnvilRegionFile.SECTOR_SIZE;
+
+/**
+ * Writes the chunks of an Anvil region file, see {@link AnvilRegionFile}, without rewriting the rest of the file. A chunk is rewritten in place when its new data still fits in the sectors it had,
+ * and moved to the first free run of sectors that is long enough otherwise. Chunks larger than 255 sectors are written to an external file. The location and timestamp tables are kept in memory and
+ * written back by {@link #flush()} and {@link #close()}. Sectors given up by moved or removed chunks are only reused, and external files given up by chunks only deleted, once the tables no longer
+ * pointing to them have been written.
+ */
+public class AnvilRegionFileWriter implements Closeable {
+    /**
+     * The largest number of sectors a chunk can use within the region.
+     */
+    private static final int MAX_SECTORS = 0xFF;
+    private final File file;
+    private final RandomAccessFile raf;
+    private final FileChannel channel;
+    private final int[] locations = new int[CHUNKS];
+    private final int[] timestamps = new int[CHUNKS];
+    private final SegmentAllocator allocator = new SegmentAllocator(HEADER_SECTORS);
+    /**
+     * The external files of chunks that moved back into the region or were removed, deleted once the tables no longer point to them.
+     */
+    private final Set<File> staleExternals = new LinkedHashSet<File>();
+    private boolean headerDirty;
+
+    /**
+     * Opens a region file for writing, creating it with empty tables if it doesn't exist or is empty. Chunks lying outside of the file are dropped from the tables.
+     *
+     * @param file The file.
+     * @throws IOException if the file could not be opened, or is too short for its tables.
+     */
+    public AnvilRegionFileWriter(File file) throws IOException {
+        this.file = file;
+        raf = new RandomAccessFile(file, "rw");
+        channel = raf.getChannel();
+        try {
+            if (channel.size() == 0) {
+                headerDirty = true;
+                writeHeader();
+            } else {
+                readHeader();
+            }
+        } catch (IOException e) {
+            raf.close();
+            throw e;
+        }
+    }
+
+    private void readHeader() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SECTORS * SECTOR_SIZE);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, buffer.position()) < 0) {
+                throw new IOException("Region file too short for its header");
+            }
+        }
+        buffer.flip();
+        IntBuffer tables = buffer.asIntBuffer();
+        tables.get(locations);
+        tables.get(timestamps);
+        long size = channel.size();
+        ByteBuffer length = ByteBuffer.allocate(4);
+        for (int i = 0; i < CHUNKS; i++) {
+            int location = locations[i];
+            if (location == 0) {
+                continue;
+            }
+            int sector = AnvilRegionFile.getSector(location);
+            int count = AnvilRegionFile.getSectorCount(location);
+            length.clear();
+            long offset = (long) sector * SECTOR_SIZE;
+            if (offset + 4 <= size) {
+                while (length.hasRemaining()) {
+                    channel.read(length, offset + length.position());
+                }
+            } else {
+                length.putInt(0);
+            }
+            if (!AnvilRegionFile.liesWithin(location, length.getInt(0), size)) {
+                // Usually left behind by a truncated file, the chunk can't be read anyway
+                locations[i] = 0;
+                timestamps[i] = 0;
+                headerDirty = true;
+                continue;
+            }
+            allocator.mark(sector, count);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+
+    /**
+     * Gets the file this region was opened from.
+     *
+     * @return The file.
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Checks whether a chunk is present.
+     *
+     * @param x The x coordinate of the chunk, within the region or in the world.
+     * @param z The z coordinate of the chunk, within the region or in the world.
+     * @return Whether it is present.
+     */
+    public synchronized boolean exists(int x, int z) {
+        return locations[AnvilRegionFile.getIndex(x, z)] != 0;
+    }
+
+    /**
+     * Compresses a chunk with zlib and writes it, with the current time as its timestamp. Chunks too large for the region are written to an external file named after the coordinates as given, so
+     * they must be the coordinates of the chunk in the world.
+     *
+     * @param x The x coordinate of the chunk in the world.
+     * @param z The z coordinate of the chunk in the world.
+     * @param tag The tag.
+     * @throws IOException if the chunk could not be written.
+     */
+    public void write(int x, int z, Tag<?> tag) throws IOException {
+        writeRaw(x, z, AnvilRegionFile.ZLIB, SimpleRegionFileWriter.compress(tag, Deflater.DEFAULT_COMPRESSION), (int) (System.currentTimeMillis() / 1000));
+    }
+
+    /**
+     * Writes the already compressed data of a chunk. Chunks too large for the region are written to an external file named after the coordinates as given, so they must be the coordinates of the
+     * chunk in the world.
+     *
+     * @param x The x coordinate of the chunk in the world.
+     * @param z The z coordinate of the chunk in the world.
+     * @param compression The compression type of the data, {@link AnvilRegionFile#GZIP}, {@link AnvilRegionFile#ZLIB} or {@link AnvilRegionFile#UNCOMPRESSED}.
+     * @param data The compressed data.
+     * @param timestamp The time the chunk was written at, in seconds since the epoch.
+     * @throws IOException if the chunk could not be written.
+     */
+    public synchronized void writeRaw(int x, int z, byte compression, byte[] data, int timestamp) throws IOException {
+        if (compression != AnvilRegionFile.GZIP && compression != AnvilRegionFile.ZLIB && compression != AnvilRegionFile.UNCOMPRESSED) {
+            throw new IllegalArgumentException("Unknown compression type " + compression);
+        }
+        int index = AnvilRegionFile.getIndex(x, z);
+        File external = AnvilRegionFile.getExternalFile(file, x, z);
+        int count = (CHUNK_HEADER_SIZE + data.length + SECTOR_SIZE - 1) / SECTOR_SIZE;
+        ByteBuffer buffer;
+        if (count > MAX_SECTORS) {
+            staleExternals.remove(external);
+            FileOutputStream out = new FileOutputStream(external);
+            try {
+                out.write(data);
+            } finally {
+                out.close();
+            }
+            count = 1;
+            buffer = ByteBuffer.allocate(SECTOR_SIZE);
+            buffer.putInt(1).put((byte) (compression | EXTERNAL));
+        } else {
+            if (external.exists()) {
+                staleExternals.add(external);
+            }
+            buffer = ByteBuffer.allocate(count * SECTOR_SIZE);
+            buffer.putInt(data.length + 1).put(compression).put(data);
+        }
+        buffer.clear();
+
+        int location = locations[index];
+        int sector = AnvilRegionFile.getSector(location);
+        int oldCount = AnvilRegionFile.getSectorCount(location);
+        if (count <= oldCount) {
+            allocator.release(sector + count, oldCount - count);
+        } else {
+            int newSector = allocator.allocate(count);
+            allocator.release(sector, oldCount);
+            sector = newSector;
+        }
+        writeFully(channel, buffer, (long) sector * SECTOR_SIZE);
+        locations[index] = sector << 8 | count;
+        timestamps[index] = timestamp;
+        headerDirty = true;
+    }
+
+    /**
+     * Removes a chunk, freeing its sectors. Its external file, if it has one, is deleted once the tables have been written.
+     *
+     * @param x The x coordinate of the chunk in the world.
+     * @param z The z coordinate of the chunk in the world.
+     */
+    public synchronized void remove(int x, int z) {
+        int index = AnvilRegionFile.getIndex(x, z);
+        int location = locations[index];
+        if (location == 0) {
+            return;
+        }
+        allocator.release(AnvilRegionFile.getSector(location), AnvilRegionFile.getSectorCount(location));
+        locations[index] = 0;
+        timestamps[index] = 0;
+        headerDirty = true;
+        File external = AnvilRegionFile.getExternalFile(file, x, z);
+        if (external.exists()) {
+            staleExternals.add(external);
+        }
+    }
+
+    /**
+     * Writes the location and timestamp tables back to the file if any chunk changed, then deletes the external files no chunk uses anymore.
+     *
+     * @throws IOException if the tables could not be written, or an external file could not be deleted.
+     */
+    public synchronized void flush() throws IOException {
+        writeHeader();
+    }
+
+    private void writeHeader() throws IOException {
+        if (headerDirty) {
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_SECTORS * SECTOR_SIZE);
+            IntBuffer tables = buffer.asIntBuffer();
+            tables.put(locations);
+            tables.put(timestamps);
+            writeFully(channel, buffer, 0);
+            headerDirty = false;
+            allocator.commit();
+        }
+        File failed = null;
+        for (Iterator<File> i = staleExternals.iterator(); i.hasNext(); ) {
+            File external = i.next();
+            if (external.delete() || !external.exists()) {
+                i.remove();
+            } else if (failed == null) {
+                failed = external;
+            }
+        }
+        if (failed != null) {
+            throw new IOException("Could not delete the stale external file " + failed);
+        }
+    }
+
+    /**
+     * Flushes the tables and cuts off any free sectors at the end of the file.
+     * <p>
+     * Any {@link AnvilRegionFile} that has this file mapped must be closed first: reading a mapped page past the new end of the file crashes the JVM.
+     *
+     * @throws IOException if the tables could not be written, or the file could not be truncated.
+     */
+    public synchronized void trim() throws IOException {
+        writeHeader();
+        long end = (long) Math.max(HEADER_SECTORS, allocator.getLength()) * SECTOR_SIZE;
+        if (channel.size() > end) {
+            channel.truncate(end);
+        }
+    }
+
+    /**
+     * Flushes the tables and closes the file. The file is never shortened, so it is safe to keep reading it through a mapping; use {@link #trim()} for that.
+     *
+     * @throws IOException if the tables could not be written.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            writeHeader();
+        } finally {
+            raf.close();
+        }
+    }
+}
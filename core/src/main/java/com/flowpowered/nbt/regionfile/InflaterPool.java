@@ -0,0 +1,79 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.regionfile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * A shared pool of {@link Inflater Inflaters}, to avoid allocating and releasing the native zlib state of a new one for every entry read.
+ */
+final class InflaterPool {
+    private static final BlockingQueue<Inflater> POOL = new ArrayBlockingQueue<Inflater>(Runtime.getRuntime().availableProcessors() * 2);
+
+    private InflaterPool() {
+    }
+
+    /**
+     * Creates a stream inflating zlib data with a pooled inflater. The inflater goes back to the pool when the stream is closed.
+     *
+     * @param in The stream of compressed data.
+     * @return The stream of inflated data.
+     */
+    static InputStream inflate(InputStream in) {
+        Inflater inflater = POOL.poll();
+        if (inflater == null) {
+            inflater = new Inflater();
+        }
+        return new PooledInflaterInputStream(in, inflater);
+    }
+
+    private static class PooledInflaterInputStream extends InflaterInputStream {
+        private boolean closed;
+
+        private PooledInflaterInputStream(InputStream in, Inflater inflater) {
+            super(in, inflater);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                super.close();
+            } finally {
+                inf.reset();
+                if (!POOL.offer(inf)) {
+                    inf.end();
+                }
+            }
+        }
+    }
+}
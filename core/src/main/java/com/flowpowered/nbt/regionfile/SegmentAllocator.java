@@ -0,0 +1,127 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.regionfile;
+
+import java.util.BitSet;
+
+/**
+ * Tracks the used segments of a region file in a bitmap, and finds free runs of segments for new entries. Not thread-safe.
+ */
+class SegmentAllocator {
+    private final BitSet used = new BitSet();
+    /**
+     * Segments released since the last {@link #commit()}, still marked as used.
+     */
+    private final BitSet released = new BitSet();
+
+    /**
+     * Creates an allocator with the first segments reserved, usually for the header.
+     *
+     * @param reserved The number of reserved segments.
+     */
+    SegmentAllocator(int reserved) {
+        used.set(0, reserved);
+    }
+
+    /**
+     * Creates an allocator for the segments used by the header and the present entries of a region file.
+     *
+     * @param header The header.
+     * @return The allocator.
+     */
+    static SegmentAllocator of(SimpleRegionHeader header) {
+        SegmentAllocator allocator = new SegmentAllocator(header.getSegments(header.getSize()));
+        for (int i = 0; i < header.getEntryCount(); i++) {
+            int length = header.blockActualLength[i];
+            if (length > 0) {
+                allocator.mark(header.blockSegmentStart[i], header.getSegments(length));
+            }
+        }
+        return allocator;
+    }
+
+    /**
+     * Finds the first run of free segments that is long enough, and marks it as used.
+     *
+     * @param count The number of segments.
+     * @return The first segment of the run.
+     */
+    int allocate(int count) {
+        int start = used.nextClearBit(0);
+        while (true) {
+            int end = used.nextSetBit(start);
+            if (end < 0 || end - start >= count) {
+                used.set(start, start + count);
+                return start;
+            }
+            start = used.nextClearBit(end);
+        }
+    }
+
+    /**
+     * Marks a run of segments as used.
+     *
+     * @param start The first segment.
+     * @param count The number of segments.
+     */
+    void mark(int start, int count) {
+        used.set(start, start + count);
+    }
+
+    /**
+     * Releases a run of segments that the header on disk may still point to. They stay reserved until {@link #commit()} is called, once the updated header has been written.
+     *
+     * @param start The first segment.
+     * @param count The number of segments.
+     */
+    void release(int start, int count) {
+        released.set(start, start + count);
+    }
+
+    /**
+     * Frees all the segments released since the last call.
+     */
+    void commit() {
+        used.andNot(released);
+        released.clear();
+    }
+
+    /**
+     * Gets the number of segments up to and including the last used one.
+     *
+     * @return The number of segments.
+     */
+    int getLength() {
+        return used.length();
+    }
+
+    /**
+     * Gets the number of used segments.
+     *
+     * @return The number of segments.
+     */
+    int getUsed() {
+        return used.cardinality();
+    }
+}
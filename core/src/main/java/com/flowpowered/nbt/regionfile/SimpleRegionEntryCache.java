@@ -0,0 +1,339 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.regionfile;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.flowpowered.nbt.CompoundMap;
+import com.flowpowered.nbt.ListTag;
+import com.flowpowered.nbt.Tag;
+
+/**
+ * Caches decoded entries of simple region files, so that everything reading the same entries shares one decoded tree instead of reading it from disk again. Entries are evicted least recently used
+ * first once the estimated heap size of all the cached trees goes over a limit. Missing entries are read through a {@link SimpleRegionFileManager}. Thread-safe.
+ * <p>
+ * The cached tags are shared: they must not be modified, or every later reader sees the change. Clone them first if needed.
+ */
+public class SimpleRegionEntryCache {
+    /**
+     * The estimated size of an object header plus a reference or two, used for the fixed part of each tag and collection.
+     */
+    private static final int OBJECT_SIZE = 24;
+    private final SimpleRegionFileManager manager;
+    private final long maximumSize;
+    private final LinkedHashMap<Key, Cached> entries = new LinkedHashMap<Key, Cached>(16, 0.75f, true);
+    /**
+     * The reads in progress for each region, so that a read that started before an invalidation doesn't store stale data after it. Regions are removed once their last read finishes.
+     */
+    private final Map<File, Reads> reads = new HashMap<File, Reads>();
+    /**
+     * The number of times the whole cache was cleared, for the same reason.
+     */
+    private long clears;
+    private long size;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Creates a new cache.
+     *
+     * @param manager The manager to read missing entries through.
+     * @param maximumSize The maximum estimated size of the cached tags, in bytes.
+     */
+    public SimpleRegionEntryCache(SimpleRegionFileManager manager, long maximumSize) {
+        if (maximumSize < 0) {
+            throw new IllegalArgumentException("Maximum size must not be negative: " + maximumSize);
+        }
+        this.manager = manager;
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * Gets a decoded entry, reading it if it isn't cached. Absent entries are cached too. Two threads missing the same entry at once may both read it.
+     *
+     * @param file The file of the region.
+     * @param index The index of the entry.
+     * @return The tag, or null if the entry is absent.
+     * @throws IOException if the region could not be opened, or the entry could not be decoded.
+     * @throws IndexOutOfBoundsException if the index is not within the table.
+     */
+    public Tag<?> get(File file, int index) throws IOException {
+        Key key = new Key(file.getAbsoluteFile(), index);
+        Reads pending;
+        long generation;
+        synchronized (this) {
+            Cached cached = entries.get(key);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return cached.tag;
+            }
+            pending = reads.get(key.file);
+            if (pending == null) {
+                pending = new Reads();
+                reads.put(key.file, pending);
+            }
+            pending.count++;
+            generation = clears + pending.generation;
+        }
+        misses.incrementAndGet();
+        try {
+            Tag<?> tag = manager.read(key.file, index);
+            long tagSize = tag == null ? OBJECT_SIZE : estimateSize(tag);
+            if (tagSize <= maximumSize) {
+                store(key, tag, tagSize, pending, generation);
+            }
+            return tag;
+        } finally {
+            synchronized (this) {
+                // Only forget the region after storing, so that no invalidation goes unnoticed
+                if (--pending.count == 0) {
+                    reads.remove(key.file);
+                }
+            }
+        }
+    }
+
+    private synchronized void store(Key key, Tag<?> tag, long tagSize, Reads pending, long generation) {
+        // Both counts only grow, so their sum changes whenever either does
+        if (clears + pending.generation != generation) {
+            // Invalidated while reading, the tag may be stale
+            return;
+        }
+        Cached previous = entries.put(key, new Cached(tag, tagSize));
+        if (previous != null) {
+            size -= previous.size;
+        }
+        size += tagSize;
+        Iterator<Cached> iterator = entries.values().iterator();
+        while (size > maximumSize) {
+            size -= iterator.next().size;
+            iterator.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    /**
+     * Removes an entry from the cache, for example after it was rewritten. The region is removed from the manager too, so that the entry is read again through the new header rather than through the
+     * one parsed when the region was opened. The other cached entries of the region are kept.
+     *
+     * @param file The file of the region.
+     * @param index The index of the entry.
+     */
+    public void invalidate(File file, int index) {
+        File key = file.getAbsoluteFile();
+        synchronized (this) {
+            nextGeneration(key);
+            Cached cached = entries.remove(new Key(key, index));
+            if (cached != null) {
+                size -= cached.size;
+            }
+        }
+        manager.invalidate(key);
+    }
+
+    /**
+     * Removes all the entries of a region from the cache, and the region itself from the manager.
+     *
+     * @param file The file of the region.
+     */
+    public void invalidate(File file) {
+        File key = file.getAbsoluteFile();
+        synchronized (this) {
+            nextGeneration(key);
+            Iterator<Map.Entry<Key, Cached>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Key, Cached> entry = iterator.next();
+                if (entry.getKey().file.equals(key)) {
+                    size -= entry.getValue().size;
+                    iterator.remove();
+                }
+            }
+        }
+        manager.invalidate(key);
+    }
+
+    /**
+     * Removes all the entries from the cache.
+     */
+    public synchronized void clear() {
+        clears++;
+        entries.clear();
+        size = 0;
+    }
+
+    private void nextGeneration(File file) {
+        Reads pending = reads.get(file);
+        if (pending != null) {
+            pending.generation++;
+        }
+    }
+
+    /**
+     * Gets the number of cached entries.
+     *
+     * @return The number of entries.
+     */
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    /**
+     * Gets the estimated size of the cached tags.
+     *
+     * @return The size in bytes.
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+
+    /**
+     * Gets the number of reads answered from the cache.
+     *
+     * @return The number of hits.
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Gets the number of reads that had to go to the region file.
+     *
+     * @return The number of misses.
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Gets the number of entries evicted to stay within the maximum size.
+     *
+     * @return The number of evictions.
+     */
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    /**
+     * Estimates the heap size retained by a tag tree. This is only a rough approximation, meant to weigh trees against each other.
+     *
+     * @param tag The tag.
+     * @return The estimated size in bytes.
+     */
+    static long estimateSize(Tag<?> tag) {
+        long size = OBJECT_SIZE + estimateSize(tag.getName());
+        switch (tag.getType()) {
+            case TAG_BYTE:
+            case TAG_SHORT:
+            case TAG_INT:
+            case TAG_FLOAT:
+                return size + 16;
+            case TAG_LONG:
+            case TAG_DOUBLE:
+                return size + 24;
+            case TAG_STRING:
+                return size + estimateSize((String) tag.getValue());
+            case TAG_BYTE_ARRAY:
+                return size + 16 + ((byte[]) tag.getValue()).length;
+            case TAG_SHORT_ARRAY:
+                return size + 16 + ((short[]) tag.getValue()).length * 2L;
+            case TAG_INT_ARRAY:
+                return size + 16 + ((int[]) tag.getValue()).length * 4L;
+            case TAG_LONG_ARRAY:
+                return size + 16 + ((long[]) tag.getValue()).length * 8L;
+            case TAG_LIST:
+                List<?> list = ((ListTag<?>) tag).getValue();
+                size += OBJECT_SIZE + 16 + list.size() * 4L;
+                for (Object element : list) {
+                    size += estimateSize((Tag<?>) element);
+                }
+                return size;
+            case TAG_COMPOUND:
+                CompoundMap map = (CompoundMap) tag.getValue();
+                size += OBJECT_SIZE * 2 + map.size() * 48L;
+                for (Tag<?> child : map.values()) {
+                    size += estimateSize(child);
+                }
+                return size;
+            default:
+                return size;
+        }
+    }
+
+    private static long estimateSize(String string) {
+        return string == null ? 0 : 40 + string.length() * 2L;
+    }
+
+    private static class Key {
+        private final File file;
+        private final int index;
+
+        private Key(File file, int index) {
+            this.file = file;
+            this.index = index;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return index == key.index && file.equals(key.file);
+        }
+
+        @Override
+        public int hashCode() {
+            return file.hashCode() * 31 + index;
+        }
+    }
+
+    /**
+     * The reads in progress for a region.
+     */
+    private static class Reads {
+        private int count;
+        /**
+         * The number of times the region was invalidated since the first of these reads started.
+         */
+        private long generation;
+    }
+
+    private static class Cached {
+        private final Tag<?> tag;
+        private final long size;
+
+        private Cached(Tag<?> tag, long size) {
+            this.tag = tag;
+            this.size = size;
+        }
+    }
+}
@@ -0,0 +1,325 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.regionfile;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import com.flowpowered.nbt.Tag;
+import com.flowpowered.nbt.stream.NBTInputStream;
+
+/**
+ * Random access to the entries of a simple region file, see {@link SimpleRegionFileReader}. The file is memory-mapped once and its header parsed when opened, after which each entry can be read
+ * on its own, without touching the others. Reads don't modify any shared state, so a region file can be read from several threads at once.
+ */
+public class SimpleRegionFile implements Closeable, Iterable<Tag<?>> {
+    private final File file;
+    private final SimpleRegionHeader header;
+    private volatile ByteBuffer buffer;
+
+    /**
+     * Opens and memory-maps a region file.
+     *
+     * @param file The file.
+     * @throws IOException if the file could not be mapped, or its header is not valid.
+     */
+    public SimpleRegionFile(File file) throws IOException {
+        this.file = file;
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } finally {
+            raf.close();
+        }
+        header = SimpleRegionHeader.read(buffer.duplicate(), buffer.capacity());
+    }
+
+    /**
+     * Gets the file this region was opened from.
+     *
+     * @return The file.
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Gets the number of entries in the table of the region, present or not.
+     *
+     * @return The number of entries.
+     */
+    public int getEntryCount() {
+        return header.getEntryCount();
+    }
+
+    /**
+     * Gets the log2 of the size of the segments entries are allocated in.
+     *
+     * @return The segment size.
+     */
+    public int getSegmentSize() {
+        return header.segmentSize;
+    }
+
+    /**
+     * Checks whether an entry is present.
+     *
+     * @param index The index of the entry.
+     * @return Whether it is present.
+     * @throws IndexOutOfBoundsException if the index is not within the table.
+     */
+    public boolean exists(int index) {
+        header.checkIndex(index);
+        return header.blockActualLength[index] > 0;
+    }
+
+    /**
+     * Gets the compressed bytes of an entry, as stored in the file.
+     *
+     * @param index The index of the entry.
+     * @return The bytes, or null if the entry is absent.
+     * @throws IOException if the region is closed.
+     * @throws IndexOutOfBoundsException if the index is not within the table.
+     */
+    public byte[] rawBytes(int index) throws IOException {
+        ByteBuffer entry = entry(index);
+        if (entry == null) {
+            return null;
+        }
+        byte[] bytes = new byte[entry.remaining()];
+        entry.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Inflates and decodes an entry.
+     *
+     * @param index The index of the entry.
+     * @return The tag, or null if the entry is absent.
+     * @throws IOException if the region is closed, or the entry could not be decoded.
+     * @throws IndexOutOfBoundsException if the index is not within the table.
+     */
+    public Tag<?> read(int index) throws IOException {
+        ByteBuffer entry = entry(index);
+        if (entry == null) {
+            return null;
+        }
+        NBTInputStream is = new NBTInputStream(InflaterPool.inflate(new ByteBufferInputStream(entry)), false);
+        try {
+            return is.readTag();
+        } finally {
+            is.close();
+        }
+    }
+
+    /**
+     * Inflates and decodes all the present entries in parallel. Any executor can be used, including a {@link java.util.concurrent.ForkJoinPool}.
+     *
+     * @param executor The executor to decode the entries on.
+     * @return The tags in index order, with null for absent entries and entries that could not be decoded.
+     * @throws IOException if the region is closed.
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the entries.
+     */
+    public List<Tag<?>> readAll(ExecutorService executor) throws IOException, InterruptedException {
+        final Tag<?>[] tags = new Tag<?>[getEntryCount()];
+        readAll(executor, new EntryListener() {
+            @Override
+            public void entryRead(int index, Tag<?> tag) {
+                tags[index] = tag;
+            }
+
+            @Override
+            public void entryFailed(int index, IOException e) {
+            }
+        });
+        return Arrays.asList(tags);
+    }
+
+    /**
+     * Inflates and decodes all the present entries in parallel, passing each to a listener as soon as it is decoded. The listener is called from the threads of the executor, possibly concurrently
+     * and in any order. This method returns once every entry has been passed to the listener.
+     *
+     * @param executor The executor to decode the entries on.
+     * @param listener The listener receiving the entries.
+     * @throws IOException if the region is closed.
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the entries.
+     */
+    public void readAll(ExecutorService executor, final EntryListener listener) throws IOException, InterruptedException {
+        if (buffer == null) {
+            throw new IOException("Region file closed");
+        }
+        List<Future<?>> futures = new ArrayList<Future<?>>();
+        for (int i = 0; i < getEntryCount(); i++) {
+            if (!exists(i)) {
+                continue;
+            }
+            final int index = i;
+            futures.add(executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    Tag<?> tag;
+                    try {
+                        tag = read(index);
+                    } catch (IOException e) {
+                        listener.entryFailed(index, e);
+                        return null;
+                    }
+                    listener.entryRead(index, tag);
+                    return null;
+                }
+            }));
+        }
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            for (Future<?> future : futures) {
+                future.cancel(false);
+            }
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * Gets an iterator over all the entries, decoding each one only when it is reached, so that only one entry is held at a time.
+     *
+     * @return The iterator, returning null for absent entries and entries that could not be decoded.
+     */
+    @Override
+    public Iterator<Tag<?>> iterator() {
+        return iterator(0, getEntryCount());
+    }
+
+    /**
+     * Gets an iterator over a range of the entries, decoding each one only when it is reached. Disjoint ranges can be iterated from different threads to process a region in parallel.
+     *
+     * @param from The index of the first entry, inclusive.
+     * @param to The index of the last entry, exclusive.
+     * @return The iterator, returning null for absent entries and entries that could not be decoded.
+     * @throws IndexOutOfBoundsException if the range is not within the table.
+     */
+    public Iterator<Tag<?>> iterator(final int from, final int to) {
+        if (from < 0 || to > getEntryCount() || from > to) {
+            throw new IndexOutOfBoundsException("Range " + from + " to " + to + " out of " + getEntryCount());
+        }
+        return new Iterator<Tag<?>>() {
+            private int next = from;
+
+            @Override
+            public boolean hasNext() {
+                return next < to;
+            }
+
+            @Override
+            public Tag<?> next() {
+                if (next >= to) {
+                    throw new NoSuchElementException();
+                }
+                try {
+                    return read(next++);
+                } catch (IOException e) {
+                    return null;
+                }
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    /**
+     * Gets a buffer holding the compressed bytes of an entry.
+     *
+     * @param index The index of the entry.
+     * @return The buffer, or null if the entry is absent.
+     * @throws IOException if the region is closed.
+     */
+    ByteBuffer entry(int index) throws IOException {
+        header.checkIndex(index);
+        int length = header.blockActualLength[index];
+        if (length == 0) {
+            return null;
+        }
+        ByteBuffer buffer = this.buffer;
+        if (buffer == null) {
+            throw new IOException("Region file closed");
+        }
+        ByteBuffer entry = buffer.duplicate();
+        int offset = (int) header.getOffset(index);
+        entry.limit(offset + length).position(offset);
+        return entry.slice();
+    }
+
+    /**
+     * Closes this region. The mapping is released once it is garbage collected, as there is no portable way to unmap it earlier.
+     */
+    @Override
+    public void close() {
+        buffer = null;
+    }
+
+    /**
+     * Receives the entries decoded by {@link #readAll(ExecutorService, EntryListener)}.
+     */
+    public interface EntryListener {
+        /**
+         * Called when an entry was decoded.
+         *
+         * @param index The index of the entry.
+         * @param tag The tag.
+         */
+        public void entryRead(int index, Tag<?> tag);
+
+        /**
+         * Called when an entry could not be decoded.
+         *
+         * @param index The index of the entry.
+         * @param e The cause.
+         */
+        public void entryFailed(int index, IOException e);
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.regionfile;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Removes the free segments left behind by rewritten entries in simple region files. The live entries are copied one after the other into a temporary file next to the region, which then atomically
+ * replaces it once it has been forced to the disk. The entries are copied as they are, or recompressed at a chosen level.
+ */
+public class SimpleRegionFileCompactor {
+    /**
+     * The compression level meaning the entries are copied without recompressing them.
+     */
+    private static final int KEEP = Integer.MIN_VALUE;
+    private final int compressionLevel;
+
+    /**
+     * Creates a compactor copying the entries as they are.
+     */
+    public SimpleRegionFileCompactor() {
+        compressionLevel = KEEP;
+    }
+
+    /**
+     * Creates a compactor recompressing the entries.
+     *
+     * @param compressionLevel The level, from 0 to 9, or {@link Deflater#DEFAULT_COMPRESSION}.
+     */
+    public SimpleRegionFileCompactor(int compressionLevel) {
+        if ((compressionLevel < 0 || compressionLevel > 9) && compressionLevel != Deflater.DEFAULT_COMPRESSION) {
+            throw new IllegalArgumentException("Invalid compression level " + compressionLevel);
+        }
+        this.compressionLevel = compressionLevel;
+    }
+
+    /**
+     * Compacts a region file. The file must not be written to meanwhile; readers that opened it before keep seeing the old contents. The compacted file gets the POSIX permissions of the original,
+     * where the file system supports them.
+     * <p>
+     * On Windows, a file can not be replaced while it is mapped, so the region must not be open in a {@link SimpleRegionFile} or a {@link SimpleRegionFileWriter}. Since a mapping is only released
+     * once its buffer is garbage collected, closing them may not be enough; the move then fails with an IOException and the region is left unchanged.
+     *
+     * @param file The file.
+     * @return The number of bytes reclaimed, negative if the file grew.
+     * @throws IOException if the file could not be read, or the compacted file could not be written or moved in place.
+     */
+    public long compact(File file) throws IOException {
+        File target = file.getAbsoluteFile();
+        long length = target.length();
+        File temp = File.createTempFile(target.getName(), ".tmp", target.getParentFile());
+        boolean moved = false;
+        try {
+            // The temporary file is only readable by its owner, give it the permissions of the region
+            PosixFileAttributeView attributes = Files.getFileAttributeView(target.toPath(), PosixFileAttributeView.class);
+            if (attributes != null) {
+                Files.setPosixFilePermissions(temp.toPath(), attributes.readAttributes().permissions());
+            }
+            // The region is read without mapping it, a mapping would outlive the channel and keep the file from being replaced on Windows
+            RandomAccessFile raf = new RandomAccessFile(target, "r");
+            try {
+                FileChannel channel = raf.getChannel();
+                SimpleRegionHeader header = SimpleRegionHeader.read(channel);
+                SimpleRegionFileWriter writer = new SimpleRegionFileWriter(temp, header.segmentSize, header.getEntryCount());
+                try {
+                    for (int i = 0; i < header.getEntryCount(); i++) {
+                        int entryLength = header.blockActualLength[i];
+                        if (entryLength > 0) {
+                            byte[] bytes = read(channel, header.getOffset(i), entryLength);
+                            writer.writeRaw(i, compressionLevel == KEEP ? bytes : recompress(bytes, compressionLevel));
+                        }
+                    }
+                    // Otherwise a crash right after the move could leave the region replaced by a file whose data never reached the disk
+                    writer.sync();
+                } finally {
+                    writer.close();
+                }
+            } finally {
+                raf.close();
+            }
+            Files.move(temp.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            moved = true;
+        } finally {
+            if (!moved) {
+                temp.delete();
+            }
+        }
+        return length - target.length();
+    }
+
+    private static byte[] read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Region file too short for its entries");
+            }
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Compacts several region files in parallel. At most {@code threads} files are compacted at once, and at most as many more are queued; when the queue is full, the calling thread compacts the
+     * next file itself, which keeps the amount of pending I/O bounded.
+     *
+     * @param files The files, for example {@code directory.listFiles(filter)}.
+     * @param threads The number of threads to compact with.
+     * @return The total number of bytes reclaimed.
+     * @throws IOException if any file could not be compacted, once all the others are done. Further failures are attached as suppressed exceptions.
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the files.
+     */
+    public long compactAll(File[] files, int threads) throws IOException, InterruptedException {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<Runnable>(threads), new ThreadPoolExecutor.CallerRunsPolicy());
+        List<Future<Long>> futures = new ArrayList<Future<Long>>(files.length);
+        try {
+            for (final File file : files) {
+                futures.add(executor.submit(new Callable<Long>() {
+                    @Override
+                    public Long call() throws IOException {
+                        return compact(file);
+                    }
+                }));
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        long reclaimed = 0;
+        IOException failure = null;
+        for (Future<Long> future : futures) {
+            try {
+                reclaimed += future.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                } else if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                if (failure == null) {
+                    failure = (IOException) cause;
+                } else {
+                    failure.addSuppressed(cause);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return reclaimed;
+    }
+
+    private static byte[] recompress(byte[] bytes, int level) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length);
+        Deflater deflater = new Deflater(level);
+        try {
+            InputStream in = InflaterPool.inflate(new ByteArrayInputStream(bytes));
+            try {
+                OutputStream os = new DeflaterOutputStream(out, deflater);
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = in.read(buffer)) >= 0) {
+                    os.write(buffer, 0, read);
+                }
+                os.close();
+            } finally {
+                in.close();
+            }
+        } finally {
+            deflater.end();
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.regionfile;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.flowpowered.nbt.Tag;
+
+/**
+ * Keeps the most recently used simple region files open, so that repeated reads don't map the file and parse its header again each time. Regions are handed out with a reference count: {@link
+ * #acquire(File)} must be paired with {@link #release(SimpleRegionFile)}. When more regions than the capacity are open, the least recently used one is evicted from the cache, and closed as soon as
+ * no one holds a reference to it anymore. Thread-safe.
+ */
+public class SimpleRegionFileManager implements Closeable {
+    private final int capacity;
+    private final LinkedHashMap<File, Handle> regions = new LinkedHashMap<File, Handle>(16, 0.75f, true);
+    /**
+     * All the regions that are still open, either cached or evicted but still held.
+     */
+    private final Map<SimpleRegionFile, Handle> open = new IdentityHashMap<SimpleRegionFile, Handle>();
+    private boolean closed;
+
+    /**
+     * Creates a new manager.
+     *
+     * @param capacity The maximum number of regions to keep open when they are not in use.
+     */
+    public SimpleRegionFileManager(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Gets an open region, opening it if it isn't cached. The region must be given back with {@link #release(SimpleRegionFile)} once done, and must not be closed directly.
+     *
+     * @param file The file of the region.
+     * @return The region.
+     * @throws IOException if the region could not be opened, or the manager is closed.
+     */
+    public SimpleRegionFile acquire(File file) throws IOException {
+        File key = file.getAbsoluteFile();
+        synchronized (this) {
+            Handle handle = get(key);
+            if (handle != null) {
+                return handle.region;
+            }
+        }
+        // Map the file outside of the lock, so other regions can be served meanwhile
+        SimpleRegionFile region = new SimpleRegionFile(key);
+        List<SimpleRegionFile> evicted = new ArrayList<SimpleRegionFile>();
+        synchronized (this) {
+            Handle handle = get(key);
+            if (handle != null) {
+                evicted.add(region);
+                region = handle.region;
+            } else {
+                handle = new Handle(region);
+                handle.references++;
+                regions.put(key, handle);
+                open.put(region, handle);
+                Iterator<Handle> iterator = regions.values().iterator();
+                while (regions.size() > capacity) {
+                    Handle eldest = iterator.next();
+                    iterator.remove();
+                    if (evict(eldest)) {
+                        evicted.add(eldest.region);
+                    }
+                }
+            }
+        }
+        for (SimpleRegionFile closing : evicted) {
+            closing.close();
+        }
+        return region;
+    }
+
+    private Handle get(File key) throws IOException {
+        if (closed) {
+            throw new IOException("Region file manager closed");
+        }
+        Handle handle = regions.get(key);
+        if (handle != null) {
+            handle.references++;
+        }
+        return handle;
+    }
+
+    /**
+     * Marks a region as evicted from the cache.
+     *
+     * @param handle The handle of the region.
+     * @return Whether the region should be closed now, as no one holds it.
+     */
+    private boolean evict(Handle handle) {
+        handle.evicted = true;
+        if (handle.references > 0) {
+            return false;
+        }
+        open.remove(handle.region);
+        return true;
+    }
+
+    /**
+     * Gives back a region obtained from {@link #acquire(File)}.
+     *
+     * @param region The region.
+     * @throws IllegalStateException if the region isn't held.
+     */
+    public void release(SimpleRegionFile region) {
+        synchronized (this) {
+            Handle handle = open.get(region);
+            if (handle == null || handle.references == 0) {
+                throw new IllegalStateException("Region " + region.getFile() + " is not held");
+            }
+            handle.references--;
+            if (handle.references > 0 || !handle.evicted) {
+                return;
+            }
+            open.remove(region);
+        }
+        region.close();
+    }
+
+    /**
+     * Reads an entry from a region, opening the region if it isn't cached.
+     *
+     * @param file The file of the region.
+     * @param index The index of the entry.
+     * @return The tag, or null if the entry is absent.
+     * @throws IOException if the region could not be opened, or the entry could not be decoded.
+     * @throws IndexOutOfBoundsException if the index is not within the table.
+     */
+    public Tag<?> read(File file, int index) throws IOException {
+        SimpleRegionFile region = acquire(file);
+        try {
+            return region.read(index);
+        } finally {
+            release(region);
+        }
+    }
+
+    /**
+     * Removes a region from the cache, so that it is opened again on the next access, for example after it was modified. It is closed as soon as no one holds a reference to it anymore.
+     *
+     * @param file The file of the region.
+     */
+    public void invalidate(File file) {
+        Handle handle;
+        synchronized (this) {
+            handle = regions.remove(file.getAbsoluteFile());
+            if (handle == null || !evict(handle)) {
+                return;
+            }
+        }
+        handle.region.close();
+    }
+
+    /**
+     * Gets the number of regions in the cache.
+     *
+     * @return The number of regions.
+     */
+    public synchronized int size() {
+        return regions.size();
+    }
+
+    /**
+     * Evicts all the regions, and refuses to open new ones. Regions still held are closed once released.
+     */
+    @Override
+    public void close() {
+        List<SimpleRegionFile> closing = new ArrayList<SimpleRegionFile>();
+        synchronized (this) {
+            closed = true;
+            for (Handle handle : regions.values()) {
+                if (evict(handle)) {
+                    closing.add(handle.region);
+                }
+            }
+            regions.clear();
+        }
+        for (SimpleRegionFile region : closing) {
+            region.close();
+        }
+    }
+
+    private static class Handle {
+        private final SimpleRegionFile region;
+        private int references;
+        private boolean evicted;
+
+        private Handle(SimpleRegionFile region) {
+            this.region = region;
+        }
+    }
+}
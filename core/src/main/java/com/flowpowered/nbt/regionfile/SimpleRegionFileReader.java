@@ -0,0 +1,105 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.regionfile;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+import com.flowpowered.nbt.Tag;
+
+public class SimpleRegionFileReader {
+    /**
+     * Reads all the entries of a region file. Use {@link SimpleRegionFile} to read only some of them.
+     *
+     * @param f The file.
+     * @return The tags, with null for absent entries and entries that could not be decoded, or null if the file could not be opened.
+     */
+    public static List<Tag<?>> readFile(File f) {
+        SimpleRegionFile region;
+        try {
+            region = new SimpleRegionFile(f);
+        } catch (IOException ioe) {
+            return null;
+        }
+
+        try {
+            int entries = region.getEntryCount();
+            List<Tag<?>> list = new ArrayList<Tag<?>>(entries);
+            for (int i = 0; i < entries; i++) {
+                try {
+                    list.add(region.read(i));
+                } catch (IOException ioe) {
+                    list.add(null);
+                }
+            }
+            return list;
+        } finally {
+            region.close();
+        }
+    }
+
+    /**
+     * Iterates over the entries of a region file, decoding each one only when it is reached, so that memory use is bounded by the largest entry rather than the whole region. Use {@link
+     * SimpleRegionFile#iterator(int, int)} to split the iteration between threads.
+     *
+     * @param f The file.
+     * @return The iterator, returning null for absent entries and entries that could not be decoded, or null if the file could not be opened.
+     */
+    public static Iterator<Tag<?>> iterateFile(File f) {
+        try {
+            return new SimpleRegionFile(f).iterator();
+        } catch (IOException ioe) {
+            return null;
+        }
+    }
+
+    /**
+     * Reads all the entries of a region file, decoding them in parallel.
+     *
+     * @param f The file.
+     * @param executor The executor to decode the entries on, for example a {@link java.util.concurrent.ForkJoinPool}.
+     * @return The tags in index order, with null for absent entries and entries that could not be decoded, or null if the file could not be opened.
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the entries.
+     */
+    public static List<Tag<?>> readFile(File f, ExecutorService executor) throws InterruptedException {
+        SimpleRegionFile region;
+        try {
+            region = new SimpleRegionFile(f);
+        } catch (IOException ioe) {
+            return null;
+        }
+
+        try {
+            return region.readAll(executor);
+        } catch (IOException ioe) {
+            return null;
+        } finally {
+            region.close();
+        }
+    }
+}
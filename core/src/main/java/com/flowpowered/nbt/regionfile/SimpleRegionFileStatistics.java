@@ -0,0 +1,269 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.regionfile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Storage statistics of simple region files, computed from their headers alone without reading or decoding any entry. Statistics of several files can be summed with {@link #total(Iterable)}.
+ */
+public class SimpleRegionFileStatistics {
+    private final File file;
+    private final int files;
+    private final long fileBytes;
+    private final long entries;
+    private final long presentEntries;
+    private final long compressedBytes;
+    private final long totalSegments;
+    private final long headerSegments;
+    private final long usedSegments;
+
+    private SimpleRegionFileStatistics(File file, int files, long fileBytes, long entries, long presentEntries, long compressedBytes, long totalSegments, long headerSegments, long usedSegments) {
+        this.file = file;
+        this.files = files;
+        this.fileBytes = fileBytes;
+        this.entries = entries;
+        this.presentEntries = presentEntries;
+        this.compressedBytes = compressedBytes;
+        this.totalSegments = totalSegments;
+        this.headerSegments = headerSegments;
+        this.usedSegments = usedSegments;
+    }
+
+    /**
+     * Reads the header of a region file and computes its statistics.
+     *
+     * @param file The file.
+     * @return The statistics.
+     * @throws IOException if the header could not be read, or is not valid.
+     */
+    public static SimpleRegionFileStatistics scan(File file) throws IOException {
+        SimpleRegionHeader header;
+        long length;
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            header = SimpleRegionHeader.read(raf.getChannel());
+            length = raf.length();
+        } finally {
+            raf.close();
+        }
+        long present = 0;
+        long compressed = 0;
+        long used = 0;
+        for (int i = 0; i < header.getEntryCount(); i++) {
+            int entryLength = header.blockActualLength[i];
+            if (entryLength > 0) {
+                present++;
+                compressed += entryLength;
+                used += header.getSegments(entryLength);
+            }
+        }
+        return new SimpleRegionFileStatistics(file, 1, length, header.getEntryCount(), present, compressed, header.getSegments(length), header.getSegments(header.getSize()), used);
+    }
+
+    /**
+     * Scans the headers of several region files in parallel.
+     *
+     * @param files The files, for example {@code directory.listFiles(filter)}.
+     * @param executor The executor to read the headers on.
+     * @return The statistics in the order of the files, with null for files that could not be read.
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the files.
+     */
+    public static List<SimpleRegionFileStatistics> scanAll(File[] files, ExecutorService executor) throws InterruptedException {
+        List<Future<SimpleRegionFileStatistics>> futures = new ArrayList<Future<SimpleRegionFileStatistics>>(files.length);
+        for (final File file : files) {
+            futures.add(executor.submit(new Callable<SimpleRegionFileStatistics>() {
+                @Override
+                public SimpleRegionFileStatistics call() {
+                    try {
+                        return scan(file);
+                    } catch (IOException e) {
+                        return null;
+                    }
+                }
+            }));
+        }
+        SimpleRegionFileStatistics[] statistics = new SimpleRegionFileStatistics[files.length];
+        for (int i = 0; i < files.length; i++) {
+            try {
+                statistics[i] = futures.get(i).get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                } else if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new IllegalStateException(cause);
+            }
+        }
+        return Arrays.asList(statistics);
+    }
+
+    /**
+     * Sums the statistics of several files.
+     *
+     * @param statistics The statistics, null elements are skipped.
+     * @return The aggregate statistics, without a file.
+     */
+    public static SimpleRegionFileStatistics total(Iterable<SimpleRegionFileStatistics> statistics) {
+        int files = 0;
+        long fileBytes = 0;
+        long entries = 0;
+        long presentEntries = 0;
+        long compressedBytes = 0;
+        long totalSegments = 0;
+        long headerSegments = 0;
+        long usedSegments = 0;
+        for (SimpleRegionFileStatistics s : statistics) {
+            if (s == null) {
+                continue;
+            }
+            files += s.files;
+            fileBytes += s.fileBytes;
+            entries += s.entries;
+            presentEntries += s.presentEntries;
+            compressedBytes += s.compressedBytes;
+            totalSegments += s.totalSegments;
+            headerSegments += s.headerSegments;
+            usedSegments += s.usedSegments;
+        }
+        return new SimpleRegionFileStatistics(null, files, fileBytes, entries, presentEntries, compressedBytes, totalSegments, headerSegments, usedSegments);
+    }
+
+    /**
+     * Gets the file these statistics are for.
+     *
+     * @return The file, or null for aggregate statistics.
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Gets the number of files these statistics cover.
+     *
+     * @return The number of files.
+     */
+    public int getFileCount() {
+        return files;
+    }
+
+    /**
+     * Gets the size of the files on disk.
+     *
+     * @return The size in bytes.
+     */
+    public long getFileBytes() {
+        return fileBytes;
+    }
+
+    /**
+     * Gets the number of entries in the tables, present or not.
+     *
+     * @return The number of entries.
+     */
+    public long getEntryCount() {
+        return entries;
+    }
+
+    /**
+     * Gets the number of present entries.
+     *
+     * @return The number of entries.
+     */
+    public long getPresentEntryCount() {
+        return presentEntries;
+    }
+
+    /**
+     * Gets the compressed size of the present entries.
+     *
+     * @return The size in bytes.
+     */
+    public long getCompressedBytes() {
+        return compressedBytes;
+    }
+
+    /**
+     * Gets the number of segments in the files, including the header and partial segments at the end.
+     *
+     * @return The number of segments.
+     */
+    public long getTotalSegments() {
+        return totalSegments;
+    }
+
+    /**
+     * Gets the number of segments used by the headers.
+     *
+     * @return The number of segments.
+     */
+    public long getHeaderSegments() {
+        return headerSegments;
+    }
+
+    /**
+     * Gets the number of segments used by present entries.
+     *
+     * @return The number of segments.
+     */
+    public long getUsedSegments() {
+        return usedSegments;
+    }
+
+    /**
+     * Gets the number of segments used neither by the headers nor by present entries, left behind by entries that were moved or removed.
+     *
+     * @return The number of segments.
+     */
+    public long getFreeSegments() {
+        return Math.max(0, totalSegments - headerSegments - usedSegments);
+    }
+
+    /**
+     * Gets the fraction of the segments after the headers that are free, the share of the files a compaction would reclaim.
+     *
+     * @return The fragmentation, from 0 to 1.
+     */
+    public double getFragmentation() {
+        long data = totalSegments - headerSegments;
+        return data <= 0 ? 0 : (double) getFreeSegments() / data;
+    }
+
+    @Override
+    public String toString() {
+        return "SimpleRegionFileStatistics{file=" + file + ", files=" + files + ", fileBytes=" + fileBytes + ", entries=" + presentEntries + "/" + entries + ", compressedBytes=" + compressedBytes
+                + ", segments=" + usedSegments + "/" + totalSegments + ", fragmentation=" + getFragmentation() + "}";
+    }
+}
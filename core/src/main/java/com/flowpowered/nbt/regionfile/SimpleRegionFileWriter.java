@@ -0,0 +1,307 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.regionfile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+import com.flowpowered.nbt.Tag;
+import com.flowpowered.nbt.stream.NBTOutputStream;
+
+/**
+ * Writes the entries of a simple region file, see {@link SimpleRegionFileReader}, without rewriting the rest of the file. The segments in use are tracked in a bitmap: an entry is rewritten in place
+ * when its new data still fits in the segments it had, and moved to the first free run of segments that is long enough otherwise. The header table is kept in memory and written back by {@link
+ * #flush()} and {@link #close()}. Segments given up by moved or removed entries are only reused once the header no longer pointing to them has been written.
+ */
+public class SimpleRegionFileWriter implements Closeable {
+    private final File file;
+    private final RandomAccessFile raf;
+    private final FileChannel channel;
+    private final SimpleRegionHeader header;
+    private final SegmentAllocator allocator;
+    private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+    private boolean headerDirty;
+
+    /**
+     * Opens an existing region file for writing.
+     *
+     * @param file The file.
+     * @throws IOException if the file could not be opened, or its header is not valid.
+     */
+    public SimpleRegionFileWriter(File file) throws IOException {
+        this.file = file;
+        raf = new RandomAccessFile(file, "rw");
+        channel = raf.getChannel();
+        try {
+            header = SimpleRegionHeader.read(channel);
+        } catch (IOException e) {
+            raf.close();
+            throw e;
+        }
+        allocator = SegmentAllocator.of(header);
+    }
+
+    /**
+     * Opens a region file for writing, creating it with an empty table if it doesn't exist or is empty.
+     *
+     * @param file The file.
+     * @param segmentSize The log2 of the size of the segments entries are allocated in, used when creating the file.
+     * @param entries The number of entries in the table, used when creating the file.
+     * @throws IOException if the file could not be opened, its header is not valid, or it has a different segment size or number of entries.
+     */
+    public SimpleRegionFileWriter(File file, int segmentSize, int entries) throws IOException {
+        if (segmentSize < 0 || segmentSize > 30 || entries < 0) {
+            throw new IllegalArgumentException("Invalid segment size " + segmentSize + " or entry count " + entries);
+        }
+        this.file = file;
+        raf = new RandomAccessFile(file, "rw");
+        channel = raf.getChannel();
+        try {
+            if (channel.size() == 0) {
+                header = new SimpleRegionHeader(segmentSize, entries);
+                writeHeader(header);
+            } else {
+                header = SimpleRegionHeader.read(channel);
+                if (header.segmentSize != segmentSize || header.getEntryCount() != entries) {
+                    throw new IOException("Region file has segment size " + header.segmentSize + " and " + header.getEntryCount() + " entries, expected " + segmentSize + " and " + entries);
+                }
+            }
+        } catch (IOException e) {
+            raf.close();
+            throw e;
+        }
+        allocator = SegmentAllocator.of(header);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+
+    /**
+     * Gets the file this region was opened from.
+     *
+     * @return The file.
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Gets the number of entries in the table of the region, present or not.
+     *
+     * @return The number of entries.
+     */
+    public int getEntryCount() {
+        return header.getEntryCount();
+    }
+
+    /**
+     * Checks whether an entry is present.
+     *
+     * @param index The index of the entry.
+     * @return Whether it is present.
+     * @throws IndexOutOfBoundsException if the index is not within the table.
+     */
+    public synchronized boolean exists(int index) {
+        header.checkIndex(index);
+        return header.blockActualLength[index] > 0;
+    }
+
+    /**
+     * Sets the level entries written by {@link #write(int, Tag)} are compressed with.
+     *
+     * @param compressionLevel The level, from 0 to 9, or {@link Deflater#DEFAULT_COMPRESSION}.
+     */
+    public synchronized void setCompressionLevel(int compressionLevel) {
+        if ((compressionLevel < 0 || compressionLevel > 9) && compressionLevel != Deflater.DEFAULT_COMPRESSION) {
+            throw new IllegalArgumentException("Invalid compression level " + compressionLevel);
+        }
+        this.compressionLevel = compressionLevel;
+    }
+
+    /**
+     * Compresses and writes an entry.
+     *
+     * @param index The index of the entry.
+     * @param tag The tag.
+     * @throws IOException if the entry could not be written.
+     * @throws IndexOutOfBoundsException if the index is not within the table.
+     */
+    public void write(int index, Tag<?> tag) throws IOException {
+        int level;
+        synchronized (this) {
+            level = compressionLevel;
+        }
+        writeRaw(index, compress(tag, level));
+    }
+
+    /**
+     * Writes the already compressed bytes of an entry, as stored in the file.
+     *
+     * @param index The index of the entry.
+     * @param bytes The compressed bytes.
+     * @throws IOException if the entry could not be written.
+     * @throws IndexOutOfBoundsException if the index is not within the table.
+     */
+    public synchronized void writeRaw(int index, byte[] bytes) throws IOException {
+        header.checkIndex(index);
+        if (bytes.length == 0) {
+            remove(index);
+            return;
+        }
+        int start = header.blockSegmentStart[index];
+        int oldSegments = header.getSegments(header.blockActualLength[index]);
+        int newSegments = header.getSegments(bytes.length);
+        if (newSegments <= oldSegments) {
+            allocator.release(start + newSegments, oldSegments - newSegments);
+        } else {
+            int newStart = allocator.allocate(newSegments);
+            allocator.release(start, oldSegments);
+            start = newStart;
+        }
+        writeFully(channel, ByteBuffer.wrap(bytes), (long) start << header.segmentSize);
+        header.blockSegmentStart[index] = start;
+        header.blockActualLength[index] = bytes.length;
+        headerDirty = true;
+    }
+
+    /**
+     * Removes an entry, freeing its segments.
+     *
+     * @param index The index of the entry.
+     * @throws IndexOutOfBoundsException if the index is not within the table.
+     */
+    public synchronized void remove(int index) {
+        header.checkIndex(index);
+        int length = header.blockActualLength[index];
+        if (length == 0) {
+            return;
+        }
+        allocator.release(header.blockSegmentStart[index], header.getSegments(length));
+        header.blockSegmentStart[index] = 0;
+        header.blockActualLength[index] = 0;
+        headerDirty = true;
+    }
+
+    /**
+     * Writes the header table back to the file if any entry changed.
+     *
+     * @throws IOException if the header could not be written.
+     */
+    public synchronized void flush() throws IOException {
+        writeHeader();
+    }
+
+    /**
+     * Flushes the header and forces the contents of the file, and the metadata needed to read them back, to the storage device. Once this returns, the entries written so far survive a crash of
+     * the system.
+     *
+     * @throws IOException if the header could not be written, or the file could not be forced to the device.
+     */
+    public synchronized void sync() throws IOException {
+        writeHeader();
+        channel.force(true);
+    }
+
+    private void writeHeader() throws IOException {
+        if (!headerDirty) {
+            return;
+        }
+        writeHeader(header);
+        headerDirty = false;
+        allocator.commit();
+    }
+
+    private void writeHeader(SimpleRegionHeader header) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(header.getSize());
+        header.write(buffer);
+        buffer.flip();
+        writeFully(channel, buffer, 0);
+    }
+
+    /**
+     * Flushes the header and cuts off any free segments at the end of the file.
+     * <p>
+     * Any {@link SimpleRegionFile} that has this file mapped, including the ones cached by a {@link SimpleRegionFileManager}, must be closed or invalidated first: reading a mapped page past the
+     * new end of the file crashes the JVM.
+     *
+     * @throws IOException if the header could not be written, or the file could not be truncated.
+     */
+    public synchronized void trim() throws IOException {
+        writeHeader();
+        long end = header.getSize();
+        for (int i = 0; i < header.getEntryCount(); i++) {
+            if (header.blockActualLength[i] > 0) {
+                end = Math.max(end, header.getOffset(i) + header.blockActualLength[i]);
+            }
+        }
+        if (channel.size() > end) {
+            channel.truncate(end);
+        }
+    }
+
+    /**
+     * Flushes the header and closes the file. The file is never shortened, so it is safe to keep reading it through a mapping; use {@link #trim()} for that.
+     *
+     * @throws IOException if the header could not be written.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            writeHeader();
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * Encodes a tag and compresses it the way entries are stored in simple region files.
+     *
+     * @param tag The tag.
+     * @param level The compression level.
+     * @return The compressed bytes.
+     * @throws IOException if the tag could not be encoded.
+     */
+    static byte[] compress(Tag<?> tag, int level) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Deflater deflater = new Deflater(level);
+        try {
+            NBTOutputStream os = new NBTOutputStream(new DeflaterOutputStream(bytes, deflater), false);
+            os.writeTag(tag);
+            os.close();
+        } finally {
+            deflater.end();
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.regionfile;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * The header of a simple region file: the version, the log2 of the segment size, the number of entries, and for each entry the segment it starts at and its compressed length in bytes. An entry
+ * with a length of 0 is absent.
+ */
+class SimpleRegionHeader {
+    static final int EXPECTED_VERSION = 1;
+    /**
+     * The size of the fixed part of the header: version, segment size and entry count.
+     */
+    static final int FIXED_SIZE = 12;
+    /**
+     * The size of the table record of each entry: segment start and length.
+     */
+    static final int ENTRY_SIZE = 8;
+    final int segmentSize;
+    final int[] blockSegmentStart;
+    final int[] blockActualLength;
+
+    SimpleRegionHeader(int segmentSize, int entries) {
+        this.segmentSize = segmentSize;
+        this.blockSegmentStart = new int[entries];
+        this.blockActualLength = new int[entries];
+    }
+
+    /**
+     * Parses a header.
+     *
+     * @param buffer The buffer, positioned at the start of the file.
+     * @param fileLength The length of the file, to check entries against.
+     * @return The header.
+     * @throws IOException if the version is not supported, or the header is corrupt: an entry starts inside the header or ends past the end of the file.
+     */
+    static SimpleRegionHeader read(ByteBuffer buffer, long fileLength) throws IOException {
+        if (buffer.remaining() < FIXED_SIZE) {
+            throw new IOException("Region file too short for its header");
+        }
+        int version = buffer.getInt();
+        if (version != EXPECTED_VERSION) {
+            throw new IOException("Unsupported region file version " + version);
+        }
+        int segmentSize = buffer.getInt();
+        int entries = buffer.getInt();
+        if (segmentSize < 0 || segmentSize > 30 || entries < 0 || buffer.remaining() < (long) entries * ENTRY_SIZE) {
+            throw new IOException("Corrupt region file header");
+        }
+        SimpleRegionHeader header = new SimpleRegionHeader(segmentSize, entries);
+        for (int i = 0; i < entries; i++) {
+            header.blockSegmentStart[i] = buffer.getInt();
+            header.blockActualLength[i] = buffer.getInt();
+            int length = header.blockActualLength[i];
+            if (length < 0 || length > 0 && (header.getOffset(i) < header.getSize() || header.getOffset(i) + length > fileLength)) {
+                throw new IOException("Entry " + i + " lies outside of the region file");
+            }
+        }
+        return header;
+    }
+
+    /**
+     * Reads a header from a file, without reading the entries.
+     *
+     * @param channel The channel of the file.
+     * @return The header.
+     * @throws IOException if the header could not be read, the version is not supported, or the header is corrupt.
+     */
+    static SimpleRegionHeader read(FileChannel channel) throws IOException {
+        long size = channel.size();
+        ByteBuffer fixed = ByteBuffer.allocate(FIXED_SIZE);
+        readFully(channel, fixed);
+        long entries = fixed.getInt(8) & 0xFFFFFFFFL;
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(Integer.MAX_VALUE, Math.min(size, FIXED_SIZE + entries * ENTRY_SIZE)));
+        readFully(channel, buffer);
+        buffer.flip();
+        return read(buffer, size);
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, buffer.position()) < 0) {
+                throw new IOException("Region file too short for its header");
+            }
+        }
+    }
+
+    /**
+     * Writes this header.
+     *
+     * @param buffer The buffer to write to, positioned at the start of the file.
+     */
+    void write(ByteBuffer buffer) {
+        buffer.putInt(EXPECTED_VERSION);
+        buffer.putInt(segmentSize);
+        buffer.putInt(blockSegmentStart.length);
+        for (int i = 0; i < blockSegmentStart.length; i++) {
+            buffer.putInt(blockSegmentStart[i]);
+            buffer.putInt(blockActualLength[i]);
+        }
+    }
+
+    /**
+     * Gets the number of segments needed to hold a number of bytes.
+     *
+     * @param length The number of bytes.
+     * @return The number of segments.
+     */
+    int getSegments(long length) {
+        return (int) ((length + (1 << segmentSize) - 1) >> segmentSize);
+    }
+
+    /**
+     * Gets the number of bytes used by the header.
+     *
+     * @return The size in bytes.
+     */
+    int getSize() {
+        return FIXED_SIZE + blockSegmentStart.length * ENTRY_SIZE;
+    }
+
+    int getEntryCount() {
+        return blockSegmentStart.length;
+    }
+
+    /**
+     * Gets the position of an entry in the file.
+     *
+     * @param index The index of the entry.
+     * @return The position in bytes.
+     */
+    long getOffset(int index) {
+        return (long) blockSegmentStart[index] << segmentSize;
+    }
+
+    /**
+     * Checks that an index is within the table.
+     *
+     * @param index The index.
+     * @throws IndexOutOfBoundsException if it is not.
+     */
+    void checkIndex(int index) {
+        if (index < 0 || index >= blockSegmentStart.length) {
+            throw new IndexOutOfBoundsException("Entry " + index + " out of " + blockSegmentStart.length);
+        }
+    }
+}
@@ -21,44 +21,21 @@
  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
  * THE SOFTWARE.
  */
-package com.flowpowered.nbt;
+package com.flowpowered.nbt.stream;
+
+import com.flowpowered.nbt.Tag;
 
 /**
- * The {@code TAG_Short} tag.
+ * Receives the children of a compound tag read with {@link NBTInputStream#readCompound(java.util.Map, ChildHandler)}, together with the target their name was mapped to.
+ *
+ * @param <V> The type of the targets.
  */
-public final class ShortTag extends Tag<Short> {
-    /**
-     * The value.
-     */
-    private final short value;
-
+public interface ChildHandler<V> {
     /**
-     * Creates the tag.
+     * Called for each child whose name is mapped to a target, as soon as it is decoded.
      *
-     * @param name The name.
-     * @param value The value.
+     * @param target The target the name of the child is mapped to.
+     * @param child The child.
      */
-    public ShortTag(String name, short value) {
-        super(TagType.TAG_SHORT, name);
-        this.value = value;
-    }
-
-    @Override
-    public Short getValue() {
-        return value;
-    }
-
-    @Override
-    public String toString() {
-        String name = getName();
-        String append = "";
-        if (name != null && !name.equals("")) {
-            append = "(\"" + this.getName() + "\")";
-        }
-        return "TAG_Short" + append + ": " + value;
-    }
-
-    public ShortTag clone() {
-        return new ShortTag(getName(), value);
-    }
+    public void handle(V target, Tag<?> child);
 }
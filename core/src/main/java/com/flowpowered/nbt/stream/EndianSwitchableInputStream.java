@@ -28,13 +28,19 @@ import java.io.DataInputStream;
 import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 
 /**
  * A wrapper around {@link DataInputStream} that allows changing the endianness of data. By default, everything in Java is big-endian
  */
 public class EndianSwitchableInputStream extends FilterInputStream implements DataInput {
+    /**
+     * The size of the buffer arrays are decoded through, bulk reads of larger arrays are done in several steps.
+     */
+    private static final int BUFFER_SIZE = 8192;
     private final ByteOrder endianness;
+    private byte[] buffer;
 
     public EndianSwitchableInputStream(InputStream stream, ByteOrder endianness) {
         super(stream instanceof DataInputStream ? stream : new DataInputStream(stream));
@@ -129,4 +135,63 @@ public class EndianSwitchableInputStream extends FilterInputStream implements Da
     public String readUTF() throws IOException {
         return getBackingStream().readUTF();
     }
+
+    /**
+     * Reads shorts in bulk, instead of one by one.
+     *
+     * @param values The array to read into.
+     * @param off The index of the first value.
+     * @param len The number of values.
+     * @throws IOException if an I/O error occurs.
+     */
+    public void readShorts(short[] values, int off, int len) throws IOException {
+        while (len > 0) {
+            int count = Math.min(len, BUFFER_SIZE / 2);
+            fill(count * 2).asShortBuffer().get(values, off, count);
+            off += count;
+            len -= count;
+        }
+    }
+
+    /**
+     * Reads ints in bulk, instead of one by one.
+     *
+     * @param values The array to read into.
+     * @param off The index of the first value.
+     * @param len The number of values.
+     * @throws IOException if an I/O error occurs.
+     */
+    public void readInts(int[] values, int off, int len) throws IOException {
+        while (len > 0) {
+            int count = Math.min(len, BUFFER_SIZE / 4);
+            fill(count * 4).asIntBuffer().get(values, off, count);
+            off += count;
+            len -= count;
+        }
+    }
+
+    /**
+     * Reads longs in bulk, instead of one by one.
+     *
+     * @param values The array to read into.
+     * @param off The index of the first value.
+     * @param len The number of values.
+     * @throws IOException if an I/O error occurs.
+     */
+    public void readLongs(long[] values, int off, int len) throws IOException {
+        while (len > 0) {
+            int count = Math.min(len, BUFFER_SIZE / 8);
+            fill(count * 8).asLongBuffer().get(values, off, count);
+            off += count;
+            len -= count;
+        }
+    }
+
+    private ByteBuffer fill(int length) throws IOException {
+        if (buffer == null) {
+            buffer = new byte[BUFFER_SIZE];
+        }
+        readFully(buffer, 0, length);
+        return ByteBuffer.wrap(buffer, 0, length).order(endianness);
+    }
 }
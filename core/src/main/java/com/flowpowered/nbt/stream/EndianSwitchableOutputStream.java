@@ -28,10 +28,16 @@ import java.io.DataOutputStream;
 import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 
 public class EndianSwitchableOutputStream extends FilterOutputStream implements DataOutput {
+    /**
+     * The size of the buffer arrays are encoded through, bulk writes of larger arrays are done in several steps.
+     */
+    private static final int BUFFER_SIZE = 8192;
     private final ByteOrder endianness;
+    private ByteBuffer buffer;
 
     public EndianSwitchableOutputStream(OutputStream backingStream, ByteOrder endianness) {
         super(backingStream instanceof DataOutputStream ? (DataOutputStream) backingStream : new DataOutputStream(backingStream));
@@ -46,6 +52,11 @@ public class EndianSwitchableOutputStream extends FilterOutputStream implements
         return (DataOutputStream) super.out;
     }
 
+    @Override
+    public void write(byte[] bytes, int off, int len) throws IOException {
+        getBackingStream().write(bytes, off, len);
+    }
+
     public void writeBoolean(boolean b) throws IOException {
         getBackingStream().writeBoolean(b);
     }
@@ -109,4 +120,65 @@ public class EndianSwitchableOutputStream extends FilterOutputStream implements
     public void writeUTF(String s) throws IOException {
         getBackingStream().writeUTF(s);
     }
+
+    /**
+     * Writes shorts in bulk, instead of one by one.
+     *
+     * @param values The array to write from.
+     * @param off The index of the first value.
+     * @param len The number of values.
+     * @throws IOException if an I/O error occurs.
+     */
+    public void writeShorts(short[] values, int off, int len) throws IOException {
+        while (len > 0) {
+            int count = Math.min(len, BUFFER_SIZE / 2);
+            getBuffer().asShortBuffer().put(values, off, count);
+            write(buffer.array(), 0, count * 2);
+            off += count;
+            len -= count;
+        }
+    }
+
+    /**
+     * Writes ints in bulk, instead of one by one.
+     *
+     * @param values The array to write from.
+     * @param off The index of the first value.
+     * @param len The number of values.
+     * @throws IOException if an I/O error occurs.
+     */
+    public void writeInts(int[] values, int off, int len) throws IOException {
+        while (len > 0) {
+            int count = Math.min(len, BUFFER_SIZE / 4);
+            getBuffer().asIntBuffer().put(values, off, count);
+            write(buffer.array(), 0, count * 4);
+            off += count;
+            len -= count;
+        }
+    }
+
+    /**
+     * Writes longs in bulk, instead of one by one.
+     *
+     * @param values The array to write from.
+     * @param off The index of the first value.
+     * @param len The number of values.
+     * @throws IOException if an I/O error occurs.
+     */
+    public void writeLongs(long[] values, int off, int len) throws IOException {
+        while (len > 0) {
+            int count = Math.min(len, BUFFER_SIZE / 8);
+            getBuffer().asLongBuffer().put(values, off, count);
+            write(buffer.array(), 0, count * 8);
+            off += count;
+            len -= count;
+        }
+    }
+
+    private ByteBuffer getBuffer() {
+        if (buffer == null) {
+            buffer = ByteBuffer.allocate(BUFFER_SIZE).order(endianness);
+        }
+        return buffer;
+    }
 }
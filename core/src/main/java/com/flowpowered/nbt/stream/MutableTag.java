@@ -0,0 +1,395 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.stream;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.flowpowered.nbt.ByteArrayTag;
+import com.flowpowered.nbt.ByteTag;
+import com.flowpowered.nbt.CompoundMap;
+import com.flowpowered.nbt.CompoundTag;
+import com.flowpowered.nbt.DoubleTag;
+import com.flowpowered.nbt.FloatTag;
+import com.flowpowered.nbt.IntArrayTag;
+import com.flowpowered.nbt.IntTag;
+import com.flowpowered.nbt.ListTag;
+import com.flowpowered.nbt.LongArrayTag;
+import com.flowpowered.nbt.LongTag;
+import com.flowpowered.nbt.NBTConstants;
+import com.flowpowered.nbt.ShortArrayTag;
+import com.flowpowered.nbt.ShortTag;
+import com.flowpowered.nbt.StringTag;
+import com.flowpowered.nbt.Tag;
+import com.flowpowered.nbt.TagType;
+
+/**
+ * A reusable holder for a decoded tag and its children, filled by {@link NBTInputStream#readTag(MutableTag)}. Reading into the same tree again reuses its child holders, its arrays when they are
+ * large enough, and its strings when the encoded bytes did not change, so decoding messages of a similar shape allocates next to nothing.<br> <br> Everything returned by a holder, including the
+ * arrays, is only valid until the holder is filled again. Use {@link #toTag()} to keep a copy. Holders are not thread-safe; see {@link MutableTagPool} for sharing them between threads.
+ */
+public final class MutableTag {
+    private static final MutableTag[] NO_CHILDREN = new MutableTag[0];
+    private TagType type = TagType.TAG_END;
+    private final ReusableString name = new ReusableString();
+    /**
+     * The value of byte, short, int and long tags.
+     */
+    private long integral;
+    /**
+     * The value of float and double tags.
+     */
+    private double floating;
+    private final ReusableString string = new ReusableString();
+    private byte[] bytes;
+    private short[] shorts;
+    private int[] ints;
+    private long[] longs;
+    /**
+     * The number of values in the array of an array tag, or of children of a list or compound tag.
+     */
+    private int length;
+    private TagType elementType = TagType.TAG_END;
+    private MutableTag[] children = NO_CHILDREN;
+
+    public TagType getType() {
+        return type;
+    }
+
+    public String getName() {
+        return name.get();
+    }
+
+    public byte getByte() {
+        checkType(TagType.TAG_BYTE);
+        return (byte) integral;
+    }
+
+    public short getShort() {
+        checkType(TagType.TAG_SHORT);
+        return (short) integral;
+    }
+
+    public int getInt() {
+        checkType(TagType.TAG_INT);
+        return (int) integral;
+    }
+
+    public long getLong() {
+        checkType(TagType.TAG_LONG);
+        return integral;
+    }
+
+    public float getFloat() {
+        checkType(TagType.TAG_FLOAT);
+        return (float) floating;
+    }
+
+    public double getDouble() {
+        checkType(TagType.TAG_DOUBLE);
+        return floating;
+    }
+
+    public String getString() {
+        checkType(TagType.TAG_STRING);
+        return string.get();
+    }
+
+    /**
+     * Gets the reused array holding the values of a byte array tag. Only the first {@link #size()} values belong to the tag.
+     *
+     * @return The array.
+     */
+    public byte[] getByteArray() {
+        checkType(TagType.TAG_BYTE_ARRAY);
+        return bytes;
+    }
+
+    /**
+     * Gets the reused array holding the values of a short array tag. Only the first {@link #size()} values belong to the tag.
+     *
+     * @return The array.
+     */
+    public short[] getShortArray() {
+        checkType(TagType.TAG_SHORT_ARRAY);
+        return shorts;
+    }
+
+    /**
+     * Gets the reused array holding the values of an int array tag. Only the first {@link #size()} values belong to the tag.
+     *
+     * @return The array.
+     */
+    public int[] getIntArray() {
+        checkType(TagType.TAG_INT_ARRAY);
+        return ints;
+    }
+
+    /**
+     * Gets the reused array holding the values of a long array tag. Only the first {@link #size()} values belong to the tag.
+     *
+     * @return The array.
+     */
+    public long[] getLongArray() {
+        checkType(TagType.TAG_LONG_ARRAY);
+        return longs;
+    }
+
+    /**
+     * Gets the type of the elements of a list tag.
+     *
+     * @return The element type.
+     */
+    public TagType getElementType() {
+        checkType(TagType.TAG_LIST);
+        return elementType;
+    }
+
+    /**
+     * Gets the number of values of an array tag, or the number of children of a list or compound tag.
+     *
+     * @return The size.
+     */
+    public int size() {
+        return length;
+    }
+
+    /**
+     * Gets a child of a list or compound tag.
+     *
+     * @param index The index of the child.
+     * @return The child.
+     */
+    public MutableTag get(int index) {
+        if (type != TagType.TAG_LIST && type != TagType.TAG_COMPOUND) {
+            throw new IllegalStateException(type.getTypeName() + " has no children");
+        }
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("Index " + index + " is out of bounds for " + length + " children");
+        }
+        return children[index];
+    }
+
+    /**
+     * Gets the entry of a compound tag with the given name.
+     *
+     * @param key The name.
+     * @return The entry, or null if there is none.
+     */
+    public MutableTag get(String key) {
+        checkType(TagType.TAG_COMPOUND);
+        for (int i = 0; i < length; i++) {
+            if (children[i].name.get().equals(key)) {
+                return children[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Copies the held tag into regular, immutable {@link Tag} objects that stay valid after this holder is reused.
+     *
+     * @return The tag.
+     */
+    @SuppressWarnings ({"unchecked", "rawtypes"})
+    public Tag<?> toTag() {
+        String name = getName();
+        switch (type) {
+            case TAG_BYTE:
+                return ByteTag.valueOf(name, (byte) integral);
+            case TAG_SHORT:
+                return ShortTag.valueOf(name, (short) integral);
+            case TAG_INT:
+                return IntTag.valueOf(name, (int) integral);
+            case TAG_LONG:
+                return LongTag.valueOf(name, integral);
+            case TAG_FLOAT:
+                return FloatTag.valueOf(name, (float) floating);
+            case TAG_DOUBLE:
+                return DoubleTag.valueOf(name, floating);
+            case TAG_BYTE_ARRAY:
+                return new ByteArrayTag(name, Arrays.copyOf(bytes, length));
+            case TAG_STRING:
+                return new StringTag(name, string.get());
+            case TAG_LIST:
+                List<Tag> elements = new ArrayList<Tag>(length);
+                for (int i = 0; i < length; i++) {
+                    elements.add(children[i].toTag());
+                }
+                return new ListTag(name, elementType.getTagClass(), elements);
+            case TAG_COMPOUND:
+                CompoundMap map = new CompoundMap();
+                for (int i = 0; i < length; i++) {
+                    map.put(children[i].toTag());
+                }
+                return new CompoundTag(name, map);
+            case TAG_INT_ARRAY:
+                return new IntArrayTag(name, Arrays.copyOf(ints, length));
+            case TAG_LONG_ARRAY:
+                return new LongArrayTag(name, Arrays.copyOf(longs, length));
+            case TAG_SHORT_ARRAY:
+                return new ShortArrayTag(name, Arrays.copyOf(shorts, length));
+            default:
+                throw new IllegalStateException("Invalid tag type: " + type + ".");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return type == TagType.TAG_END ? "TAG_End" : toTag().toString();
+    }
+
+    private void checkType(TagType expected) {
+        if (type != expected) {
+            throw new IllegalStateException("Expected a " + expected.getTypeName() + ", was a " + type.getTypeName());
+        }
+    }
+
+    void setType(TagType type) {
+        this.type = type;
+        this.length = 0;
+    }
+
+    ReusableString name() {
+        return name;
+    }
+
+    ReusableString string() {
+        return string;
+    }
+
+    void setIntegral(long integral) {
+        this.integral = integral;
+    }
+
+    void setFloating(double floating) {
+        this.floating = floating;
+    }
+
+    void setElementType(TagType elementType) {
+        this.elementType = elementType;
+    }
+
+    byte[] byteArray(int length) {
+        if (bytes == null || bytes.length < length) {
+            bytes = new byte[length];
+        }
+        this.length = length;
+        return bytes;
+    }
+
+    short[] shortArray(int length) {
+        if (shorts == null || shorts.length < length) {
+            shorts = new short[length];
+        }
+        this.length = length;
+        return shorts;
+    }
+
+    int[] intArray(int length) {
+        if (ints == null || ints.length < length) {
+            ints = new int[length];
+        }
+        this.length = length;
+        return ints;
+    }
+
+    long[] longArray(int length) {
+        if (longs == null || longs.length < length) {
+            longs = new long[length];
+        }
+        this.length = length;
+        return longs;
+    }
+
+    /**
+     * Gets the holder for the next child, reusing the one left over from the previous contents when there is one.
+     *
+     * @return The child holder.
+     */
+    MutableTag nextChild() {
+        if (length == children.length) {
+            children = Arrays.copyOf(children, Math.max(4, length * 2));
+        }
+        MutableTag child = children[length];
+        if (child == null) {
+            child = new MutableTag();
+            children[length] = child;
+        }
+        return child;
+    }
+
+    /**
+     * Counts the child returned by the last call to {@link #nextChild()} as part of the contents.
+     */
+    void addChild() {
+        length++;
+    }
+
+    /**
+     * Holds a decoded string along with its encoded bytes, so that decoding the same bytes again does not create a new string.
+     */
+    static final class ReusableString {
+        private byte[] encoded = new byte[16];
+        private int encodedLength;
+        private String value = "";
+
+        String get() {
+            return value;
+        }
+
+        /**
+         * Updates the string from its encoded bytes.
+         *
+         * @param source The array holding the bytes.
+         * @param length The number of bytes.
+         */
+        void set(byte[] source, int length) {
+            if (length == encodedLength) {
+                boolean same = true;
+                for (int i = 0; i < length; i++) {
+                    if (encoded[i] != source[i]) {
+                        same = false;
+                        break;
+                    }
+                }
+                if (same) {
+                    return;
+                }
+            }
+            if (encoded.length < length) {
+                encoded = new byte[length];
+            }
+            System.arraycopy(source, 0, encoded, 0, length);
+            encodedLength = length;
+            value = new String(encoded, 0, length, NBTConstants.CHARSET);
+        }
+
+        void clear() {
+            encodedLength = 0;
+            value = "";
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.stream;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A thread-safe pool of {@link MutableTag} trees, for decoding many short-lived messages without allocating a new tree for each one. A tree is acquired, filled with {@link
+ * NBTInputStream#readTag(MutableTag)}, processed, and released once nothing refers to it anymore.
+ */
+public class MutableTagPool {
+    private final Queue<MutableTag> free = new ConcurrentLinkedQueue<MutableTag>();
+    private final AtomicInteger freeCount = new AtomicInteger();
+    private final int capacity;
+
+    /**
+     * Creates a pool.
+     *
+     * @param capacity The maximum number of released trees kept for reuse. Trees released while the pool is full are left to the garbage collector.
+     */
+    public MutableTagPool(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must not be negative, was " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Takes a tree out of the pool, or creates a new one if the pool is empty.
+     *
+     * @return The tree.
+     */
+    public MutableTag acquire() {
+        MutableTag tag = free.poll();
+        if (tag == null) {
+            return new MutableTag();
+        }
+        freeCount.decrementAndGet();
+        return tag;
+    }
+
+    /**
+     * Gives a tree back to the pool. The tree and everything obtained from it must not be used afterwards.
+     *
+     * @param tag The tree.
+     */
+    public void release(MutableTag tag) {
+        if (freeCount.incrementAndGet() <= capacity) {
+            free.offer(tag);
+        } else {
+            freeCount.decrementAndGet();
+        }
+    }
+
+    /**
+     * Gets the number of trees currently available for reuse.
+     *
+     * @return The number of pooled trees.
+     */
+    public int size() {
+        return freeCount.get();
+    }
+}
@@ -0,0 +1,692 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.stream;
+
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+import com.flowpowered.nbt.ByteArrayTag;
+import com.flowpowered.nbt.ByteTag;
+import com.flowpowered.nbt.CompoundMap;
+import com.flowpowered.nbt.CompoundTag;
+import com.flowpowered.nbt.DoubleTag;
+import com.flowpowered.nbt.EndTag;
+import com.flowpowered.nbt.FloatTag;
+import com.flowpowered.nbt.IntArrayTag;
+import com.flowpowered.nbt.IntTag;
+import com.flowpowered.nbt.ListTag;
+import com.flowpowered.nbt.LongArrayTag;
+import com.flowpowered.nbt.LongTag;
+import com.flowpowered.nbt.NBTConstants;
+import com.flowpowered.nbt.ShortArrayTag;
+import com.flowpowered.nbt.ShortTag;
+import com.flowpowered.nbt.StringTag;
+import com.flowpowered.nbt.Tag;
+import com.flowpowered.nbt.TagType;
+import com.flowpowered.nbt.util.TagInterner;
+
+/**
+ * This class reads NBT, or Named Binary Tag streams, and produces an object graph of subclasses of the {@link Tag} object. <p /> The NBT format was created by Markus Persson, and the specification
+ * may be found at <a href="https://flowpowered.com/nbt/spec.txt"> https://flowpowered.com/nbt/spec.txt</a>.
+ */
+public final class NBTInputStream implements Closeable {
+    /**
+     * The data input stream.
+     */
+    private final EndianSwitchableInputStream is;
+    /**
+     * The interner compound, list and array tags are passed through, or null.
+     */
+    private final TagInterner interner;
+    /**
+     * The buffer reused for decoding names and strings into {@link MutableTag MutableTags}. Their length is an unsigned short, so it never grows past 64 KiB; arrays are decoded in bulk by the
+     * stream instead, through its own bounded buffer.
+     */
+    private byte[] scratch = new byte[64];
+
+    /**
+     * Creates a new {@link NBTInputStream}, which will source its data from the specified input stream. This assumes the stream is compressed.
+     *
+     * @param is The input stream.
+     * @throws java.io.IOException if an I/O error occurs.
+     */
+    public NBTInputStream(InputStream is) throws IOException {
+        this(is, true, ByteOrder.BIG_ENDIAN);
+    }
+
+    /**
+     * Creates a new {@link NBTInputStream}, which sources its data from the specified input stream. A flag must be passed which indicates if the stream is compressed with GZIP or not. This assumes the
+     * stream uses big endian encoding.
+     *
+     * @param is The input stream.
+     * @param compressed A flag indicating if the stream is compressed.
+     * @throws java.io.IOException if an I/O error occurs.
+     */
+    public NBTInputStream(InputStream is, boolean compressed) throws IOException {
+        this(is, compressed, ByteOrder.BIG_ENDIAN);
+    }
+
+    /**
+     * Creates a new {@link NBTInputStream}, which sources its data from the specified input stream. A flag must be passed which indicates if the stream is compressed with GZIP or not.
+     *
+     * @param is The input stream.
+     * @param compressed A flag indicating if the stream is compressed.
+     * @param endianness Whether to read numbers from the InputStream with little endian encoding.
+     * @throws java.io.IOException if an I/O error occurs.
+     */
+    public NBTInputStream(InputStream is, boolean compressed, ByteOrder endianness) throws IOException {
+        this(is, compressed, endianness, null);
+    }
+
+    /**
+     * Creates a new {@link NBTInputStream}, which sources its data from the specified input stream. Every compound, list and array tag read is replaced by its canonical instance from the given
+     * interner, so identical subtrees are shared instead of being decoded into separate copies. The returned trees must not be modified.
+     *
+     * @param is The input stream.
+     * @param compressed A flag indicating if the stream is compressed.
+     * @param endianness Whether to read numbers from the InputStream with little endian encoding.
+     * @param interner The interner to share tags through, or null to disable interning.
+     * @throws java.io.IOException if an I/O error occurs.
+     */
+    public NBTInputStream(InputStream is, boolean compressed, ByteOrder endianness, TagInterner interner) throws IOException {
+        this.is = new EndianSwitchableInputStream(compressed ? new GZIPInputStream(is) : is, endianness);
+        this.interner = interner;
+    }
+
+    /**
+     * Reads an NBT {@link Tag} from the stream.
+     *
+     * @return The tag that was read.
+     * @throws java.io.IOException if an I/O error occurs.
+     */
+    public Tag readTag() throws IOException {
+        return readTag(0);
+    }
+
+    /**
+     * Reads an NBT tag from the stream into a reusable holder instead of creating new {@link Tag} objects. The holders, arrays and strings already in the tree are reused wherever possible.
+     *
+     * @param tag The holder to fill.
+     * @return The filled holder.
+     * @throws java.io.IOException if an I/O error occurs.
+     */
+    public MutableTag readTag(MutableTag tag) throws IOException {
+        readMutableTag(tag, 0);
+        return tag;
+    }
+
+    /**
+     * Reads a tag from the stream and decodes its value with a codec, without creating {@link Tag} objects.
+     *
+     * @param codec The codec.
+     * @param <T> The type of the value.
+     * @return The value.
+     * @throws java.io.IOException if an I/O error occurs, or the tag is not of the type of the codec.
+     */
+    public <T> T readTag(TagCodec<T> codec) throws IOException {
+        TagType type = TagType.getById(is.readByte() & 0xFF);
+        if (type != codec.getType()) {
+            throw new IOException("Expected a " + codec.getType().getTypeName() + ", found " + type.getTypeName() + ".");
+        }
+        readName();
+        return codec.read(is);
+    }
+
+    /**
+     * Reads an NBT {@link Tag} from the stream, decoding only the parts selected by a filter. Compound children that are not selected are left out, and lists whose elements are not selected are
+     * read as empty lists. Their payloads are skipped without being decoded.
+     *
+     * @param filter The filter applied to the contents of the root tag.
+     * @return The tag that was read.
+     * @throws java.io.IOException if an I/O error occurs.
+     */
+    public Tag readTag(TagFilter filter) throws IOException {
+        TagType type = TagType.getById(is.readByte() & 0xFF);
+        String name = type != TagType.TAG_END ? readName() : "";
+        return readFilteredPayload(type, name, filter, 0);
+    }
+
+    /**
+     * Reads a root {@link CompoundTag} from the stream, decoding only the direct children whose names are in {@code keys}. The payloads of all other children are skipped without being decoded.
+     *
+     * @param keys The names of the children to decode.
+     * @return The compound tag, holding only the requested children that were present.
+     * @throws java.io.IOException if an I/O error occurs, or the root tag is not a compound.
+     */
+    public CompoundTag readCompound(Set<String> keys) throws IOException {
+        TagType type = TagType.getById(is.readByte() & 0xFF);
+        if (type != TagType.TAG_COMPOUND) {
+            throw new IOException("Expected a TAG_Compound, found " + type.getTypeName() + ".");
+        }
+        String name = readName();
+
+        CompoundMap map = new CompoundMap();
+        while (true) {
+            TagType childType = TagType.getById(is.readByte() & 0xFF);
+            if (childType == TagType.TAG_END) {
+                break;
+            }
+            String childName = readName();
+            if (keys.contains(childName)) {
+                map.put(readTagPayload(childType, childName, 1));
+            } else {
+                skipPayload(is, childType);
+            }
+        }
+        return intern(new CompoundTag(name, map));
+    }
+
+    /**
+     * Reads a root {@link CompoundTag} from the stream, handing each direct child whose name is mapped to a target to a handler as soon as it is decoded. The name of each child is looked up only
+     * once, and the payloads of all children that aren't mapped are skipped without being decoded.
+     *
+     * @param targets The targets, by the names of the children to decode.
+     * @param handler The handler receiving the decoded children.
+     * @param <V> The type of the targets.
+     * @return The name of the compound tag.
+     * @throws java.io.IOException if an I/O error occurs, or the root tag is not a compound.
+     */
+    public <V> String readCompound(Map<String, V> targets, ChildHandler<V> handler) throws IOException {
+        TagType type = TagType.getById(is.readByte() & 0xFF);
+        if (type != TagType.TAG_COMPOUND) {
+            throw new IOException("Expected a TAG_Compound, found " + type.getTypeName() + ".");
+        }
+        String name = readName();
+
+        while (true) {
+            TagType childType = TagType.getById(is.readByte() & 0xFF);
+            if (childType == TagType.TAG_END) {
+                break;
+            }
+            String childName = readName();
+            V target = targets.get(childName);
+            if (target != null) {
+                handler.handle(target, readTagPayload(childType, childName, 1));
+            } else {
+                skipPayload(is, childType);
+            }
+        }
+        return name;
+    }
+
+    /**
+     * Reads an NBT {@link Tag} from the stream.
+     *
+     * @param depth The depth of this tag.
+     * @return The tag that was read.
+     * @throws java.io.IOException if an I/O error occurs.
+     */
+    private Tag readTag(int depth) throws IOException {
+        int typeId = is.readByte() & 0xFF;
+        TagType type = TagType.getById(typeId);
+
+        String name = type != TagType.TAG_END ? readName() : "";
+        return readTagPayload(type, name, depth);
+    }
+
+    /**
+     * Reads the payload of a {@link Tag}, decoding only the parts selected by a filter.
+     *
+     * @param type The type.
+     * @param name The name.
+     * @param filter The filter for the contents of the tag.
+     * @param depth The depth.
+     * @return The tag.
+     * @throws java.io.IOException if an I/O error occurs.
+     */
+    @SuppressWarnings ({"unchecked", "rawtypes"})
+    private Tag readFilteredPayload(TagType type, String name, TagFilter filter, int depth) throws IOException {
+        if (filter == TagFilter.ALL) {
+            return readTagPayload(type, name, depth);
+        }
+        switch (type) {
+            case TAG_LIST:
+                TagType childType = TagType.getById(is.readByte());
+                int length = is.readInt();
+                Class<? extends Tag> clazz = childType.getTagClass();
+                TagFilter elementFilter = filter.getElementFilter();
+                if (elementFilter == null) {
+                    for (int i = 0; i < length; i++) {
+                        skipPayload(is, childType);
+                    }
+                    return intern(new ListTag(name, clazz, new ArrayList<Tag>(0)));
+                }
+                List<Tag> tagList = new ArrayList<Tag>(length);
+                for (int i = 0; i < length; i++) {
+                    if (childType == TagType.TAG_END) {
+                        throw new IOException("TAG_End not permitted in a list.");
+                    }
+                    tagList.add(readFilteredPayload(childType, "", elementFilter, depth + 1));
+                }
+                return intern(new ListTag(name, clazz, tagList));
+
+            case TAG_COMPOUND:
+                CompoundMap map = new CompoundMap();
+                while (true) {
+                    childType = TagType.getById(is.readByte() & 0xFF);
+                    if (childType == TagType.TAG_END) {
+                        break;
+                    }
+                    String childName = readName();
+                    TagFilter childFilter = filter.getChildFilter(childName);
+                    if (childFilter == null) {
+                        skipPayload(is, childType);
+                    } else {
+                        map.put(readFilteredPayload(childType, childName, childFilter, depth + 1));
+                    }
+                }
+                return intern(new CompoundTag(name, map));
+
+            default:
+                return readTagPayload(type, name, depth);
+        }
+    }
+
+    /**
+     * Reads the name of a tag.
+     *
+     * @return The name.
+     * @throws java.io.IOException if an I/O error occurs.
+     */
+    private String readName() throws IOException {
+        int nameLength = is.readShort() & 0xFFFF;
+        byte[] nameBytes = new byte[nameLength];
+        is.readFully(nameBytes);
+        return new String(nameBytes, NBTConstants.CHARSET.name());
+    }
+
+    /**
+     * Skips over the payload of a tag without decoding it.
+     *
+     * @param in The input to skip the payload of.
+     * @param type The type.
+     * @throws java.io.IOException if an I/O error occurs.
+     */
+    public static void skipPayload(DataInput in, TagType type) throws IOException {
+        switch (type) {
+            case TAG_END:
+                return;
+
+            case TAG_BYTE_ARRAY:
+                skipFully(in, in.readInt());
+                return;
+
+            case TAG_STRING:
+                skipFully(in, in.readShort() & 0xFFFF);
+                return;
+
+            case TAG_LIST:
+                TagType childType = TagType.getById(in.readByte());
+                int length = in.readInt();
+                int size = fixedSize(childType);
+                if (size >= 0) {
+                    skipFully(in, (long) length * size);
+                } else {
+                    for (int i = 0; i < length; i++) {
+                        skipPayload(in, childType);
+                    }
+                }
+                return;
+
+            case TAG_COMPOUND:
+                while (true) {
+                    childType = TagType.getById(in.readByte() & 0xFF);
+                    if (childType == TagType.TAG_END) {
+                        return;
+                    }
+                    skipFully(in, in.readShort() & 0xFFFF);
+                    skipPayload(in, childType);
+                }
+
+            case TAG_INT_ARRAY:
+                skipFully(in, in.readInt() * 4L);
+                return;
+
+            case TAG_LONG_ARRAY:
+                skipFully(in, in.readInt() * 8L);
+                return;
+
+            case TAG_SHORT_ARRAY:
+                skipFully(in, in.readInt() * 2L);
+                return;
+
+            default:
+                size = fixedSize(type);
+                if (size < 0) {
+                    throw new IOException("Invalid tag type: " + type + ".");
+                }
+                skipFully(in, size);
+        }
+    }
+
+    /**
+     * Gets the payload size of a tag type with a fixed size payload.
+     *
+     * @param type The type.
+     * @return The size in bytes, or -1 if the payload size is variable.
+     */
+    private static int fixedSize(TagType type) {
+        switch (type) {
+            case TAG_END:
+                return 0;
+            case TAG_BYTE:
+                return 1;
+            case TAG_SHORT:
+                return 2;
+            case TAG_INT:
+            case TAG_FLOAT:
+                return 4;
+            case TAG_LONG:
+            case TAG_DOUBLE:
+                return 8;
+            default:
+                return -1;
+        }
+    }
+
+    /**
+     * Skips exactly the given number of bytes.
+     *
+     * @param in The input to skip bytes of.
+     * @param length The number of bytes.
+     * @throws java.io.IOException if an I/O error occurs, or the end of the stream is reached.
+     */
+    private static void skipFully(DataInput in, long length) throws IOException {
+        while (length > 0) {
+            int skipped = in.skipBytes((int) Math.min(length, Integer.MAX_VALUE));
+            if (skipped <= 0) {
+                in.readByte();
+                skipped = 1;
+            }
+            length -= skipped;
+        }
+    }
+
+    /**
+     * Reads the payload of a {@link Tag}, given the name and type.
+     *
+     * @param type The type.
+     * @param name The name.
+     * @param depth The depth.
+     * @return The tag.
+     * @throws java.io.IOException if an I/O error occurs.
+     */
+    @SuppressWarnings ({"unchecked", "rawtypes"})
+    private Tag readTagPayload(TagType type, String name, int depth) throws IOException {
+        switch (type) {
+            case TAG_END:
+                if (depth == 0) {
+                    throw new IOException("TAG_End found without a TAG_Compound/TAG_List tag preceding it.");
+                } else {
+                    return new EndTag();
+                }
+
+            case TAG_BYTE:
+                return ByteTag.valueOf(name, is.readByte());
+
+            case TAG_SHORT:
+                return ShortTag.valueOf(name, is.readShort());
+
+            case TAG_INT:
+                return IntTag.valueOf(name, is.readInt());
+
+            case TAG_LONG:
+                return LongTag.valueOf(name, is.readLong());
+
+            case TAG_FLOAT:
+                return FloatTag.valueOf(name, is.readFloat());
+
+            case TAG_DOUBLE:
+                return DoubleTag.valueOf(name, is.readDouble());
+
+            case TAG_BYTE_ARRAY:
+                int length = is.readInt();
+                byte[] bytes = new byte[length];
+                is.readFully(bytes);
+                return intern(new ByteArrayTag(name, bytes));
+
+            case TAG_STRING:
+                length = is.readShort();
+                bytes = new byte[length];
+                is.readFully(bytes);
+                return new StringTag(name, new String(bytes, NBTConstants.CHARSET.name()));
+
+            case TAG_LIST:
+                TagType childType = TagType.getById(is.readByte());
+                length = is.readInt();
+
+                Class<? extends Tag> clazz = childType.getTagClass();
+                List<Tag> tagList = new ArrayList<Tag>(length);
+                for (int i = 0; i < length; i++) {
+                    Tag tag = readTagPayload(childType, "", depth + 1);
+                    if (tag instanceof EndTag) {
+                        throw new IOException("TAG_End not permitted in a list.");
+                    } else if (!clazz.isInstance(tag)) {
+                        throw new IOException("Mixed tag types within a list.");
+                    }
+                    tagList.add(tag);
+                }
+
+                return intern(new ListTag(name, clazz, tagList));
+
+            case TAG_COMPOUND:
+                CompoundMap compoundTagList = new CompoundMap();
+                while (true) {
+                    Tag tag = readTag(depth + 1);
+                    if (tag instanceof EndTag) {
+                        break;
+                    } else {
+                        compoundTagList.put(tag);
+                    }
+                }
+
+                return intern(new CompoundTag(name, compoundTagList));
+
+            case TAG_INT_ARRAY:
+                length = is.readInt();
+                int[] ints = new int[length];
+                is.readInts(ints, 0, length);
+                return intern(new IntArrayTag(name, ints));
+
+            case TAG_LONG_ARRAY:
+                length = is.readInt();
+                long[] longs = new long[length];
+                is.readLongs(longs, 0, length);
+                return intern(new LongArrayTag(name, longs));
+
+            case TAG_SHORT_ARRAY:
+                length = is.readInt();
+                short[] shorts = new short[length];
+                is.readShorts(shorts, 0, length);
+                return intern(new ShortArrayTag(name, shorts));
+
+            default:
+                throw new IOException("Invalid tag type: " + type + ".");
+        }
+    }
+
+    /**
+     * Reads a tag into a reusable holder.
+     *
+     * @param tag The holder.
+     * @param depth The depth of this tag.
+     * @throws java.io.IOException if an I/O error occurs.
+     */
+    private void readMutableTag(MutableTag tag, int depth) throws IOException {
+        int typeId = is.readByte() & 0xFF;
+        TagType type = TagType.getById(typeId);
+
+        if (type != TagType.TAG_END) {
+            int nameLength = is.readShort() & 0xFFFF;
+            tag.name().set(readScratch(nameLength), nameLength);
+        } else {
+            tag.name().clear();
+        }
+
+        readMutableTagPayload(tag, type, depth);
+    }
+
+    /**
+     * Reads the payload of a tag into a reusable holder.
+     *
+     * @param tag The holder.
+     * @param type The type.
+     * @param depth The depth.
+     * @throws java.io.IOException if an I/O error occurs.
+     */
+    private void readMutableTagPayload(MutableTag tag, TagType type, int depth) throws IOException {
+        tag.setType(type);
+        int length;
+        switch (type) {
+            case TAG_END:
+                if (depth == 0) {
+                    throw new IOException("TAG_End found without a TAG_Compound/TAG_List tag preceding it.");
+                }
+                break;
+
+            case TAG_BYTE:
+                tag.setIntegral(is.readByte());
+                break;
+
+            case TAG_SHORT:
+                tag.setIntegral(is.readShort());
+                break;
+
+            case TAG_INT:
+                tag.setIntegral(is.readInt());
+                break;
+
+            case TAG_LONG:
+                tag.setIntegral(is.readLong());
+                break;
+
+            case TAG_FLOAT:
+                tag.setFloating(is.readFloat());
+                break;
+
+            case TAG_DOUBLE:
+                tag.setFloating(is.readDouble());
+                break;
+
+            case TAG_BYTE_ARRAY:
+                length = is.readInt();
+                is.readFully(tag.byteArray(length), 0, length);
+                break;
+
+            case TAG_STRING:
+                length = is.readShort() & 0xFFFF;
+                tag.string().set(readScratch(length), length);
+                break;
+
+            case TAG_LIST:
+                TagType childType = TagType.getById(is.readByte());
+                length = is.readInt();
+                tag.setElementType(childType);
+                for (int i = 0; i < length; i++) {
+                    MutableTag child = tag.nextChild();
+                    child.name().clear();
+                    readMutableTagPayload(child, childType, depth + 1);
+                    if (childType == TagType.TAG_END) {
+                        throw new IOException("TAG_End not permitted in a list.");
+                    }
+                    tag.addChild();
+                }
+                break;
+
+            case TAG_COMPOUND:
+                while (true) {
+                    MutableTag child = tag.nextChild();
+                    readMutableTag(child, depth + 1);
+                    if (child.getType() == TagType.TAG_END) {
+                        break;
+                    }
+                    tag.addChild();
+                }
+                break;
+
+            case TAG_INT_ARRAY:
+                length = is.readInt();
+                is.readInts(tag.intArray(length), 0, length);
+                break;
+
+            case TAG_LONG_ARRAY:
+                length = is.readInt();
+                is.readLongs(tag.longArray(length), 0, length);
+                break;
+
+            case TAG_SHORT_ARRAY:
+                length = is.readInt();
+                is.readShorts(tag.shortArray(length), 0, length);
+                break;
+
+            default:
+                throw new IOException("Invalid tag type: " + type + ".");
+        }
+    }
+
+    /**
+     * Reads bytes into the reused scratch buffer, growing it if needed.
+     *
+     * @param length The number of bytes to read, at most 65535.
+     * @return The scratch buffer, holding the bytes at its start.
+     * @throws java.io.IOException if an I/O error occurs.
+     */
+    private byte[] readScratch(int length) throws IOException {
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        is.readFully(scratch, 0, length);
+        return scratch;
+    }
+
+    /**
+     * Passes a freshly decoded tag through the interner, if there is one.
+     *
+     * @param tag The tag.
+     * @param <T> The type of the tag.
+     * @return The canonical instance of the tag.
+     */
+    private <T extends Tag<?>> T intern(T tag) {
+        return interner == null ? tag : interner.intern(tag);
+    }
+
+    public void close() throws IOException {
+        is.close();
+    }
+
+    /**
+     * @return whether this NBTInputStream reads numbers in little-endian format.
+     */
+    public ByteOrder getByteOrder() {
+        return is.getEndianness();
+    }
+}
@@ -27,11 +27,13 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.ByteOrder;
+import java.util.Collection;
 import java.util.List;
 import java.util.zip.GZIPOutputStream;
 
 import com.flowpowered.nbt.ByteArrayTag;
 import com.flowpowered.nbt.ByteTag;
+import com.flowpowered.nbt.CompoundMap;
 import com.flowpowered.nbt.CompoundTag;
 import com.flowpowered.nbt.DoubleTag;
 import com.flowpowered.nbt.EndTag;
@@ -39,6 +41,7 @@ import com.flowpowered.nbt.FloatTag;
 import com.flowpowered.nbt.IntArrayTag;
 import com.flowpowered.nbt.IntTag;
 import com.flowpowered.nbt.ListTag;
+import com.flowpowered.nbt.LongArrayTag;
 import com.flowpowered.nbt.LongTag;
 import com.flowpowered.nbt.NBTConstants;
 import com.flowpowered.nbt.ShortArrayTag;
@@ -111,6 +114,23 @@ public final class NBTOutputStream implements Closeable {
         writeTagPayload(tag);
     }
 
+    /**
+     * Writes a value as a tag with a codec, without creating {@link Tag} objects.
+     *
+     * @param name The name of the tag.
+     * @param value The value.
+     * @param codec The codec.
+     * @param <T> The type of the value.
+     * @throws java.io.IOException if an I/O error occurs.
+     */
+    public <T> void writeTag(String name, T value, TagCodec<T> codec) throws IOException {
+        byte[] nameBytes = name.getBytes(NBTConstants.CHARSET.name());
+        os.writeByte(codec.getType().getId());
+        os.writeShort(nameBytes.length);
+        os.write(nameBytes);
+        codec.write(os, value);
+    }
+
     /**
      * Writes tag payload.
      *
@@ -167,6 +187,10 @@ public final class NBTOutputStream implements Closeable {
                 writeIntArrayTagPayload((IntArrayTag) tag);
                 break;
 
+            case TAG_LONG_ARRAY:
+                writeLongArrayTagPayload((LongArrayTag) tag);
+                break;
+
             case TAG_SHORT_ARRAY:
                 writeShortArrayTagPayload((ShortArrayTag) tag);
                 break;
@@ -205,7 +229,9 @@ public final class NBTOutputStream implements Closeable {
      * @throws java.io.IOException if an I/O error occurs.
      */
     private void writeCompoundTagPayload(CompoundTag tag) throws IOException {
-        for (Tag<?> childTag : tag.getValue().values()) {
+        CompoundMap map = tag.getValue();
+        Collection<Tag<?>> children = map.isConcurrent() ? map.snapshot() : map.values();
+        for (Tag<?> childTag : children) {
             writeTag(childTag);
         }
         os.writeByte(TagType.TAG_END.getId()); // end tag - better way?
@@ -301,9 +327,19 @@ public final class NBTOutputStream implements Closeable {
     private void writeIntArrayTagPayload(IntArrayTag tag) throws IOException {
         int[] ints = tag.getValue();
         os.writeInt(ints.length);
-        for (int i = 0; i < ints.length; i++) {
-            os.writeInt(ints[i]);
-        }
+        os.writeInts(ints, 0, ints.length);
+    }
+
+    /**
+     * Writes a {@code TAG_Long_Array} tag.
+     *
+     * @param tag The tag.
+     * @throws java.io.IOException if an I/O error occurs.
+     */
+    private void writeLongArrayTagPayload(LongArrayTag tag) throws IOException {
+        long[] longs = tag.getValue();
+        os.writeInt(longs.length);
+        os.writeLongs(longs, 0, longs.length);
     }
 
     /**
@@ -315,9 +351,7 @@ public final class NBTOutputStream implements Closeable {
     private void writeShortArrayTagPayload(ShortArrayTag tag) throws IOException {
         short[] shorts = tag.getValue();
         os.writeInt(shorts.length);
-        for (int i = 0; i < shorts.length; i++) {
-            os.writeShort(shorts[i]);
-        }
+        os.writeShorts(shorts, 0, shorts.length);
     }
 
     /**
@@ -0,0 +1,63 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.stream;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import com.flowpowered.nbt.TagType;
+
+/**
+ * Reads and writes values as the payload of one type of tag, used by {@link NBTOutputStream#writeTag(String, Object, TagCodec)} and {@link NBTInputStream#readTag(TagCodec)} to encode or decode
+ * a root value without creating {@link com.flowpowered.nbt.Tag} objects. The standard implementations are the codecs of the holder package.
+ *
+ * @param <T> The type of the values.
+ */
+public interface TagCodec<T> {
+    /**
+     * Gets the type of the tags holding the values.
+     *
+     * @return The tag type.
+     */
+    public TagType getType();
+
+    /**
+     * Writes the payload of a tag holding a value, without its type or name.
+     *
+     * @param out The output to write to.
+     * @param value The value.
+     * @throws IOException if an I/O error occurs.
+     */
+    public void write(DataOutput out, T value) throws IOException;
+
+    /**
+     * Reads a value from the payload of a tag, after its type and name.
+     *
+     * @param in The input to read from.
+     * @return The value.
+     * @throws IOException if an I/O error occurs, or the payload does not hold a valid value.
+     */
+    public T read(DataInput in) throws IOException;
+}
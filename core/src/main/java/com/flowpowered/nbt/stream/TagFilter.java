@@ -0,0 +1,59 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.stream;
+
+/**
+ * Selects the parts of a tag tree to decode when reading with {@link NBTInputStream#readTag(TagFilter)}. The payloads of everything that is not selected are skipped without being decoded.
+ */
+public interface TagFilter {
+    /**
+     * A filter selecting everything below the tag it is applied to.
+     */
+    public static final TagFilter ALL = new TagFilter() {
+        @Override
+        public TagFilter getChildFilter(String name) {
+            return this;
+        }
+
+        @Override
+        public TagFilter getElementFilter() {
+            return this;
+        }
+    };
+
+    /**
+     * Gets the filter for a child of a compound tag.
+     *
+     * @param name The name of the child.
+     * @return The filter for the contents of the child, or null to skip it.
+     */
+    public TagFilter getChildFilter(String name);
+
+    /**
+     * Gets the filter for the elements of a list tag. Elements are either all decoded or all skipped, so that their indices are kept.
+     *
+     * @return The filter for the contents of each element, or null to skip them all, leaving the list empty.
+     */
+    public TagFilter getElementFilter();
+}
@@ -0,0 +1,386 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.flowpowered.nbt.ByteTag;
+import com.flowpowered.nbt.CompoundMap;
+import com.flowpowered.nbt.DoubleTag;
+import com.flowpowered.nbt.FloatTag;
+import com.flowpowered.nbt.IntTag;
+import com.flowpowered.nbt.LongTag;
+import com.flowpowered.nbt.ShortTag;
+import com.flowpowered.nbt.Tag;
+
+/**
+ * The mapping between the fields of a class and the children of a compound, for {@link NBTMapper}. Each class is introspected once. Its fields are accessed through cached {@link MethodHandle
+ * MethodHandles}, and primitive fields through handles of their exact type, so they are never boxed.
+ */
+final class ClassMapping {
+    private static final ClassValue<ClassMapping> MAPPINGS = new ClassValue<ClassMapping>() {
+        @Override
+        protected ClassMapping computeValue(Class<?> type) {
+            return new ClassMapping(type);
+        }
+    };
+    private final Class<?> type;
+    /**
+     * The handle of the no-argument constructor, as {@code ()Object}, or null if there is none.
+     */
+    private final MethodHandle constructor;
+    private final Property[] properties;
+
+    private ClassMapping(Class<?> type) {
+        this.type = type;
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        MethodHandle constructor;
+        try {
+            Constructor<?> noArgs = type.getDeclaredConstructor();
+            noArgs.setAccessible(true);
+            constructor = lookup.unreflectConstructor(noArgs).asType(MethodType.methodType(Object.class));
+        } catch (Exception e) {
+            constructor = null;
+        }
+        this.constructor = constructor;
+
+        List<Property> properties = new ArrayList<Property>();
+        for (Class<?> clazz = type; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+            for (Field field : clazz.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || Modifier.isFinal(modifiers) || field.isSynthetic()) {
+                    continue;
+                }
+                Property property = createProperty(lookup, field);
+                if (property != null) {
+                    properties.add(property);
+                }
+            }
+        }
+        this.properties = properties.toArray(new Property[properties.size()]);
+    }
+
+    /**
+     * Gets the mapping of a class.
+     *
+     * @param type The class.
+     * @return The mapping.
+     */
+    static ClassMapping get(Class<?> type) {
+        return MAPPINGS.get(type);
+    }
+
+    /**
+     * Saves the mapped fields of an object. Fields holding null are left out.
+     *
+     * @param object The object.
+     * @return The map of the fields.
+     */
+    CompoundMap save(Object object) {
+        CompoundMap map = new CompoundMap();
+        try {
+            for (Property property : properties) {
+                Tag<?> tag = property.save(object);
+                if (tag != null) {
+                    map.put(tag);
+                }
+            }
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+        return map;
+    }
+
+    /**
+     * Creates an object with the no-argument constructor of the class and loads its fields.
+     *
+     * @param map The map of the fields.
+     * @return The object.
+     * @throws IllegalArgumentException if the class has no no-argument constructor.
+     */
+    Object load(CompoundMap map) throws IllegalArgumentException {
+        if (constructor == null) {
+            throw new IllegalArgumentException(type.getName() + " has no no-argument constructor");
+        }
+        Object object;
+        try {
+            object = constructor.invokeExact();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+        load(object, map);
+        return object;
+    }
+
+    /**
+     * Loads the mapped fields of an object. Fields without a tag of the right type in the map are left unchanged.
+     *
+     * @param object The object.
+     * @param map The map of the fields.
+     */
+    void load(Object object, CompoundMap map) {
+        try {
+            for (Property property : properties) {
+                Tag<?> tag = map.get(property.name);
+                if (tag != null) {
+                    property.load(object, tag);
+                }
+            }
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    private static Property createProperty(MethodHandles.Lookup lookup, Field field) {
+        MethodHandle getter;
+        MethodHandle setter;
+        try {
+            field.setAccessible(true);
+            getter = lookup.unreflectGetter(field);
+            setter = lookup.unreflectSetter(field);
+        } catch (Exception e) {
+            return null;
+        }
+        Class<?> type = field.getType();
+        if (type == byte.class) {
+            return new ByteProperty(field, getter, setter);
+        } else if (type == short.class) {
+            return new ShortProperty(field, getter, setter);
+        } else if (type == int.class) {
+            return new IntProperty(field, getter, setter);
+        } else if (type == long.class) {
+            return new LongProperty(field, getter, setter);
+        } else if (type == float.class) {
+            return new FloatProperty(field, getter, setter);
+        } else if (type == double.class) {
+            return new DoubleProperty(field, getter, setter);
+        } else if (type == boolean.class) {
+            return new BooleanProperty(field, getter, setter);
+        }
+        ValueMapping mapping = ValueMapping.of(field.getGenericType());
+        return mapping == null ? null : new ObjectProperty(field, getter, setter, mapping);
+    }
+
+    /**
+     * A mapped field.
+     */
+    private abstract static class Property {
+        /**
+         * The name of the field, used as the name of its tag.
+         */
+        protected final String name;
+        protected final MethodHandle getter;
+        protected final MethodHandle setter;
+
+        private Property(Field field, MethodHandle getter, MethodHandle setter) {
+            this.name = field.getName();
+            this.getter = getter;
+            this.setter = setter;
+        }
+
+        /**
+         * Saves the field of an object.
+         *
+         * @param object The object.
+         * @return The tag, or null if the field holds null.
+         */
+        abstract Tag<?> save(Object object) throws Throwable;
+
+        /**
+         * Loads the field of an object, unless the tag is not of the type of the field.
+         *
+         * @param object The object.
+         * @param tag The tag.
+         */
+        abstract void load(Object object, Tag<?> tag) throws Throwable;
+    }
+
+    private static final class ObjectProperty extends Property {
+        private final ValueMapping mapping;
+
+        private ObjectProperty(Field field, MethodHandle getter, MethodHandle setter, ValueMapping mapping) {
+            super(field, getter.asType(MethodType.methodType(Object.class, Object.class)), setter.asType(MethodType.methodType(void.class, Object.class, Object.class)));
+            this.mapping = mapping;
+        }
+
+        @Override
+        Tag<?> save(Object object) throws Throwable {
+            Object value = getter.invokeExact(object);
+            return value == null ? null : mapping.toTag(name, value);
+        }
+
+        @Override
+        void load(Object object, Tag<?> tag) throws Throwable {
+            Object value = mapping.fromTag(tag);
+            if (value != null) {
+                setter.invokeExact(object, value);
+            }
+        }
+    }
+
+    private static final class ByteProperty extends Property {
+        private ByteProperty(Field field, MethodHandle getter, MethodHandle setter) {
+            super(field, getter.asType(MethodType.methodType(byte.class, Object.class)), setter.asType(MethodType.methodType(void.class, Object.class, byte.class)));
+        }
+
+        @Override
+        Tag<?> save(Object object) throws Throwable {
+            return ByteTag.valueOf(name, (byte) getter.invokeExact(object));
+        }
+
+        @Override
+        void load(Object object, Tag<?> tag) throws Throwable {
+            if (tag instanceof ByteTag) {
+                setter.invokeExact(object, ((ByteTag) tag).getByteValue());
+            }
+        }
+    }
+
+    private static final class ShortProperty extends Property {
+        private ShortProperty(Field field, MethodHandle getter, MethodHandle setter) {
+            super(field, getter.asType(MethodType.methodType(short.class, Object.class)), setter.asType(MethodType.methodType(void.class, Object.class, short.class)));
+        }
+
+        @Override
+        Tag<?> save(Object object) throws Throwable {
+            return ShortTag.valueOf(name, (short) getter.invokeExact(object));
+        }
+
+        @Override
+        void load(Object object, Tag<?> tag) throws Throwable {
+            if (tag instanceof ShortTag) {
+                setter.invokeExact(object, ((ShortTag) tag).getShortValue());
+            }
+        }
+    }
+
+    private static final class IntProperty extends Property {
+        private IntProperty(Field field, MethodHandle getter, MethodHandle setter) {
+            super(field, getter.asType(MethodType.methodType(int.class, Object.class)), setter.asType(MethodType.methodType(void.class, Object.class, int.class)));
+        }
+
+        @Override
+        Tag<?> save(Object object) throws Throwable {
+            return IntTag.valueOf(name, (int) getter.invokeExact(object));
+        }
+
+        @Override
+        void load(Object object, Tag<?> tag) throws Throwable {
+            if (tag instanceof IntTag) {
+                setter.invokeExact(object, ((IntTag) tag).getIntValue());
+            }
+        }
+    }
+
+    private static final class LongProperty extends Property {
+        private LongProperty(Field field, MethodHandle getter, MethodHandle setter) {
+            super(field, getter.asType(MethodType.methodType(long.class, Object.class)), setter.asType(MethodType.methodType(void.class, Object.class, long.class)));
+        }
+
+        @Override
+        Tag<?> save(Object object) throws Throwable {
+            return LongTag.valueOf(name, (long) getter.invokeExact(object));
+        }
+
+        @Override
+        void load(Object object, Tag<?> tag) throws Throwable {
+            if (tag instanceof LongTag) {
+                setter.invokeExact(object, ((LongTag) tag).getLongValue());
+            }
+        }
+    }
+
+    private static final class FloatProperty extends Property {
+        private FloatProperty(Field field, MethodHandle getter, MethodHandle setter) {
+            super(field, getter.asType(MethodType.methodType(float.class, Object.class)), setter.asType(MethodType.methodType(void.class, Object.class, float.class)));
+        }
+
+        @Override
+        Tag<?> save(Object object) throws Throwable {
+            return FloatTag.valueOf(name, (float) getter.invokeExact(object));
+        }
+
+        @Override
+        void load(Object object, Tag<?> tag) throws Throwable {
+            if (tag instanceof FloatTag) {
+                setter.invokeExact(object, ((FloatTag) tag).getFloatValue());
+            }
+        }
+    }
+
+    private static final class DoubleProperty extends Property {
+        private DoubleProperty(Field field, MethodHandle getter, MethodHandle setter) {
+            super(field, getter.asType(MethodType.methodType(double.class, Object.class)), setter.asType(MethodType.methodType(void.class, Object.class, double.class)));
+        }
+
+        @Override
+        Tag<?> save(Object object) throws Throwable {
+            return DoubleTag.valueOf(name, (double) getter.invokeExact(object));
+        }
+
+        @Override
+        void load(Object object, Tag<?> tag) throws Throwable {
+            if (tag instanceof DoubleTag) {
+                setter.invokeExact(object, ((DoubleTag) tag).getDoubleValue());
+            }
+        }
+    }
+
+    private static final class BooleanProperty extends Property {
+        private BooleanProperty(Field field, MethodHandle getter, MethodHandle setter) {
+            super(field, getter.asType(MethodType.methodType(boolean.class, Object.class)), setter.asType(MethodType.methodType(void.class, Object.class, boolean.class)));
+        }
+
+        @Override
+        Tag<?> save(Object object) throws Throwable {
+            return ByteTag.valueOf(name, (boolean) getter.invokeExact(object));
+        }
+
+        @Override
+        void load(Object object, Tag<?> tag) throws Throwable {
+            if (tag instanceof ByteTag) {
+                setter.invokeExact(object, ((ByteTag) tag).getBooleanValue());
+            }
+        }
+    }
+}
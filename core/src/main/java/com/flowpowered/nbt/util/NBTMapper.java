@@ -23,6 +23,7 @@
  */
 package com.flowpowered.nbt.util;
 
+import com.flowpowered.nbt.CompoundTag;
 import com.flowpowered.nbt.Tag;
 
 /**
@@ -52,14 +53,10 @@ public class NBTMapper {
      */
     public static <T> T getTagValue(Tag<?> t, Class<? extends T> clazz) {
         Object o = toTagValue(t);
-        if (o == null) {
-            return null;
-        }
-        try {
-            return clazz.cast(o);
-        } catch (ClassCastException e) {
+        if (o == null || !clazz.isInstance(o)) {
             return null;
         }
+        return clazz.cast(o);
     }
 
     /**
@@ -71,14 +68,46 @@ public class NBTMapper {
      */
     public static <T, U extends T> T toTagValue(Tag<?> t, Class<? extends T> clazz, U defaultValue) {
         Object o = toTagValue(t);
-        if (o == null) {
-            return defaultValue;
-        }
-        try {
-            T value = clazz.cast(o);
-            return value;
-        } catch (ClassCastException e) {
+        if (o == null || !clazz.isInstance(o)) {
             return defaultValue;
         }
+        return clazz.cast(o);
+    }
+
+    /**
+     * Creates an object from a compound tag. The object is created with the no-argument constructor of the class, then each of its non-static, non-transient and non-final fields is set from the
+     * child with the same name, if there is one of the right type. Supported field types are primitives and their wrappers, strings, enums (stored by name), primitive arrays, lists and sets of
+     * supported types, maps with string keys and supported values, and nested objects following the same rules. Fields of other types are ignored.
+     * <p>
+     * Each class is introspected once, and its fields are accessed through cached method handles afterwards.
+     *
+     * @param tag the compound tag holding the fields
+     * @param type the class of the object
+     * @return the new object
+     * @throws IllegalArgumentException if the class has no no-argument constructor
+     */
+    public static <T> T toObject(CompoundTag tag, Class<T> type) throws IllegalArgumentException {
+        return type.cast(ClassMapping.get(type).load(tag.getValue()));
+    }
+
+    /**
+     * Creates an unnamed compound tag from the fields of an object, see {@link #toObject(CompoundTag, Class)} for the fields that are mapped. Fields holding null are left out.
+     *
+     * @param object the object
+     * @return the compound tag holding the fields
+     */
+    public static CompoundTag fromObject(Object object) {
+        return fromObject("", object);
+    }
+
+    /**
+     * Creates a compound tag from the fields of an object, see {@link #toObject(CompoundTag, Class)} for the fields that are mapped. Fields holding null are left out.
+     *
+     * @param name the name of the tag
+     * @param object the object
+     * @return the compound tag holding the fields
+     */
+    public static CompoundTag fromObject(String name, Object object) {
+        return new CompoundTag(name, ClassMapping.get(object.getClass()).save(object));
     }
 }
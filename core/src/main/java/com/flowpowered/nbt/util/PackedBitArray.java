@@ -0,0 +1,284 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.util;
+
+import com.flowpowered.nbt.LongArrayTag;
+
+/**
+ * A view of a {@code long[]}, usually the value of a {@link LongArrayTag}, as an array of fixed width unsigned entries, such as the block state indices and heightmaps in world data.<br> <br> Two
+ * layouts are supported: a spanning layout where entries are packed back to back and may cross from one long into the next, and a padded layout where each long holds as many whole entries as fit
+ * and the remaining high bits are left unused. In both layouts the first entry is stored in the lowest bits of the first long.
+ */
+public class PackedBitArray {
+    private final long[] data;
+    private final int bitsPerEntry;
+    private final int size;
+    private final boolean spanning;
+    private final long mask;
+    /**
+     * The number of entries held by each long in the padded layout.
+     */
+    private final int entriesPerLong;
+
+    /**
+     * Creates an array with all entries set to zero.
+     *
+     * @param bitsPerEntry The width of an entry, between 1 and 32 bits.
+     * @param size The number of entries.
+     * @param spanning Whether entries may cross from one long into the next.
+     */
+    public PackedBitArray(int bitsPerEntry, int size, boolean spanning) {
+        this(new long[getRequiredLength(bitsPerEntry, size, spanning)], bitsPerEntry, size, spanning);
+    }
+
+    /**
+     * Creates a view of the value of a tag. Changes to the entries write through to the tag.
+     *
+     * @param tag The tag.
+     * @param bitsPerEntry The width of an entry, between 1 and 32 bits.
+     * @param size The number of entries.
+     * @param spanning Whether entries may cross from one long into the next.
+     */
+    public PackedBitArray(LongArrayTag tag, int bitsPerEntry, int size, boolean spanning) {
+        this(tag.getValue(), bitsPerEntry, size, spanning);
+    }
+
+    /**
+     * Creates a view of an existing array. Changes to the entries write through to the array.
+     *
+     * @param data The packed data.
+     * @param bitsPerEntry The width of an entry, between 1 and 32 bits.
+     * @param size The number of entries.
+     * @param spanning Whether entries may cross from one long into the next.
+     * @throws IllegalArgumentException if the width is out of range or the array is too short
+     */
+    public PackedBitArray(long[] data, int bitsPerEntry, int size, boolean spanning) {
+        int required = getRequiredLength(bitsPerEntry, size, spanning);
+        if (data.length < required) {
+            throw new IllegalArgumentException("Expected at least " + required + " longs for " + size + " entries of " + bitsPerEntry + " bits, was " + data.length);
+        }
+        this.data = data;
+        this.bitsPerEntry = bitsPerEntry;
+        this.size = size;
+        this.spanning = spanning;
+        this.mask = (1L << bitsPerEntry) - 1;
+        this.entriesPerLong = 64 / bitsPerEntry;
+    }
+
+    /**
+     * Gets the number of longs needed to hold the given entries.
+     *
+     * @param bitsPerEntry The width of an entry, between 1 and 32 bits.
+     * @param size The number of entries.
+     * @param spanning Whether entries may cross from one long into the next.
+     * @return The number of longs.
+     */
+    public static int getRequiredLength(int bitsPerEntry, int size, boolean spanning) {
+        if (bitsPerEntry < 1 || bitsPerEntry > 32) {
+            throw new IllegalArgumentException("Entries must be between 1 and 32 bits wide, was " + bitsPerEntry);
+        }
+        if (spanning) {
+            return (int) (((long) size * bitsPerEntry + 63) >>> 6);
+        }
+        int perLong = 64 / bitsPerEntry;
+        return (size + perLong - 1) / perLong;
+    }
+
+    public long[] getData() {
+        return data;
+    }
+
+    public int getBitsPerEntry() {
+        return bitsPerEntry;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isSpanning() {
+        return spanning;
+    }
+
+    /**
+     * Gets an entry.
+     *
+     * @param index The index of the entry.
+     * @return The value of the entry.
+     */
+    public int get(int index) {
+        checkIndex(index);
+        if (spanning) {
+            long bitIndex = (long) index * bitsPerEntry;
+            int word = (int) (bitIndex >>> 6);
+            int offset = (int) (bitIndex & 63);
+            long value = data[word] >>> offset;
+            if (offset + bitsPerEntry > 64) {
+                value |= data[word + 1] << (64 - offset);
+            }
+            return (int) (value & mask);
+        }
+        int word = index / entriesPerLong;
+        int offset = (index - word * entriesPerLong) * bitsPerEntry;
+        return (int) ((data[word] >>> offset) & mask);
+    }
+
+    /**
+     * Sets an entry. Only the lowest {@link #getBitsPerEntry()} bits of the value are stored.
+     *
+     * @param index The index of the entry.
+     * @param value The new value of the entry.
+     */
+    public void set(int index, int value) {
+        checkIndex(index);
+        long bits = value & mask;
+        if (spanning) {
+            long bitIndex = (long) index * bitsPerEntry;
+            int word = (int) (bitIndex >>> 6);
+            int offset = (int) (bitIndex & 63);
+            data[word] = (data[word] & ~(mask << offset)) | (bits << offset);
+            if (offset + bitsPerEntry > 64) {
+                int shift = 64 - offset;
+                data[word + 1] = (data[word + 1] & ~(mask >>> shift)) | (bits >>> shift);
+            }
+            return;
+        }
+        int word = index / entriesPerLong;
+        int offset = (index - word * entriesPerLong) * bitsPerEntry;
+        data[word] = (data[word] & ~(mask << offset)) | (bits << offset);
+    }
+
+    /**
+     * Unpacks all the entries into a new array.
+     *
+     * @return The entries.
+     */
+    public int[] unpack() {
+        int[] values = new int[size];
+        unpack(values);
+        return values;
+    }
+
+    /**
+     * Unpacks all the entries into the given array. Each long is read once and all the entries it holds are shifted out of it.
+     *
+     * @param values The array to unpack into, which must hold at least {@link #size()} values.
+     */
+    public void unpack(int[] values) {
+        checkLength(values);
+        int bits = bitsPerEntry;
+        if (spanning) {
+            int word = 0;
+            long current = data.length > 0 ? data[0] : 0;
+            int available = 64;
+            for (int i = 0; i < size; i++) {
+                long value = current;
+                if (available >= bits) {
+                    current >>>= bits;
+                    available -= bits;
+                } else {
+                    long next = data[++word];
+                    value |= next << available;
+                    current = next >>> (bits - available);
+                    available += 64 - bits;
+                }
+                values[i] = (int) (value & mask);
+                if (available == 0 && word + 1 < data.length) {
+                    current = data[++word];
+                    available = 64;
+                }
+            }
+            return;
+        }
+        int i = 0;
+        for (int word = 0; i < size; word++) {
+            long current = data[word];
+            int end = Math.min(size, i + entriesPerLong);
+            for (; i < end; i++) {
+                values[i] = (int) (current & mask);
+                current >>>= bits;
+            }
+        }
+    }
+
+    /**
+     * Replaces all the entries. Each long is assembled from its entries and written once.
+     *
+     * @param values The new entries, of which the first {@link #size()} are used.
+     */
+    public void pack(int[] values) {
+        checkLength(values);
+        int bits = bitsPerEntry;
+        if (spanning) {
+            int word = 0;
+            long current = 0;
+            int used = 0;
+            for (int i = 0; i < size; i++) {
+                long value = values[i] & mask;
+                current |= value << used;
+                used += bits;
+                if (used >= 64) {
+                    data[word++] = current;
+                    used -= 64;
+                    current = used == 0 ? 0 : value >>> (bits - used);
+                }
+            }
+            if (used > 0) {
+                data[word] = current;
+            }
+            return;
+        }
+        int i = 0;
+        for (int word = 0; i < size; word++) {
+            long current = 0;
+            int end = Math.min(size, i + entriesPerLong);
+            for (int shift = 0; i < end; i++, shift += bits) {
+                current |= (values[i] & mask) << shift;
+            }
+            data[word] = current;
+        }
+    }
+
+    /**
+     * Creates a tag holding the packed data. The tag shares its value with this array.
+     *
+     * @param name The name of the tag.
+     * @return The tag.
+     */
+    public LongArrayTag toTag(String name) {
+        return new LongArrayTag(name, data);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " is out of bounds for " + size + " entries");
+        }
+    }
+
+    private void checkLength(int[] values) {
+        if (values.length < size) {
+            throw new IllegalArgumentException("Expected at least " + size + " values, was " + values.length);
+        }
+    }
+}
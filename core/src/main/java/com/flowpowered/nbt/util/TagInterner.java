@@ -0,0 +1,230 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.util;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import com.flowpowered.nbt.ByteArrayTag;
+import com.flowpowered.nbt.CompoundMap;
+import com.flowpowered.nbt.CompoundTag;
+import com.flowpowered.nbt.IntArrayTag;
+import com.flowpowered.nbt.ListTag;
+import com.flowpowered.nbt.LongArrayTag;
+import com.flowpowered.nbt.ShortArrayTag;
+import com.flowpowered.nbt.Tag;
+
+/**
+ * Maps structurally equal compound, list and array tags to a single shared instance, so that repeated subtrees are only kept in memory once. Canonical instances are held weakly and disappear once
+ * nothing else references them.<br> <br> Interned tags are shared between every tree they were found in, so neither they nor their {@link CompoundMap CompoundMaps} or arrays may be modified
+ * afterwards. This class is thread-safe.<br> <br> Since the children of an interned tag are canonical instances themselves, tags are hashed and compared one level deep only, using the identity of
+ * their compound, list and array children. Interning a tag therefore costs time proportional to its number of children, not to the size of its subtree.
+ */
+public class TagInterner {
+    private final Map<Key, Key> table = new HashMap<Key, Key>();
+    private final ReferenceQueue<Tag<?>> queue = new ReferenceQueue<Tag<?>>();
+
+    /**
+     * Gets the canonical instance of a tag. Only the tag itself is looked up, its children are expected to have been interned already; a child that wasn't keeps the tag from matching other tags.
+     * Tags of other types than compounds, lists and arrays are returned unchanged.
+     *
+     * @param tag The tag.
+     * @param <T> The type of the tag.
+     * @return The canonical instance, which is {@code tag} itself if no equal tag was interned before.
+     */
+    @SuppressWarnings ("unchecked")
+    public <T extends Tag<?>> T intern(T tag) {
+        if (!isInternable(tag)) {
+            return tag;
+        }
+        int hash = shallowHash(tag);
+        synchronized (table) {
+            expunge();
+            Key key = table.get(new Key(tag, hash, null));
+            if (key != null) {
+                Tag<?> canonical = key.get();
+                if (canonical != null) {
+                    return (T) canonical;
+                }
+                table.remove(key);
+            }
+            key = new Key(tag, hash, queue);
+            table.put(key, key);
+            return tag;
+        }
+    }
+
+    /**
+     * Interns a whole tree, from the leaves up. Compounds and lists are only copied when one of their children was replaced by a canonical instance.
+     *
+     * @param tag The root of the tree.
+     * @return The canonical instance of the tree.
+     */
+    @SuppressWarnings ({"unchecked", "rawtypes"})
+    public Tag<?> dedup(Tag<?> tag) {
+        if (tag instanceof CompoundTag) {
+            CompoundMap map = ((CompoundTag) tag).getValue();
+            CompoundMap deduped = null;
+            for (Tag<?> child : map.values()) {
+                Tag<?> canonical = dedup(child);
+                if (canonical != child) {
+                    if (deduped == null) {
+                        deduped = new CompoundMap(map);
+                    }
+                    deduped.put(canonical);
+                }
+            }
+            if (deduped != null) {
+                tag = new CompoundTag(tag.getName(), deduped);
+            }
+        } else if (tag instanceof ListTag) {
+            ListTag<?> list = (ListTag<?>) tag;
+            List<? extends Tag<?>> elements = list.getValue();
+            List<Tag<?>> deduped = null;
+            for (int i = 0; i < elements.size(); i++) {
+                Tag<?> element = elements.get(i);
+                Tag<?> canonical = dedup(element);
+                if (canonical != element && deduped == null) {
+                    deduped = new ArrayList<Tag<?>>(elements.subList(0, i));
+                }
+                if (deduped != null) {
+                    deduped.add(canonical);
+                }
+            }
+            if (deduped != null) {
+                tag = new ListTag(list.getName(), list.getElementType(), deduped);
+            }
+        }
+        return intern(tag);
+    }
+
+    /**
+     * Gets the number of canonical instances currently held. Instances that were collected but not yet purged from the table are included.
+     *
+     * @return The number of interned tags.
+     */
+    public int size() {
+        synchronized (table) {
+            return table.size();
+        }
+    }
+
+    private void expunge() {
+        Object key;
+        while ((key = queue.poll()) != null) {
+            table.remove(key);
+        }
+    }
+
+    private static boolean isInternable(Tag<?> tag) {
+        return tag instanceof CompoundTag || tag instanceof ListTag || tag instanceof ByteArrayTag || tag instanceof IntArrayTag || tag instanceof LongArrayTag || tag instanceof ShortArrayTag;
+    }
+
+    private static int shallowHash(Tag<?> tag) {
+        int hash = 31 * tag.getName().hashCode() + tag.getType().ordinal();
+        if (tag instanceof CompoundTag) {
+            for (Tag<?> child : ((CompoundTag) tag).getValue()) {
+                hash = 31 * hash + childHash(child);
+            }
+        } else if (tag instanceof ListTag) {
+            hash = 31 * hash + ((ListTag<?>) tag).getElementType().hashCode();
+            for (Tag<?> element : ((ListTag<?>) tag).getValue()) {
+                hash = 31 * hash + childHash(element);
+            }
+        } else {
+            hash = tag.hashCode();
+        }
+        return hash;
+    }
+
+    private static int childHash(Tag<?> child) {
+        return isInternable(child) ? System.identityHashCode(child) : child.hashCode();
+    }
+
+    private static boolean shallowEquals(Tag<?> a, Tag<?> b) {
+        if (a == b) {
+            return true;
+        }
+        if (a.getClass() != b.getClass() || !a.getName().equals(b.getName())) {
+            return false;
+        }
+        if (a instanceof CompoundTag) {
+            CompoundMap mapA = ((CompoundTag) a).getValue();
+            CompoundMap mapB = ((CompoundTag) b).getValue();
+            return mapA.size() == mapB.size() && childrenEqual(mapA.iterator(), mapB.iterator());
+        } else if (a instanceof ListTag) {
+            ListTag<?> listA = (ListTag<?>) a;
+            ListTag<?> listB = (ListTag<?>) b;
+            return listA.getElementType() == listB.getElementType() && listA.getValue().size() == listB.getValue().size()
+                    && childrenEqual(listA.getValue().iterator(), listB.getValue().iterator());
+        }
+        return a.equals(b);
+    }
+
+    private static boolean childrenEqual(Iterator<? extends Tag<?>> a, Iterator<? extends Tag<?>> b) {
+        while (a.hasNext() && b.hasNext()) {
+            Tag<?> childA = a.next();
+            Tag<?> childB = b.next();
+            if (childA != childB && (isInternable(childA) || !childA.equals(childB))) {
+                return false;
+            }
+        }
+        return !a.hasNext() && !b.hasNext();
+    }
+
+    /**
+     * A weak reference to a canonical tag, hashed by its contents at the time it was interned. Lookups use a key that isn't registered with the queue.
+     */
+    private static final class Key extends WeakReference<Tag<?>> {
+        private final int hash;
+
+        private Key(Tag<?> tag, int hash, ReferenceQueue<Tag<?>> queue) {
+            super(tag, queue);
+            this.hash = hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key) || ((Key) o).hash != hash) {
+                return false;
+            }
+            Tag<?> tag = get();
+            Tag<?> other = ((Key) o).get();
+            return tag != null && other != null && shallowEquals(tag, other);
+        }
+    }
+}
@@ -0,0 +1,411 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.util;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import com.flowpowered.nbt.ByteArrayTag;
+import com.flowpowered.nbt.ByteTag;
+import com.flowpowered.nbt.CompoundMap;
+import com.flowpowered.nbt.CompoundTag;
+import com.flowpowered.nbt.DoubleTag;
+import com.flowpowered.nbt.FloatTag;
+import com.flowpowered.nbt.IntArrayTag;
+import com.flowpowered.nbt.IntTag;
+import com.flowpowered.nbt.ListTag;
+import com.flowpowered.nbt.LongArrayTag;
+import com.flowpowered.nbt.LongTag;
+import com.flowpowered.nbt.ShortArrayTag;
+import com.flowpowered.nbt.ShortTag;
+import com.flowpowered.nbt.StringTag;
+import com.flowpowered.nbt.Tag;
+import com.flowpowered.nbt.TagType;
+
+/**
+ * Converts the values of one Java type to and from tags, for {@link NBTMapper}. Mappings are resolved once per property and never throw on a type mismatch: {@link #fromTag(Tag)} returns null
+ * instead.
+ */
+abstract class ValueMapping {
+    private final Class<? extends Tag<?>> tagClass;
+
+    ValueMapping(Class<? extends Tag<?>> tagClass) {
+        this.tagClass = tagClass;
+    }
+
+    /**
+     * Gets the class of the tags holding the values.
+     *
+     * @return The tag class.
+     */
+    final Class<? extends Tag<?>> getTagClass() {
+        return tagClass;
+    }
+
+    /**
+     * Converts a non-null value to a tag.
+     *
+     * @param name The name of the tag.
+     * @param value The value.
+     * @return The tag.
+     */
+    abstract Tag<?> toTag(String name, Object value);
+
+    /**
+     * Converts a tag to a value.
+     *
+     * @param tag The tag.
+     * @return The value, or null if the tag is not of the expected type.
+     */
+    abstract Object fromTag(Tag<?> tag);
+
+    /**
+     * Resolves the mapping for a type.
+     *
+     * @param type The type, possibly generic.
+     * @return The mapping, or null if the type is not supported.
+     */
+    static ValueMapping of(Type type) {
+        if (type instanceof Class) {
+            Class<?> clazz = (Class<?>) type;
+            if (clazz == byte.class || clazz == Byte.class) {
+                return BYTE;
+            } else if (clazz == short.class || clazz == Short.class) {
+                return SHORT;
+            } else if (clazz == int.class || clazz == Integer.class) {
+                return INT;
+            } else if (clazz == long.class || clazz == Long.class) {
+                return LONG;
+            } else if (clazz == float.class || clazz == Float.class) {
+                return FLOAT;
+            } else if (clazz == double.class || clazz == Double.class) {
+                return DOUBLE;
+            } else if (clazz == boolean.class || clazz == Boolean.class) {
+                return BOOLEAN;
+            } else if (clazz == String.class) {
+                return STRING;
+            } else if (clazz == byte[].class) {
+                return BYTE_ARRAY;
+            } else if (clazz == short[].class) {
+                return SHORT_ARRAY;
+            } else if (clazz == int[].class) {
+                return INT_ARRAY;
+            } else if (clazz == long[].class) {
+                return LONG_ARRAY;
+            } else if (clazz.isEnum()) {
+                return new EnumMapping(clazz);
+            } else if (clazz.isArray() || clazz.isInterface() || clazz.isPrimitive() || Collection.class.isAssignableFrom(clazz) || Map.class.isAssignableFrom(clazz)
+                    || clazz.getName().startsWith("java.")) {
+                return null;
+            }
+            return new ObjectMapping(clazz);
+        } else if (type instanceof ParameterizedType) {
+            ParameterizedType parameterized = (ParameterizedType) type;
+            Class<?> raw = (Class<?>) parameterized.getRawType();
+            Type[] arguments = parameterized.getActualTypeArguments();
+            if (Collection.class.isAssignableFrom(raw)) {
+                ValueMapping elements = of(arguments[0]);
+                if (elements == null) {
+                    return null;
+                } else if (raw.isAssignableFrom(ArrayList.class)) {
+                    return new CollectionMapping(elements, false);
+                } else if (raw.isAssignableFrom(LinkedHashSet.class)) {
+                    return new CollectionMapping(elements, true);
+                }
+            } else if (Map.class.isAssignableFrom(raw) && raw.isAssignableFrom(LinkedHashMap.class) && arguments[0] == String.class) {
+                ValueMapping values = of(arguments[1]);
+                return values == null ? null : new MapMapping(values);
+            }
+        }
+        return null;
+    }
+
+    static final ValueMapping BYTE = new ValueMapping(ByteTag.class) {
+        @Override
+        Tag<?> toTag(String name, Object value) {
+            return ByteTag.valueOf(name, (Byte) value);
+        }
+
+        @Override
+        Object fromTag(Tag<?> tag) {
+            return tag instanceof ByteTag ? ((ByteTag) tag).getValue() : null;
+        }
+    };
+    static final ValueMapping SHORT = new ValueMapping(ShortTag.class) {
+        @Override
+        Tag<?> toTag(String name, Object value) {
+            return ShortTag.valueOf(name, (Short) value);
+        }
+
+        @Override
+        Object fromTag(Tag<?> tag) {
+            return tag instanceof ShortTag ? ((ShortTag) tag).getValue() : null;
+        }
+    };
+    static final ValueMapping INT = new ValueMapping(IntTag.class) {
+        @Override
+        Tag<?> toTag(String name, Object value) {
+            return IntTag.valueOf(name, (Integer) value);
+        }
+
+        @Override
+        Object fromTag(Tag<?> tag) {
+            return tag instanceof IntTag ? ((IntTag) tag).getValue() : null;
+        }
+    };
+    static final ValueMapping LONG = new ValueMapping(LongTag.class) {
+        @Override
+        Tag<?> toTag(String name, Object value) {
+            return LongTag.valueOf(name, (Long) value);
+        }
+
+        @Override
+        Object fromTag(Tag<?> tag) {
+            return tag instanceof LongTag ? ((LongTag) tag).getValue() : null;
+        }
+    };
+    static final ValueMapping FLOAT = new ValueMapping(FloatTag.class) {
+        @Override
+        Tag<?> toTag(String name, Object value) {
+            return FloatTag.valueOf(name, (Float) value);
+        }
+
+        @Override
+        Object fromTag(Tag<?> tag) {
+            return tag instanceof FloatTag ? ((FloatTag) tag).getValue() : null;
+        }
+    };
+    static final ValueMapping DOUBLE = new ValueMapping(DoubleTag.class) {
+        @Override
+        Tag<?> toTag(String name, Object value) {
+            return DoubleTag.valueOf(name, (Double) value);
+        }
+
+        @Override
+        Object fromTag(Tag<?> tag) {
+            return tag instanceof DoubleTag ? ((DoubleTag) tag).getValue() : null;
+        }
+    };
+    static final ValueMapping BOOLEAN = new ValueMapping(ByteTag.class) {
+        @Override
+        Tag<?> toTag(String name, Object value) {
+            return ByteTag.valueOf(name, (Boolean) value);
+        }
+
+        @Override
+        Object fromTag(Tag<?> tag) {
+            return tag instanceof ByteTag ? ((ByteTag) tag).getBooleanValue() : null;
+        }
+    };
+    static final ValueMapping STRING = new ValueMapping(StringTag.class) {
+        @Override
+        Tag<?> toTag(String name, Object value) {
+            return new StringTag(name, (String) value);
+        }
+
+        @Override
+        Object fromTag(Tag<?> tag) {
+            return tag instanceof StringTag ? ((StringTag) tag).getValue() : null;
+        }
+    };
+    static final ValueMapping BYTE_ARRAY = new ValueMapping(ByteArrayTag.class) {
+        @Override
+        Tag<?> toTag(String name, Object value) {
+            return new ByteArrayTag(name, (byte[]) value);
+        }
+
+        @Override
+        Object fromTag(Tag<?> tag) {
+            return tag instanceof ByteArrayTag ? ((ByteArrayTag) tag).getValue() : null;
+        }
+    };
+    static final ValueMapping SHORT_ARRAY = new ValueMapping(ShortArrayTag.class) {
+        @Override
+        Tag<?> toTag(String name, Object value) {
+            return new ShortArrayTag(name, (short[]) value);
+        }
+
+        @Override
+        Object fromTag(Tag<?> tag) {
+            return tag instanceof ShortArrayTag ? ((ShortArrayTag) tag).getValue() : null;
+        }
+    };
+    static final ValueMapping INT_ARRAY = new ValueMapping(IntArrayTag.class) {
+        @Override
+        Tag<?> toTag(String name, Object value) {
+            return new IntArrayTag(name, (int[]) value);
+        }
+
+        @Override
+        Object fromTag(Tag<?> tag) {
+            return tag instanceof IntArrayTag ? ((IntArrayTag) tag).getValue() : null;
+        }
+    };
+    static final ValueMapping LONG_ARRAY = new ValueMapping(LongArrayTag.class) {
+        @Override
+        Tag<?> toTag(String name, Object value) {
+            return new LongArrayTag(name, (long[]) value);
+        }
+
+        @Override
+        Object fromTag(Tag<?> tag) {
+            return tag instanceof LongArrayTag ? ((LongArrayTag) tag).getValue() : null;
+        }
+    };
+
+    /**
+     * Enum constants, stored by name.
+     */
+    private static final class EnumMapping extends ValueMapping {
+        private final Map<String, Object> constants = new LinkedHashMap<String, Object>();
+
+        private EnumMapping(Class<?> type) {
+            super(StringTag.class);
+            for (Object constant : type.getEnumConstants()) {
+                constants.put(((Enum<?>) constant).name(), constant);
+            }
+        }
+
+        @Override
+        Tag<?> toTag(String name, Object value) {
+            return new StringTag(name, ((Enum<?>) value).name());
+        }
+
+        @Override
+        Object fromTag(Tag<?> tag) {
+            return tag instanceof StringTag ? constants.get(((StringTag) tag).getValue()) : null;
+        }
+    }
+
+    /**
+     * Nested objects, stored as compounds. Both ways go through the mapping of the declared type, so the fields of a subclass instance that the declared type lacks are not saved, and loading
+     * always creates an instance of the declared type.
+     */
+    private static final class ObjectMapping extends ValueMapping {
+        private final Class<?> type;
+
+        private ObjectMapping(Class<?> type) {
+            super(CompoundTag.class);
+            this.type = type;
+        }
+
+        @Override
+        Tag<?> toTag(String name, Object value) {
+            return new CompoundTag(name, ClassMapping.get(type).save(value));
+        }
+
+        @Override
+        Object fromTag(Tag<?> tag) {
+            return tag instanceof CompoundTag ? ClassMapping.get(type).load(((CompoundTag) tag).getValue()) : null;
+        }
+    }
+
+    /**
+     * Lists and sets, stored as list tags. Elements of the wrong type are left out.
+     */
+    private static final class CollectionMapping extends ValueMapping {
+        private final ValueMapping elements;
+        private final boolean set;
+
+        private CollectionMapping(ValueMapping elements, boolean set) {
+            super(TagType.TAG_LIST.getTagClass());
+            this.elements = elements;
+            this.set = set;
+        }
+
+        @Override
+        @SuppressWarnings ({"unchecked", "rawtypes"})
+        Tag<?> toTag(String name, Object value) {
+            Collection<?> collection = (Collection<?>) value;
+            List<Tag<?>> tags = new ArrayList<Tag<?>>(collection.size());
+            for (Object element : collection) {
+                if (element != null) {
+                    tags.add(elements.toTag("", element));
+                }
+            }
+            return new ListTag(name, elements.getTagClass(), tags);
+        }
+
+        @Override
+        Object fromTag(Tag<?> tag) {
+            if (!(tag instanceof ListTag)) {
+                return null;
+            }
+            List<?> tags = ((ListTag<?>) tag).getValue();
+            Collection<Object> result = set ? new LinkedHashSet<Object>(tags.size() * 4 / 3 + 1) : new ArrayList<Object>(tags.size());
+            for (Object element : tags) {
+                Object value = elements.fromTag((Tag<?>) element);
+                if (value != null) {
+                    result.add(value);
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Maps with string keys, stored as compounds. Entries of the wrong type are left out.
+     */
+    private static final class MapMapping extends ValueMapping {
+        private final ValueMapping values;
+
+        private MapMapping(ValueMapping values) {
+            super(CompoundTag.class);
+            this.values = values;
+        }
+
+        @Override
+        Tag<?> toTag(String name, Object value) {
+            CompoundMap map = new CompoundMap();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                if (entry.getValue() != null) {
+                    map.put(values.toTag((String) entry.getKey(), entry.getValue()));
+                }
+            }
+            return new CompoundTag(name, map);
+        }
+
+        @Override
+        Object fromTag(Tag<?> tag) {
+            if (!(tag instanceof CompoundTag)) {
+                return null;
+            }
+            CompoundMap map = ((CompoundTag) tag).getValue();
+            Map<String, Object> result = new LinkedHashMap<String, Object>(map.size() * 4 / 3 + 1);
+            for (Tag<?> entry : map.values()) {
+                Object value = values.fromTag(entry);
+                if (value != null) {
+                    result.put(entry.getName(), value);
+                }
+            }
+            return result;
+        }
+    }
+}
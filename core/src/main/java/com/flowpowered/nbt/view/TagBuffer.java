@@ -0,0 +1,148 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.view;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+import com.flowpowered.nbt.Tag;
+import com.flowpowered.nbt.stream.NBTOutputStream;
+
+/**
+ * Holds a single encoded, uncompressed NBT tag in a {@link ByteBuffer}, usually a direct or memory-mapped one, so that large trees can be kept outside of the Java heap. The contents are accessed in
+ * place through {@link TagView TagViews}, which only decode the parts of the tree that are actually read.
+ */
+public final class TagBuffer {
+    /**
+     * The buffer holding the encoded tag, starting at the type id of the root tag.
+     */
+    private final ByteBuffer buffer;
+
+    private TagBuffer(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * Wraps a buffer holding an encoded, uncompressed tag. The tag is read starting at the current position of the buffer, using the byte order of the buffer.
+     *
+     * @param buffer The buffer.
+     * @return The tag buffer.
+     */
+    public static TagBuffer wrap(ByteBuffer buffer) {
+        return new TagBuffer(buffer.slice().order(buffer.order()));
+    }
+
+    /**
+     * Encodes a tag into a newly allocated direct buffer, using big endian encoding.
+     *
+     * @param tag The tag.
+     * @return The tag buffer.
+     * @throws java.io.IOException if the tag could not be encoded.
+     */
+    public static TagBuffer allocate(Tag<?> tag) throws IOException {
+        return allocate(tag, ByteOrder.BIG_ENDIAN);
+    }
+
+    /**
+     * Encodes a tag into a newly allocated direct buffer.
+     *
+     * @param tag The tag.
+     * @param endianness The byte order to encode numbers with.
+     * @return The tag buffer.
+     * @throws java.io.IOException if the tag could not be encoded.
+     */
+    public static TagBuffer allocate(Tag<?> tag, ByteOrder endianness) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        NBTOutputStream os = new NBTOutputStream(bytes, false, endianness);
+        os.writeTag(tag);
+        os.close();
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.size()).order(endianness);
+        buffer.put(bytes.toByteArray());
+        buffer.flip();
+        return new TagBuffer(buffer);
+    }
+
+    /**
+     * Memory-maps a file holding an uncompressed, big endian tag.
+     *
+     * @param file The file.
+     * @return The tag buffer.
+     * @throws java.io.IOException if the file could not be mapped.
+     */
+    public static TagBuffer map(File file) throws IOException {
+        return map(file, ByteOrder.BIG_ENDIAN);
+    }
+
+    /**
+     * Memory-maps a file holding an uncompressed tag. The mapping stays valid after this method returns, the file itself is closed.
+     *
+     * @param file The file.
+     * @param endianness The byte order the numbers in the file are encoded with.
+     * @return The tag buffer.
+     * @throws java.io.IOException if the file could not be mapped.
+     */
+    public static TagBuffer map(File file, ByteOrder endianness) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new TagBuffer(buffer.order(endianness));
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * Gets a view of the root tag of this buffer.
+     *
+     * @return The root view.
+     */
+    public TagView getRoot() {
+        return TagView.readNamed(buffer, 0);
+    }
+
+    /**
+     * Gets the number of bytes used by the encoded tag.
+     *
+     * @return The size in bytes.
+     */
+    public int size() {
+        return buffer.limit();
+    }
+
+    /**
+     * Gets the byte order numbers are encoded with.
+     *
+     * @return The byte order.
+     */
+    public ByteOrder getByteOrder() {
+        return buffer.order();
+    }
+}
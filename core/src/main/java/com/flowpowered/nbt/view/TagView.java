@@ -0,0 +1,450 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.view;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.flowpowered.nbt.ByteArrayTag;
+import com.flowpowered.nbt.ByteTag;
+import com.flowpowered.nbt.CompoundMap;
+import com.flowpowered.nbt.CompoundTag;
+import com.flowpowered.nbt.DoubleTag;
+import com.flowpowered.nbt.FloatTag;
+import com.flowpowered.nbt.IntArrayTag;
+import com.flowpowered.nbt.IntTag;
+import com.flowpowered.nbt.ListTag;
+import com.flowpowered.nbt.LongArrayTag;
+import com.flowpowered.nbt.LongTag;
+import com.flowpowered.nbt.NBTConstants;
+import com.flowpowered.nbt.ShortArrayTag;
+import com.flowpowered.nbt.ShortTag;
+import com.flowpowered.nbt.StringTag;
+import com.flowpowered.nbt.Tag;
+import com.flowpowered.nbt.TagType;
+
+/**
+ * A read-only view of a tag encoded in a {@link TagBuffer}. Values are read in place from the buffer on every call, nothing is copied to the heap except for the values returned. Children of compounds
+ * and lists are located by walking over the encoded data, so repeated lookups should keep the returned views around.<br> <br> Views only use absolute reads on the backing buffer and can be shared
+ * between threads.
+ */
+public final class TagView {
+    private final ByteBuffer buffer;
+    private final TagType type;
+    /**
+     * The offset of the name length, or -1 if the tag is an unnamed list element.
+     */
+    private final int nameOffset;
+    /**
+     * The offset of the first byte of the payload.
+     */
+    private final int payloadOffset;
+
+    private TagView(ByteBuffer buffer, TagType type, int nameOffset, int payloadOffset) {
+        this.buffer = buffer;
+        this.type = type;
+        this.nameOffset = nameOffset;
+        this.payloadOffset = payloadOffset;
+    }
+
+    /**
+     * Creates a view of a named tag, starting at its type id.
+     *
+     * @param buffer The buffer.
+     * @param offset The offset of the type id.
+     * @return The view.
+     */
+    static TagView readNamed(ByteBuffer buffer, int offset) {
+        TagType type = TagType.getById(buffer.get(offset) & 0xFF);
+        if (type == TagType.TAG_END) {
+            throw new IllegalStateException("TAG_End found where a named tag was expected.");
+        }
+        int nameOffset = offset + 1;
+        return new TagView(buffer, type, nameOffset, nameOffset + 2 + (buffer.getShort(nameOffset) & 0xFFFF));
+    }
+
+    /**
+     * Gets the type of the viewed tag.
+     *
+     * @return The type.
+     */
+    public TagType getType() {
+        return type;
+    }
+
+    /**
+     * Gets the name of the viewed tag. List elements have an empty name.
+     *
+     * @return The name.
+     */
+    public String getName() {
+        if (nameOffset < 0) {
+            return "";
+        }
+        return readString(nameOffset);
+    }
+
+    public byte getByte() {
+        checkType(TagType.TAG_BYTE);
+        return buffer.get(payloadOffset);
+    }
+
+    public short getShort() {
+        checkType(TagType.TAG_SHORT);
+        return buffer.getShort(payloadOffset);
+    }
+
+    public int getInt() {
+        checkType(TagType.TAG_INT);
+        return buffer.getInt(payloadOffset);
+    }
+
+    public long getLong() {
+        checkType(TagType.TAG_LONG);
+        return buffer.getLong(payloadOffset);
+    }
+
+    public float getFloat() {
+        checkType(TagType.TAG_FLOAT);
+        return buffer.getFloat(payloadOffset);
+    }
+
+    public double getDouble() {
+        checkType(TagType.TAG_DOUBLE);
+        return buffer.getDouble(payloadOffset);
+    }
+
+    public String getString() {
+        checkType(TagType.TAG_STRING);
+        return readString(payloadOffset);
+    }
+
+    public byte[] getByteArray() {
+        checkType(TagType.TAG_BYTE_ARRAY);
+        byte[] bytes = new byte[buffer.getInt(payloadOffset)];
+        ByteBuffer source = buffer.duplicate();
+        source.position(payloadOffset + 4);
+        source.get(bytes);
+        return bytes;
+    }
+
+    public int[] getIntArray() {
+        checkType(TagType.TAG_INT_ARRAY);
+        int[] ints = new int[buffer.getInt(payloadOffset)];
+        ByteBuffer source = buffer.duplicate().order(buffer.order());
+        source.position(payloadOffset + 4);
+        source.asIntBuffer().get(ints);
+        return ints;
+    }
+
+    public long[] getLongArray() {
+        checkType(TagType.TAG_LONG_ARRAY);
+        long[] longs = new long[buffer.getInt(payloadOffset)];
+        ByteBuffer source = buffer.duplicate().order(buffer.order());
+        source.position(payloadOffset + 4);
+        source.asLongBuffer().get(longs);
+        return longs;
+    }
+
+    public short[] getShortArray() {
+        checkType(TagType.TAG_SHORT_ARRAY);
+        short[] shorts = new short[buffer.getInt(payloadOffset)];
+        ByteBuffer source = buffer.duplicate().order(buffer.order());
+        source.position(payloadOffset + 4);
+        source.asShortBuffer().get(shorts);
+        return shorts;
+    }
+
+    /**
+     * Gets the type of the elements of the viewed list.
+     *
+     * @return The element type.
+     */
+    public TagType getElementType() {
+        checkType(TagType.TAG_LIST);
+        return TagType.getById(buffer.get(payloadOffset) & 0xFF);
+    }
+
+    /**
+     * Gets the number of entries in the viewed compound, elements in the viewed list or values in the viewed array.
+     *
+     * @return The size.
+     * @throws IllegalStateException if the tag is not a compound, a list or an array.
+     */
+    public int size() {
+        switch (type) {
+            case TAG_LIST:
+                return buffer.getInt(payloadOffset + 1);
+            case TAG_BYTE_ARRAY:
+            case TAG_INT_ARRAY:
+            case TAG_LONG_ARRAY:
+            case TAG_SHORT_ARRAY:
+                return buffer.getInt(payloadOffset);
+            case TAG_COMPOUND:
+                int count = 0;
+                int offset = payloadOffset;
+                while (buffer.get(offset) != TagType.TAG_END.getId()) {
+                    offset = readNamed(buffer, offset).end();
+                    count++;
+                }
+                return count;
+            default:
+                throw new IllegalStateException(type.getTypeName() + " has no size.");
+        }
+    }
+
+    /**
+     * Gets the entry with the given name in the viewed compound. The key is compared with the encoded names without decoding them.
+     *
+     * @param key The name of the entry.
+     * @return The entry, or null if the compound does not contain it.
+     */
+    public TagView get(String key) {
+        checkType(TagType.TAG_COMPOUND);
+        byte[] keyBytes = key.getBytes(NBTConstants.CHARSET);
+        int offset = payloadOffset;
+        while (buffer.get(offset) != TagType.TAG_END.getId()) {
+            TagView child = readNamed(buffer, offset);
+            if (child.nameEquals(keyBytes)) {
+                return child;
+            }
+            offset = child.end();
+        }
+        return null;
+    }
+
+    /**
+     * Gets an element of the viewed list. Elements with a fixed size are located directly, others are found by walking over the preceding elements.
+     *
+     * @param index The index of the element.
+     * @return The element.
+     * @throws IndexOutOfBoundsException if the index is out of range.
+     */
+    public TagView get(int index) {
+        TagType elementType = getElementType();
+        int length = buffer.getInt(payloadOffset + 1);
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("Index " + index + " is out of bounds for a list of " + length + " elements.");
+        }
+        int offset = payloadOffset + 5;
+        int fixed = fixedSize(elementType);
+        if (fixed >= 0) {
+            offset += index * fixed;
+        } else {
+            for (int i = 0; i < index; i++) {
+                offset = skip(buffer, elementType, offset);
+            }
+        }
+        return new TagView(buffer, elementType, -1, offset);
+    }
+
+    /**
+     * Gets all the entries of the viewed compound or elements of the viewed list, in encoded order.
+     *
+     * @return The child views.
+     */
+    public List<TagView> getChildren() {
+        List<TagView> children;
+        if (type == TagType.TAG_COMPOUND) {
+            children = new ArrayList<TagView>();
+            int offset = payloadOffset;
+            while (buffer.get(offset) != TagType.TAG_END.getId()) {
+                TagView child = readNamed(buffer, offset);
+                children.add(child);
+                offset = child.end();
+            }
+        } else {
+            TagType elementType = getElementType();
+            int length = buffer.getInt(payloadOffset + 1);
+            children = new ArrayList<TagView>(length);
+            int offset = payloadOffset + 5;
+            for (int i = 0; i < length; i++) {
+                children.add(new TagView(buffer, elementType, -1, offset));
+                offset = skip(buffer, elementType, offset);
+            }
+        }
+        return Collections.unmodifiableList(children);
+    }
+
+    /**
+     * Decodes the viewed tag, including all its children, into regular heap {@link Tag} objects.
+     *
+     * @return The decoded tag.
+     */
+    @SuppressWarnings ({"unchecked", "rawtypes"})
+    public Tag<?> toTag() {
+        String name = getName();
+        switch (type) {
+            case TAG_BYTE:
+                return ByteTag.valueOf(name, getByte());
+            case TAG_SHORT:
+                return ShortTag.valueOf(name, getShort());
+            case TAG_INT:
+                return IntTag.valueOf(name, getInt());
+            case TAG_LONG:
+                return LongTag.valueOf(name, getLong());
+            case TAG_FLOAT:
+                return FloatTag.valueOf(name, getFloat());
+            case TAG_DOUBLE:
+                return DoubleTag.valueOf(name, getDouble());
+            case TAG_BYTE_ARRAY:
+                return new ByteArrayTag(name, getByteArray());
+            case TAG_STRING:
+                return new StringTag(name, getString());
+            case TAG_LIST:
+                List<TagView> elements = getChildren();
+                List<Tag> tagList = new ArrayList<Tag>(elements.size());
+                for (TagView element : elements) {
+                    tagList.add(element.toTag());
+                }
+                return new ListTag(name, getElementType().getTagClass(), tagList);
+            case TAG_COMPOUND:
+                CompoundMap map = new CompoundMap();
+                for (TagView entry : getChildren()) {
+                    map.put(entry.toTag());
+                }
+                return new CompoundTag(name, map);
+            case TAG_INT_ARRAY:
+                return new IntArrayTag(name, getIntArray());
+            case TAG_LONG_ARRAY:
+                return new LongArrayTag(name, getLongArray());
+            case TAG_SHORT_ARRAY:
+                return new ShortArrayTag(name, getShortArray());
+            default:
+                throw new IllegalStateException("Invalid tag type: " + type + ".");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "TagView(" + type.getTypeName() + ", \"" + getName() + "\")";
+    }
+
+    /**
+     * Gets the offset right after the end of the viewed tag.
+     *
+     * @return The end offset.
+     */
+    private int end() {
+        return skip(buffer, type, payloadOffset);
+    }
+
+    private boolean nameEquals(byte[] key) {
+        int length = buffer.getShort(nameOffset) & 0xFFFF;
+        if (length != key.length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (buffer.get(nameOffset + 2 + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String readString(int offset) {
+        byte[] bytes = new byte[buffer.getShort(offset) & 0xFFFF];
+        ByteBuffer source = buffer.duplicate();
+        source.position(offset + 2);
+        source.get(bytes);
+        return new String(bytes, NBTConstants.CHARSET);
+    }
+
+    private void checkType(TagType expected) {
+        if (type != expected) {
+            throw new IllegalStateException("Expected a " + expected.getTypeName() + ", was a " + type.getTypeName());
+        }
+    }
+
+    /**
+     * Gets the size of the payload of a tag type if it does not depend on the value.
+     *
+     * @param type The type.
+     * @return The payload size in bytes, or -1 if it varies.
+     */
+    private static int fixedSize(TagType type) {
+        switch (type) {
+            case TAG_BYTE:
+                return 1;
+            case TAG_SHORT:
+                return 2;
+            case TAG_INT:
+            case TAG_FLOAT:
+                return 4;
+            case TAG_LONG:
+            case TAG_DOUBLE:
+                return 8;
+            default:
+                return -1;
+        }
+    }
+
+    /**
+     * Walks over a payload without decoding it.
+     *
+     * @param buffer The buffer.
+     * @param type The type of the payload.
+     * @param offset The offset of the payload.
+     * @return The offset right after the payload.
+     */
+    private static int skip(ByteBuffer buffer, TagType type, int offset) {
+        int fixed = fixedSize(type);
+        if (fixed >= 0) {
+            return offset + fixed;
+        }
+        switch (type) {
+            case TAG_BYTE_ARRAY:
+                return offset + 4 + buffer.getInt(offset);
+            case TAG_SHORT_ARRAY:
+                return offset + 4 + buffer.getInt(offset) * 2;
+            case TAG_INT_ARRAY:
+                return offset + 4 + buffer.getInt(offset) * 4;
+            case TAG_LONG_ARRAY:
+                return offset + 4 + buffer.getInt(offset) * 8;
+            case TAG_STRING:
+                return offset + 2 + (buffer.getShort(offset) & 0xFFFF);
+            case TAG_LIST:
+                TagType elementType = TagType.getById(buffer.get(offset) & 0xFF);
+                int length = buffer.getInt(offset + 1);
+                offset += 5;
+                int elementSize = fixedSize(elementType);
+                if (elementSize >= 0) {
+                    return offset + length * elementSize;
+                }
+                for (int i = 0; i < length; i++) {
+                    offset = skip(buffer, elementType, offset);
+                }
+                return offset;
+            case TAG_COMPOUND:
+                while (buffer.get(offset) != TagType.TAG_END.getId()) {
+                    offset = readNamed(buffer, offset).end();
+                }
+                return offset + 1;
+            default:
+                throw new IllegalStateException("Invalid tag type: " + type + ".");
+        }
+    }
+}
@@ -0,0 +1,300 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CompoundMapTest {
+    List<Tag<?>> sorted;
+    List<Tag<?>> random;
+    List<Tag<?>> reverse;
+
+    @Before
+    public void setupLists() {
+        random = new ArrayList<Tag<?>>();
+
+        Random r = new Random();
+
+        for (int i = 0; i < 20; i++) {
+            random.add(new LongTag(Integer.toHexString(r.nextInt()), r.nextLong()));
+        }
+
+        sorted = new ArrayList<Tag<?>>(random);
+        Collections.sort(sorted);
+
+        reverse = new ArrayList<Tag<?>>(random);
+        Collections.sort(reverse, Collections.reverseOrder());
+    }
+
+    @Test
+    public void printLists() {
+        printList("Random", random);
+        printList("Sorted", sorted);
+        printList("Reverse", reverse);
+    }
+
+    private void printList(String type, List<Tag<?>> list) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("List: " + type + "\n");
+        for (Tag t : list) {
+            sb.append(t.getName() + "\n");
+        }
+        System.out.println(sb.toString());
+    }
+
+    @Test
+    public void preserveOrder() {
+        CompoundMap tag = new CompoundMap(random, false, false);
+
+        assertEquals("Tag setup", tag, random);
+
+        tag = new CompoundMap(false, false);
+
+        for (Tag t : random) {
+            tag.put(t);
+        }
+
+        assertEquals("Tag setup", tag, random);
+    }
+
+    @Test
+    public void sorted() {
+        CompoundMap tag = new CompoundMap(random, true, false);
+
+        assertEquals("Tag setup", tag, sorted);
+
+        tag = new CompoundMap(true, false);
+
+        for (Tag t : random) {
+            tag.put(t);
+        }
+
+        assertEquals("Tag setup", tag, sorted);
+    }
+
+    @Test
+    public void reverseSorted() {
+        CompoundMap tag = new CompoundMap(random, true, true);
+
+        assertEquals("Tag setup", tag, reverse);
+
+        tag = new CompoundMap(true, true);
+
+        for (Tag t : random) {
+            tag.put(t);
+        }
+
+        assertEquals("Tag setup", tag, reverse);
+    }
+
+    @Test
+    public void sortedModification() {
+        CompoundMap tag = new CompoundMap(random, true, false);
+        List<Tag<?>> expected = new ArrayList<Tag<?>>(sorted);
+
+        Tag<?> removed = expected.remove(7);
+        org.junit.Assert.assertSame(removed, tag.remove(removed.getName()));
+        assertEquals("Removal", tag, expected);
+
+        Tag<?> replaced = new LongTag(expected.get(3).getName(), 42);
+        expected.set(3, replaced);
+        tag.put(replaced);
+        assertEquals("Replacement", tag, expected);
+
+        Iterator<Tag<?>> iter = tag.values().iterator();
+        iter.next();
+        iter.remove();
+        expected.remove(0);
+        assertEquals("Iterator removal", tag, expected);
+        org.junit.Assert.assertEquals(expected.size(), tag.size());
+
+        for (Tag<?> t : expected) {
+            org.junit.Assert.assertSame(t, tag.get(t.getName()));
+        }
+        org.junit.Assert.assertNull(tag.get(removed.getName()));
+    }
+
+    @Test
+    public void concurrentOrder() {
+        CompoundMap tag = new CompoundMap(random, false, false, true);
+
+        assertEquals("Tag setup", tag, random);
+
+        tag = new CompoundMap(random, true, false, true);
+
+        assertEquals("Tag setup", tag, sorted);
+
+        tag = new CompoundMap(random, true, true, true);
+
+        assertEquals("Tag setup", tag, reverse);
+    }
+
+    @Test
+    public void concurrentModification() throws InterruptedException {
+        final CompoundMap tag = new CompoundMap(null, false, false, true);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final int offset = t;
+            threads[t] = new Thread() {
+                @Override
+                public void run() {
+                    for (int i = offset; i < 4000; i += 4) {
+                        tag.put(new IntTag("key" + i, i));
+                        tag.put(new IntTag("key" + i, -i));
+                        if (i % 8 == 0) {
+                            tag.remove("key" + i);
+                        }
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        while (threads[0].isAlive()) {
+            Set<String> names = new HashSet<String>();
+            for (Tag<?> t : tag.snapshot()) {
+                assertTrue("Duplicate entry in snapshot", names.add(t.getName()));
+            }
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        org.junit.Assert.assertEquals(3500, tag.size());
+        org.junit.Assert.assertEquals(3500, tag.snapshot().size());
+        org.junit.Assert.assertNull(tag.get("key8"));
+        org.junit.Assert.assertEquals(-9, tag.get("key9").getValue());
+    }
+
+    @Test
+    public void concurrentPutRemove() throws InterruptedException {
+        concurrentPutRemove(false);
+        concurrentPutRemove(true);
+    }
+
+    private void concurrentPutRemove(boolean sort) throws InterruptedException {
+        final CompoundMap tag = new CompoundMap(null, sort, false, true);
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            final int seed = t;
+            threads[t] = new Thread() {
+                @Override
+                public void run() {
+                    Random r = new Random(seed);
+                    for (int i = 0; i < 100000; i++) {
+                        String key = "key" + r.nextInt(2);
+                        if (r.nextBoolean()) {
+                            tag.put(new IntTag(key, i));
+                        } else {
+                            tag.remove(key);
+                        }
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Every live key is ordered exactly once, and no removed one is
+        Set<String> names = new HashSet<String>();
+        for (Tag<?> t : tag.snapshot()) {
+            assertTrue("Duplicate entry in snapshot", names.add(t.getName()));
+            assertTrue("Removed entry in snapshot", tag.get(t.getName()) == t);
+        }
+        org.junit.Assert.assertEquals(tag.size(), names.size());
+        for (int i = 0; i < 8; i++) {
+            tag.put(new IntTag("key" + i, i));
+        }
+        org.junit.Assert.assertEquals(8, tag.snapshot().size());
+    }
+
+    @Test
+    public void concurrentRemoveKeepsWrites() throws InterruptedException {
+        concurrentRemoveKeepsWrites(false);
+        concurrentRemoveKeepsWrites(true);
+    }
+
+    /**
+     * Every value put is eventually returned by exactly one put or remove, or still in the map, so a remove racing a put must not drop the new value.
+     */
+    private void concurrentRemoveKeepsWrites(boolean sort) throws InterruptedException {
+        final CompoundMap tag = new CompoundMap(null, sort, false, true);
+        final AtomicInteger puts = new AtomicInteger();
+        final AtomicInteger returned = new AtomicInteger();
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            final int seed = t;
+            threads[t] = new Thread() {
+                @Override
+                public void run() {
+                    Random r = new Random(seed);
+                    for (int i = 0; i < 200000; i++) {
+                        Tag<?> previous;
+                        if (r.nextBoolean()) {
+                            puts.incrementAndGet();
+                            previous = tag.put(new IntTag("key", i));
+                        } else {
+                            previous = tag.remove("key");
+                        }
+                        if (previous != null) {
+                            returned.incrementAndGet();
+                        }
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        org.junit.Assert.assertEquals(puts.get(), returned.get() + tag.size());
+        org.junit.Assert.assertEquals(tag.size(), tag.snapshot().size());
+    }
+
+    private void assertEquals(String message, Iterable<Tag<?>> a, Iterable<Tag<?>> b) {
+        Iterator<Tag<?>> iterA = a.iterator();
+        Iterator<Tag<?>> iterB = b.iterator();
+        while (iterA.hasNext() && iterB.hasNext()) {
+            Tag currentA = iterA.next();
+            Tag currentB = iterB.next();
+            assertTrue(message, currentA.equals(currentB));
+        }
+        assertFalse("Maps had different lengths", iterA.hasNext() || iterB.hasNext());
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Test for {@link TagCache}, through the {@code valueOf} methods of the numeric tags
+ */
+public class TagCacheTest {
+    @Test
+    public void testHits() {
+        assertSame(IntTag.valueOf(5), IntTag.valueOf(5));
+        assertSame(IntTag.valueOf("a", 1023), IntTag.valueOf("a", 1023));
+        assertSame(LongTag.valueOf("a", -128), LongTag.valueOf("a", -128));
+        assertSame(ShortTag.valueOf((short) 7), ShortTag.valueOf("", (short) 7));
+        assertSame(FloatTag.valueOf("a", 3), FloatTag.valueOf("a", 3));
+        assertSame(DoubleTag.valueOf(-1), DoubleTag.valueOf(-1));
+        assertNotSame(IntTag.valueOf("a", 5), IntTag.valueOf("b", 5));
+        for (int i = Byte.MIN_VALUE; i <= Byte.MAX_VALUE; i++) {
+            assertEquals(i, ByteTag.valueOf((byte) i).getByteValue());
+            assertEquals(i, ByteTag.valueOf("a", (byte) i).getByteValue());
+            assertSame(ByteTag.valueOf("a", (byte) i), ByteTag.valueOf("a", (byte) i));
+        }
+    }
+
+    @Test
+    public void testCollisions() {
+        // Many names and values share the named slots, the tags must still hold what was requested
+        for (int i = 0; i < 5000; i++) {
+            String name = "n" + (i % 37);
+            int value = i % 1100 - 128;
+            IntTag tag = IntTag.valueOf(name, value);
+            assertEquals(name, tag.getName());
+            assertEquals(value, tag.getIntValue());
+        }
+    }
+
+    @Test
+    public void testOutOfRange() {
+        assertNotSame(IntTag.valueOf(1024), IntTag.valueOf(1024));
+        assertEquals(-129, IntTag.valueOf("a", -129).getIntValue());
+        assertEquals(Long.MAX_VALUE, LongTag.valueOf("a", Long.MAX_VALUE).getLongValue());
+        assertEquals(Long.MIN_VALUE + 5, LongTag.valueOf(Long.MIN_VALUE + 5).getLongValue());
+        assertEquals(Short.MIN_VALUE, ShortTag.valueOf(Short.MIN_VALUE).getShortValue());
+        assertEquals(0.5f, FloatTag.valueOf("a", 0.5f).getFloatValue(), 0);
+        assertEquals(1e20, DoubleTag.valueOf(1e20).getDoubleValue(), 0);
+        assertEquals(-1e20, DoubleTag.valueOf(-1e20).getDoubleValue(), 0);
+        assertEquals(Float.POSITIVE_INFINITY, FloatTag.valueOf(Float.POSITIVE_INFINITY).getFloatValue(), 0);
+    }
+
+    @Test
+    public void testNaNAndNegativeZero() {
+        assertEquals(Float.floatToRawIntBits(Float.NaN), Float.floatToRawIntBits(FloatTag.valueOf("a", Float.NaN).getFloatValue()));
+        assertEquals(Double.doubleToRawLongBits(Double.NaN), Double.doubleToRawLongBits(DoubleTag.valueOf(Double.NaN).getDoubleValue()));
+        assertEquals(Float.floatToRawIntBits(-0f), Float.floatToRawIntBits(FloatTag.valueOf(-0f).getFloatValue()));
+        assertEquals(Double.doubleToRawLongBits(-0d), Double.doubleToRawLongBits(DoubleTag.valueOf("a", -0d).getDoubleValue()));
+        assertEquals(Double.doubleToRawLongBits(0d), Double.doubleToRawLongBits(DoubleTag.valueOf("a", 0d).getDoubleValue()));
+    }
+
+    @Test
+    public void testNullName() {
+        assertNull(ByteTag.valueOf(null, (byte) 1).getName());
+        assertNull(ShortTag.valueOf(null, (short) 1).getName());
+        assertNull(IntTag.valueOf(null, 1).getName());
+        assertNull(LongTag.valueOf(null, 1).getName());
+        assertNull(FloatTag.valueOf(null, 1).getName());
+        assertNull(DoubleTag.valueOf(null, 1).getName());
+        assertEquals(1, IntTag.valueOf("a", 1).getIntValue());
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.holder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.Test;
+
+import com.flowpowered.nbt.CompoundMap;
+import com.flowpowered.nbt.CompoundTag;
+import com.flowpowered.nbt.StringTag;
+import com.flowpowered.nbt.Tag;
+import com.flowpowered.nbt.stream.NBTInputStream;
+import com.flowpowered.nbt.stream.NBTOutputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * Test for {@link Codecs}
+ */
+public class CodecsTest {
+    private enum Mode {
+        SURVIVAL, CREATIVE, ADVENTURE
+    }
+
+    private static class Player {
+        private final UUID id;
+        private final Mode mode;
+        private final String nickname;
+        private final List<Integer> scores;
+        private final Map<String, Long> stats;
+        private final Integer level;
+
+        private Player(UUID id, Mode mode, String nickname, List<Integer> scores, Map<String, Long> stats, Integer level) {
+            this.id = id;
+            this.mode = mode;
+            this.nickname = nickname;
+            this.scores = scores;
+            this.stats = stats;
+            this.level = level;
+        }
+    }
+
+    private static final RecordCodec.Component<Player, UUID> ID = new RecordCodec.Component<Player, UUID>("Id", Codecs.UUID) {
+        @Override
+        public UUID get(Player player) {
+            return player.id;
+        }
+    };
+    private static final RecordCodec.Component<Player, Mode> MODE = new RecordCodec.Component<Player, Mode>("Mode", Codecs.enumByOrdinal(Mode.class)) {
+        @Override
+        public Mode get(Player player) {
+            return player.mode;
+        }
+    };
+    private static final RecordCodec.Component<Player, String> NICKNAME = new RecordCodec.Component<Player, String>("Nickname", Codecs.optional(Codecs.STRING)) {
+        @Override
+        public String get(Player player) {
+            return player.nickname;
+        }
+    };
+    private static final RecordCodec.Component<Player, List<Integer>> SCORES = new RecordCodec.Component<Player, List<Integer>>("Scores", Codecs.list(Codecs.INT)) {
+        @Override
+        public List<Integer> get(Player player) {
+            return player.scores;
+        }
+    };
+    private static final RecordCodec.Component<Player, Map<String, Long>> STATS = new RecordCodec.Component<Player, Map<String, Long>>("Stats", Codecs.map(Codecs.LONG)) {
+        @Override
+        public Map<String, Long> get(Player player) {
+            return player.stats;
+        }
+    };
+    private static final RecordCodec.Component<Player, Integer> LEVEL = new RecordCodec.Component<Player, Integer>("Level", Codecs.xmap(Codecs.STRING, new Converter<String, Integer>() {
+        @Override
+        public Integer to(String value) {
+            return Integer.valueOf(value);
+        }
+
+        @Override
+        public String from(Integer value) {
+            return value.toString();
+        }
+    })) {
+        @Override
+        public Integer get(Player player) {
+            return player.level;
+        }
+    };
+    private static final Codec<Player> PLAYER = new RecordCodec<Player>(ID, MODE, NICKNAME, SCORES, STATS, LEVEL) {
+        @Override
+        protected Player create(Object[] values) {
+            return new Player(ID.from(values), MODE.from(values), NICKNAME.from(values), SCORES.from(values), STATS.from(values), LEVEL.from(values));
+        }
+    };
+
+    private static Player createPlayer(String nickname) {
+        Map<String, Long> stats = new LinkedHashMap<String, Long>();
+        stats.put("jumps", 12L);
+        stats.put("deaths", 3L);
+        return new Player(UUID.randomUUID(), Mode.ADVENTURE, nickname, Arrays.asList(1, 2, 3), stats, 42);
+    }
+
+    private static void assertPlayerEquals(Player expected, Player actual) {
+        assertEquals(expected.id, actual.id);
+        assertSame(expected.mode, actual.mode);
+        assertEquals(expected.nickname, actual.nickname);
+        assertEquals(expected.scores, actual.scores);
+        assertEquals(expected.stats, actual.stats);
+        assertEquals(expected.level, actual.level);
+    }
+
+    @Test
+    public void testTagRoundTrip() {
+        Player player = createPlayer(null);
+        Tag<?> tag = PLAYER.getValue("player", player);
+        assertNull(((CompoundTag) tag).getValue().get("Nickname"));
+        assertEquals("42", ((CompoundTag) tag).getValue().get("Level").getValue());
+        assertPlayerEquals(player, PLAYER.getValue(tag));
+    }
+
+    @Test
+    public void testStreamRoundTrip() throws IOException {
+        Player player = createPlayer("Notch");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        NBTOutputStream os = new NBTOutputStream(bytes, false);
+        os.writeTag("player", player, PLAYER);
+        os.close();
+
+        NBTInputStream is = new NBTInputStream(new ByteArrayInputStream(bytes.toByteArray()), false);
+        assertPlayerEquals(player, is.readTag(PLAYER));
+        is.close();
+
+        is = new NBTInputStream(new ByteArrayInputStream(bytes.toByteArray()), false);
+        assertPlayerEquals(player, PLAYER.getValue(is.readTag()));
+        is.close();
+    }
+
+    @Test
+    public void testStreamSkipsUnknownTags() throws IOException {
+        Player player = createPlayer("Notch");
+        CompoundMap map = ((CompoundTag) PLAYER.getValue("", player)).getValue();
+        map.put(new CompoundTag("Unknown", new CompoundMap(Arrays.<Tag<?>>asList(new StringTag("Nested", "value")))));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        NBTOutputStream os = new NBTOutputStream(bytes, false);
+        os.writeTag(new CompoundTag("", map));
+        os.close();
+
+        NBTInputStream is = new NBTInputStream(new ByteArrayInputStream(bytes.toByteArray()), false);
+        assertPlayerEquals(player, is.readTag(PLAYER));
+        is.close();
+    }
+
+    @Test
+    public void testArraysInBulk() throws IOException {
+        short[] shorts = new short[10000];
+        int[] ints = new int[5000];
+        long[] longs = new long[3000];
+        for (int i = 0; i < longs.length; i++) {
+            longs[i] = i * 0x100000001L;
+        }
+        for (int i = 0; i < ints.length; i++) {
+            ints[i] = i * 65537;
+        }
+        for (int i = 0; i < shorts.length; i++) {
+            shorts[i] = (short) (i * 7);
+        }
+        for (ByteOrder order : new ByteOrder[] {ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN}) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            NBTOutputStream os = new NBTOutputStream(bytes, false, order);
+            os.writeTag("shorts", shorts, Codecs.SHORT_ARRAY);
+            os.writeTag("ints", ints, Codecs.INT_ARRAY);
+            os.writeTag("longs", longs, Codecs.LONG_ARRAY);
+            os.close();
+
+            NBTInputStream is = new NBTInputStream(new ByteArrayInputStream(bytes.toByteArray()), false, order);
+            assertArrayEquals(shorts, (short[]) is.readTag().getValue());
+            assertArrayEquals(ints, (int[]) is.readTag().getValue());
+            assertArrayEquals(longs, (long[]) is.readTag().getValue());
+            is.close();
+
+            is = new NBTInputStream(new ByteArrayInputStream(bytes.toByteArray()), false, order);
+            assertArrayEquals(shorts, is.readTag(Codecs.SHORT_ARRAY));
+            assertArrayEquals(ints, is.readTag(Codecs.INT_ARRAY));
+            assertArrayEquals(longs, is.readTag(Codecs.LONG_ARRAY));
+            is.close();
+        }
+    }
+
+    @Test
+    public void testNullListElements() throws IOException {
+        Codec<List<String>> codec = Codecs.list(Codecs.optional(Codecs.STRING));
+        List<String> list = Arrays.asList("a", null);
+        try {
+            codec.getValue("list", list);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+        NBTOutputStream os = new NBTOutputStream(new ByteArrayOutputStream(), false);
+        try {
+            os.writeTag("list", list, codec);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.holder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.flowpowered.nbt.CompoundMap;
+import com.flowpowered.nbt.CompoundTag;
+import com.flowpowered.nbt.IntArrayTag;
+import com.flowpowered.nbt.IntTag;
+import com.flowpowered.nbt.ListTag;
+import com.flowpowered.nbt.StringTag;
+import com.flowpowered.nbt.stream.NBTOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test for {@link FieldHolder}
+ */
+public class FieldHolderTest {
+    private ExampleHolder subject;
+
+    @Before
+    public void setUp() {
+        subject = new ExampleHolder();
+        CompoundMap map = new CompoundMap();
+        map.put(new StringTag("name", "helloworld"));
+        CompoundTag mapTag = new CompoundTag("", map);
+        subject.load(mapTag);
+    }
+
+    private static class ExampleHolder extends FieldHolder {
+        public final FieldValue<String> name = FieldValue.from("name", new BasicTagField<String>(StringTag.class)),
+                unassignedDefault = FieldValue.from("unassigned", new BasicTagField<String>(StringTag.class), "value-here");
+
+        public ExampleHolder() {
+            addFields(name, unassignedDefault);
+        }
+    }
+
+    @Test
+    public void testBasicLoad() {
+        assertEquals("helloworld", subject.name.get());
+        assertEquals("value-here", subject.unassignedDefault.get());
+    }
+
+    @Test
+    public void testDefaultValue() {
+        assertEquals("value-here", subject.unassignedDefault.get());
+    }
+
+    @Test
+    public void testStreamLoad() throws IOException {
+        CompoundMap nested = new CompoundMap();
+        nested.put(new StringTag("name", "nested"));
+        nested.put(new IntArrayTag("data", new int[100]));
+        CompoundMap map = new CompoundMap();
+        map.put(new CompoundTag("other", nested));
+        map.put(new ListTag<IntTag>("list", IntTag.class, Arrays.asList(new IntTag("", 1), new IntTag("", 2))));
+        map.put(new ListTag<CompoundTag>("compounds", CompoundTag.class, Arrays.asList(new CompoundTag("", nested))));
+        map.put(new StringTag("name", "streamed"));
+        map.put(new StringTag("extra", "ignored"));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        NBTOutputStream os = new NBTOutputStream(bytes, false);
+        os.writeTag(new CompoundTag("", map));
+        os.close();
+
+        ExampleHolder holder = new ExampleHolder();
+        holder.loadFields(new ByteArrayInputStream(bytes.toByteArray()), false);
+        assertEquals("streamed", holder.name.get());
+        assertEquals("value-here", holder.unassignedDefault.get());
+
+        // A full load still hands the whole compound to overrides of load(CompoundTag)
+        ExtraHolder extra = new ExtraHolder();
+        extra.load(new ByteArrayInputStream(bytes.toByteArray()), false);
+        assertEquals("streamed", extra.name.get());
+        assertEquals("ignored", extra.extra);
+    }
+
+    private static class ExtraHolder extends ExampleHolder {
+        private String extra;
+
+        @Override
+        public void load(CompoundTag tag) {
+            super.load(tag);
+            extra = (String) tag.getValue().get("extra").getValue();
+        }
+    }
+
+    @Test
+    public void testIncrementalSave() {
+        assertTrue(subject.isDirty());
+        CompoundMap first = subject.saveIfDirty();
+        assertEquals("helloworld", first.get("name").getValue());
+        assertEquals("value-here", first.get("unassigned").getValue());
+        assertFalse(subject.isDirty());
+        assertNull(subject.saveIfDirty());
+
+        subject.name.set("changed");
+        assertTrue(subject.isDirty());
+        CompoundMap second = subject.saveIfDirty();
+        assertEquals("changed", second.get("name").getValue());
+        assertSame(first.get("unassigned"), second.get("unassigned"));
+        assertEquals("helloworld", first.get("name").getValue());
+
+        subject.name.set(null);
+        assertFalse(subject.saveIfDirty().containsKey("name"));
+
+        // A full save doesn't touch the saved state
+        subject.name.set("again");
+        assertEquals("again", subject.save().get("name").getValue());
+        assertTrue(subject.isDirty());
+    }
+
+    @Test
+    public void testListChangedInPlace() {
+        ListHolder holder = new ListHolder();
+        holder.names.set(new ArrayList<String>(Arrays.asList("a")));
+        holder.saveIfDirty();
+        assertFalse(holder.isDirty());
+        assertNull(holder.saveIfDirty());
+
+        holder.names.get().add("b");
+        assertEquals(2, ((ListTag<?>) holder.save().get("names")).getValue().size());
+        holder.names.get().add("c");
+        assertTrue(holder.isDirty());
+        assertEquals(3, ((ListTag<?>) holder.saveIfDirty().get("names")).getValue().size());
+        assertNull(holder.saveIfDirty());
+    }
+
+    @Test
+    public void testOverriddenSave() {
+        final FieldValue<String> custom = new FieldValue<String>("custom", new BasicTagField<String>(StringTag.class), "value") {
+            @Override
+            public void save(CompoundMap tag) {
+                super.save(tag);
+                tag.put(new StringTag("extra", "added"));
+            }
+        };
+        FieldHolder holder = new FieldHolder(custom) {
+        };
+        assertEquals("added", holder.save().get("extra").getValue());
+        assertEquals("added", holder.saveIfDirty().get("extra").getValue());
+    }
+
+    private static class ListHolder extends FieldHolder {
+        public final FieldValue<List<String>> names = FieldValue.from("names", new ListField<String>(new BasicTagField<String>(StringTag.class)));
+
+        public ListHolder() {
+            addFields(names);
+        }
+    }
+
+    @Test
+    public void testPrimitiveFields() {
+        PrimitiveHolder holder = new PrimitiveHolder();
+        holder.health.setFloat(12.5f);
+        holder.onGround.setBoolean(true);
+        holder.pos.set(new double[] {1.5, 64, -3});
+        holder.levels.set(new short[] {1, -2});
+        holder.flags.set(new byte[] {3});
+        CompoundMap map = holder.saveIfDirty();
+        assertFalse(holder.air.isDirty());
+        holder.air.setShort((short) 10);
+        assertTrue(holder.air.isDirty());
+        holder.air.set(null);
+        assertEquals(300, holder.air.getShort());
+
+        PrimitiveHolder loaded = new PrimitiveHolder();
+        loaded.load(new CompoundTag("", map));
+        assertEquals(12.5f, loaded.health.getFloat(), 0);
+        assertTrue(loaded.onGround.getBoolean());
+        assertEquals(300, loaded.air.getShort());
+        assertTrue(Arrays.equals(new double[] {1.5, 64, -3}, loaded.pos.get()));
+        assertTrue(Arrays.equals(new short[] {1, -2}, loaded.levels.get()));
+        assertTrue(Arrays.equals(new byte[] {3}, loaded.flags.get()));
+
+        loaded.health.setFloat(1);
+        loaded.load(new CompoundTag("", new CompoundMap()));
+        assertEquals(20, loaded.health.getFloat(), 0);
+        loaded.health.setFloat(-0f);
+        assertEquals(Float.floatToRawIntBits(-0f), Float.floatToRawIntBits(loaded.health.getFloat()));
+    }
+
+    private static class PrimitiveHolder extends FieldHolder {
+        public final FloatFieldValue health = new FloatFieldValue("Health", 20);
+        public final BooleanFieldValue onGround = new BooleanFieldValue("OnGround");
+        public final ShortFieldValue air = new ShortFieldValue("Air", (short) 300);
+        public final FieldValue<double[]> pos = FieldValue.from("Pos", DoubleListField.INSTANCE);
+        public final FieldValue<short[]> levels = FieldValue.from("Levels", ShortListField.INSTANCE);
+        public final FieldValue<byte[]> flags = FieldValue.from("Flags", ByteListField.INSTANCE);
+
+        public PrimitiveHolder() {
+            addFields(health, onGround, air, pos, levels, flags);
+        }
+    }
+}
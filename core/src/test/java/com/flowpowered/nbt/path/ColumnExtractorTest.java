@@ -0,0 +1,129 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.path;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import com.flowpowered.nbt.CompoundMap;
+import com.flowpowered.nbt.CompoundTag;
+import com.flowpowered.nbt.DoubleTag;
+import com.flowpowered.nbt.FloatTag;
+import com.flowpowered.nbt.ListTag;
+import com.flowpowered.nbt.StringTag;
+import com.flowpowered.nbt.Tag;
+import com.flowpowered.nbt.stream.NBTOutputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Test for {@link ColumnExtractor}
+ */
+public class ColumnExtractorTest {
+    private static final String[] IDS = {"minecraft:pig", "minecraft:cow", "minecraft:zombie"};
+    private static final ColumnExtractor EXTRACTOR = new ColumnExtractor(
+            Column.doubles("x", TagPath.compile("Pos[0]"), Double.NaN),
+            Column.doubles("z", TagPath.compile("Pos[2]"), Double.NaN),
+            Column.ints("health", TagPath.compile("Health"), -1),
+            Column.strings("id", TagPath.compile("id")));
+
+    private static List<Tag<?>> createEntities(int count) {
+        List<Tag<?>> entities = new ArrayList<Tag<?>>(count);
+        for (int i = 0; i < count; i++) {
+            CompoundMap map = new CompoundMap();
+            map.put(new ListTag<DoubleTag>("Pos", DoubleTag.class, Arrays.asList(new DoubleTag("", i), new DoubleTag("", 64), new DoubleTag("", -i))));
+            if (i % 10 != 0) {
+                map.put(new FloatTag("Health", i % 20));
+                map.put(new StringTag("id", IDS[(i / 3) % IDS.length]));
+            }
+            entities.add(new CompoundTag("", map));
+        }
+        return entities;
+    }
+
+    private static void check(ColumnTable table, int count) {
+        assertEquals(count, table.getRowCount());
+        double[] x = table.getDoubles("x");
+        double[] z = table.getDoubles("z");
+        int[] health = table.getInts("health");
+        DictionaryColumn ids = table.getStrings("id");
+        for (int i = 0; i < count; i++) {
+            assertEquals(i, x[i], 0);
+            assertEquals(-i, z[i], 0);
+            if (i % 10 != 0) {
+                assertEquals(i % 20, health[i]);
+                assertEquals(IDS[(i / 3) % IDS.length], ids.get(i));
+            } else {
+                assertEquals(-1, health[i]);
+                assertNull(ids.get(i));
+            }
+        }
+        assertEquals(IDS.length, ids.getDictionary().length);
+    }
+
+    @Test
+    public void testSequentialAndParallel() {
+        int count = 20000;
+        List<Tag<?>> entities = createEntities(count);
+        ColumnTable sequential = EXTRACTOR.extract(entities);
+        check(sequential, count);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            ColumnTable parallel = EXTRACTOR.extract(entities, pool);
+            check(parallel, count);
+            assertArrayEquals(sequential.getStrings("id").getCodes(), parallel.getStrings("id").getCodes());
+            assertArrayEquals(sequential.getStrings("id").getDictionary(), parallel.getStrings("id").getDictionary());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testEncoded() throws IOException {
+        int count = 5000;
+        List<byte[]> blobs = new ArrayList<byte[]>(count);
+        for (Tag<?> entity : createEntities(count)) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            NBTOutputStream os = new NBTOutputStream(bytes, true);
+            os.writeTag(entity);
+            os.close();
+            blobs.add(bytes.toByteArray());
+        }
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            check(EXTRACTOR.extractEncoded(blobs, true, pool), count);
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.path;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.flowpowered.nbt.ByteTag;
+import com.flowpowered.nbt.CompoundMap;
+import com.flowpowered.nbt.CompoundTag;
+import com.flowpowered.nbt.IntArrayTag;
+import com.flowpowered.nbt.ListTag;
+import com.flowpowered.nbt.StringTag;
+import com.flowpowered.nbt.Tag;
+import com.flowpowered.nbt.stream.NBTInputStream;
+import com.flowpowered.nbt.stream.NBTOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+/**
+ * Test for {@link TagPath}
+ */
+public class TagPathTest {
+    private static CompoundTag createTree() {
+        List<CompoundTag> sections = new ArrayList<CompoundTag>();
+        for (int y = 0; y < 4; y++) {
+            CompoundMap section = new CompoundMap();
+            section.put(new ByteTag("Y", (byte) y));
+            section.put(new IntArrayTag("Blocks", new int[4096]));
+            sections.add(new CompoundTag("", section));
+        }
+        CompoundMap level = new CompoundMap();
+        level.put(new ListTag<CompoundTag>("Sections", CompoundTag.class, sections));
+
+        List<CompoundTag> inventory = new ArrayList<CompoundTag>();
+        String[] ids = {"minecraft:stone", "minecraft:dirt", "minecraft:sand"};
+        for (int slot = 0; slot < ids.length; slot++) {
+            CompoundMap item = new CompoundMap();
+            item.put(new ByteTag("Slot", (byte) (slot + 2)));
+            item.put(new StringTag("id", ids[slot]));
+            inventory.add(new CompoundTag("", item));
+        }
+
+        CompoundMap root = new CompoundMap();
+        root.put(new CompoundTag("Level", level));
+        root.put(new ListTag<CompoundTag>("Inventory", CompoundTag.class, inventory));
+        return new CompoundTag("", root);
+    }
+
+    private static List<Object> values(List<Tag<?>> tags) {
+        List<Object> values = new ArrayList<Object>();
+        for (Tag<?> tag : tags) {
+            values.add(tag.getValue());
+        }
+        return values;
+    }
+
+    @Test
+    public void testSelect() {
+        CompoundTag root = createTree();
+        assertEquals(Arrays.<Object>asList((byte) 0, (byte) 1, (byte) 2, (byte) 3), values(TagPath.compile("Level.Sections[*].Y").select(root)));
+        assertEquals("minecraft:dirt", TagPath.compile("Inventory[?(@.Slot == 3)].id").selectFirst(root).getValue());
+        assertEquals(Arrays.<Object>asList("minecraft:dirt", "minecraft:sand"), values(TagPath.compile("Inventory[?(@.Slot >= 3)].id").select(root)));
+        assertEquals(Arrays.<Object>asList((byte) 4), values(TagPath.compile("Inventory[?(@.id == 'minecraft:sand')].Slot").select(root)));
+        assertEquals("minecraft:sand", TagPath.compile("$['Inventory'][-1].id").selectFirst(root, StringTag.class).getValue());
+        assertEquals(2, TagPath.compile("Inventory[0].*").select(root).size());
+        assertNull(TagPath.compile("Inventory[0].id").selectFirst(root, ByteTag.class));
+        assertNull(TagPath.compile("Level.Missing[3]").selectFirst(root));
+    }
+
+    @Test
+    public void testSelectFirst() {
+        CompoundTag root = createTree();
+        String[] expressions = {"Level.Sections[*].Y", "Inventory[?(@.Slot > 2)].id", "Inventory[*].*", "Level.*.*[?(@.Y >= 2)]", "Inventory[?(@.Slot > 9)]", "Inventory[5]", "Level.Y"};
+        for (String expression : expressions) {
+            TagPath path = TagPath.compile(expression);
+            List<Tag<?>> all = path.select(root);
+            assertEquals(expression, all.isEmpty() ? null : all.get(0), path.selectFirst(root));
+        }
+    }
+
+    @Test
+    public void testStreamSelect() throws IOException {
+        CompoundTag root = createTree();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        NBTOutputStream os = new NBTOutputStream(bytes, false);
+        os.writeTag(root);
+        os.close();
+
+        String[] expressions = {"Level.Sections[*].Y", "Inventory[?(@.Slot == 3)].id", "Inventory[1]", "Level.*", "Inventory[?(@.Slot)].id"};
+        for (String expression : expressions) {
+            TagPath path = TagPath.compile(expression);
+            NBTInputStream is = new NBTInputStream(new ByteArrayInputStream(bytes.toByteArray()), false);
+            assertEquals(expression, path.select(root), path.select(is));
+            is.close();
+        }
+
+        NBTInputStream is = new NBTInputStream(new ByteArrayInputStream(bytes.toByteArray()), false);
+        CompoundTag pruned = (CompoundTag) is.readTag(TagPath.compile("Level.Sections[*].Y").getFilter());
+        is.close();
+        assertNull(TagPath.compile("Level.Sections[0].Blocks").selectFirst(pruned));
+        assertNull(pruned.getValue().get("Inventory"));
+    }
+
+    @Test
+    public void testInvalidExpressions() {
+        String[] expressions = {"Level.", "Inventory[", "Inventory[?(@.Slot === 3)]", "Inventory[x]", "Level]"};
+        for (String expression : expressions) {
+            try {
+                TagPath.compile(expression);
+                fail(expression);
+            } catch (IllegalArgumentException expected) {
+            }
+        }
+    }
+}
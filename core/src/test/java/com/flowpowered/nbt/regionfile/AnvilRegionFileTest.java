@@ -0,0 +1,245 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.regionfile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.flowpowered.nbt.ByteArrayTag;
+import com.flowpowered.nbt.CompoundMap;
+import com.flowpowered.nbt.CompoundTag;
+import com.flowpowered.nbt.IntTag;
+import com.flowpowered.nbt.Tag;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test for {@link AnvilRegionFile} and {@link AnvilRegionFileWriter}
+ */
+public class AnvilRegionFileTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static Tag<?> createChunk(int x, int z, int size) {
+        byte[] data = new byte[size];
+        new Random(x * 31 + z).nextBytes(data);
+        CompoundMap map = new CompoundMap();
+        map.put(new IntTag("xPos", x));
+        map.put(new IntTag("zPos", z));
+        map.put(new ByteArrayTag("data", data));
+        return new CompoundTag("", map);
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        File file = new File(folder.getRoot(), "r.1.-1.mca");
+        AnvilRegionFileWriter writer = new AnvilRegionFileWriter(file);
+        writer.write(32, -32, createChunk(32, -32, 10));
+        writer.write(63, -1, createChunk(63, -1, 10000));
+        writer.writeRaw(40, -20, AnvilRegionFile.ZLIB, SimpleRegionFileTest.compress(createChunk(40, -20, 100)), 1234);
+        // Too large for the region, goes to c.33.-2.mcc
+        writer.write(33, -2, createChunk(33, -2, 1 << 21));
+        writer.close();
+        assertTrue(AnvilRegionFile.getExternalFile(file, 33, -2).exists());
+        assertEquals(0, file.length() % AnvilRegionFile.SECTOR_SIZE);
+
+        AnvilRegionFile region = new AnvilRegionFile(file);
+        try {
+            assertEquals(createChunk(32, -32, 10), region.read(32, -32));
+            assertEquals(createChunk(63, -1, 10000), region.read(63, -1));
+            assertEquals(createChunk(40, -20, 100), region.read(40, -20));
+            assertEquals(1234, region.getTimestamp(8, 12));
+            assertEquals(createChunk(33, -2, 1 << 21), region.read(33, -2));
+            assertFalse(region.exists(5, 5));
+            assertNull(region.read(32, -31));
+        } finally {
+            region.close();
+        }
+
+        writer = new AnvilRegionFileWriter(file);
+        writer.write(33, -2, createChunk(33, -2, 100));
+        writer.remove(63, -1);
+        writer.close();
+        assertFalse(AnvilRegionFile.getExternalFile(file, 33, -2).exists());
+
+        region = new AnvilRegionFile(file);
+        try {
+            assertEquals(createChunk(33, -2, 100), region.read(33, -2));
+            assertEquals(createChunk(32, -32, 10), region.read(32, -32));
+            assertFalse(region.exists(63, -1));
+            assertEquals(0, region.getTimestamp(63, -1));
+        } finally {
+            region.close();
+        }
+    }
+
+    @Test
+    public void testTruncated() throws IOException {
+        File file = new File(folder.getRoot(), "r.0.0.mca");
+        AnvilRegionFileWriter writer = new AnvilRegionFileWriter(file);
+        writer.write(0, 0, createChunk(0, 0, 10));
+        writer.write(1, 0, createChunk(1, 0, 10000));
+        writer.close();
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.setLength(raf.length() - AnvilRegionFile.SECTOR_SIZE);
+        } finally {
+            raf.close();
+        }
+
+        // Only the chunk cut off fails
+        AnvilRegionFile region = new AnvilRegionFile(file);
+        try {
+            assertEquals(createChunk(0, 0, 10), region.read(0, 0));
+            assertTrue(region.exists(1, 0));
+            try {
+                region.read(1, 0);
+                fail("Truncated chunk was read");
+            } catch (IOException expected) {
+            }
+        } finally {
+            region.close();
+        }
+
+        writer = new AnvilRegionFileWriter(file);
+        assertFalse(writer.exists(1, 0));
+        writer.write(1, 0, createChunk(1, 0, 100));
+        writer.close();
+        region = new AnvilRegionFile(file);
+        try {
+            assertEquals(createChunk(1, 0, 100), region.read(1, 0));
+        } finally {
+            region.close();
+        }
+    }
+
+    @Test
+    public void testExternalFileKeptUntilFlush() throws IOException {
+        File file = new File(folder.getRoot(), "r.0.0.mca");
+        File external = AnvilRegionFile.getExternalFile(file, 2, 3);
+        File removedExternal = AnvilRegionFile.getExternalFile(file, 4, 5);
+        AnvilRegionFileWriter writer = new AnvilRegionFileWriter(file);
+        writer.write(2, 3, createChunk(2, 3, 1 << 21));
+        writer.write(4, 5, createChunk(4, 5, 1 << 21));
+        writer.close();
+
+        writer = new AnvilRegionFileWriter(file);
+        try {
+            // Moves out of the one sector pointing to the external file
+            writer.write(2, 3, createChunk(2, 3, 10000));
+            writer.remove(4, 5);
+            // The tables on disk still point to the external files
+            assertTrue(external.exists());
+            assertTrue(removedExternal.exists());
+            AnvilRegionFile region = new AnvilRegionFile(file);
+            try {
+                assertEquals(createChunk(2, 3, 1 << 21), region.read(2, 3));
+                assertEquals(createChunk(4, 5, 1 << 21), region.read(4, 5));
+            } finally {
+                region.close();
+            }
+
+            writer.flush();
+            assertFalse(external.exists());
+            assertFalse(removedExternal.exists());
+        } finally {
+            writer.close();
+        }
+        AnvilRegionFile region = new AnvilRegionFile(file);
+        try {
+            assertEquals(createChunk(2, 3, 10000), region.read(2, 3));
+            assertFalse(region.exists(4, 5));
+        } finally {
+            region.close();
+        }
+    }
+
+    @Test
+    public void testPartialLastSector() throws IOException {
+        File file = new File(folder.getRoot(), "r.0.0.mca");
+        AnvilRegionFileWriter writer = new AnvilRegionFileWriter(file);
+        writer.write(0, 0, createChunk(0, 0, 10000));
+        writer.close();
+        // Cut the file right after the data of the chunk, within its last sector
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.seek(AnvilRegionFile.HEADER_SECTORS * AnvilRegionFile.SECTOR_SIZE);
+            raf.setLength(raf.getFilePointer() + 4 + raf.readInt());
+        } finally {
+            raf.close();
+        }
+
+        AnvilRegionFile region = new AnvilRegionFile(file);
+        try {
+            assertEquals(createChunk(0, 0, 10000), region.read(0, 0));
+        } finally {
+            region.close();
+        }
+        writer = new AnvilRegionFileWriter(file);
+        assertTrue(writer.exists(0, 0));
+        writer.write(1, 0, createChunk(1, 0, 10000));
+        writer.close();
+        region = new AnvilRegionFile(file);
+        try {
+            assertEquals(createChunk(0, 0, 10000), region.read(0, 0));
+            assertEquals(createChunk(1, 0, 10000), region.read(1, 0));
+        } finally {
+            region.close();
+        }
+
+        // One byte shorter and both drop the chunk
+        raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.seek((AnvilRegionFile.HEADER_SECTORS + 3) * AnvilRegionFile.SECTOR_SIZE);
+            raf.setLength(raf.getFilePointer() + 3 + raf.readInt());
+        } finally {
+            raf.close();
+        }
+        region = new AnvilRegionFile(file);
+        try {
+            assertEquals(createChunk(0, 0, 10000), region.read(0, 0));
+            try {
+                region.read(1, 0);
+                fail("Truncated chunk was read");
+            } catch (IOException expected) {
+            }
+        } finally {
+            region.close();
+        }
+        writer = new AnvilRegionFileWriter(file);
+        assertTrue(writer.exists(0, 0));
+        assertFalse(writer.exists(1, 0));
+        writer.close();
+    }
+}
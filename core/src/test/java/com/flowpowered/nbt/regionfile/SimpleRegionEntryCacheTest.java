@@ -0,0 +1,139 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.regionfile;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.flowpowered.nbt.Tag;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Test for {@link SimpleRegionEntryCache}
+ */
+public class SimpleRegionEntryCacheTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testCache() throws IOException {
+        File file = new File(folder.getRoot(), "region.dat");
+        SimpleRegionFileWriter writer = new SimpleRegionFileWriter(file, 8, 4);
+        for (int i = 0; i < 3; i++) {
+            writer.write(i, SimpleRegionFileTest.createEntry(i));
+        }
+        writer.close();
+
+        long entrySize = SimpleRegionEntryCache.estimateSize(SimpleRegionFileTest.createEntry(0));
+        SimpleRegionFileManager manager = new SimpleRegionFileManager(4);
+        SimpleRegionEntryCache cache = new SimpleRegionEntryCache(manager, entrySize * 2);
+        try {
+            Tag<?> tag = cache.get(file, 0);
+            assertEquals(SimpleRegionFileTest.createEntry(0), tag);
+            assertSame(tag, cache.get(file, 0));
+            assertEquals(1, cache.getHitCount());
+            assertEquals(1, cache.getMissCount());
+
+            // Entry 0 was used last, so entry 1 goes first
+            cache.get(file, 1);
+            cache.get(file, 0);
+            cache.get(file, 2);
+            assertEquals(1, cache.getEvictionCount());
+            assertEquals(2, cache.getEntryCount());
+            assertEquals(entrySize * 2, cache.getSize());
+            assertSame(tag, cache.get(file, 0));
+            assertEquals(3, cache.getHitCount());
+
+            assertNull(cache.get(file, 3));
+            assertNull(cache.get(file, 3));
+            assertEquals(4, cache.getHitCount());
+            cache.invalidate(file);
+            assertEquals(0, cache.getEntryCount());
+            assertEquals(0, cache.getSize());
+            assertEquals(SimpleRegionFileTest.createEntry(1), cache.get(file, 1));
+            assertEquals(5, cache.getMissCount());
+        } finally {
+            manager.close();
+        }
+    }
+
+    @Test
+    public void testInvalidateRewrittenEntry() throws IOException {
+        File file = new File(folder.getRoot(), "region.dat");
+        SimpleRegionFileWriter writer = new SimpleRegionFileWriter(file, 8, 4);
+        writer.write(0, SimpleRegionFileTest.createEntry(0));
+        writer.write(1, SimpleRegionFileTest.createEntry(1));
+        writer.close();
+
+        SimpleRegionFileManager manager = new SimpleRegionFileManager(1);
+        SimpleRegionEntryCache cache = new SimpleRegionEntryCache(manager, Long.MAX_VALUE);
+        try {
+            assertEquals(SimpleRegionFileTest.createEntry(0), cache.get(file, 0));
+            Tag<?> other = cache.get(file, 1);
+
+            // The new entry doesn't fit in place, so it moves and the header the manager parsed is out of date
+            writer = new SimpleRegionFileWriter(file);
+            writer.write(0, SimpleRegionFileTest.createEntry(5, 900, false));
+            writer.close();
+            cache.invalidate(file, 0);
+            assertEquals(SimpleRegionFileTest.createEntry(5, 900, false), cache.get(file, 0));
+            assertSame(other, cache.get(file, 1));
+        } finally {
+            manager.close();
+        }
+    }
+
+    @Test
+    public void testInvalidateWhileReading() throws IOException {
+        final File file = new File(folder.getRoot(), "region.dat");
+        SimpleRegionFileWriter writer = new SimpleRegionFileWriter(file, 8, 1);
+        writer.write(0, SimpleRegionFileTest.createEntry(0));
+        writer.close();
+
+        final SimpleRegionEntryCache[] cache = new SimpleRegionEntryCache[1];
+        SimpleRegionFileManager manager = new SimpleRegionFileManager(1) {
+            @Override
+            public Tag<?> read(File f, int index) throws IOException {
+                Tag<?> tag = super.read(f, index);
+                // A writer replaces the entry after it was read, but before it is stored
+                cache[0].invalidate(f, index);
+                return tag;
+            }
+        };
+        cache[0] = new SimpleRegionEntryCache(manager, Long.MAX_VALUE);
+        try {
+            assertEquals(SimpleRegionFileTest.createEntry(0), cache[0].get(file, 0));
+            assertEquals(0, cache[0].getEntryCount());
+        } finally {
+            manager.close();
+        }
+    }
+}
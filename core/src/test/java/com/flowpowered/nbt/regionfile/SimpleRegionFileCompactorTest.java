@@ -0,0 +1,115 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.regionfile;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.flowpowered.nbt.Tag;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test for {@link SimpleRegionFileCompactor}
+ */
+public class SimpleRegionFileCompactorTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Writes a region, then grows every other entry so it moves and leaves free segments behind.
+     */
+    private File createFragmentedRegion(String name) throws IOException {
+        File file = new File(folder.getRoot(), name);
+        SimpleRegionFileWriter writer = new SimpleRegionFileWriter(file, 8, 8);
+        writer.setCompressionLevel(0);
+        for (int i = 0; i < 8; i++) {
+            writer.write(i, SimpleRegionFileTest.createEntry(i, 500, true));
+        }
+        for (int i = 0; i < 8; i += 2) {
+            writer.write(i, SimpleRegionFileTest.createEntry(i, 1000, true));
+        }
+        writer.close();
+        return file;
+    }
+
+    private static void assertEntries(File file) {
+        List<Tag<?>> tags = SimpleRegionFileReader.readFile(file);
+        for (int i = 0; i < 8; i++) {
+            assertEquals(SimpleRegionFileTest.createEntry(i, i % 2 == 0 ? 1000 : 500, true), tags.get(i));
+        }
+    }
+
+    @Test
+    public void testCompact() throws IOException {
+        File file = createFragmentedRegion("region.dat");
+        long length = file.length();
+        long reclaimed = new SimpleRegionFileCompactor().compact(file);
+        assertTrue(reclaimed > 0);
+        assertEquals(length - reclaimed, file.length());
+        assertEntries(file);
+
+        // Recompressing the uncompressed entries shrinks them further
+        length = file.length();
+        assertTrue(new SimpleRegionFileCompactor(9).compact(file) > 0);
+        assertTrue(file.length() < length);
+        assertEntries(file);
+        assertEquals(1, folder.getRoot().list().length);
+    }
+
+    @Test
+    public void testCompactAll() throws IOException, InterruptedException {
+        File[] files = new File[5];
+        for (int i = 0; i < files.length; i++) {
+            files[i] = createFragmentedRegion("region" + i + ".dat");
+        }
+        assertTrue(new SimpleRegionFileCompactor().compactAll(files, 2) > 0);
+        for (File file : files) {
+            assertEntries(file);
+        }
+    }
+
+    @Test
+    public void testKeepsPermissions() throws IOException {
+        File file = createFragmentedRegion("region.dat");
+        PosixFileAttributeView attributes = Files.getFileAttributeView(file.toPath(), PosixFileAttributeView.class);
+        Assume.assumeNotNull(attributes);
+        Set<PosixFilePermission> permissions = PosixFilePermissions.fromString("rw-r-----");
+        Files.setPosixFilePermissions(file.toPath(), permissions);
+        new SimpleRegionFileCompactor().compact(file);
+        assertEquals(permissions, Files.getPosixFilePermissions(file.toPath()));
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.regionfile;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * Test for {@link SimpleRegionFileManager}
+ */
+public class SimpleRegionFileManagerTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File createRegion(String name) throws IOException {
+        File file = new File(folder.getRoot(), name);
+        SimpleRegionFileWriter writer = new SimpleRegionFileWriter(file, 8, 4);
+        writer.write(0, SimpleRegionFileTest.createEntry(name.length()));
+        writer.close();
+        return file;
+    }
+
+    @Test
+    public void testEviction() throws IOException {
+        File a = createRegion("a");
+        File b = createRegion("bb");
+        File c = createRegion("ccc");
+        SimpleRegionFileManager manager = new SimpleRegionFileManager(2);
+
+        SimpleRegionFile region = manager.acquire(a);
+        manager.release(region);
+        assertSame(region, manager.acquire(a));
+
+        // Evicted while held, so only closed once released
+        assertEquals(SimpleRegionFileTest.createEntry(2), manager.read(b, 0));
+        assertEquals(SimpleRegionFileTest.createEntry(3), manager.read(c, 0));
+        assertEquals(2, manager.size());
+        assertEquals(SimpleRegionFileTest.createEntry(1), region.read(0));
+        manager.release(region);
+        try {
+            region.read(0);
+            fail("Evicted region still open");
+        } catch (IOException expected) {
+        }
+        try {
+            manager.release(region);
+            fail("Released twice");
+        } catch (IllegalStateException expected) {
+        }
+
+        manager.close();
+        try {
+            manager.acquire(b);
+            fail("Manager still open");
+        } catch (IOException expected) {
+        }
+    }
+}
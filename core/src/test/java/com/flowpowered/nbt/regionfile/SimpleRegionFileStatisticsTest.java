@@ -0,0 +1,91 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.regionfile;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Test for {@link SimpleRegionFileStatistics}
+ */
+public class SimpleRegionFileStatisticsTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Writes four single segment entries after a single segment header, then removes the second one.
+     */
+    private File createRegion(String name) throws IOException {
+        File file = new File(folder.getRoot(), name);
+        SimpleRegionFileWriter writer = new SimpleRegionFileWriter(file, 8, 4);
+        for (int i = 0; i < 4; i++) {
+            writer.write(i, SimpleRegionFileTest.createEntry(i));
+        }
+        writer.remove(1);
+        writer.close();
+        return file;
+    }
+
+    @Test
+    public void testScan() throws IOException {
+        SimpleRegionFileStatistics statistics = SimpleRegionFileStatistics.scan(createRegion("region.dat"));
+        assertEquals(4, statistics.getEntryCount());
+        assertEquals(3, statistics.getPresentEntryCount());
+        assertEquals(5, statistics.getTotalSegments());
+        assertEquals(1, statistics.getHeaderSegments());
+        assertEquals(3, statistics.getUsedSegments());
+        assertEquals(1, statistics.getFreeSegments());
+        assertEquals(0.25, statistics.getFragmentation(), 0);
+    }
+
+    @Test
+    public void testScanAll() throws IOException, InterruptedException {
+        File[] files = {createRegion("a.dat"), folder.newFile("empty.dat"), createRegion("b.dat")};
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<SimpleRegionFileStatistics> statistics = SimpleRegionFileStatistics.scanAll(files, executor);
+            assertEquals(files[0], statistics.get(0).getFile());
+            assertNull(statistics.get(1));
+            SimpleRegionFileStatistics total = SimpleRegionFileStatistics.total(statistics);
+            assertNull(total.getFile());
+            assertEquals(2, total.getFileCount());
+            assertEquals(6, total.getPresentEntryCount());
+            assertEquals(files[0].length() + files[2].length(), total.getFileBytes());
+            assertEquals(statistics.get(0).getCompressedBytes() + statistics.get(2).getCompressedBytes(), total.getCompressedBytes());
+            assertEquals(0.25, total.getFragmentation(), 0);
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
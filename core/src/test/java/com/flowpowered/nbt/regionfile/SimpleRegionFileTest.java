@@ -0,0 +1,229 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.regionfile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.DeflaterOutputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.flowpowered.nbt.ByteArrayTag;
+import com.flowpowered.nbt.CompoundMap;
+import com.flowpowered.nbt.CompoundTag;
+import com.flowpowered.nbt.IntTag;
+import com.flowpowered.nbt.Tag;
+import com.flowpowered.nbt.stream.NBTOutputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test for {@link SimpleRegionFile}
+ */
+public class SimpleRegionFileTest {
+    private static final int SEGMENT_SIZE = 8;
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    static Tag<?> createEntry(int index) {
+        CompoundMap map = new CompoundMap();
+        map.put(new IntTag("index", index));
+        return new CompoundTag("", map);
+    }
+
+    /**
+     * Creates an entry holding a byte array of the given size. Random bytes don't compress, so the entry spans a known number of segments, while the repeating pattern of a compressible entry
+     * shrinks when it is recompressed.
+     *
+     * @param seed The seed of the contents.
+     * @param size The size of the byte array.
+     * @param compressible Whether the contents follow a repeating pattern rather than being random.
+     */
+    static Tag<?> createEntry(int seed, int size, boolean compressible) {
+        byte[] data = new byte[size];
+        if (compressible) {
+            for (int i = 0; i < size; i++) {
+                data[i] = (byte) (i * seed);
+            }
+        } else {
+            new Random(seed).nextBytes(data);
+        }
+        CompoundMap map = new CompoundMap();
+        map.put(new ByteArrayTag("data", data));
+        return new CompoundTag("", map);
+    }
+
+    static byte[] compress(Tag<?> tag) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        NBTOutputStream os = new NBTOutputStream(new DeflaterOutputStream(bytes), false);
+        os.writeTag(tag);
+        os.close();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Writes a region file holding {@link #createEntry(int)} at every even index, leaving odd ones absent.
+     */
+    private File createRegion(int entries) throws IOException {
+        byte[][] data = new byte[entries][];
+        for (int i = 0; i < entries; i += 2) {
+            data[i] = compress(createEntry(i));
+        }
+        int headerSegments = ((12 + entries * 8) >> SEGMENT_SIZE) + 1;
+        File file = folder.newFile("region.dat");
+        DataOutputStream out = new DataOutputStream(new FileOutputStream(file));
+        try {
+            out.writeInt(1);
+            out.writeInt(SEGMENT_SIZE);
+            out.writeInt(entries);
+            int segment = headerSegments;
+            for (byte[] entry : data) {
+                out.writeInt(entry == null ? 0 : segment);
+                out.writeInt(entry == null ? 0 : entry.length);
+                if (entry != null) {
+                    segment += (entry.length >> SEGMENT_SIZE) + 1;
+                }
+            }
+            out.write(new byte[(headerSegments << SEGMENT_SIZE) - out.size()]);
+            for (byte[] entry : data) {
+                if (entry != null) {
+                    out.write(entry);
+                    out.write(new byte[(((entry.length >> SEGMENT_SIZE) + 1) << SEGMENT_SIZE) - entry.length]);
+                }
+            }
+        } finally {
+            out.close();
+        }
+        return file;
+    }
+
+    @Test
+    public void testRandomAccess() throws IOException {
+        SimpleRegionFile region = new SimpleRegionFile(createRegion(10));
+        try {
+            assertEquals(10, region.getEntryCount());
+            assertTrue(region.exists(4));
+            assertFalse(region.exists(5));
+            assertEquals(createEntry(6), region.read(6));
+            assertNull(region.read(7));
+            assertNull(region.rawBytes(7));
+            assertArrayEquals(compress(createEntry(8)), region.rawBytes(8));
+        } finally {
+            region.close();
+        }
+    }
+
+    @Test
+    public void testReadFile() throws IOException {
+        List<Tag<?>> tags = SimpleRegionFileReader.readFile(createRegion(6));
+        assertEquals(6, tags.size());
+        for (int i = 0; i < 6; i++) {
+            assertEquals(i % 2 == 0 ? createEntry(i) : null, tags.get(i));
+        }
+    }
+
+    @Test
+    public void testCorruptHeader() throws IOException {
+        File file = createRegion(4);
+        int[] starts = {-1, 0, Integer.MAX_VALUE};
+        for (int start : starts) {
+            RandomAccessFile raf = new RandomAccessFile(file, "rw");
+            try {
+                raf.seek(12);
+                raf.writeInt(start);
+            } finally {
+                raf.close();
+            }
+            assertNull(SimpleRegionFileReader.readFile(file));
+        }
+    }
+
+    @Test
+    public void testParallelRead() throws IOException, InterruptedException {
+        SimpleRegionFile region = new SimpleRegionFile(createRegion(100));
+        ExecutorService pool = new ForkJoinPool(4);
+        try {
+            List<Tag<?>> tags = region.readAll(pool);
+            assertEquals(100, tags.size());
+            for (int i = 0; i < 100; i++) {
+                assertEquals(i % 2 == 0 ? createEntry(i) : null, tags.get(i));
+            }
+
+            final AtomicInteger read = new AtomicInteger();
+            region.readAll(pool, new SimpleRegionFile.EntryListener() {
+                @Override
+                public void entryRead(int index, Tag<?> tag) {
+                    assertEquals(createEntry(index), tag);
+                    read.incrementAndGet();
+                }
+
+                @Override
+                public void entryFailed(int index, IOException e) {
+                    throw new AssertionError(e);
+                }
+            });
+            assertEquals(50, read.get());
+        } finally {
+            pool.shutdown();
+            region.close();
+        }
+    }
+
+    @Test
+    public void testIterator() throws IOException {
+        File file = createRegion(10);
+        Iterator<Tag<?>> iterator = SimpleRegionFileReader.iterateFile(file);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(iterator.hasNext());
+            assertEquals(i % 2 == 0 ? createEntry(i) : null, iterator.next());
+        }
+        assertFalse(iterator.hasNext());
+
+        SimpleRegionFile region = new SimpleRegionFile(file);
+        try {
+            iterator = region.iterator(4, 6);
+            assertEquals(createEntry(4), iterator.next());
+            assertNull(iterator.next());
+            assertFalse(iterator.hasNext());
+        } finally {
+            region.close();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.regionfile;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.flowpowered.nbt.Tag;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Test for {@link SimpleRegionFileWriter}
+ */
+public class SimpleRegionFileWriterTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        File file = new File(folder.getRoot(), "region.dat");
+        SimpleRegionFileWriter writer = new SimpleRegionFileWriter(file, 8, 16);
+        for (int i = 0; i < 16; i += 3) {
+            writer.write(i, SimpleRegionFileTest.createEntry(i));
+        }
+        writer.close();
+
+        List<Tag<?>> tags = SimpleRegionFileReader.readFile(file);
+        assertEquals(16, tags.size());
+        for (int i = 0; i < 16; i++) {
+            assertEquals(i % 3 == 0 ? SimpleRegionFileTest.createEntry(i) : null, tags.get(i));
+        }
+    }
+
+    @Test
+    public void testRewrite() throws IOException {
+        File file = new File(folder.getRoot(), "region.dat");
+        SimpleRegionFileWriter writer = new SimpleRegionFileWriter(file, 8, 4);
+        writer.write(0, SimpleRegionFileTest.createEntry(0, 900, false));
+        writer.write(1, SimpleRegionFileTest.createEntry(1, 900, false));
+        writer.close();
+
+        // Shrinking stays in place, growing moves the entry to the end, and the freed segments get reused once the header is flushed
+        writer = new SimpleRegionFileWriter(file);
+        writer.write(0, SimpleRegionFileTest.createEntry(2, 90, false));
+        writer.write(1, SimpleRegionFileTest.createEntry(3, 1900, false));
+        writer.flush();
+        writer.write(2, SimpleRegionFileTest.createEntry(4, 450, false));
+        writer.remove(3);
+        writer.trim();
+        writer.close();
+
+        SimpleRegionFile region = new SimpleRegionFile(file);
+        try {
+            assertEquals(SimpleRegionFileTest.createEntry(2, 90, false), region.read(0));
+            assertEquals(SimpleRegionFileTest.createEntry(3, 1900, false), region.read(1));
+            assertEquals(SimpleRegionFileTest.createEntry(4, 450, false), region.read(2));
+            assertFalse(region.exists(3));
+            assertNull(region.read(3));
+            // Header in segment 0, entry 0 in segment 1, entry 2 in the freed segments 2 and 3, entry 1 moved to 9
+            assertEquals((9L << 8) + region.rawBytes(1).length, file.length());
+        } finally {
+            region.close();
+        }
+
+        // Closing never shortens the file, trimming does
+        long length = file.length();
+        writer = new SimpleRegionFileWriter(file);
+        writer.remove(1);
+        writer.close();
+        assertEquals(length, file.length());
+        writer = new SimpleRegionFileWriter(file);
+        writer.trim();
+        writer.close();
+        region = new SimpleRegionFile(file);
+        try {
+            assertEquals((2L << 8) + region.rawBytes(2).length, file.length());
+        } finally {
+            region.close();
+        }
+    }
+
+    @Test
+    public void testSync() throws IOException {
+        File file = new File(folder.getRoot(), "region.dat");
+        SimpleRegionFileWriter writer = new SimpleRegionFileWriter(file, 8, 4);
+        try {
+            writer.write(0, SimpleRegionFileTest.createEntry(0, 90, false));
+            writer.sync();
+            SimpleRegionFile region = new SimpleRegionFile(file);
+            try {
+                assertEquals(SimpleRegionFileTest.createEntry(0, 90, false), region.read(0));
+            } finally {
+                region.close();
+            }
+        } finally {
+            writer.close();
+        }
+    }
+
+    @Test
+    public void testReleasedSegmentsKeptUntilFlush() throws IOException {
+        File file = new File(folder.getRoot(), "region.dat");
+        SimpleRegionFileWriter writer = new SimpleRegionFileWriter(file, 8, 4);
+        writer.write(0, SimpleRegionFileTest.createEntry(0, 90, false));
+        writer.flush();
+
+        // Entry 0 moves, but the header on disk still points to its old segment until the next flush
+        writer.write(0, SimpleRegionFileTest.createEntry(1, 900, false));
+        writer.write(1, SimpleRegionFileTest.createEntry(2, 90, false));
+        SimpleRegionFile region = new SimpleRegionFile(file);
+        try {
+            assertEquals(SimpleRegionFileTest.createEntry(0, 90, false), region.read(0));
+        } finally {
+            region.close();
+        }
+        writer.close();
+    }
+
+    @Test(expected = IOException.class)
+    public void testMismatchedTable() throws IOException {
+        File file = new File(folder.getRoot(), "region.dat");
+        new SimpleRegionFileWriter(file, 8, 4).close();
+        new SimpleRegionFileWriter(file, 8, 5).close();
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.stream;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.flowpowered.nbt.ByteArrayTag;
+import com.flowpowered.nbt.CompoundMap;
+import com.flowpowered.nbt.CompoundTag;
+import com.flowpowered.nbt.IntArrayTag;
+import com.flowpowered.nbt.IntTag;
+import com.flowpowered.nbt.ListTag;
+import com.flowpowered.nbt.LongArrayTag;
+import com.flowpowered.nbt.ShortArrayTag;
+import com.flowpowered.nbt.StringTag;
+import com.flowpowered.nbt.Tag;
+import com.flowpowered.nbt.TagType;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Test for reading back what {@link NBTOutputStream} writes with {@link NBTInputStream}
+ */
+public class NBTStreamTest {
+    private static Tag<?> roundTrip(Tag<?> tag, ByteOrder order) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        NBTOutputStream os = new NBTOutputStream(bytes, true, order);
+        os.writeTag(tag);
+        os.close();
+
+        NBTInputStream is = new NBTInputStream(new ByteArrayInputStream(bytes.toByteArray()), true, order);
+        Tag<?> read = is.readTag();
+        is.close();
+        return read;
+    }
+
+    @Test
+    public void testArrays() throws IOException {
+        CompoundMap map = new CompoundMap();
+        map.put(new ByteArrayTag("bytes", new byte[] {1, -2, 3}));
+        map.put(new ShortArrayTag("shorts", new short[] {1, -2, Short.MAX_VALUE}));
+        map.put(new IntArrayTag("ints", new int[] {1, -2, Integer.MIN_VALUE}));
+        map.put(new LongArrayTag("longs", new long[] {1, -2, Long.MAX_VALUE, 0x0123456789ABCDEFL}));
+        map.put(new LongArrayTag("empty", new long[0]));
+        // Larger than the buffer arrays are decoded through
+        long[] large = new long[3000];
+        for (int i = 0; i < large.length; i++) {
+            large[i] = i * 0x100000001L;
+        }
+        map.put(new LongArrayTag("large", large));
+        CompoundTag tag = new CompoundTag("arrays", map);
+
+        assertEquals(tag, roundTrip(tag, ByteOrder.BIG_ENDIAN));
+        assertEquals(tag, roundTrip(tag, ByteOrder.LITTLE_ENDIAN));
+
+        MutableTag mutable = new MutableTagPool(1).acquire();
+        new NBTInputStream(new ByteArrayInputStream(encode(tag)), false).readTag(mutable);
+        assertEquals(tag, mutable.toTag());
+    }
+
+    private static byte[] encode(Tag<?> tag) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        NBTOutputStream os = new NBTOutputStream(bytes, false);
+        os.writeTag(tag);
+        os.close();
+        return bytes.toByteArray();
+    }
+
+    private static CompoundTag slot(int slot, String id) {
+        List<IntTag> counts = new ArrayList<IntTag>();
+        counts.add(new IntTag("", slot));
+        CompoundMap map = new CompoundMap();
+        map.put(new IntTag("Slot", slot));
+        map.put(new StringTag("id", id));
+        map.put(new ListTag<IntTag>("Counts", IntTag.class, counts));
+        map.put(new LongArrayTag("Data", new long[slot]));
+        return new CompoundTag("", map);
+    }
+
+    @Test
+    public void testMutableTagReuse() throws IOException {
+        MutableTagPool pool = new MutableTagPool(1);
+        MutableTag tag = pool.acquire();
+        for (int slot = 1; slot <= 3; slot++) {
+            CompoundTag expected = slot(slot, "stone");
+            new NBTInputStream(new ByteArrayInputStream(encode(expected)), false).readTag(tag);
+            assertEquals(TagType.TAG_COMPOUND, tag.getType());
+            assertEquals(slot, tag.get("Slot").getInt());
+            assertEquals(slot, tag.get("Counts").get(0).getInt());
+            assertEquals(slot, tag.get("Data").size());
+            assertEquals(expected, tag.toTag());
+        }
+        String id = tag.get("id").getString();
+        MutableTag data = tag.get("Data");
+        new NBTInputStream(new ByteArrayInputStream(encode(slot(2, "stone"))), false).readTag(tag);
+        assertSame(id, tag.get("id").getString());
+        assertSame(data, tag.get("Data"));
+        assertEquals(2, data.size());
+
+        pool.release(tag);
+        assertSame(tag, pool.acquire());
+    }
+}
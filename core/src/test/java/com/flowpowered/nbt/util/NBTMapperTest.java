@@ -0,0 +1,158 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.flowpowered.nbt.CompoundTag;
+import com.flowpowered.nbt.IntTag;
+import com.flowpowered.nbt.StringTag;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test for the object mapping of {@link NBTMapper}
+ */
+public class NBTMapperTest {
+    private enum Mode {
+        SURVIVAL, CREATIVE
+    }
+
+    private static class Item {
+        private String id;
+        private byte count;
+
+        private Item() {
+        }
+
+        private Item(String id, byte count) {
+            this.id = id;
+            this.count = count;
+        }
+    }
+
+    private static class NamedItem extends Item {
+        private String label;
+
+        private NamedItem(String id, byte count, String label) {
+            super(id, count);
+            this.label = label;
+        }
+    }
+
+    private static class Entity {
+        private int health = 20;
+        private boolean onGround;
+        private double speed;
+        private Long age;
+        private String name;
+        private Mode mode = Mode.SURVIVAL;
+        private int[] position;
+        private List<String> tags;
+        private Set<Integer> flags;
+        private Map<String, Double> attributes;
+        private Item hand;
+        private List<Item> inventory;
+        private transient int ignored = 7;
+    }
+
+    @Test
+    public void testRoundTrip() {
+        Entity entity = new Entity();
+        entity.health = 13;
+        entity.onGround = true;
+        entity.speed = 0.25;
+        entity.age = 1234567890123L;
+        entity.name = "Pig";
+        entity.mode = Mode.CREATIVE;
+        entity.position = new int[] {1, 2, 3};
+        entity.tags = Arrays.asList("a", "b");
+        entity.flags = new LinkedHashSet<Integer>(Arrays.asList(4, 5));
+        entity.attributes = new HashMap<String, Double>();
+        entity.attributes.put("armor", 2.5);
+        entity.hand = new Item("stone", (byte) 64);
+        entity.inventory = new ArrayList<Item>(Arrays.asList(new Item("dirt", (byte) 1), new Item("sand", (byte) 2)));
+        entity.ignored = 8;
+
+        CompoundTag tag = NBTMapper.fromObject(entity);
+        assertFalse(tag.getValue().containsKey("ignored"));
+        Entity loaded = NBTMapper.toObject(tag, Entity.class);
+        assertEquals(13, loaded.health);
+        assertTrue(loaded.onGround);
+        assertEquals(0.25, loaded.speed, 0);
+        assertEquals(Long.valueOf(1234567890123L), loaded.age);
+        assertEquals("Pig", loaded.name);
+        assertEquals(Mode.CREATIVE, loaded.mode);
+        assertArrayEquals(new int[] {1, 2, 3}, loaded.position);
+        assertEquals(Arrays.asList("a", "b"), loaded.tags);
+        assertEquals(entity.flags, loaded.flags);
+        assertEquals(entity.attributes, loaded.attributes);
+        assertEquals("stone", loaded.hand.id);
+        assertEquals(64, loaded.hand.count);
+        assertEquals(2, loaded.inventory.size());
+        assertEquals("sand", loaded.inventory.get(1).id);
+        assertEquals(7, loaded.ignored);
+    }
+
+    @Test
+    public void testDeclaredType() {
+        Entity entity = new Entity();
+        entity.hand = new NamedItem("stone", (byte) 3, "Rock");
+        entity.inventory = new ArrayList<Item>(Arrays.<Item>asList(new NamedItem("dirt", (byte) 1, "Mud")));
+
+        CompoundTag tag = NBTMapper.fromObject(entity);
+        CompoundTag hand = (CompoundTag) tag.getValue().get("hand");
+        assertEquals(2, hand.getValue().size());
+        assertFalse(hand.getValue().containsKey("label"));
+        Entity loaded = NBTMapper.toObject(tag, Entity.class);
+        assertEquals(Item.class, loaded.hand.getClass());
+        assertEquals("stone", loaded.hand.id);
+        assertEquals(3, loaded.hand.count);
+        assertEquals(Item.class, loaded.inventory.get(0).getClass());
+        assertEquals("dirt", loaded.inventory.get(0).id);
+    }
+
+    @Test
+    public void testTypeMismatch() {
+        CompoundTag tag = NBTMapper.fromObject(new Entity());
+        tag.getValue().put(new StringTag("health", "lots"));
+        tag.getValue().put(new IntTag("name", 5));
+        Entity loaded = NBTMapper.toObject(tag, Entity.class);
+        assertEquals(20, loaded.health);
+        assertNull(loaded.name);
+        assertNull(NBTMapper.getTagValue(new IntTag("", 1), String.class));
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.util;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test for {@link PackedBitArray}
+ */
+public class PackedBitArrayTest {
+    private static int[] randomValues(Random random, int bits, int size) {
+        int[] values = new int[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = bits == 32 ? random.nextInt() : random.nextInt() & ((1 << bits) - 1);
+        }
+        return values;
+    }
+
+    @Test
+    public void testSetAndUnpack() {
+        Random random = new Random(42);
+        for (boolean spanning : new boolean[] {true, false}) {
+            for (int bits = 1; bits <= 32; bits++) {
+                int[] values = randomValues(random, bits, 4096);
+                PackedBitArray array = new PackedBitArray(bits, values.length, spanning);
+                for (int i = 0; i < values.length; i++) {
+                    array.set(i, values[i]);
+                }
+                assertArrayEquals("bits=" + bits + ", spanning=" + spanning, values, array.unpack());
+            }
+        }
+    }
+
+    @Test
+    public void testPackAndGet() {
+        Random random = new Random(7);
+        for (boolean spanning : new boolean[] {true, false}) {
+            for (int bits = 1; bits <= 32; bits++) {
+                int[] values = randomValues(random, bits, 1000);
+                PackedBitArray array = new PackedBitArray(bits, values.length, spanning);
+                array.pack(values);
+                for (int i = 0; i < values.length; i++) {
+                    assertEquals("bits=" + bits + ", spanning=" + spanning + ", index=" + i, values[i], array.get(i));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testLayout() {
+        assertEquals(256, PackedBitArray.getRequiredLength(4, 4096, true));
+        assertEquals(37, PackedBitArray.getRequiredLength(9, 256, false));
+        assertEquals(36, PackedBitArray.getRequiredLength(9, 256, true));
+
+        PackedBitArray spanning = new PackedBitArray(5, 13, true);
+        spanning.set(12, 31);
+        assertEquals(0xFL << 60, spanning.getData()[0]);
+        assertEquals(1L, spanning.getData()[1]);
+
+        PackedBitArray padded = new PackedBitArray(5, 13, false);
+        padded.set(12, 31);
+        assertEquals(0L, padded.getData()[0]);
+        assertEquals(31L, padded.getData()[1]);
+    }
+}
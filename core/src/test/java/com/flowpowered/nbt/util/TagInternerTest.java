@@ -0,0 +1,127 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.flowpowered.nbt.ByteTag;
+import com.flowpowered.nbt.CompoundMap;
+import com.flowpowered.nbt.CompoundTag;
+import com.flowpowered.nbt.ListTag;
+import com.flowpowered.nbt.StringTag;
+import com.flowpowered.nbt.Tag;
+import com.flowpowered.nbt.stream.NBTInputStream;
+import com.flowpowered.nbt.stream.NBTOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Test for {@link TagInterner}
+ */
+public class TagInternerTest {
+    private static CompoundTag item(String id) {
+        CompoundMap map = new CompoundMap();
+        map.put(new StringTag("id", id));
+        map.put(new ByteTag("Count", (byte) 1));
+        return new CompoundTag("", map);
+    }
+
+    private static ListTag<CompoundTag> inventory() {
+        List<CompoundTag> items = new ArrayList<CompoundTag>();
+        items.add(item("stone"));
+        items.add(item("dirt"));
+        items.add(item("stone"));
+        return new ListTag<CompoundTag>("Inventory", CompoundTag.class, items);
+    }
+
+    @Test
+    public void testDedup() {
+        TagInterner interner = new TagInterner();
+        ListTag<CompoundTag> original = inventory();
+        @SuppressWarnings ("unchecked")
+        ListTag<CompoundTag> deduped = (ListTag<CompoundTag>) interner.dedup(original);
+
+        assertEquals(original, deduped);
+        assertSame(deduped.getValue().get(0), deduped.getValue().get(2));
+        assertNotSame(deduped.getValue().get(0), deduped.getValue().get(1));
+        assertSame(deduped, interner.dedup(inventory()));
+    }
+
+    @Test
+    public void testEmptyListsOfDifferentTypes() {
+        TagInterner interner = new TagInterner();
+        ListTag<ByteTag> bytes = new ListTag<ByteTag>("", ByteTag.class, new ArrayList<ByteTag>());
+        ListTag<CompoundTag> compounds = new ListTag<CompoundTag>("", CompoundTag.class, new ArrayList<CompoundTag>());
+        assertSame(bytes, interner.intern(bytes));
+        assertSame(compounds, interner.intern(compounds));
+    }
+
+    @Test
+    public void testInterningStream() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        NBTOutputStream os = new NBTOutputStream(bytes, false);
+        os.writeTag(inventory());
+        os.close();
+
+        NBTInputStream is = new NBTInputStream(new ByteArrayInputStream(bytes.toByteArray()), false, ByteOrder.BIG_ENDIAN, new TagInterner());
+        Tag<?> tag = is.readTag();
+        is.close();
+        List<?> items = ((ListTag<?>) tag).getValue();
+        assertEquals(inventory(), tag);
+        assertSame(items.get(0), items.get(2));
+    }
+
+    @Test
+    public void testInterningFilteredRead() throws IOException {
+        CompoundMap map = new CompoundMap();
+        map.put(inventory());
+        CompoundTag player = new CompoundTag("Player", map);
+        CompoundMap fullMap = new CompoundMap(map);
+        fullMap.put(new StringTag("Name", "Steve"));
+
+        TagInterner interner = new TagInterner();
+        Tag<?> canonical = read(player, interner).readTag();
+        CompoundTag filtered = read(new CompoundTag("Player", fullMap), interner).readCompound(Collections.singleton("Inventory"));
+        assertEquals(player, filtered);
+        assertSame(canonical, filtered);
+    }
+
+    private static NBTInputStream read(Tag<?> tag, TagInterner interner) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        NBTOutputStream os = new NBTOutputStream(bytes, false);
+        os.writeTag(tag);
+        os.close();
+        return new NBTInputStream(new ByteArrayInputStream(bytes.toByteArray()), false, ByteOrder.BIG_ENDIAN, interner);
+    }
+}
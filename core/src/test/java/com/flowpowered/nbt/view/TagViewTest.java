@@ -0,0 +1,95 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.view;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.flowpowered.nbt.CompoundMap;
+import com.flowpowered.nbt.CompoundTag;
+import com.flowpowered.nbt.DoubleTag;
+import com.flowpowered.nbt.IntArrayTag;
+import com.flowpowered.nbt.IntTag;
+import com.flowpowered.nbt.ListTag;
+import com.flowpowered.nbt.StringTag;
+import com.flowpowered.nbt.TagType;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Test for {@link TagBuffer} and {@link TagView}
+ */
+public class TagViewTest {
+    private CompoundTag root;
+
+    @Before
+    public void setUp() {
+        List<CompoundTag> sections = new ArrayList<CompoundTag>();
+        for (int i = 0; i < 4; i++) {
+            CompoundMap section = new CompoundMap();
+            section.put(new IntTag("Y", i));
+            section.put(new StringTag("Name", "section" + i));
+            sections.add(new CompoundTag("", section));
+        }
+        List<DoubleTag> pos = new ArrayList<DoubleTag>();
+        pos.add(new DoubleTag("", 1.5));
+        pos.add(new DoubleTag("", 64));
+        pos.add(new DoubleTag("", -3.25));
+
+        CompoundMap map = new CompoundMap();
+        map.put(new StringTag("id", "Pig"));
+        map.put(new ListTag<DoubleTag>("Pos", DoubleTag.class, pos));
+        map.put(new ListTag<CompoundTag>("Sections", CompoundTag.class, sections));
+        map.put(new IntArrayTag("Heights", new int[] {1, 2, 3, 4}));
+        root = new CompoundTag("Level", map);
+    }
+
+    @Test
+    public void testInPlaceAccess() throws IOException {
+        for (ByteOrder order : new ByteOrder[] {ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN}) {
+            TagView view = TagBuffer.allocate(root, order).getRoot();
+            assertEquals("Level", view.getName());
+            assertEquals(4, view.size());
+            assertEquals("Pig", view.get("id").getString());
+            assertNull(view.get("missing"));
+            assertEquals(TagType.TAG_DOUBLE, view.get("Pos").getElementType());
+            assertEquals(-3.25, view.get("Pos").get(2).getDouble(), 0);
+            assertEquals(2, view.get("Sections").get(2).get("Y").getInt());
+            assertEquals("section3", view.get("Sections").get(3).get("Name").getString());
+            assertArrayEquals(new int[] {1, 2, 3, 4}, view.get("Heights").getIntArray());
+        }
+    }
+
+    @Test
+    public void testToTag() throws IOException {
+        assertEquals(root, TagBuffer.allocate(root).getRoot().toTag());
+    }
+}
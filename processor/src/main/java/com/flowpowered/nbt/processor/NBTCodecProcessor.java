@@ -0,0 +1,281 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.processor;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+
+import com.flowpowered.nbt.holder.NBTCodecs;
+import com.flowpowered.nbt.holder.NBTField;
+
+/**
+ * Generates an {@link com.flowpowered.nbt.holder.NBTCodec} for every class with {@link NBTField} mapped fields. The generated codecs access the fields directly with straight-line code, so saving and
+ * loading needs neither reflection nor boxing.
+ * <p>
+ * The processor is registered as a service in the flow-nbt-processor jar, so it runs whenever a class using {@link NBTField} is compiled with that jar on the classpath or processor path. The library jar does not register it, so depending on the library alone never runs it. The generated codecs work on {@link
+ * com.flowpowered.nbt.CompoundMap CompoundMaps}; to stream an object, wrap the saved map in a compound tag and write it with {@link
+ * com.flowpowered.nbt.stream.NBTOutputStream#writeTag(com.flowpowered.nbt.Tag)}. Objects that should be encoded straight to
+ * a stream, without the intermediate tags, need a {@link com.flowpowered.nbt.holder.RecordCodec} and {@link com.flowpowered.nbt.stream.NBTOutputStream#writeTag(String, Object,
+ * com.flowpowered.nbt.stream.TagCodec)} instead.
+ */
+@SupportedAnnotationTypes ("com.flowpowered.nbt.holder.NBTField")
+public class NBTCodecProcessor extends AbstractProcessor {
+    private static final String NBT = "com.flowpowered.nbt.";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Messager messager = processingEnv.getMessager();
+        Map<TypeElement, List<MappedField>> classes = new LinkedHashMap<TypeElement, List<MappedField>>();
+        for (Element element : roundEnv.getElementsAnnotatedWith(NBTField.class)) {
+            if (element.getKind() != ElementKind.FIELD) {
+                continue;
+            }
+            Set<Modifier> modifiers = element.getModifiers();
+            if (modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.FINAL)) {
+                messager.printMessage(Diagnostic.Kind.ERROR, "@NBTField fields must be non-private, non-static and non-final", element);
+                continue;
+            }
+            TagKind kind = TagKind.of(element.asType());
+            if (kind == null) {
+                messager.printMessage(Diagnostic.Kind.ERROR, "Unsupported @NBTField type " + element.asType(), element);
+                continue;
+            }
+            TypeElement owner = (TypeElement) element.getEnclosingElement();
+            if (!isAccessible(owner)) {
+                messager.printMessage(Diagnostic.Kind.ERROR, "Classes with @NBTField fields must be non-private top level or static member classes", owner);
+                continue;
+            }
+            List<MappedField> fields = classes.get(owner);
+            if (fields == null) {
+                fields = new ArrayList<MappedField>();
+                classes.put(owner, fields);
+            }
+            fields.add(new MappedField(element.getSimpleName().toString(), element.getAnnotation(NBTField.class).value(), kind));
+        }
+
+        for (Map.Entry<TypeElement, List<MappedField>> entry : classes.entrySet()) {
+            try {
+                generate(entry.getKey(), entry.getValue());
+            } catch (IOException e) {
+                messager.printMessage(Diagnostic.Kind.ERROR, "Could not write codec: " + e.getMessage(), entry.getKey());
+            }
+        }
+        return true;
+    }
+
+    private static boolean isAccessible(TypeElement type) {
+        while (type.getNestingKind() == NestingKind.MEMBER) {
+            Set<Modifier> modifiers = type.getModifiers();
+            if (modifiers.contains(Modifier.PRIVATE) || !modifiers.contains(Modifier.STATIC)) {
+                return false;
+            }
+            type = (TypeElement) type.getEnclosingElement();
+        }
+        return type.getNestingKind() == NestingKind.TOP_LEVEL;
+    }
+
+    private void generate(TypeElement owner, List<MappedField> fields) throws IOException {
+        String packageName = processingEnv.getElementUtils().getPackageOf(owner).getQualifiedName().toString();
+        String codecName = NBTCodecs.getCodecName(processingEnv.getElementUtils().getBinaryName(owner).toString());
+        String simpleName = packageName.isEmpty() ? codecName : codecName.substring(packageName.length() + 1);
+        String type = owner.getQualifiedName().toString();
+
+        PrintWriter out = new PrintWriter(processingEnv.getFiler().createSourceFile(codecName, owner).openWriter());
+        try {
+            if (!packageName.isEmpty()) {
+                out.println("package " + packageName + ";");
+                out.println();
+            }
+            out.println("/**");
+            out.println(" * Codec for {@link " + type + "}, generated by " + NBTCodecProcessor.class.getName() + ". Do not edit.");
+            out.println(" */");
+            out.println("public final class " + simpleName + " implements com.flowpowered.nbt.holder.NBTCodec<" + type + "> {");
+
+            out.println("    public com.flowpowered.nbt.CompoundMap save(" + type + " object) {");
+            out.println("        com.flowpowered.nbt.CompoundMap map = new com.flowpowered.nbt.CompoundMap();");
+            out.println("        save(object, map);");
+            out.println("        return map;");
+            out.println("    }");
+            out.println();
+
+            out.println("    public void save(" + type + " object, com.flowpowered.nbt.CompoundMap map) {");
+            for (MappedField field : fields) {
+                String key = quote(field.key);
+                String value = "object." + field.name;
+                String create = field.kind.create(key, value);
+                if (field.kind.primitive) {
+                    out.println("        map.put(" + create + ");");
+                } else {
+                    out.println("        if (" + value + " != null) {");
+                    out.println("            map.put(" + create + ");");
+                    out.println("        }");
+                }
+            }
+            out.println("    }");
+            out.println();
+
+            out.println("    public void load(" + type + " object, com.flowpowered.nbt.CompoundMap map) {");
+            out.println("        com.flowpowered.nbt.Tag<?> tag;");
+            for (MappedField field : fields) {
+                out.println("        tag = map.get(" + quote(field.key) + ");");
+                out.println("        if (tag != null) {");
+                out.println("            object." + field.name + " = com.flowpowered.nbt.holder.FieldUtils.checkTagCast(tag, " + NBT + field.kind.tagClass + ".class)." + field.kind.getter + "();");
+                out.println("        }");
+            }
+            out.println("    }");
+            out.println("}");
+        } finally {
+            out.close();
+        }
+    }
+
+    private static String quote(String value) {
+        StringBuilder builder = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                builder.append('\\').append(c);
+            } else if (c < 0x20 || c > 0x7e) {
+                builder.append(String.format("\\u%04x", (int) c));
+            } else {
+                builder.append(c);
+            }
+        }
+        return builder.append('"').toString();
+    }
+
+    private static final class MappedField {
+        private final String name;
+        private final String key;
+        private final TagKind kind;
+
+        private MappedField(String name, String key, TagKind kind) {
+            this.name = name;
+            this.key = key;
+            this.kind = kind;
+        }
+    }
+
+    /**
+     * The supported field types, with the tag class holding them and how to convert between the two. Primitive values are never null and their tags are created with the caching valueOf.
+     */
+    private enum TagKind {
+        BYTE("ByteTag", "getByteValue", true),
+        BOOLEAN("ByteTag", "getBooleanValue", true),
+        SHORT("ShortTag", "getShortValue", true),
+        INT("IntTag", "getIntValue", true),
+        LONG("LongTag", "getLongValue", true),
+        FLOAT("FloatTag", "getFloatValue", true),
+        DOUBLE("DoubleTag", "getDoubleValue", true),
+        STRING("StringTag", "getValue", false),
+        BYTE_ARRAY("ByteArrayTag", "getValue", false),
+        SHORT_ARRAY("ShortArrayTag", "getValue", false),
+        INT_ARRAY("IntArrayTag", "getValue", false),
+        LONG_ARRAY("LongArrayTag", "getValue", false),
+        COMPOUND("CompoundTag", "getValue", false);
+        private final String tagClass;
+        private final String getter;
+        private final boolean primitive;
+
+        private TagKind(String tagClass, String getter, boolean primitive) {
+            this.tagClass = tagClass;
+            this.getter = getter;
+            this.primitive = primitive;
+        }
+
+        private String create(String key, String value) {
+            if (primitive) {
+                return NBT + tagClass + ".valueOf(" + key + ", " + value + ")";
+            }
+            return "new " + NBT + tagClass + "(" + key + ", " + value + ")";
+        }
+
+        private static TagKind of(TypeMirror type) {
+            switch (type.getKind()) {
+                case BYTE:
+                    return BYTE;
+                case BOOLEAN:
+                    return BOOLEAN;
+                case SHORT:
+                    return SHORT;
+                case INT:
+                    return INT;
+                case LONG:
+                    return LONG;
+                case FLOAT:
+                    return FLOAT;
+                case DOUBLE:
+                    return DOUBLE;
+                case ARRAY:
+                    TypeKind component = ((ArrayType) type).getComponentType().getKind();
+                    if (component == TypeKind.BYTE) {
+                        return BYTE_ARRAY;
+                    } else if (component == TypeKind.SHORT) {
+                        return SHORT_ARRAY;
+                    } else if (component == TypeKind.INT) {
+                        return INT_ARRAY;
+                    } else if (component == TypeKind.LONG) {
+                        return LONG_ARRAY;
+                    }
+                    return null;
+                case DECLARED:
+                    String name = ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().toString();
+                    if (name.equals("java.lang.String")) {
+                        return STRING;
+                    } else if (name.equals(NBT + "CompoundMap")) {
+                        return COMPOUND;
+                    }
+                    return null;
+                default:
+                    return null;
+            }
+        }
+    }
+}
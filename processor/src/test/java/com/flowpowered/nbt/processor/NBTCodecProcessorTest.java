@@ -0,0 +1,266 @@
+/*
+ * This file is part of Flow NBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2011 Flow Powered <https://flowpowered.com/>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flowpowered.nbt.processor;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.flowpowered.nbt.CompoundMap;
+import com.flowpowered.nbt.IntTag;
+import com.flowpowered.nbt.LongTag;
+import com.flowpowered.nbt.StringTag;
+import com.flowpowered.nbt.holder.NBTCodec;
+import com.flowpowered.nbt.holder.NBTCodecs;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test for {@link NBTCodecProcessor}. The sources are compiled with the processor at test time, and the generated codecs are loaded from the output.
+ */
+public class NBTCodecProcessorTest {
+    private static final String MAPPED = "package test;\n"
+            + "import com.flowpowered.nbt.CompoundMap;\n"
+            + "import com.flowpowered.nbt.holder.NBTField;\n"
+            + "public class Mapped {\n"
+            + "    @NBTField (\"Byte\") byte byteValue;\n"
+            + "    @NBTField (\"Flag\") boolean flag;\n"
+            + "    @NBTField (\"Short\") short shortValue;\n"
+            + "    @NBTField (\"Int\") int intValue;\n"
+            + "    @NBTField (\"Long\") long longValue;\n"
+            + "    @NBTField (\"Float\") float floatValue;\n"
+            + "    @NBTField (\"Double\") double doubleValue;\n"
+            + "    @NBTField (\"Name \\\"quoted\\\"\") String name;\n"
+            + "    @NBTField (\"Bytes\") byte[] bytes;\n"
+            + "    @NBTField (\"Shorts\") short[] shorts;\n"
+            + "    @NBTField (\"Ints\") int[] ints;\n"
+            + "    @NBTField (\"Longs\") long[] longs;\n"
+            + "    @NBTField (\"Compound\") CompoundMap compound;\n"
+            + "    public static class Inner {\n"
+            + "        @NBTField (\"Value\") int value;\n"
+            + "    }\n"
+            + "}\n";
+    private File output;
+    private URLClassLoader loader;
+
+    @Before
+    public void createOutput() throws IOException {
+        output = Files.createTempDirectory("nbt-processor").toFile();
+    }
+
+    @After
+    public void deleteOutput() throws IOException {
+        if (loader != null) {
+            loader.close();
+        }
+        delete(output);
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        Class<?> type = compileMapped();
+        NBTCodec<Object> codec = getCodec(type);
+        assertSame(codec, NBTCodecs.get(type));
+
+        Object mapped = type.getDeclaredConstructor().newInstance();
+        set(mapped, "byteValue", (byte) -3);
+        set(mapped, "flag", true);
+        set(mapped, "shortValue", (short) 1000);
+        set(mapped, "intValue", 123456);
+        set(mapped, "longValue", Long.MIN_VALUE);
+        set(mapped, "floatValue", 1.5f);
+        set(mapped, "doubleValue", -0.25);
+        set(mapped, "name", "test");
+        set(mapped, "bytes", new byte[] {1, 2, 3});
+        set(mapped, "shorts", new short[] {4, 5});
+        set(mapped, "ints", new int[] {6});
+        set(mapped, "longs", new long[] {7, 8, 9});
+        CompoundMap compound = new CompoundMap();
+        compound.put(new IntTag("Child", 10));
+        set(mapped, "compound", compound);
+
+        CompoundMap map = codec.save(mapped);
+        assertEquals(13, map.size());
+        assertEquals("test", map.get("Name \"quoted\"").getValue());
+
+        Object loaded = type.getDeclaredConstructor().newInstance();
+        codec.load(loaded, map);
+        assertEquals((byte) -3, get(loaded, "byteValue"));
+        assertEquals(true, get(loaded, "flag"));
+        assertEquals((short) 1000, get(loaded, "shortValue"));
+        assertEquals(123456, get(loaded, "intValue"));
+        assertEquals(Long.MIN_VALUE, get(loaded, "longValue"));
+        assertEquals(1.5f, get(loaded, "floatValue"));
+        assertEquals(-0.25, get(loaded, "doubleValue"));
+        assertEquals("test", get(loaded, "name"));
+        assertArrayEquals(new byte[] {1, 2, 3}, (byte[]) get(loaded, "bytes"));
+        assertArrayEquals(new short[] {4, 5}, (short[]) get(loaded, "shorts"));
+        assertArrayEquals(new int[] {6}, (int[]) get(loaded, "ints"));
+        assertArrayEquals(new long[] {7, 8, 9}, (long[]) get(loaded, "longs"));
+        assertEquals(compound, get(loaded, "compound"));
+    }
+
+    @Test
+    public void testNullAndMissing() throws Exception {
+        Class<?> type = compileMapped();
+        NBTCodec<Object> codec = getCodec(type);
+        CompoundMap map = codec.save(type.getDeclaredConstructor().newInstance());
+        assertEquals(7, map.size());
+        assertFalse(map.containsKey("Name \"quoted\""));
+
+        Object loaded = type.getDeclaredConstructor().newInstance();
+        set(loaded, "intValue", 42);
+        set(loaded, "name", "kept");
+        CompoundMap partial = new CompoundMap();
+        partial.put(new LongTag("Long", 5));
+        codec.load(loaded, partial);
+        assertEquals(42, get(loaded, "intValue"));
+        assertEquals("kept", get(loaded, "name"));
+        assertEquals(5L, get(loaded, "longValue"));
+
+        partial.put(new StringTag("Int", "1"));
+        try {
+            codec.load(loaded, partial);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    @Test
+    public void testNestedClass() throws Exception {
+        compileMapped();
+        Class<?> type = loader.loadClass("test.Mapped$Inner");
+        Object inner = type.getDeclaredConstructor().newInstance();
+        set(inner, "value", 7);
+        assertEquals(new IntTag("Value", 7), getCodec(type).save(inner).get("Value"));
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testNoCodec() {
+        NBTCodecs.get(NBTCodecProcessorTest.class);
+    }
+
+    @Test
+    public void testInvalidFields() throws IOException {
+        String source = "package test;\n"
+                + "import com.flowpowered.nbt.holder.NBTField;\n"
+                + "public class Invalid {\n"
+                + "    @NBTField (\"Private\") private int privateValue;\n"
+                + "    @NBTField (\"Object\") Object object;\n"
+                + "}\n";
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<JavaFileObject>();
+        assertFalse(compile("test.Invalid", source, diagnostics));
+        StringBuilder messages = new StringBuilder();
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+            messages.append(diagnostic.getMessage(null)).append('\n');
+        }
+        assertTrue(messages.toString(), messages.indexOf("must be non-private, non-static and non-final") >= 0);
+        assertTrue(messages.toString(), messages.indexOf("Unsupported @NBTField type java.lang.Object") >= 0);
+        assertFalse(new File(output, "test/InvalidNBTCodec.class").exists());
+    }
+
+    private Class<?> compileMapped() throws IOException, ClassNotFoundException {
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<JavaFileObject>();
+        assertTrue(diagnostics.getDiagnostics().toString(), compile("test.Mapped", MAPPED, diagnostics));
+        loader = new URLClassLoader(new URL[] {output.toURI().toURL()}, getClass().getClassLoader());
+        return loader.loadClass("test.Mapped");
+    }
+
+    @SuppressWarnings ("unchecked")
+    private static NBTCodec<Object> getCodec(Class<?> type) {
+        return (NBTCodec<Object>) NBTCodecs.get(type);
+    }
+
+    private static void set(Object object, String name, Object value) throws ReflectiveOperationException {
+        Field field = object.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(object, value);
+    }
+
+    private static Object get(Object object, String name) throws ReflectiveOperationException {
+        Field field = object.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        return field.get(object);
+    }
+
+    private boolean compile(String className, String source, DiagnosticCollector<JavaFileObject> diagnostics) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, null);
+        try {
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics,
+                    Arrays.asList("-classpath", System.getProperty("java.class.path"), "-d", output.getPath(), "-s", output.getPath()), null,
+                    Collections.singletonList(new SourceFile(className, source)));
+            task.setProcessors(Collections.singletonList(new NBTCodecProcessor()));
+            return task.call();
+        } finally {
+            fileManager.close();
+        }
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    private static class SourceFile extends SimpleJavaFileObject {
+        private final String source;
+
+        private SourceFile(String className, String source) {
+            super(URI.create("string:///" + className.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+            this.source = source;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return source;
+        }
+    }
+}